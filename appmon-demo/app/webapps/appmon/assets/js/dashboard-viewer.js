@@ -370,31 +370,12 @@ class DashboardViewer {
                 if (eventData.activities) {
                     this.printActivityStatus(exporterKey, eventData.activities);
                 }
-                if (this.visible) {
-                    const $track = this.getDisplay$(exporterKey);
-                    if ($track) {
-                        const varName = exporterKey.replace(/:/g, '_');
-                        if (!this.currentActivityCounts[varName]) {
-                            this.currentActivityCounts[varName] = 0;
-                            this.printCurrentActivityCount(exporterKey, 0);
-                        }
-                        this.launchBullet($track, eventData, () => {
-                            this.currentActivityCounts[varName]++;
-                            this.printCurrentActivityCount(exporterKey, this.currentActivityCounts[varName]);
-                        }, () => {
-                            if (this.currentActivityCounts[varName] > 0) {
-                                this.currentActivityCounts[varName]--;
-                            }
-                            this.printCurrentActivityCount(exporterKey, this.currentActivityCounts[varName]);
-                        });
-                    }
-                } else {
-                    this.printCurrentActivityCount(exporterKey, 0);
+                if (eventData.events) {
+                    eventData.events.forEach(activityEvent =>
+                        this.processActivityEvent(appId, exporterType, exporterKey, activityEvent));
+                } else if (eventData.elapsedTime !== undefined) {
+                    this.processActivityEvent(appId, exporterType, exporterKey, eventData);
                 }
-                this.updateActivityCount(
-                    appId + ":" + exporterType + ":session",
-                    eventData.sessionId,
-                    eventData.activityCount || 0);
                 break;
             case "session":
                 this.printSessionEventData(exporterKey, eventData);
@@ -402,6 +383,34 @@ class DashboardViewer {
         }
     }
 
+    processActivityEvent(appId, exporterType, exporterKey, activityEvent) {
+        if (this.visible) {
+            const $track = this.getDisplay$(exporterKey);
+            if ($track) {
+                const varName = exporterKey.replace(/:/g, '_');
+                if (!this.currentActivityCounts[varName]) {
+                    this.currentActivityCounts[varName] = 0;
+                    this.printCurrentActivityCount(exporterKey, 0);
+                }
+                this.launchBullet($track, activityEvent, () => {
+                    this.currentActivityCounts[varName]++;
+                    this.printCurrentActivityCount(exporterKey, this.currentActivityCounts[varName]);
+                }, () => {
+                    if (this.currentActivityCounts[varName] > 0) {
+                        this.currentActivityCounts[varName]--;
+                    }
+                    this.printCurrentActivityCount(exporterKey, this.currentActivityCounts[varName]);
+                });
+            }
+        } else {
+            this.printCurrentActivityCount(exporterKey, 0);
+        }
+        this.updateActivityCount(
+            appId + ":" + exporterType + ":session",
+            activityEvent.sessionId,
+            activityEvent.activityCount || 0);
+    }
+
     processMetricData(appId, exporterType, metricId, exporterKey, metricData) {
         const $metric = this.getMetric$(exporterKey);
         if ($metric) {
@@ -672,16 +681,18 @@ class DashboardViewer {
         const labels = chartData.labels;
         const data1 = chartData.data1;
         const data2 = chartData.data2.map(n => (eventId === "activity" ? n : null));
+        const data3 = (eventId === "activity" && chartData.p99 ? chartData.p99 : null);
 
         if (!dashboardChart.isDrawn() || !chartData.rolledUp) {
             dashboardChart.ensureCanvas();
-            this.pruneDataPoints(labels, data1, data2, dashboardChart.$container);
-            dashboardChart.draw(dateUnit, labels, data1, data2);
+            this.pruneDataPoints(labels, data1, data2, dashboardChart.$container, data3);
+            dashboardChart.draw(dateUnit, labels, data1, data2, data3);
             dashboardChart.dateOffset = dateOffset;
         } else if (!dateOffset) {
             if (!dateUnit) {
-                dashboardChart.rollup(labels, data1, data2);
-                this.pruneDataPoints(dashboardChart.getLabels(), dashboardChart.getDataset(0), dashboardChart.getDataset(1), dashboardChart.$container);
+                dashboardChart.rollup(labels, data1, data2, data3);
+                this.pruneDataPoints(dashboardChart.getLabels(), dashboardChart.getDataset(0), dashboardChart.getDataset(1),
+                    dashboardChart.$container, dashboardChart.getDataset(2));
                 dashboardChart.update();
             } else if (this.client) {
                 setTimeout(() => {
@@ -696,7 +707,7 @@ class DashboardViewer {
         }
     }
 
-    pruneDataPoints(labels, data1, data2, $container) {
+    pruneDataPoints(labels, data1, data2, $container, data3) {
         if (this.cachedCanvasWidth === 0) {
             let w = 0;
             if ($container) {
@@ -724,6 +735,9 @@ class DashboardViewer {
                 labels.splice(0, cnt);
                 data1.splice(0, cnt);
                 data2.splice(0, cnt);
+                if (data3) {
+                    data3.splice(0, cnt);
+                }
             }
         }
         return maxLabels;
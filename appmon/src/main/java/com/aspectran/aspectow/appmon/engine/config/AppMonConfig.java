@@ -37,6 +37,7 @@ public class AppMonConfig extends DefaultParameters {
 
     private static final ParameterKey pollingConfig;
     private static final ParameterKey counterPersistInterval;
+    private static final ParameterKey retentionConfig;
     private static final ParameterKey app;
 
     private static final ParameterKey[] parameterKeys;
@@ -44,11 +45,13 @@ public class AppMonConfig extends DefaultParameters {
     static {
         pollingConfig = new ParameterKey("pollingConfig", PollingConfig.class);
         counterPersistInterval = new ParameterKey("counterPersistInterval", ValueType.INT);
+        retentionConfig = new ParameterKey("retentionConfig", RetentionConfig.class);
         app = new ParameterKey("apps", new String[] {"app"}, AppInfo.class, true, true);
 
         parameterKeys = new ParameterKey[] {
                 pollingConfig,
                 counterPersistInterval,
+                retentionConfig,
                 app
         };
     }
@@ -109,6 +112,26 @@ public class AppMonConfig extends DefaultParameters {
         return getInt(counterPersistInterval, defaultValue);
     }
 
+    /**
+     * Gets the retention configuration of the persisted event counts.
+     * @return the retention configuration
+     */
+    public RetentionConfig getRetentionConfig() {
+        return getParameters(retentionConfig);
+    }
+
+    public RetentionConfig touchRetentionConfig() {
+        return touchParameters(retentionConfig);
+    }
+
+    /**
+     * Sets the retention configuration of the persisted event counts.
+     * @param retentionConfig the retention configuration
+     */
+    public void setRetentionConfig(RetentionConfig retentionConfig) {
+        putValue(AppMonConfig.retentionConfig, retentionConfig);
+    }
+
     /**
      * Gets the list of instance information.
      * @return the list of instance information
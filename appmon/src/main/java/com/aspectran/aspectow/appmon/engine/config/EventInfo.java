@@ -39,6 +39,21 @@ public class EventInfo extends DefaultParameters {
     private static final ParameterKey target;
     private static final ParameterKey parameters;
     private static final ParameterKey sampleInterval;
+    private static final ParameterKey batchInterval;
+    private static final ParameterKey maxBatchSize;
+    private static final ParameterKey maxTranslets;
+    private static final ParameterKey topTranslets;
+    private static final ParameterKey sessionFlushInterval;
+    private static final ParameterKey slowestActivities;
+    private static final ParameterKey captureParameters;
+    private static final ParameterKey measureResources;
+    private static final ParameterKey maxErrorTypes;
+    private static final ParameterKey trackActiveActivities;
+    private static final ParameterKey longRunningThreshold;
+    private static final ParameterKey measureQueueWait;
+    private static final ParameterKey heavyHitters;
+    private static final ParameterKey trustForwardedFor;
+    private static final ParameterKey targetEventRate;
 
     private static final ParameterKey[] parameterKeys;
 
@@ -51,6 +66,21 @@ public class EventInfo extends DefaultParameters {
         target = new ParameterKey("target", ValueType.STRING);
         parameters = new ParameterKey("parameters", ValueType.PARAMETERS);
         sampleInterval = new ParameterKey("sampleInterval", ValueType.INT);
+        batchInterval = new ParameterKey("batchInterval", ValueType.INT);
+        maxBatchSize = new ParameterKey("maxBatchSize", ValueType.INT);
+        maxTranslets = new ParameterKey("maxTranslets", ValueType.INT);
+        topTranslets = new ParameterKey("topTranslets", ValueType.INT);
+        sessionFlushInterval = new ParameterKey("sessionFlushInterval", ValueType.INT);
+        slowestActivities = new ParameterKey("slowestActivities", ValueType.INT);
+        captureParameters = new ParameterKey("captureParameters", ValueType.BOOLEAN);
+        measureResources = new ParameterKey("measureResources", ValueType.BOOLEAN);
+        maxErrorTypes = new ParameterKey("maxErrorTypes", ValueType.INT);
+        trackActiveActivities = new ParameterKey("trackActiveActivities", ValueType.BOOLEAN);
+        longRunningThreshold = new ParameterKey("longRunningThreshold", ValueType.INT);
+        measureQueueWait = new ParameterKey("measureQueueWait", ValueType.BOOLEAN);
+        heavyHitters = new ParameterKey("heavyHitters", ValueType.INT);
+        trustForwardedFor = new ParameterKey("trustForwardedFor", ValueType.BOOLEAN);
+        targetEventRate = new ParameterKey("targetEventRate", ValueType.INT);
 
         parameterKeys = new ParameterKey[] {
                 id,
@@ -60,7 +90,22 @@ public class EventInfo extends DefaultParameters {
                 counter,
                 target,
                 parameters,
-                sampleInterval
+                sampleInterval,
+                batchInterval,
+                maxBatchSize,
+                maxTranslets,
+                topTranslets,
+                sessionFlushInterval,
+                slowestActivities,
+                captureParameters,
+                measureResources,
+                maxErrorTypes,
+                trackActiveActivities,
+                longRunningThreshold,
+                measureQueueWait,
+                heavyHitters,
+                trustForwardedFor,
+                targetEventRate
         };
     }
 
@@ -259,6 +304,281 @@ public class EventInfo extends DefaultParameters {
         putValue(EventInfo.sampleInterval, sampleInterval);
     }
 
+    /**
+     * Returns the interval (in milliseconds) at which buffered events are
+     * published as a single batched message.
+     * @param defaultValue the default value to return if the interval is not set
+     * @return the batch interval
+     */
+    public int getBatchInterval(int defaultValue) {
+        return getInt(batchInterval, defaultValue);
+    }
+
+    /**
+     * Sets the interval (in milliseconds) at which buffered events are
+     * published as a single batched message.
+     * @param batchInterval the batch interval
+     */
+    public void setBatchInterval(int batchInterval) {
+        putValue(EventInfo.batchInterval, batchInterval);
+    }
+
+    /**
+     * Returns the maximum number of events to include in a single batched message.
+     * @param defaultValue the default value to return if the size is not set
+     * @return the maximum batch size
+     */
+    public int getMaxBatchSize(int defaultValue) {
+        return getInt(maxBatchSize, defaultValue);
+    }
+
+    /**
+     * Sets the maximum number of events to include in a single batched message.
+     * @param maxBatchSize the maximum batch size
+     */
+    public void setMaxBatchSize(int maxBatchSize) {
+        putValue(EventInfo.maxBatchSize, maxBatchSize);
+    }
+
+    /**
+     * Returns the maximum number of distinct translets whose activity is
+     * tracked individually within a single rollup period.
+     * @param defaultValue the default value to return if the number is not set
+     * @return the maximum number of tracked translets
+     */
+    public int getMaxTranslets(int defaultValue) {
+        return getInt(maxTranslets, defaultValue);
+    }
+
+    /**
+     * Sets the maximum number of distinct translets whose activity is
+     * tracked individually within a single rollup period.
+     * @param maxTranslets the maximum number of tracked translets
+     */
+    public void setMaxTranslets(int maxTranslets) {
+        putValue(EventInfo.maxTranslets, maxTranslets);
+    }
+
+    /**
+     * Returns the number of translets to report in each ranking of the
+     * per-translet activity breakdown.
+     * @param defaultValue the default value to return if the number is not set
+     * @return the number of top translets
+     */
+    public int getTopTranslets(int defaultValue) {
+        return getInt(topTranslets, defaultValue);
+    }
+
+    /**
+     * Sets the number of translets to report in each ranking of the
+     * per-translet activity breakdown.
+     * @param topTranslets the number of top translets
+     */
+    public void setTopTranslets(int topTranslets) {
+        putValue(EventInfo.topTranslets, topTranslets);
+    }
+
+    /**
+     * Returns the minimum interval, in seconds, between writes of the
+     * per-session activity count into the session attributes.
+     * @param defaultValue the default value to return if the interval is not set
+     * @return the session flush interval in seconds
+     */
+    public int getSessionFlushInterval(int defaultValue) {
+        return getInt(sessionFlushInterval, defaultValue);
+    }
+
+    /**
+     * Sets the minimum interval, in seconds, between writes of the
+     * per-session activity count into the session attributes.
+     * @param sessionFlushInterval the session flush interval in seconds
+     */
+    public void setSessionFlushInterval(int sessionFlushInterval) {
+        putValue(EventInfo.sessionFlushInterval, sessionFlushInterval);
+    }
+
+    /**
+     * Returns the number of slowest activities to keep for each rollup window.
+     * @param defaultValue the default value to return if the number is not set
+     * @return the number of slowest activities, or {@code 0} if none are kept
+     */
+    public int getSlowestActivities(int defaultValue) {
+        return getInt(slowestActivities, defaultValue);
+    }
+
+    /**
+     * Sets the number of slowest activities to keep for each rollup window.
+     * @param slowestActivities the number of slowest activities
+     */
+    public void setSlowestActivities(int slowestActivities) {
+        putValue(EventInfo.slowestActivities, slowestActivities);
+    }
+
+    /**
+     * Returns whether to capture the request parameters of the slowest activities.
+     * @return {@code true} if request parameters are captured, {@code false} otherwise
+     */
+    public boolean isCaptureParameters() {
+        return getBoolean(captureParameters, false);
+    }
+
+    /**
+     * Sets whether to capture the request parameters of the slowest activities.
+     * @param captureParameters {@code true} to capture request parameters
+     */
+    public void setCaptureParameters(boolean captureParameters) {
+        putValue(EventInfo.captureParameters, captureParameters);
+    }
+
+    /**
+     * Returns whether to measure the CPU time and heap allocation of each activity.
+     * @return {@code true} if resource usage is measured, {@code false} otherwise
+     */
+    public boolean isMeasureResources() {
+        return getBoolean(measureResources, false);
+    }
+
+    /**
+     * Sets whether to measure the CPU time and heap allocation of each activity.
+     * @param measureResources {@code true} to measure resource usage
+     */
+    public void setMeasureResources(boolean measureResources) {
+        putValue(EventInfo.measureResources, measureResources);
+    }
+
+    /**
+     * Returns the maximum number of error types counted individually
+     * within a single rollup period.
+     * @param defaultValue the default value to return if the number is not set
+     * @return the maximum number of error types
+     */
+    public int getMaxErrorTypes(int defaultValue) {
+        return getInt(maxErrorTypes, defaultValue);
+    }
+
+    /**
+     * Sets the maximum number of error types counted individually
+     * within a single rollup period.
+     * @param maxErrorTypes the maximum number of error types
+     */
+    public void setMaxErrorTypes(int maxErrorTypes) {
+        putValue(EventInfo.maxErrorTypes, maxErrorTypes);
+    }
+
+    /**
+     * Returns whether to keep a registry of the activities that are currently executing.
+     * The registry keeps a slot for each thread that has performed an activity until
+     * the thread terminates, so it is off unless enabled, and best left off where
+     * requests run on virtual threads.
+     * @return {@code true} if active activities are tracked, {@code false} otherwise
+     */
+    public boolean isTrackActiveActivities() {
+        return getBoolean(trackActiveActivities, false);
+    }
+
+    /**
+     * Sets whether to keep a registry of the activities that are currently executing.
+     * @param trackActiveActivities {@code true} to track active activities
+     */
+    public void setTrackActiveActivities(boolean trackActiveActivities) {
+        putValue(EventInfo.trackActiveActivities, trackActiveActivities);
+    }
+
+    /**
+     * Returns the time in milliseconds an activity must have been running
+     * before it is reported as long-running.
+     * @param defaultValue the default value to return if the threshold is not set
+     * @return the long-running threshold in milliseconds
+     */
+    public int getLongRunningThreshold(int defaultValue) {
+        return getInt(longRunningThreshold, defaultValue);
+    }
+
+    /**
+     * Sets the time in milliseconds an activity must have been running
+     * before it is reported as long-running.
+     * @param longRunningThreshold the long-running threshold in milliseconds
+     */
+    public void setLongRunningThreshold(int longRunningThreshold) {
+        putValue(EventInfo.longRunningThreshold, longRunningThreshold);
+    }
+
+    /**
+     * Returns whether to measure how long each request waited for a worker
+     * thread before its activity started.
+     * @return {@code true} if the queue wait is measured, {@code false} otherwise
+     */
+    public boolean isMeasureQueueWait() {
+        return getBoolean(measureQueueWait, false);
+    }
+
+    /**
+     * Sets whether to measure how long each request waited for a worker
+     * thread before its activity started.
+     * @param measureQueueWait {@code true} to measure the queue wait
+     */
+    public void setMeasureQueueWait(boolean measureQueueWait) {
+        putValue(EventInfo.measureQueueWait, measureQueueWait);
+    }
+
+    /**
+     * Returns the number of clients and sessions performing the most activities
+     * to report for each rollup window.
+     * @param defaultValue the default value to return if the number is not set
+     * @return the number of heavy hitters, or {@code 0} if none are tracked
+     */
+    public int getHeavyHitters(int defaultValue) {
+        return getInt(heavyHitters, defaultValue);
+    }
+
+    /**
+     * Sets the number of clients and sessions performing the most activities
+     * to report for each rollup window.
+     * @param heavyHitters the number of heavy hitters
+     */
+    public void setHeavyHitters(int heavyHitters) {
+        putValue(EventInfo.heavyHitters, heavyHitters);
+    }
+
+    /**
+     * Returns whether to identify heavy-hitter clients by the first address of
+     * {@code X-Forwarded-For} instead of the address the request came from.
+     * Enable it only behind a proxy that sets the header, since any client
+     * can send one of its own.
+     * @return {@code true} if the forwarded address is trusted, {@code false} otherwise
+     */
+    public boolean isTrustForwardedFor() {
+        return getBoolean(trustForwardedFor, false);
+    }
+
+    /**
+     * Sets whether to identify heavy-hitter clients by the first address of
+     * {@code X-Forwarded-For} instead of the address the request came from.
+     * @param trustForwardedFor {@code true} to trust the forwarded address
+     */
+    public void setTrustForwardedFor(boolean trustForwardedFor) {
+        putValue(EventInfo.trustForwardedFor, trustForwardedFor);
+    }
+
+    /**
+     * Returns the number of per-request events per second to relay, above which
+     * they are down-sampled.
+     * @param defaultValue the default value to return if the rate is not set
+     * @return the target event rate, or {@code 0} if events are not sampled
+     */
+    public int getTargetEventRate(int defaultValue) {
+        return getInt(targetEventRate, defaultValue);
+    }
+
+    /**
+     * Sets the number of per-request events per second to relay, above which
+     * they are down-sampled.
+     * @param targetEventRate the target event rate
+     */
+    public void setTargetEventRate(int targetEventRate) {
+        putValue(EventInfo.targetEventRate, targetEventRate);
+    }
+
     /**
      * Validates that all required configuration parameters for the event are present.
      * @throws IllegalArgumentException if any required parameter is missing
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.config;
+
+import com.aspectran.utils.apon.DefaultParameters;
+import com.aspectran.utils.apon.ParameterKey;
+import com.aspectran.utils.apon.ValueType;
+
+/**
+ * Configuration for the retention of persisted event counts.
+ * This class holds how many days the data of each tier is kept
+ * before the retention job removes it; a value of zero keeps it forever.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+public class RetentionConfig extends DefaultParameters {
+
+    public static final int DEFAULT_RAW_DAYS = 14;
+
+    public static final int DEFAULT_HOURLY_DAYS = 730;
+
+    public static final int DEFAULT_DAILY_DAYS = 0;
+
+    public static final int DEFAULT_MONTHLY_DAYS = 0;
+
+    public static final int DEFAULT_ERROR_DAYS = 14;
+
+    public static final int DEFAULT_BATCH_SIZE = 5000;
+
+    private static final ParameterKey rawDays;
+    private static final ParameterKey hourlyDays;
+    private static final ParameterKey dailyDays;
+    private static final ParameterKey monthlyDays;
+    private static final ParameterKey errorDays;
+    private static final ParameterKey batchSize;
+    private static final ParameterKey dropPartitions;
+
+    private static final ParameterKey[] parameterKeys;
+
+    static {
+        rawDays = new ParameterKey("rawDays", ValueType.INT);
+        hourlyDays = new ParameterKey("hourlyDays", ValueType.INT);
+        dailyDays = new ParameterKey("dailyDays", ValueType.INT);
+        monthlyDays = new ParameterKey("monthlyDays", ValueType.INT);
+        errorDays = new ParameterKey("errorDays", ValueType.INT);
+        batchSize = new ParameterKey("batchSize", ValueType.INT);
+        dropPartitions = new ParameterKey("dropPartitions", ValueType.BOOLEAN);
+
+        parameterKeys = new ParameterKey[] {
+                rawDays,
+                hourlyDays,
+                dailyDays,
+                monthlyDays,
+                errorDays,
+                batchSize,
+                dropPartitions
+        };
+    }
+
+    public RetentionConfig() {
+        super(parameterKeys);
+    }
+
+    /**
+     * Gets the number of days to keep the raw event counts.
+     * @return the number of days, or {@code 0} to keep them forever
+     */
+    public int getRawDays() {
+        return getInt(rawDays, DEFAULT_RAW_DAYS);
+    }
+
+    /**
+     * Sets the number of days to keep the raw event counts.
+     * @param rawDays the number of days, or {@code 0} to keep them forever
+     */
+    public void setRawDays(int rawDays) {
+        putValue(RetentionConfig.rawDays, rawDays);
+    }
+
+    /**
+     * Gets the number of days to keep the hourly event counts.
+     * @return the number of days, or {@code 0} to keep them forever
+     */
+    public int getHourlyDays() {
+        return getInt(hourlyDays, DEFAULT_HOURLY_DAYS);
+    }
+
+    /**
+     * Sets the number of days to keep the hourly event counts.
+     * @param hourlyDays the number of days, or {@code 0} to keep them forever
+     */
+    public void setHourlyDays(int hourlyDays) {
+        putValue(RetentionConfig.hourlyDays, hourlyDays);
+    }
+
+    /**
+     * Gets the number of days to keep the daily event counts.
+     * @return the number of days, or {@code 0} to keep them forever
+     */
+    public int getDailyDays() {
+        return getInt(dailyDays, DEFAULT_DAILY_DAYS);
+    }
+
+    /**
+     * Sets the number of days to keep the daily event counts.
+     * @param dailyDays the number of days, or {@code 0} to keep them forever
+     */
+    public void setDailyDays(int dailyDays) {
+        putValue(RetentionConfig.dailyDays, dailyDays);
+    }
+
+    /**
+     * Gets the number of days to keep the monthly event counts.
+     * @return the number of days, or {@code 0} to keep them forever
+     */
+    public int getMonthlyDays() {
+        return getInt(monthlyDays, DEFAULT_MONTHLY_DAYS);
+    }
+
+    /**
+     * Sets the number of days to keep the monthly event counts.
+     * @param monthlyDays the number of days, or {@code 0} to keep them forever
+     */
+    public void setMonthlyDays(int monthlyDays) {
+        putValue(RetentionConfig.monthlyDays, monthlyDays);
+    }
+
+    /**
+     * Gets the number of days to keep the error counts by error type.
+     * @return the number of days, or {@code 0} to keep them forever
+     */
+    public int getErrorDays() {
+        return getInt(errorDays, DEFAULT_ERROR_DAYS);
+    }
+
+    /**
+     * Sets the number of days to keep the error counts by error type.
+     * @param errorDays the number of days, or {@code 0} to keep them forever
+     */
+    public void setErrorDays(int errorDays) {
+        putValue(RetentionConfig.errorDays, errorDays);
+    }
+
+    /**
+     * Gets the maximum number of rows removed by a single delete statement.
+     * @return the batch size
+     */
+    public int getBatchSize() {
+        return getInt(batchSize, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Sets the maximum number of rows removed by a single delete statement.
+     * @param batchSize the batch size
+     */
+    public void setBatchSize(int batchSize) {
+        putValue(RetentionConfig.batchSize, batchSize);
+    }
+
+    /**
+     * Returns whether this node drops the partitions of partitioned tables
+     * that lie entirely before the retention period. A partition holds the
+     * rows of every node, so this should be enabled on a single node only,
+     * with the retention periods that are meant to apply to all of them.
+     * @return {@code true} if this node drops expired partitions, {@code false} otherwise
+     */
+    public boolean isDropPartitions() {
+        return getBoolean(dropPartitions, false);
+    }
+
+    /**
+     * Sets whether this node drops the partitions of partitioned tables
+     * that lie entirely before the retention period.
+     * @param dropPartitions {@code true} to drop expired partitions
+     */
+    public void setDropPartitions(boolean dropPartitions) {
+        putValue(RetentionConfig.dropPartitions, dropPartitions);
+    }
+
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.exporter.event;
+
+import org.jspecify.annotations.NonNull;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * A bounded, least-recently-used cache of the chart data served to viewers,
+ * held in its serialized JSON form.
+ * <p>Chart data only changes when counters are rolled up and written to the
+ * database, so entries stay valid until then. Every invalidation advances a
+ * generation number, and an entry computed under an older generation is
+ * discarded rather than stored, so that a query that was already running
+ * when the data changed cannot put stale data back into the cache.</p>
+ * <p>Concurrent lookups of the same chart that miss the cache are coalesced:
+ * the first one queries the database, and the others wait for its result
+ * instead of issuing the same query themselves.</p>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+public class ChartDataCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+
+    private final int maxEntries;
+
+    private final Map<String, String> entries;
+
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    private long generation;
+
+    private long hits;
+
+    private long misses;
+
+    private long invalidations;
+
+    private long coalesced;
+
+    /**
+     * Instantiates a new ChartDataCache with the default capacity.
+     */
+    public ChartDataCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Instantiates a new ChartDataCache.
+     * @param maxEntries the maximum number of entries to hold
+     */
+    public ChartDataCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return (size() > ChartDataCache.this.maxEntries);
+            }
+        };
+    }
+
+    /**
+     * Creates the cache key of the chart data of an event.
+     * @param nodeId the node identifier
+     * @param appId the app identifier
+     * @param eventId the event identifier
+     * @param dateUnit the date unit of the chart, or {@code null} for raw data
+     * @param zoneOffset the time zone offset in seconds
+     * @param dateOffset the date/time before which the data is fetched, or {@code null}
+     * @return the cache key
+     */
+    @NonNull
+    public static String createKey(
+            String nodeId, String appId, String eventId,
+            String dateUnit, int zoneOffset, LocalDateTime dateOffset) {
+        return createPrefix(nodeId, appId, eventId) + dateUnit + "|" + zoneOffset + "|" + dateOffset;
+    }
+
+    /**
+     * Creates the prefix shared by the cache keys of all chart data of an event.
+     * @param nodeId the node identifier
+     * @param appId the app identifier
+     * @param eventId the event identifier
+     * @return the cache key prefix
+     */
+    @NonNull
+    public static String createPrefix(String nodeId, String appId, String eventId) {
+        return nodeId + "|" + appId + "|" + eventId + "|";
+    }
+
+    /**
+     * Returns the cached chart data for the given key.
+     * @param key the cache key
+     * @return the chart data in JSON, or {@code null} if it is not cached
+     */
+    public synchronized String get(String key) {
+        String json = entries.get(key);
+        if (json != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return json;
+    }
+
+    /**
+     * Returns the cached chart data for the given key, loading it if it is not
+     * cached. If the same chart is already being loaded by another thread,
+     * waits for that load to complete and returns its result.
+     * @param key the cache key
+     * @param loader the function that queries the chart data in JSON
+     * @return the chart data in JSON
+     */
+    public String get(String key, @NonNull Supplier<String> loader) {
+        String json = get(key);
+        if (json != null) {
+            return json;
+        }
+
+        CompletableFuture<String> future = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            synchronized (this) {
+                coalesced++;
+            }
+            return await(existing);
+        }
+
+        try {
+            long generation;
+            synchronized (this) {
+                json = entries.get(key);
+                generation = this.generation;
+            }
+            if (json == null) {
+                json = loader.get();
+                put(key, json, generation);
+            }
+            future.complete(json);
+            return json;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Returns the current generation, which must be read before the chart
+     * data is queried and passed to {@link #put(String, String, long)}.
+     * @return the current generation
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Caches the chart data for the given key, unless the cache has been
+     * invalidated since the given generation.
+     * @param key the cache key
+     * @param json the chart data in JSON
+     * @param generation the generation read before the data was queried
+     */
+    public synchronized void put(String key, String json, long generation) {
+        if (this.generation == generation) {
+            entries.put(key, json);
+        }
+    }
+
+    /**
+     * Removes the cached chart data of all events.
+     */
+    public synchronized void invalidate() {
+        generation++;
+        invalidations++;
+        entries.clear();
+    }
+
+    /**
+     * Removes the cached chart data whose keys start with the given prefix.
+     * @param prefix the cache key prefix
+     * @see #createPrefix(String, String, String)
+     */
+    public synchronized void invalidate(String prefix) {
+        generation++;
+        invalidations++;
+        for (Iterator<String> it = entries.keySet().iterator(); it.hasNext(); ) {
+            if (it.next().startsWith(prefix)) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of entries currently cached.
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the maximum number of entries the cache holds.
+     * @return the maximum number of entries
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Returns the number of lookups that found cached chart data.
+     * @return the number of hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that did not find cached chart data,
+     * including those that shared a query already in flight.
+     * @return the number of misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of lookups that shared a query already in flight
+     * instead of querying the database themselves.
+     * @return the number of coalesced lookups
+     */
+    public synchronized long getCoalesced() {
+        return coalesced;
+    }
+
+    /**
+     * Returns the number of times cached chart data has been invalidated.
+     * @return the number of invalidations
+     */
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    private static String await(@NonNull CompletableFuture<String> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw e;
+        }
+    }
+
+}
@@ -43,6 +43,14 @@ import java.util.List;
  * An exporter that generates chart data from event counts.
  * It can query historical data from the database and also listen for real-time
  * rollup events from an {@link EventCount} instance.
+ * <p>Query results are kept in the shared {@link ChartDataCache} until
+ * the counters are rolled up or written to the database again, and viewers
+ * requesting the same chart at the same time share a single query.</p>
+ * <p>Day, month and year charts are read from the counts kept by UTC day and
+ * month, whatever the viewer's time zone, so that each chart is built from about
+ * a hundred pre-aggregated rows. Each bucket is labeled with its calendar date
+ * in the viewer's time zone; for a viewer outside UTC, its boundaries are
+ * therefore off from the local day or month by the zone offset.</p>
  *
  * <p>Created: 2024-12-18</p>
  */
@@ -93,11 +101,15 @@ public class ChartDataExporter extends AbstractExporter implements EventCountRol
     }
 
     /**
-     * Called when an event count is rolled up. Broadcasts the new data point.
+     * Called when an event count is rolled up. Invalidates the cached chart data
+     * of the event and broadcasts the new data point.
      * @param eventCount the event count that was rolled up
      */
     @Override
     public void onRolledUp(@NonNull EventCount eventCount) {
+        exporterManager.getAppMonManager().getChartDataCache().invalidate(ChartDataCache.createPrefix(
+                eventInfo.getNodeId(), eventInfo.getAppId(), eventInfo.getEventId()));
+
         LocalDateTime dt = eventCount.getTallied().getDatetime();
         if (dt == null) {
             return;
@@ -107,7 +119,10 @@ public class ChartDataExporter extends AbstractExporter implements EventCountRol
         String[] labels = new String[] { datetime };
         long[] data1 = new long[] { eventCount.getTallied().getDelta() };
         long[] data2 = new long[] { eventCount.getTallied().getError() };
-        String message = toJson(null, null, labels, data1, data2, true);
+        long[] p50 = new long[] { eventCount.getTallied().getP50() };
+        long[] p95 = new long[] { eventCount.getTallied().getP95() };
+        long[] p99 = new long[] { eventCount.getTallied().getP99() };
+        String message = toJson(null, null, labels, data1, data2, p50, p95, p99, true);
         broadcast(message);
     }
 
@@ -130,7 +145,13 @@ public class ChartDataExporter extends AbstractExporter implements EventCountRol
             try {
                 ZonedDateTime utcOffset = ZonedDateTime.parse(dateOffsetStr);
                 ZonedDateTime truncated = truncateToUnit(utcOffset.toLocalDateTime(), dateUnit, zoneOffsetInSeconds);
-                dateOffset = truncated.toLocalDateTime();
+                if (isCalendarUnit(dateUnit)) {
+                    // Look up the stored UTC period of the same calendar date
+                    dateOffset = truncated.withZoneSameInstant(ZoneOffset.ofTotalSeconds(zoneOffsetInSeconds))
+                            .toLocalDate().atStartOfDay();
+                } else {
+                    dateOffset = truncated.toLocalDateTime();
+                }
             } catch (Exception e) {
                 if (logger.isDebugEnabled()) {
                     logger.debug("Failed to parse dateOffset: {}", dateOffsetStr);
@@ -138,19 +159,28 @@ public class ChartDataExporter extends AbstractExporter implements EventCountRol
             }
         }
 
+        ChartDataCache chartDataCache = exporterManager.getAppMonManager().getChartDataCache();
+        String cacheKey = ChartDataCache.createKey(eventInfo.getNodeId(), eventInfo.getAppId(),
+                eventInfo.getEventId(), dateUnit, zoneOffsetInSeconds, dateOffset);
         final int finalZoneOffsetInSeconds = zoneOffsetInSeconds;
         final LocalDateTime finalDateOffset = dateOffset;
+        return chartDataCache.get(cacheKey, () ->
+                queryChartData(dateUnit, finalZoneOffsetInSeconds, finalDateOffset));
+    }
+
+    @NonNull
+    private String queryChartData(String dateUnit, int zoneOffsetInSeconds, LocalDateTime dateOffset) {
         EventCountMapper dao = exporterManager.getBean("appmon.eventCountDao");
         List<EventCountVO> list = exporterManager.instantActivity(() -> {
             String nodeId = eventInfo.getNodeId();
             String appId = eventInfo.getAppId();
             String eventId = eventInfo.getEventId();
             return switch (dateUnit) {
-                case "hour" -> dao.getChartDataByHour(nodeId, appId, eventId, finalZoneOffsetInSeconds, finalDateOffset);
-                case "day" -> dao.getChartDataByDay(nodeId, appId, eventId, finalZoneOffsetInSeconds, finalDateOffset);
-                case "month" -> dao.getChartDataByMonth(nodeId, appId, eventId, finalZoneOffsetInSeconds, finalDateOffset);
-                case "year" -> dao.getChartDataByYear(nodeId, appId, eventId, finalZoneOffsetInSeconds, finalDateOffset);
-                case null, default -> dao.getChartData(nodeId, appId, eventId, finalDateOffset);
+                case "hour" -> dao.getChartDataByHour(nodeId, appId, eventId, zoneOffsetInSeconds, dateOffset);
+                case "day" -> dao.getChartDataByDay(nodeId, appId, eventId, zoneOffsetInSeconds, dateOffset);
+                case "month" -> dao.getChartDataByMonth(nodeId, appId, eventId, zoneOffsetInSeconds, dateOffset);
+                case "year" -> dao.getChartDataByYear(nodeId, appId, eventId, zoneOffsetInSeconds, dateOffset);
+                case null, default -> dao.getChartData(nodeId, appId, eventId, dateOffset);
             };
         });
 
@@ -158,24 +188,54 @@ public class ChartDataExporter extends AbstractExporter implements EventCountRol
         String[] labels = new String[size];
         long[] data1 = new long[size];
         long[] data2 = new long[size];
+        long[] p50 = new long[size];
+        long[] p95 = new long[size];
+        long[] p99 = new long[size];
         for (int i = 0; i < size; i++) {
             EventCountVO vo = list.get(i);
             labels[i] = normalizeDatetime(vo.getDatetime(), dateUnit, zoneOffsetInSeconds);
             data1[i] = vo.getDelta();
             data2[i] = vo.getError();
+            p50[i] = vo.getP50();
+            p95[i] = vo.getP95();
+            p99[i] = vo.getP99();
         }
 
-        String effectiveDateOffset = (dateOffset != null ?
-                dateOffset.atZone(ZoneOffset.UTC).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME) : null);
-        return toJson(dateUnit, effectiveDateOffset, labels, data1, data2, false);
+        String effectiveDateOffset = null;
+        if (dateOffset != null) {
+            ZonedDateTime effective = (isCalendarUnit(dateUnit) ?
+                    toCalendarDate(dateOffset, dateUnit, zoneOffsetInSeconds) : dateOffset.atZone(ZoneOffset.UTC));
+            effectiveDateOffset = effective.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+        }
+        return toJson(dateUnit, effectiveDateOffset, labels, data1, data2, p50, p95, p99, false);
     }
 
     @Nullable
     private String normalizeDatetime(LocalDateTime datetime, String dateUnit, int zoneOffsetInSeconds) {
-        ZonedDateTime truncated = truncateToUnit(datetime, dateUnit, zoneOffsetInSeconds);
+        ZonedDateTime truncated;
+        if (datetime != null && isCalendarUnit(dateUnit)) {
+            truncated = toCalendarDate(datetime, dateUnit, zoneOffsetInSeconds);
+        } else {
+            truncated = truncateToUnit(datetime, dateUnit, zoneOffsetInSeconds);
+        }
         return (truncated != null ? truncated.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME) : null);
     }
 
+    /**
+     * Returns the start of the same calendar date in the viewer's time zone
+     * as the start of a day, month or year kept in UTC.
+     */
+    @NonNull
+    private ZonedDateTime toCalendarDate(@NonNull LocalDateTime datetime, String dateUnit, int zoneOffsetInSeconds) {
+        ZonedDateTime utcPeriod = truncateToUnit(datetime, dateUnit, 0);
+        return utcPeriod.toLocalDate().atStartOfDay(ZoneOffset.ofTotalSeconds(zoneOffsetInSeconds))
+                .withZoneSameInstant(ZoneOffset.UTC);
+    }
+
+    private static boolean isCalendarUnit(String dateUnit) {
+        return ("day".equals(dateUnit) || "month".equals(dateUnit) || "year".equals(dateUnit));
+    }
+
     private ZonedDateTime truncateToUnit(LocalDateTime datetime, String dateUnit, int zoneOffsetInSeconds) {
         if (datetime == null) {
             return null;
@@ -204,7 +264,7 @@ public class ChartDataExporter extends AbstractExporter implements EventCountRol
 
     private String toJson(
             String dateUnit, String dateOffset, String[] labels,
-            long[] data1, long[] data2, boolean rolledUp) {
+            long[] data1, long[] data2, long[] p50, long[] p95, long[] p99, boolean rolledUp) {
         return new JsonBuilder()
                 .prettyPrint(false)
                 .nullWritable(false)
@@ -214,6 +274,9 @@ public class ChartDataExporter extends AbstractExporter implements EventCountRol
                     .put("labels", labels)
                     .put("data1", data1)
                     .put("data2", data2)
+                    .put("p50", p50)
+                    .put("p95", p95)
+                    .put("p99", p99)
                     .put("rolledUp", rolledUp)
                 .endObject()
                 .toString();
@@ -17,7 +17,11 @@ package com.aspectran.aspectow.appmon.engine.exporter.event;
 
 import com.aspectran.aspectow.appmon.engine.config.EventInfo;
 import com.aspectran.aspectow.appmon.engine.exporter.ExporterManager;
+import com.aspectran.aspectow.appmon.engine.exporter.event.activity.ActiveActivityReader;
 import com.aspectran.aspectow.appmon.engine.exporter.event.activity.ActivityEventReader;
+import com.aspectran.aspectow.appmon.engine.exporter.event.activity.HeavyHitterReader;
+import com.aspectran.aspectow.appmon.engine.exporter.event.activity.SlowestActivityReader;
+import com.aspectran.aspectow.appmon.engine.exporter.event.rate.EventRateReader;
 import com.aspectran.aspectow.appmon.engine.exporter.event.session.SessionEventReader;
 import com.aspectran.aspectow.appmon.engine.persist.counter.EventCount;
 import com.aspectran.utils.ClassUtils;
@@ -68,6 +72,14 @@ public abstract class EventExporterBuilder {
                 return new ActivityEventReader(exporterManager, eventInfo, eventCount);
             } else if ("session".equals(eventInfo.getEventId())) {
                 return new SessionEventReader(exporterManager, eventInfo, eventCount);
+            } else if ("slowest".equals(eventInfo.getEventId())) {
+                return new SlowestActivityReader(exporterManager, eventInfo, eventCount);
+            } else if ("active".equals(eventInfo.getEventId())) {
+                return new ActiveActivityReader(exporterManager, eventInfo, eventCount);
+            } else if ("clients".equals(eventInfo.getEventId())) {
+                return new HeavyHitterReader(exporterManager, eventInfo, eventCount);
+            } else if ("rates".equals(eventInfo.getEventId())) {
+                return new EventRateReader(exporterManager, eventInfo, eventCount);
             } else {
                 throw new IllegalArgumentException("No event reader specified for " + eventInfo.getEventId() + " " + eventInfo);
             }
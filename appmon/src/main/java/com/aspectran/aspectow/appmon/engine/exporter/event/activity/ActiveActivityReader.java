@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.exporter.event.activity;
+
+import com.aspectran.aspectow.appmon.engine.config.EventInfo;
+import com.aspectran.aspectow.appmon.engine.exporter.ExporterManager;
+import com.aspectran.aspectow.appmon.engine.exporter.event.AbstractEventReader;
+import com.aspectran.aspectow.appmon.engine.persist.counter.EventCount;
+import com.aspectran.aspectow.appmon.engine.persist.counter.EventCounter;
+import com.aspectran.aspectow.appmon.engine.persist.counter.activity.ActiveActivities;
+import com.aspectran.aspectow.appmon.engine.persist.counter.activity.ActiveActivity;
+import com.aspectran.aspectow.appmon.engine.persist.counter.activity.ActivityEventCounter;
+import com.aspectran.utils.json.JsonBuilder;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Reads the activities that have been running longer than a threshold
+ * and have not finished yet, so that a stuck request can be seen while
+ * it is still stuck.
+ * The activities are registered by the {@link ActivityEventCounter} of the
+ * activity event named by the target of this event, in the same app.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+public class ActiveActivityReader extends AbstractEventReader {
+
+    static final int DEFAULT_LONG_RUNNING_THRESHOLD = 3000;
+
+    private static final int MAX_ACTIVITIES = 50;
+
+    private final long longRunningThreshold;
+
+    private ActiveActivities activeActivities;
+
+    private volatile boolean lastEmpty = true;
+
+    /**
+     * Instantiates a new ActiveActivityReader.
+     * @param exporterManager the exporter manager
+     * @param eventInfo the event configuration
+     * @param eventCount the event counter, can be {@code null}
+     */
+    public ActiveActivityReader(
+            @NonNull ExporterManager exporterManager,
+            @NonNull EventInfo eventInfo,
+            @Nullable EventCount eventCount) {
+        super(exporterManager, eventInfo, eventCount);
+        int longRunningThreshold = eventInfo.getLongRunningThreshold(DEFAULT_LONG_RUNNING_THRESHOLD);
+        this.longRunningThreshold = (longRunningThreshold >= 0 ? longRunningThreshold : DEFAULT_LONG_RUNNING_THRESHOLD);
+    }
+
+    @Override
+    public void start() throws Exception {
+        if (activeActivities == null) {
+            String activityEventId = getEventInfo().getTarget();
+            EventCounter eventCounter = getExporterManager().getAppMonManager().getPersistManager()
+                    .getCounterPersist().getEventCounter(getEventInfo().getAppId(), activityEventId);
+            if (!(eventCounter instanceof ActivityEventCounter activityEventCounter)) {
+                throw new IllegalStateException("No ActivityEventCounter found for event '" +
+                        activityEventId + "' of app '" + getEventInfo().getAppId() + "'");
+            }
+            activeActivities = activityEventCounter.getActiveActivities();
+            if (activeActivities == null) {
+                throw new IllegalStateException("Active activities are not tracked for event '" +
+                        activityEventId + "' of app '" + getEventInfo().getAppId() +
+                        "'; enable trackActiveActivities for that event");
+            }
+        }
+        lastEmpty = true;
+    }
+
+    @Override
+    public void stop() {
+    }
+
+    @Override
+    public String read() {
+        if (activeActivities == null) {
+            return null;
+        }
+        List<ActiveActivity> list = activeActivities.getRunningLongerThan(longRunningThreshold, MAX_ACTIVITIES);
+        lastEmpty = list.isEmpty();
+        long now = System.currentTimeMillis();
+        JsonBuilder jsonBuilder = new JsonBuilder()
+                .prettyPrint(false)
+                .nullWritable(false)
+                .object()
+                    .put("active", activeActivities.size())
+                    .array("activities");
+        for (ActiveActivity activeActivity : list) {
+            Thread thread = activeActivity.getThread();
+            jsonBuilder
+                    .object()
+                        .put("name", activeActivity.getName())
+                        .put("startTime", activeActivity.getStartTime())
+                        .put("elapsedTime", now - activeActivity.getStartTime())
+                        .put("thread", thread.getName())
+                        .put("state", thread.getState().name())
+                    .endObject();
+        }
+        return jsonBuilder
+                    .endArray()
+                .endObject()
+                .toString();
+    }
+
+    @Override
+    public boolean hasChanges() {
+        if (activeActivities == null) {
+            return false;
+        }
+        // Keep publishing while there are long-running activities, since their
+        // elapsed time keeps growing, and once more after the last one finishes.
+        return (!lastEmpty || !activeActivities.getRunningLongerThan(longRunningThreshold, 1).isEmpty());
+    }
+
+}
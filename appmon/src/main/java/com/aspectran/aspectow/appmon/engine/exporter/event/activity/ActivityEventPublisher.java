@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.exporter.event.activity;
+
+import com.aspectran.aspectow.appmon.engine.persist.counter.EventCount;
+import com.aspectran.aspectow.appmon.engine.persist.counter.activity.ActivityEventListener;
+import com.aspectran.utils.json.JsonBuilder;
+import com.aspectran.utils.scheduling.Scheduler;
+import com.aspectran.utils.timer.CyclicTimeout;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes activity events recorded by request threads as batched messages.
+ * <p>As an {@link ActivityEventListener}, it only fills in a preallocated slot
+ * of the {@link ActivityEventQueue} on the request thread; it then drains the
+ * queue on a background timer and coalesces all events recorded during one
+ * batch interval into a single message, so the relay latency is never added
+ * to the request itself.</p>
+ * <p>Under high throughput, events are down-sampled by an {@link AdaptiveSampler}
+ * to a target rate per second before they are queued; the counts in each
+ * message remain exact, and the sample rate in effect is included so that
+ * the events can be scaled back up. Activities that raised an error or took
+ * longer than the long-running threshold are never sampled out.</p>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+class ActivityEventPublisher implements ActivityEventListener {
+
+    static final int DEFAULT_BATCH_INTERVAL = 100;
+
+    static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+    static final int DEFAULT_TARGET_EVENT_RATE = 200;
+
+    private final ActivityEventReader activityEventReader;
+
+    private final Scheduler scheduler;
+
+    private final int batchInterval;
+
+    private final int maxBatchSize;
+
+    private final ActivityEventQueue eventQueue;
+
+    private final AdaptiveSampler sampler;
+
+    private final long slowThreshold;
+
+    private CyclicTimeout drainTimer;
+
+    ActivityEventPublisher(@NonNull ActivityEventReader activityEventReader, @NonNull Scheduler scheduler) {
+        this.activityEventReader = activityEventReader;
+        this.scheduler = scheduler;
+        int batchInterval = activityEventReader.getEventInfo().getBatchInterval(DEFAULT_BATCH_INTERVAL);
+        int maxBatchSize = activityEventReader.getEventInfo().getMaxBatchSize(DEFAULT_MAX_BATCH_SIZE);
+        this.batchInterval = (batchInterval > 0 ? batchInterval : DEFAULT_BATCH_INTERVAL);
+        this.maxBatchSize = (maxBatchSize > 0 ? maxBatchSize : DEFAULT_MAX_BATCH_SIZE);
+        this.eventQueue = new ActivityEventQueue(this.maxBatchSize * 2);
+        this.sampler = new AdaptiveSampler(activityEventReader.getEventInfo().getTargetEventRate(DEFAULT_TARGET_EVENT_RATE));
+        int slowThreshold = activityEventReader.getEventInfo().getLongRunningThreshold(
+                ActiveActivityReader.DEFAULT_LONG_RUNNING_THRESHOLD);
+        this.slowThreshold = (slowThreshold >= 0 ? slowThreshold : ActiveActivityReader.DEFAULT_LONG_RUNNING_THRESHOLD);
+    }
+
+    @Override
+    public void onActivityFinished(
+            long startTime, long elapsedTime, @Nullable String sessionId,
+            int activityCount, @Nullable Throwable error) {
+        if (!sampler.sample(error != null || elapsedTime >= slowThreshold)) {
+            return;
+        }
+        long sequence = eventQueue.claim();
+        if (sequence >= 0L) {
+            ActivityEventRecord record = eventQueue.get(sequence);
+            record.setStartTime(startTime);
+            record.setElapsedTime(elapsedTime);
+            record.setThread(Thread.currentThread().getName());
+            record.setSessionId(sessionId);
+            record.setActivityCount(activityCount);
+            record.setError(error);
+            eventQueue.publish(sequence);
+        }
+    }
+
+    void start() {
+        drainTimer = new CyclicTimeout(scheduler) {
+            @Override
+            public void onTimeoutExpired() {
+                try {
+                    publish();
+                } finally {
+                    scheduleDraining();
+                }
+            }
+        };
+        scheduleDraining();
+    }
+
+    void stop() {
+        if (drainTimer != null) {
+            drainTimer.cancel();
+            drainTimer.destroy();
+            drainTimer = null;
+        }
+    }
+
+    private void scheduleDraining() {
+        CyclicTimeout timer = drainTimer;
+        if (timer != null) {
+            timer.schedule(batchInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void publish() {
+        double sampleRate = sampler.getSampleRate();
+        sampler.adjust();
+
+        ActivityEventRecord record = eventQueue.peek();
+        if (record == null) {
+            return;
+        }
+
+        EventCount eventCount = activityEventReader.getEventCount();
+        long interim = eventCount.getTallying().getTotal();
+        long total = interim + eventCount.getTallied().getTotal();
+        long errors = eventCount.getTallying().getError();
+
+        JsonBuilder jsonBuilder = new JsonBuilder()
+                .prettyPrint(false)
+                .nullWritable(false)
+                .object()
+                    .object("activities")
+                        .put("total", total)
+                        .put("interim", interim)
+                        .put("errors", errors)
+                    .endObject()
+                    .array("events");
+
+        int count = 0;
+        while (record != null && count < maxBatchSize) {
+            jsonBuilder
+                    .object()
+                        .put("startTime", record.getStartTime())
+                        .put("elapsedTime", record.getElapsedTime())
+                        .put("thread", record.getThread())
+                        .put("sessionId", record.getSessionId())
+                        .put("activityCount", record.getActivityCount())
+                        .put("error", record.getError())
+                    .endObject();
+            eventQueue.release();
+            count++;
+            record = eventQueue.peek();
+        }
+
+        // Coalesce the overflow: anything beyond the batch size is
+        // already reflected in the counts and is not worth relaying
+        long dropped = eventQueue.takeDropped();
+        int limit = eventQueue.getCapacity();
+        while (record != null && limit-- > 0) {
+            eventQueue.release();
+            dropped++;
+            record = eventQueue.peek();
+        }
+
+        jsonBuilder.endArray();
+        jsonBuilder.put("sampleRate", sampleRate);
+        if (dropped > 0L) {
+            jsonBuilder.put("dropped", dropped);
+        }
+        jsonBuilder.endObject();
+
+        activityEventReader.broadcast(jsonBuilder.toString());
+    }
+
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.exporter.event.activity;
+
+import com.aspectran.utils.Assert;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, lock-free handoff queue of preallocated {@link ActivityEventRecord} slots.
+ * <p>Any number of request threads may record events concurrently, while a single
+ * drainer consumes them. Each slot carries a sequence number that tells producers
+ * and the consumer whose turn it is, so neither side ever blocks. When the queue
+ * is full, new events are dropped and counted instead of waiting for space.</p>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+class ActivityEventQueue {
+
+    private final ActivityEventRecord[] records;
+
+    private final AtomicLongArray sequences;
+
+    private final int mask;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private long head;
+
+    /**
+     * Instantiates a new ActivityEventQueue.
+     * @param capacity the minimum number of slots; rounded up to a power of two
+     */
+    ActivityEventQueue(int capacity) {
+        Assert.isTrue(capacity > 0, "capacity must be greater than 0");
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.records = new ActivityEventRecord[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            records[i] = new ActivityEventRecord();
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Returns the number of slots in this queue.
+     * @return the capacity
+     */
+    int getCapacity() {
+        return records.length;
+    }
+
+    /**
+     * Claims a free slot for writing.
+     * The caller must fill in the slot returned by {@link #get(long)} and then
+     * call {@link #publish(long)} with the same sequence.
+     * @return the claimed sequence, or {@code -1} if the queue is full
+     */
+    long claim() {
+        long pos = tail.get();
+        while (true) {
+            long seq = sequences.get((int)(pos & mask));
+            long diff = seq - pos;
+            if (diff == 0L) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    return pos;
+                }
+                pos = tail.get();
+            } else if (diff < 0L) {
+                dropped.increment();
+                return -1L;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Returns the slot for the given claimed sequence.
+     * @param sequence the sequence returned by {@link #claim()}
+     * @return the slot to write to
+     */
+    ActivityEventRecord get(long sequence) {
+        return records[(int)(sequence & mask)];
+    }
+
+    /**
+     * Makes the slot for the given sequence visible to the drainer.
+     * @param sequence the sequence returned by {@link #claim()}
+     */
+    void publish(long sequence) {
+        sequences.set((int)(sequence & mask), sequence + 1);
+    }
+
+    /**
+     * Returns the next published slot without removing it.
+     * Must only be called by the single drainer.
+     * @return the next slot, or {@code null} if no event is available
+     */
+    ActivityEventRecord peek() {
+        long seq = sequences.get((int)(head & mask));
+        if (seq == head + 1) {
+            return records[(int)(head & mask)];
+        }
+        return null;
+    }
+
+    /**
+     * Releases the slot last returned by {@link #peek()} so that it can be reused.
+     * Must only be called by the single drainer.
+     */
+    void release() {
+        int index = (int)(head & mask);
+        records[index].clear();
+        sequences.set(index, head + records.length);
+        head++;
+    }
+
+    /**
+     * Returns and resets the number of events dropped because the queue was full.
+     * @return the number of dropped events
+     */
+    long takeDropped() {
+        return dropped.sumThenReset();
+    }
+
+}
@@ -18,32 +18,33 @@ package com.aspectran.aspectow.appmon.engine.exporter.event.activity;
 import com.aspectran.aspectow.appmon.engine.config.EventInfo;
 import com.aspectran.aspectow.appmon.engine.exporter.ExporterManager;
 import com.aspectran.aspectow.appmon.engine.exporter.event.AbstractEventReader;
+import com.aspectran.aspectow.appmon.engine.persist.counter.ConcurrencyGauge;
 import com.aspectran.aspectow.appmon.engine.persist.counter.EventCount;
-import com.aspectran.core.component.UnavailableException;
-import com.aspectran.core.context.ActivityContext;
-import com.aspectran.core.context.rule.AdviceRule;
-import com.aspectran.core.context.rule.AspectRule;
-import com.aspectran.core.context.rule.JoinpointRule;
-import com.aspectran.core.context.rule.params.PointcutParameters;
-import com.aspectran.core.context.rule.type.JoinpointTargetType;
-import com.aspectran.core.service.CoreServiceHolder;
+import com.aspectran.aspectow.appmon.engine.persist.counter.EventCounter;
+import com.aspectran.aspectow.appmon.engine.persist.counter.LatencyHistogram;
+import com.aspectran.aspectow.appmon.engine.persist.counter.activity.ActivityEventCounter;
+import com.aspectran.aspectow.appmon.engine.persist.counter.activity.ResourceUsage;
+import com.aspectran.aspectow.appmon.engine.persist.counter.activity.TransletBreakdown;
+import com.aspectran.aspectow.appmon.engine.persist.counter.activity.TransletStats;
 import com.aspectran.utils.json.JsonBuilder;
 import org.jspecify.annotations.NonNull;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
 
 /**
- * Reads Aspectran's activity events by dynamically adding an aspect.
- * This reader injects an advice into the target ActivityContext to capture
- * activity lifecycle events and broadcast them.
+ * Reads Aspectran's activity events.
+ * This reader subscribes to the {@link ActivityEventCounter} of the same event
+ * while it is started, so that activity lifecycle events captured by the counter's
+ * aspect are broadcast in batches without advising each activity a second time.
  *
  * <p>Created: 2024-12-18</p>
  */
 public class ActivityEventReader extends AbstractEventReader {
 
-    private static final Logger logger = LoggerFactory.getLogger(ActivityEventReader.class);
+    private ActivityEventCounter activityEventCounter;
 
-    private String aspectId;
+    private volatile ActivityEventPublisher eventPublisher;
 
     /**
      * Instantiates a new ActivityEventReader.
@@ -60,70 +61,50 @@ public class ActivityEventReader extends AbstractEventReader {
 
     @Override
     public void init() throws Exception {
-        aspectId = getClass().getName() + ".ASPECT@" + hashCode() + "[" + getEventInfo().getTarget() + "]";
+        EventCounter eventCounter = getExporterManager().getAppMonManager().getPersistManager()
+                .getCounterPersist().getEventCounter(getEventInfo().getAppId(), getEventInfo().getEventId());
+        if (!(eventCounter instanceof ActivityEventCounter)) {
+            throw new IllegalStateException("No ActivityEventCounter found for event '" +
+                    getEventInfo().getEventId() + "' of app '" + getEventInfo().getAppId() + "'");
+        }
+        activityEventCounter = (ActivityEventCounter)eventCounter;
     }
 
     @Override
     public void start() throws Exception {
-        ActivityContext context = CoreServiceHolder.findActivityContext(getEventInfo().getTarget());
-        if (context == null) {
-            throw new Exception("Could not find ActivityContext named '" + getEventInfo().getTarget() + "'");
-        }
-
-        AspectRule aspectRule = new AspectRule();
-        aspectRule.setId(aspectId);
-        aspectRule.setOrder(0);
-        aspectRule.setIsolated(true);
-
-        JoinpointRule joinpointRule = new JoinpointRule();
-        joinpointRule.setJoinpointTargetType(JoinpointTargetType.ACTIVITY);
-        if (getEventInfo().hasParameters()) {
-            PointcutParameters pointcutParameters = new PointcutParameters(getEventInfo().getParameters().toString());
-            JoinpointRule.updatePointcutRule(joinpointRule, pointcutParameters);
-        }
-        aspectRule.setJoinpointRule(joinpointRule);
-
-        AdviceRule beforeAdviceRule = aspectRule.newBeforeAdviceRule();
-        beforeAdviceRule.setAdviceAction(activity -> {
-            ActivityEventAdvice activityEventAdvice = new ActivityEventAdvice(ActivityEventReader.this);
-            activityEventAdvice.before(activity);
-            return activityEventAdvice;
-        });
-
-        AdviceRule finallyAdviceRule = aspectRule.newFinallyAdviceRule();
-        finallyAdviceRule.setAdviceAction(activity -> {
-            ActivityEventAdvice activityEventAdvice = activity.getBeforeAdviceResult(aspectId);
-            String json = activityEventAdvice.after(activity);
-            getEventExporter().broadcast(json);
-            return null;
-        });
-
-        context.getAspectRuleRegistry().addAspectRule(aspectRule);
+        ActivityEventPublisher publisher = new ActivityEventPublisher(this, getExporterManager().getScheduler());
+        publisher.start();
+        eventPublisher = publisher;
+        activityEventCounter.addActivityEventListener(publisher);
     }
 
     @Override
     public void stop() {
-        try {
-            ActivityContext context = CoreServiceHolder.findActivityContext(getEventInfo().getTarget());
-            if (context != null) {
-                try {
-                    context.getAspectRuleRegistry().removeAspectRule(aspectId);
-                } catch (UnavailableException e) {
-                    // ignored
-                }
-            }
-        } catch (Exception e) {
-            logger.warn(e.getMessage(), e);
+        ActivityEventPublisher publisher = eventPublisher;
+        if (publisher != null) {
+            activityEventCounter.removeActivityEventListener(publisher);
+            publisher.stop();
+            eventPublisher = null;
         }
     }
 
+    /**
+     * Broadcasts a batched message of activity events.
+     * @param message the message to broadcast
+     */
+    void broadcast(String message) {
+        getEventExporter().broadcast(message);
+    }
+
     @Override
     public String read() {
         long interim = getEventCount().getTallying().getTotal();
         long total = interim + getEventCount().getTallied().getTotal();
         long errors = getEventCount().getTallying().getError();
+        LatencyHistogram.Snapshot latency = getEventCount().getTallying().getLatency();
+        ConcurrencyGauge.Snapshot concurrency = getEventCount().getTallying().getConcurrency();
 
-        return new JsonBuilder()
+        JsonBuilder jsonBuilder = new JsonBuilder()
             .prettyPrint(false)
             .nullWritable(false)
             .object()
@@ -132,8 +113,73 @@ public class ActivityEventReader extends AbstractEventReader {
                     .put("interim", interim)
                     .put("errors", errors)
                 .endObject()
+                .object("latency")
+                    .put("p50", latency.getValueAtPercentile(50.0))
+                    .put("p95", latency.getValueAtPercentile(95.0))
+                    .put("p99", latency.getValueAtPercentile(99.0))
+                .endObject()
+                .object("concurrency")
+                    .put("current", concurrency.getCurrent())
+                    .put("peak", concurrency.getPeak())
+                    .put("average", Math.round(concurrency.getAverage() * 100) / 100.0d)
+                .endObject();
+        Map<String, Long> errorTypes = getEventCount().getTallying().getErrorTypes();
+        if (!errorTypes.isEmpty()) {
+            jsonBuilder.object("errorTypes");
+            for (Map.Entry<String, Long> entry : errorTypes.entrySet()) {
+                jsonBuilder.put(entry.getKey(), entry.getValue());
+            }
+            jsonBuilder.endObject();
+        }
+        ResourceUsage resourceUsage = activityEventCounter.getResourceUsage();
+        if (resourceUsage != null) {
+            ResourceUsage.Usage usage = resourceUsage.getCurrentPeriod();
+            jsonBuilder
+                .object("resources")
+                    .put("count", usage.getCount())
+                    .put("cpuTime", usage.getCpuTime())
+                    .put("allocatedBytes", usage.getAllocatedBytes())
+                .endObject();
+        }
+        jsonBuilder.object("translets");
+        TransletBreakdown transletBreakdown = activityEventCounter.getTransletBreakdown();
+        putTransletStats(jsonBuilder, "byVolume", transletBreakdown.getTopByVolume());
+        putTransletStats(jsonBuilder, "byErrorRate", transletBreakdown.getTopByErrorRate());
+        putTransletStats(jsonBuilder, "byLatency", transletBreakdown.getTopByLatency());
+        if (resourceUsage != null) {
+            putTransletStats(jsonBuilder, "byCpuTime", transletBreakdown.getTopByCpuTime());
+            putTransletStats(jsonBuilder, "byAllocation", transletBreakdown.getTopByAllocation());
+        }
+        TransletStats other = transletBreakdown.getOther();
+        if (other != null) {
+            jsonBuilder
+                .object("other")
+                    .put("count", other.getCount())
+                    .put("errors", other.getErrors())
+                    .put("p99", other.getP99())
+                .endObject();
+        }
+        return jsonBuilder
+                .endObject()
             .endObject()
             .toString();
     }
 
+    private void putTransletStats(
+            @NonNull JsonBuilder jsonBuilder, String name, @NonNull List<TransletStats> statsList) {
+        jsonBuilder.array(name);
+        for (TransletStats stats : statsList) {
+            jsonBuilder
+                .object()
+                    .put("name", stats.getName())
+                    .put("count", stats.getCount())
+                    .put("errors", stats.getErrors())
+                    .put("p99", stats.getP99())
+                    .put("cpuTime", (stats.getCpuTime() > 0L ? stats.getCpuTime() : null))
+                    .put("allocatedBytes", (stats.getAllocatedBytes() > 0L ? stats.getAllocatedBytes() : null))
+                .endObject();
+        }
+        jsonBuilder.endArray();
+    }
+
 }
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.exporter.event.activity;
+
+/**
+ * A fixed-size, reusable slot that holds the data of a single completed activity.
+ * Instances are preallocated by {@link ActivityEventQueue} and recycled,
+ * so recording an event does not allocate on the request thread.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+class ActivityEventRecord {
+
+    private long startTime;
+
+    private long elapsedTime;
+
+    private String thread;
+
+    private String sessionId;
+
+    private int activityCount;
+
+    private Throwable error;
+
+    ActivityEventRecord() {
+    }
+
+    /**
+     * Gets the time at which the activity started.
+     * @return the start time in milliseconds
+     */
+    long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Sets the time at which the activity started.
+     * @param startTime the start time in milliseconds
+     */
+    void setStartTime(long startTime) {
+        this.startTime = startTime;
+    }
+
+    /**
+     * Gets the time taken to execute the activity.
+     * @return the elapsed time in milliseconds
+     */
+    long getElapsedTime() {
+        return elapsedTime;
+    }
+
+    /**
+     * Sets the time taken to execute the activity.
+     * @param elapsedTime the elapsed time in milliseconds
+     */
+    void setElapsedTime(long elapsedTime) {
+        this.elapsedTime = elapsedTime;
+    }
+
+    /**
+     * Gets the name of the thread that executed the activity.
+     * @return the thread name
+     */
+    String getThread() {
+        return thread;
+    }
+
+    /**
+     * Sets the name of the thread that executed the activity.
+     * @param thread the thread name
+     */
+    void setThread(String thread) {
+        this.thread = thread;
+    }
+
+    /**
+     * Gets the ID of the session in which the activity was executed.
+     * @return the session ID, or {@code null} if there is no session
+     */
+    String getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * Sets the ID of the session in which the activity was executed.
+     * @param sessionId the session ID
+     */
+    void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    /**
+     * Gets the number of activities executed in the session so far.
+     * @return the activity count of the session
+     */
+    int getActivityCount() {
+        return activityCount;
+    }
+
+    /**
+     * Sets the number of activities executed in the session so far.
+     * @param activityCount the activity count of the session
+     */
+    void setActivityCount(int activityCount) {
+        this.activityCount = activityCount;
+    }
+
+    /**
+     * Gets the root cause of the exception raised by the activity.
+     * @return the error, or {@code null} if the activity completed normally
+     */
+    Throwable getError() {
+        return error;
+    }
+
+    /**
+     * Sets the root cause of the exception raised by the activity.
+     * @param error the error
+     */
+    void setError(Throwable error) {
+        this.error = error;
+    }
+
+    /**
+     * Clears the object references held by this slot so that they can be
+     * garbage collected while the slot is waiting to be reused.
+     */
+    void clear() {
+        thread = null;
+        sessionId = null;
+        error = null;
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.exporter.event.activity;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides which activity events are relayed so that their rate stays close
+ * to a target number per second, however many requests there are.
+ * <p>Request threads only count the events offered and draw a random number
+ * against the current sample rate. The drainer periodically compares the
+ * offered rate, smoothed over recent periods, with the target and adjusts
+ * the sample rate for the next period. Events that must not be missed,
+ * such as errors, are always kept, but still count as offered.</p>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+class AdaptiveSampler {
+
+    private static final double MIN_SAMPLE_RATE = 0.0001d;
+
+    private static final double SMOOTHING_FACTOR = 0.5d;
+
+    private final double targetRate;
+
+    private final LongSupplier nanoTime;
+
+    private final DoubleSupplier random;
+
+    private final LongAdder offered = new LongAdder();
+
+    private volatile double sampleRate = 1.0d;
+
+    private double offeredRate = -1.0d;
+
+    private long lastAdjustTime;
+
+    /**
+     * Instantiates a new AdaptiveSampler.
+     * @param targetRate the target number of events per second;
+     *      if not positive, every event is sampled
+     */
+    AdaptiveSampler(double targetRate) {
+        this(targetRate, System::nanoTime, () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    /**
+     * Instantiates a new AdaptiveSampler with the given time and random sources.
+     * @param targetRate the target number of events per second;
+     *      if not positive, every event is sampled
+     * @param nanoTime the source of the current time in nanoseconds
+     * @param random the source of random numbers between 0 (inclusive) and 1 (exclusive)
+     */
+    AdaptiveSampler(double targetRate, LongSupplier nanoTime, DoubleSupplier random) {
+        this.targetRate = targetRate;
+        this.nanoTime = nanoTime;
+        this.random = random;
+        this.lastAdjustTime = nanoTime.getAsLong();
+    }
+
+    /**
+     * Counts an offered event and returns whether it is sampled.
+     * @param keep whether the event must be kept regardless of the sample rate
+     * @return {@code true} if the event should be relayed
+     */
+    boolean sample(boolean keep) {
+        offered.increment();
+        double rate = sampleRate;
+        return (keep || rate >= 1.0d || random.getAsDouble() < rate);
+    }
+
+    /**
+     * Returns the fraction of offered events currently sampled.
+     * @return the sample rate, between 0 and 1
+     */
+    double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Adjusts the sample rate to the events offered since the last adjustment.
+     * Must only be called by the single drainer.
+     */
+    void adjust() {
+        long now = nanoTime.getAsLong();
+        long elapsed = now - lastAdjustTime;
+        if (targetRate <= 0.0d || elapsed <= 0L) {
+            return;
+        }
+        lastAdjustTime = now;
+        double currentRate = offered.sumThenReset() * 1_000_000_000.0d / elapsed;
+        if (offeredRate < 0.0d) {
+            offeredRate = currentRate;
+        } else {
+            offeredRate += SMOOTHING_FACTOR * (currentRate - offeredRate);
+        }
+        if (offeredRate <= targetRate) {
+            sampleRate = 1.0d;
+        } else {
+            sampleRate = Math.max(targetRate / offeredRate, MIN_SAMPLE_RATE);
+        }
+    }
+
+}
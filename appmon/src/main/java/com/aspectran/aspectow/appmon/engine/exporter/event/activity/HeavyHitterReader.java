@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.exporter.event.activity;
+
+import com.aspectran.aspectow.appmon.engine.config.EventInfo;
+import com.aspectran.aspectow.appmon.engine.exporter.ExporterManager;
+import com.aspectran.aspectow.appmon.engine.exporter.event.AbstractEventReader;
+import com.aspectran.aspectow.appmon.engine.persist.counter.EventCount;
+import com.aspectran.aspectow.appmon.engine.persist.counter.EventCounter;
+import com.aspectran.aspectow.appmon.engine.persist.counter.activity.ActivityEventCounter;
+import com.aspectran.aspectow.appmon.engine.persist.counter.activity.HeavyHitter;
+import com.aspectran.aspectow.appmon.engine.persist.counter.activity.HeavyHitters;
+import com.aspectran.utils.json.JsonBuilder;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Reads the client addresses and sessions that performed the most activities
+ * in the last rollup window.
+ * They are found by the {@link ActivityEventCounter} of the activity event
+ * named by the target of this event, in the same app.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+public class HeavyHitterReader extends AbstractEventReader {
+
+    private HeavyHitters clientHeavyHitters;
+
+    private HeavyHitters sessionHeavyHitters;
+
+    private volatile long lastVersion = -1L;
+
+    /**
+     * Instantiates a new HeavyHitterReader.
+     * @param exporterManager the exporter manager
+     * @param eventInfo the event configuration
+     * @param eventCount the event counter, can be {@code null}
+     */
+    public HeavyHitterReader(
+            @NonNull ExporterManager exporterManager,
+            @NonNull EventInfo eventInfo,
+            @Nullable EventCount eventCount) {
+        super(exporterManager, eventInfo, eventCount);
+    }
+
+    @Override
+    public void start() throws Exception {
+        if (clientHeavyHitters == null) {
+            String activityEventId = getEventInfo().getTarget();
+            EventCounter eventCounter = getExporterManager().getAppMonManager().getPersistManager()
+                    .getCounterPersist().getEventCounter(getEventInfo().getAppId(), activityEventId);
+            if (!(eventCounter instanceof ActivityEventCounter activityEventCounter)) {
+                throw new IllegalStateException("No ActivityEventCounter found for event '" +
+                        activityEventId + "' of app '" + getEventInfo().getAppId() + "'");
+            }
+            if (activityEventCounter.getClientHeavyHitters() == null) {
+                throw new IllegalStateException("Heavy hitters are not tracked for event '" +
+                        activityEventId + "' of app '" + getEventInfo().getAppId() + "'");
+            }
+            clientHeavyHitters = activityEventCounter.getClientHeavyHitters();
+            sessionHeavyHitters = activityEventCounter.getSessionHeavyHitters();
+        }
+        lastVersion = -1L;
+    }
+
+    @Override
+    public void stop() {
+    }
+
+    @Override
+    public String read() {
+        if (clientHeavyHitters == null) {
+            return null;
+        }
+        lastVersion = clientHeavyHitters.getVersion();
+        JsonBuilder jsonBuilder = new JsonBuilder()
+                .prettyPrint(false)
+                .nullWritable(false)
+                .object();
+        putHeavyHitters(jsonBuilder, "clients", clientHeavyHitters);
+        putHeavyHitters(jsonBuilder, "sessions", sessionHeavyHitters);
+        return jsonBuilder
+                .endObject()
+                .toString();
+    }
+
+    @Override
+    public boolean hasChanges() {
+        return (clientHeavyHitters != null && clientHeavyHitters.getVersion() != lastVersion);
+    }
+
+    private void putHeavyHitters(@NonNull JsonBuilder jsonBuilder, String name, @NonNull HeavyHitters heavyHitters) {
+        jsonBuilder.array(name);
+        for (HeavyHitter heavyHitter : heavyHitters.getLastWindow()) {
+            jsonBuilder
+                    .object()
+                        .put("key", heavyHitter.getKey())
+                        .put("count", heavyHitter.getCount())
+                    .endObject();
+        }
+        jsonBuilder.endArray();
+    }
+
+}
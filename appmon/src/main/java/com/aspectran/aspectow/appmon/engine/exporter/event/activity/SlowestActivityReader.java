@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.exporter.event.activity;
+
+import com.aspectran.aspectow.appmon.engine.config.EventInfo;
+import com.aspectran.aspectow.appmon.engine.exporter.ExporterManager;
+import com.aspectran.aspectow.appmon.engine.exporter.event.AbstractEventReader;
+import com.aspectran.aspectow.appmon.engine.persist.counter.EventCount;
+import com.aspectran.aspectow.appmon.engine.persist.counter.EventCounter;
+import com.aspectran.aspectow.appmon.engine.persist.counter.activity.ActivityEventCounter;
+import com.aspectran.aspectow.appmon.engine.persist.counter.activity.SlowActivity;
+import com.aspectran.aspectow.appmon.engine.persist.counter.activity.SlowestActivities;
+import com.aspectran.utils.json.JsonBuilder;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Reads the slowest activities of the last rollup window.
+ * The activities are kept by the {@link ActivityEventCounter} of the activity
+ * event named by the target of this event, in the same app.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+public class SlowestActivityReader extends AbstractEventReader {
+
+    private SlowestActivities slowestActivities;
+
+    private volatile long lastVersion = -1L;
+
+    /**
+     * Instantiates a new SlowestActivityReader.
+     * @param exporterManager the exporter manager
+     * @param eventInfo the event configuration
+     * @param eventCount the event counter, can be {@code null}
+     */
+    public SlowestActivityReader(
+            @NonNull ExporterManager exporterManager,
+            @NonNull EventInfo eventInfo,
+            @Nullable EventCount eventCount) {
+        super(exporterManager, eventInfo, eventCount);
+    }
+
+    @Override
+    public void start() throws Exception {
+        if (slowestActivities == null) {
+            String activityEventId = getEventInfo().getTarget();
+            EventCounter eventCounter = getExporterManager().getAppMonManager().getPersistManager()
+                    .getCounterPersist().getEventCounter(getEventInfo().getAppId(), activityEventId);
+            if (!(eventCounter instanceof ActivityEventCounter activityEventCounter)) {
+                throw new IllegalStateException("No ActivityEventCounter found for event '" +
+                        activityEventId + "' of app '" + getEventInfo().getAppId() + "'");
+            }
+            slowestActivities = activityEventCounter.getSlowestActivities();
+            if (slowestActivities == null) {
+                throw new IllegalStateException("Slowest activities are not kept for event '" +
+                        activityEventId + "' of app '" + getEventInfo().getAppId() + "'");
+            }
+        }
+        lastVersion = -1L;
+    }
+
+    @Override
+    public void stop() {
+    }
+
+    @Override
+    public String read() {
+        if (slowestActivities == null) {
+            return null;
+        }
+        lastVersion = slowestActivities.getVersion();
+        JsonBuilder jsonBuilder = new JsonBuilder()
+                .prettyPrint(false)
+                .nullWritable(false)
+                .object()
+                    .array("activities");
+        for (SlowActivity slowActivity : slowestActivities.getLastWindow()) {
+            jsonBuilder
+                    .object()
+                        .put("name", slowActivity.getName())
+                        .put("startTime", slowActivity.getStartTime())
+                        .put("elapsedTime", slowActivity.getElapsedTime())
+                        .put("thread", slowActivity.getThread())
+                        .put("sessionId", slowActivity.getSessionId())
+                        .put("error", slowActivity.getError())
+                        .put("parameters", slowActivity.getParameters())
+                    .endObject();
+        }
+        return jsonBuilder
+                    .endArray()
+                .endObject()
+                .toString();
+    }
+
+    @Override
+    public boolean hasChanges() {
+        return (slowestActivities != null && slowestActivities.getVersion() != lastVersion);
+    }
+
+}
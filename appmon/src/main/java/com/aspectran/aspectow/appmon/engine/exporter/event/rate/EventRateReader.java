@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.exporter.event.rate;
+
+import com.aspectran.aspectow.appmon.engine.config.EventInfo;
+import com.aspectran.aspectow.appmon.engine.exporter.ExporterManager;
+import com.aspectran.aspectow.appmon.engine.exporter.event.AbstractEventReader;
+import com.aspectran.aspectow.appmon.engine.persist.counter.EventCount;
+import com.aspectran.aspectow.appmon.engine.persist.counter.EventCounter;
+import com.aspectran.aspectow.appmon.engine.persist.counter.RollingWindow;
+import com.aspectran.utils.json.JsonBuilder;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Reads live rates and sparklines of the event named by the target of this
+ * event, in the same app, from the in-memory rolling windows of its count.
+ * <p>Rates of events and errors per second are reported over the last
+ * 10 seconds, 1 minute and 5 minutes, along with the counts of the last
+ * five minutes in one-second buckets and of the last hour in ten-second
+ * buckets.</p>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+public class EventRateReader extends AbstractEventReader {
+
+    private EventCount targetEventCount;
+
+    private volatile long lastSecond = -1L;
+
+    /**
+     * Instantiates a new EventRateReader.
+     * @param exporterManager the exporter manager
+     * @param eventInfo the event configuration
+     * @param eventCount the event counter, can be {@code null}
+     */
+    public EventRateReader(
+            @NonNull ExporterManager exporterManager,
+            @NonNull EventInfo eventInfo,
+            @Nullable EventCount eventCount) {
+        super(exporterManager, eventInfo, eventCount);
+    }
+
+    @Override
+    public void start() throws Exception {
+        if (targetEventCount == null) {
+            String targetEventId = getEventInfo().getTarget();
+            EventCounter eventCounter = getExporterManager().getAppMonManager().getPersistManager()
+                    .getCounterPersist().getEventCounter(getEventInfo().getAppId(), targetEventId);
+            if (eventCounter == null) {
+                throw new IllegalStateException("No EventCounter found for event '" +
+                        targetEventId + "' of app '" + getEventInfo().getAppId() + "'");
+            }
+            targetEventCount = eventCounter.getEventCount();
+        }
+        lastSecond = -1L;
+    }
+
+    @Override
+    public void stop() {
+    }
+
+    @Override
+    public String read() {
+        if (targetEventCount == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        lastSecond = now / 1000L;
+        RollingWindow perSecond = targetEventCount.getPerSecond();
+        RollingWindow perTenSeconds = targetEventCount.getPerTenSeconds();
+        JsonBuilder jsonBuilder = new JsonBuilder()
+                .prettyPrint(false)
+                .nullWritable(false)
+                .object()
+                    .object("rates");
+        putRates(jsonBuilder, "10s", perSecond, 10_000L, now);
+        putRates(jsonBuilder, "1m", perSecond, 60_000L, now);
+        putRates(jsonBuilder, "5m", perSecond, 300_000L, now);
+        jsonBuilder.endObject();
+        putSeries(jsonBuilder, "perSecond", perSecond, now);
+        putSeries(jsonBuilder, "perTenSeconds", perTenSeconds, now);
+        return jsonBuilder
+                .endObject()
+                .toString();
+    }
+
+    @Override
+    public boolean hasChanges() {
+        return (targetEventCount != null && System.currentTimeMillis() / 1000L != lastSecond);
+    }
+
+    private void putRates(
+            @NonNull JsonBuilder jsonBuilder, String name,
+            @NonNull RollingWindow rollingWindow, long span, long now) {
+        jsonBuilder
+                .object(name)
+                    .put("events", round(rollingWindow.getEventRate(span, now)))
+                    .put("errors", round(rollingWindow.getErrorRate(span, now)))
+                .endObject();
+    }
+
+    private void putSeries(
+            @NonNull JsonBuilder jsonBuilder, String name,
+            @NonNull RollingWindow rollingWindow, long now) {
+        jsonBuilder
+                .object(name)
+                    .put("bucketMillis", rollingWindow.getBucketMillis())
+                    .put("events", rollingWindow.getEventSeries(now))
+                    .put("errors", rollingWindow.getErrorSeries(now))
+                .endObject();
+    }
+
+    private static double round(double rate) {
+        return Math.round(rate * 100.0d) / 100.0d;
+    }
+
+}
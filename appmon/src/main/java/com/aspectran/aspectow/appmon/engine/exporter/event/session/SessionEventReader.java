@@ -19,6 +19,9 @@ import com.aspectran.aspectow.appmon.engine.config.EventInfo;
 import com.aspectran.aspectow.appmon.engine.exporter.ExporterManager;
 import com.aspectran.aspectow.appmon.engine.exporter.event.AbstractEventReader;
 import com.aspectran.aspectow.appmon.engine.persist.counter.EventCount;
+import com.aspectran.aspectow.appmon.engine.persist.counter.EventCounter;
+import com.aspectran.aspectow.appmon.engine.persist.counter.activity.ActivityEventCounter;
+import com.aspectran.aspectow.appmon.engine.persist.counter.session.SessionActivityCounts;
 import com.aspectran.core.component.UnavailableException;
 import com.aspectran.core.component.session.ManagedSession;
 import com.aspectran.core.component.session.Session;
@@ -32,6 +35,7 @@ import com.aspectran.utils.StringUtils;
 import com.aspectran.utils.json.JsonBuilder;
 import com.aspectran.utils.json.JsonString;
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,7 +43,6 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Reads session statistics and events from a {@link SessionManager}.
@@ -64,6 +67,8 @@ public class SessionEventReader extends AbstractEventReader {
 
     private SessionEventReadingListener sessionListener;
 
+    private SessionActivityCounts sessionActivityCounts;
+
     private volatile boolean changed;
 
     /**
@@ -95,6 +100,7 @@ public class SessionEventReader extends AbstractEventReader {
             throw new RuntimeException("Cannot resolve session manager with " + getEventInfo().getTarget(), e);
         }
         if (sessionManager != null) {
+            sessionActivityCounts = findSessionActivityCounts();
             sessionListener = new SessionEventReadingListener(this);
             getSessionListenerRegistration().register(sessionListener, deploymentName);
             changed = true;
@@ -113,7 +119,27 @@ public class SessionEventReader extends AbstractEventReader {
                 }
                 sessionListener = null;
             }
+            sessionActivityCounts = null;
+        }
+    }
+
+    /**
+     * Finds the session activity counts kept by the activity event counter
+     * of the same app, if any.
+     * @return the session activity counts, or {@code null} if activities
+     *      of the app are not counted
+     */
+    @Nullable
+    private SessionActivityCounts findSessionActivityCounts() {
+        List<EventCounter> eventCounters = getExporterManager().getAppMonManager().getPersistManager()
+                .getCounterPersist().getEventCounterList();
+        for (EventCounter eventCounter : eventCounters) {
+            if (eventCounter instanceof ActivityEventCounter activityEventCounter &&
+                    deploymentName.equals(activityEventCounter.getEventInfo().getTarget())) {
+                return activityEventCounter.getSessionActivityCounts();
+            }
         }
+        return null;
     }
 
     @NonNull
@@ -245,8 +271,10 @@ public class SessionEventReader extends AbstractEventReader {
         return list.toArray(new JsonString[0]);
     }
 
-    private static JsonString serialize(@NonNull Session session) {
-        AtomicInteger count = session.getAttribute(USER_ACTIVITY_COUNT);
+    private JsonString serialize(@NonNull Session session) {
+        SessionActivityCounts sessionActivityCounts = this.sessionActivityCounts;
+        int activityCount = (sessionActivityCounts != null ?
+                sessionActivityCounts.getCount(session) : SessionActivityCounts.getStoredCount(session));
         return new JsonBuilder()
                 .nullWritable(false)
                 .prettyPrint(false)
@@ -255,7 +283,7 @@ public class SessionEventReader extends AbstractEventReader {
                     .put("username", session.getAttribute(USER_NAME))
                     .put("ipAddress", session.getAttribute(USER_IP_ADDRESS))
                     .put("countryCode", session.getAttribute(USER_COUNTRY_CODE))
-                    .put("activityCount", (count != null ? count.get() : 0))
+                    .put("activityCount", activityCount)
                     .put("createAt", formatTime(session.getCreationTime()))
                     .put("inactiveInterval", session.getMaxInactiveInterval())
                     .put("tempResident", session.isTempResident())
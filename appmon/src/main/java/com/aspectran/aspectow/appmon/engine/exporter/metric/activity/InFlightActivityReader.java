@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.exporter.metric.activity;
+
+import com.aspectran.aspectow.appmon.engine.config.MetricInfo;
+import com.aspectran.aspectow.appmon.engine.exporter.ExporterManager;
+import com.aspectran.aspectow.appmon.engine.exporter.metric.AbstractMetricReader;
+import com.aspectran.aspectow.appmon.engine.exporter.metric.MetricData;
+import com.aspectran.aspectow.appmon.engine.exporter.metric.MetricReader;
+import com.aspectran.aspectow.appmon.engine.persist.counter.ConcurrencyGauge;
+import com.aspectran.aspectow.appmon.engine.persist.counter.EventCount;
+import com.aspectran.aspectow.appmon.engine.persist.counter.EventCounter;
+import com.aspectran.aspectow.appmon.engine.persist.counter.activity.ActivityEventCounter;
+
+/**
+ * A {@link MetricReader} for monitoring the number of activities in flight.
+ * It reads the concurrency gauge of the {@link ActivityEventCounter} of the
+ * activity event named by the target of this metric, in the same app, and
+ * reports the current number of activities in flight together with the peak
+ * and the time-weighted average of the current rollup interval.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+public class InFlightActivityReader extends AbstractMetricReader {
+
+    private EventCount eventCount;
+
+    private int oldCurrent = -1;
+
+    /**
+     * Instantiates a new InFlightActivityReader.
+     * @param exporterManager the exporter manager
+     * @param metricInfo the metric configuration
+     */
+    public InFlightActivityReader(
+            ExporterManager exporterManager,
+            MetricInfo metricInfo) {
+        super(exporterManager, metricInfo);
+    }
+
+    @Override
+    public void start() throws Exception {
+        if (eventCount == null) {
+            String activityEventId = getMetricInfo().getTarget();
+            EventCounter eventCounter = getExporterManager().getAppMonManager().getPersistManager()
+                    .getCounterPersist().getEventCounter(getMetricInfo().getAppId(), activityEventId);
+            if (!(eventCounter instanceof ActivityEventCounter)) {
+                throw new IllegalStateException("No ActivityEventCounter found for event '" +
+                        activityEventId + "' of app '" + getMetricInfo().getAppId() + "'");
+            }
+            eventCount = eventCounter.getEventCount();
+        }
+        oldCurrent = -1;
+    }
+
+    @Override
+    public void stop() {
+    }
+
+    @Override
+    public MetricData getMetricData(boolean greater) {
+        if (eventCount == null) {
+            return null;
+        }
+
+        ConcurrencyGauge.Snapshot concurrency = eventCount.getTallying().getConcurrency();
+        int current = concurrency.getCurrent();
+        if (greater && current <= oldCurrent) {
+            return null;
+        }
+
+        oldCurrent = current;
+
+        return new MetricData(getMetricInfo())
+                .setFormat("{current}/{peak}")
+                .putData("current", current)
+                .putData("peak", concurrency.getPeak())
+                .putData("average", Math.round(concurrency.getAverage() * 100) / 100.0d);
+    }
+
+    @Override
+    public boolean hasChanges() {
+        if (eventCount == null) {
+            return false;
+        }
+        return (eventCount.getTallying().getConcurrency().getCurrent() != oldCurrent);
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.exporter.metric.persist;
+
+import com.aspectran.aspectow.appmon.engine.config.MetricInfo;
+import com.aspectran.aspectow.appmon.engine.exporter.ExporterManager;
+import com.aspectran.aspectow.appmon.engine.exporter.event.ChartDataCache;
+import com.aspectran.aspectow.appmon.engine.exporter.metric.AbstractMetricReader;
+import com.aspectran.aspectow.appmon.engine.exporter.metric.MetricData;
+import com.aspectran.aspectow.appmon.engine.exporter.metric.MetricReader;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * A {@link MetricReader} for monitoring the cache of chart data,
+ * reporting how often charts are served without querying the database,
+ * either from the cache or by sharing a query already in flight.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+public class ChartDataCacheMetricsReader extends AbstractMetricReader {
+
+    private ChartDataCache chartDataCache;
+
+    private long oldLookups = -1L;
+
+    /**
+     * Instantiates a new ChartDataCacheMetricsReader.
+     * @param exporterManager the exporter manager
+     * @param metricInfo the metric configuration
+     */
+    public ChartDataCacheMetricsReader(
+            @NonNull ExporterManager exporterManager,
+            @NonNull MetricInfo metricInfo) {
+        super(exporterManager, metricInfo);
+    }
+
+    @Override
+    public void start() throws Exception {
+        chartDataCache = getExporterManager().getAppMonManager().getChartDataCache();
+        oldLookups = -1L;
+    }
+
+    @Override
+    public void stop() {
+        if (chartDataCache != null) {
+            chartDataCache = null;
+        }
+    }
+
+    @Override
+    public MetricData getMetricData(boolean greater) {
+        if (chartDataCache == null) {
+            return null;
+        }
+
+        long hits = chartDataCache.getHits();
+        long misses = chartDataCache.getMisses();
+        long lookups = hits + misses;
+        if (greater && lookups == oldLookups) {
+            return null;
+        }
+
+        oldLookups = lookups;
+
+        int hitRatio = (lookups > 0L ? (int)(hits * 100L / lookups) : 0);
+
+        return new MetricData(getMetricInfo())
+                .setFormat("{hitRatio}%")
+                .putData("hits", hits)
+                .putData("misses", misses)
+                .putData("hitRatio", hitRatio)
+                .putData("coalesced", chartDataCache.getCoalesced())
+                .putData("invalidations", chartDataCache.getInvalidations())
+                .putData("size", chartDataCache.size())
+                .putData("maxEntries", chartDataCache.getMaxEntries());
+    }
+
+    @Override
+    public boolean hasChanges() {
+        return (chartDataCache != null &&
+                chartDataCache.getHits() + chartDataCache.getMisses() != oldLookups);
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.exporter.metric.persist;
+
+import com.aspectran.aspectow.appmon.engine.config.MetricInfo;
+import com.aspectran.aspectow.appmon.engine.exporter.ExporterManager;
+import com.aspectran.aspectow.appmon.engine.exporter.metric.AbstractMetricReader;
+import com.aspectran.aspectow.appmon.engine.exporter.metric.MetricData;
+import com.aspectran.aspectow.appmon.engine.exporter.metric.MetricReader;
+import com.aspectran.aspectow.appmon.engine.persist.counter.PersistJobStats;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * A {@link MetricReader} for monitoring the job that persists the event
+ * counters, reporting how long it took to write the last rollup to the
+ * database, how many rows it wrote, and how many rollups are still waiting
+ * to be written.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+public class PersistJobMetricsReader extends AbstractMetricReader {
+
+    private PersistJobStats persistJobStats;
+
+    private long oldRuns = -1L;
+
+    /**
+     * Instantiates a new PersistJobMetricsReader.
+     * @param exporterManager the exporter manager
+     * @param metricInfo the metric configuration
+     */
+    public PersistJobMetricsReader(
+            @NonNull ExporterManager exporterManager,
+            @NonNull MetricInfo metricInfo) {
+        super(exporterManager, metricInfo);
+    }
+
+    @Override
+    public void start() throws Exception {
+        persistJobStats = getExporterManager().getAppMonManager().getPersistManager()
+                .getCounterPersist().getPersistJobStats();
+        oldRuns = -1L;
+    }
+
+    @Override
+    public void stop() {
+        if (persistJobStats != null) {
+            persistJobStats = null;
+        }
+    }
+
+    @Override
+    public MetricData getMetricData(boolean greater) {
+        if (persistJobStats == null) {
+            return null;
+        }
+
+        long runs = persistJobStats.getRuns();
+        if (greater && runs == oldRuns) {
+            return null;
+        }
+
+        oldRuns = runs;
+
+        return new MetricData(getMetricInfo())
+                .setFormat("{lastElapsedTime}ms")
+                .putData("runs", runs)
+                .putData("failures", persistJobStats.getFailures())
+                .putData("lastTime", persistJobStats.getLastTime())
+                .putData("lastElapsedTime", persistJobStats.getLastElapsedTime())
+                .putData("maxElapsedTime", persistJobStats.getMaxElapsedTime())
+                .putData("averageElapsedTime", persistJobStats.getAverageElapsedTime())
+                .putData("lastCounters", persistJobStats.getLastCounters())
+                .putData("lastRows", persistJobStats.getLastRows())
+                .putData("queuedRollups", persistJobStats.getQueuedRollups())
+                .putData("spilledRollups", persistJobStats.getSpilledRollups());
+    }
+
+    @Override
+    public boolean hasChanges() {
+        return (persistJobStats != null && persistJobStats.getRuns() != oldRuns);
+    }
+
+}
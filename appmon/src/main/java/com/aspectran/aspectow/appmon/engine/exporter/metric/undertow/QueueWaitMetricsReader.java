@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.exporter.metric.undertow;
+
+import com.aspectran.aspectow.appmon.engine.config.MetricInfo;
+import com.aspectran.aspectow.appmon.engine.exporter.ExporterManager;
+import com.aspectran.aspectow.appmon.engine.exporter.metric.AbstractMetricReader;
+import com.aspectran.aspectow.appmon.engine.exporter.metric.MetricData;
+import com.aspectran.aspectow.appmon.engine.exporter.metric.MetricReader;
+import com.aspectran.aspectow.appmon.engine.persist.counter.EventCounter;
+import com.aspectran.aspectow.appmon.engine.persist.counter.LatencyHistogram;
+import com.aspectran.aspectow.appmon.engine.persist.counter.activity.ActivityEventCounter;
+import com.aspectran.aspectow.appmon.engine.persist.counter.activity.QueueWaitTime;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * A {@link MetricReader} for monitoring how long requests wait for an Undertow
+ * worker thread before their activity starts.
+ * <p>The waits are measured by the {@link ActivityEventCounter} of the activity
+ * event named by the target of this metric, in the same app, which must be
+ * configured with {@code measureQueueWait: true}. Undertow only records the
+ * start time of requests when the corresponding server option is enabled:</p>
+ * <pre>
+ *   &lt;property name="serverOptions"&gt;
+ *     &lt;bean class="com.aspectran.undertow.server.TowOptions"&gt;
+ *       &lt;property name="recordRequestStartTime" valueType="boolean"&gt;true&lt;/property&gt;
+ *     &lt;/bean&gt;
+ *   &lt;/property&gt;
+ * </pre>
+ * <p>Percentiles cover the current rollup interval and are reported in milliseconds.</p>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+public class QueueWaitMetricsReader extends AbstractMetricReader {
+
+    private QueueWaitTime queueWaitTime;
+
+    private long oldP95 = -1L;
+
+    /**
+     * Instantiates a new QueueWaitMetricsReader.
+     * @param exporterManager the exporter manager
+     * @param metricInfo the metric configuration
+     */
+    public QueueWaitMetricsReader(
+            @NonNull ExporterManager exporterManager,
+            @NonNull MetricInfo metricInfo) {
+        super(exporterManager, metricInfo);
+    }
+
+    @Override
+    public void init() throws Exception {
+        getMetricInfo().checkHasTargetParameter();
+    }
+
+    @Override
+    public void start() throws Exception {
+        if (queueWaitTime == null) {
+            String activityEventId = getMetricInfo().getTarget();
+            EventCounter eventCounter = getExporterManager().getAppMonManager().getPersistManager()
+                    .getCounterPersist().getEventCounter(getMetricInfo().getAppId(), activityEventId);
+            if (!(eventCounter instanceof ActivityEventCounter activityEventCounter)) {
+                throw new IllegalStateException("No ActivityEventCounter found for event '" +
+                        activityEventId + "' of app '" + getMetricInfo().getAppId() + "'");
+            }
+            queueWaitTime = activityEventCounter.getQueueWaitTime();
+            if (queueWaitTime == null) {
+                throw new IllegalStateException("Queue wait is not measured for event '" +
+                        activityEventId + "' of app '" + getMetricInfo().getAppId() + "'");
+            }
+        }
+        oldP95 = -1L;
+    }
+
+    @Override
+    public void stop() {
+    }
+
+    @Override
+    public MetricData getMetricData(boolean greater) {
+        if (queueWaitTime == null) {
+            return null;
+        }
+
+        LatencyHistogram.Snapshot snapshot = queueWaitTime.getCurrentPeriod();
+        long p95 = snapshot.getValueAtPercentile(95.0);
+        if (greater && p95 <= oldP95) {
+            return null;
+        }
+
+        oldP95 = p95;
+
+        return new MetricData(getMetricInfo())
+                .setFormat("{p95}ms")
+                .putData("count", snapshot.getTotal())
+                .putData("p50", toMillis(snapshot.getValueAtPercentile(50.0)))
+                .putData("p95", toMillis(p95))
+                .putData("p99", toMillis(snapshot.getValueAtPercentile(99.0)));
+    }
+
+    @Override
+    public boolean hasChanges() {
+        if (queueWaitTime == null) {
+            return false;
+        }
+        return (queueWaitTime.getCurrentPeriod().getValueAtPercentile(95.0) != oldP95);
+    }
+
+    private static double toMillis(long micros) {
+        return Math.round(micros / 10.0d) / 100.0d;
+    }
+
+}
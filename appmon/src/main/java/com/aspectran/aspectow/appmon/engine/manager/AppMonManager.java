@@ -18,6 +18,8 @@ package com.aspectran.aspectow.appmon.engine.manager;
 import com.aspectran.aspectow.appmon.engine.config.AppInfo;
 import com.aspectran.aspectow.appmon.engine.config.AppInfoHolder;
 import com.aspectran.aspectow.appmon.engine.config.PollingConfig;
+import com.aspectran.aspectow.appmon.engine.config.RetentionConfig;
+import com.aspectran.aspectow.appmon.engine.exporter.event.ChartDataCache;
 import com.aspectran.aspectow.appmon.engine.persist.PersistManager;
 import com.aspectran.aspectow.appmon.engine.relay.MessageRelayManager;
 import com.aspectran.aspectow.node.config.NodeInfo;
@@ -46,6 +48,8 @@ public class AppMonManager extends InstantActivitySupport {
 
     private final int counterPersistInterval;
 
+    private final RetentionConfig retentionConfig;
+
     private final NodeInfoHolder nodeInfoHolder;
 
     private final AppInfoHolder appInfoHolder;
@@ -54,11 +58,14 @@ public class AppMonManager extends InstantActivitySupport {
 
     private final PersistManager persistManager;
 
+    private final ChartDataCache chartDataCache;
+
     /**
      * Instantiates a new AppMonManager.
      * @param nodeId the name of the current domain
      * @param pollingConfig the polling configuration
      * @param counterPersistInterval the counter persistence interval in minutes
+     * @param retentionConfig the retention configuration of the persisted event counts
      * @param nodeInfoHolder the holder for domain information
      * @param appInfoHolder the holder for instance information
      */
@@ -66,16 +73,19 @@ public class AppMonManager extends InstantActivitySupport {
             String nodeId,
             PollingConfig pollingConfig,
             int counterPersistInterval,
+            RetentionConfig retentionConfig,
             NodeInfoHolder nodeInfoHolder,
             AppInfoHolder appInfoHolder,
             MessageRelayManager messageRelayManager) {
         this.nodeId = nodeId;
         this.pollingConfig = pollingConfig;
         this.counterPersistInterval = counterPersistInterval;
+        this.retentionConfig = retentionConfig;
         this.nodeInfoHolder = nodeInfoHolder;
         this.appInfoHolder = appInfoHolder;
         this.messageRelayManager = messageRelayManager;
         this.persistManager = new PersistManager();
+        this.chartDataCache = new ChartDataCache();
     }
 
     @Override
@@ -114,6 +124,14 @@ public class AppMonManager extends InstantActivitySupport {
         return counterPersistInterval;
     }
 
+    /**
+     * Gets the retention configuration of the persisted event counts.
+     * @return the retention configuration
+     */
+    public RetentionConfig getRetentionConfig() {
+        return retentionConfig;
+    }
+
     /**
      * Gets the list of all node information.
      * @return the list of node information
@@ -169,6 +187,14 @@ public class AppMonManager extends InstantActivitySupport {
         return persistManager;
     }
 
+    /**
+     * Gets the cache of the chart data served to viewers.
+     * @return the chart data cache
+     */
+    public ChartDataCache getChartDataCache() {
+        return chartDataCache;
+    }
+
     @Override
     public <V> V instantActivity(InstantAction<V> instantAction) {
         return super.instantActivity(instantAction);
@@ -22,6 +22,7 @@ import com.aspectran.aspectow.appmon.engine.config.EventInfo;
 import com.aspectran.aspectow.appmon.engine.config.LogInfo;
 import com.aspectran.aspectow.appmon.engine.config.MetricInfo;
 import com.aspectran.aspectow.appmon.engine.config.PollingConfig;
+import com.aspectran.aspectow.appmon.engine.config.RetentionConfig;
 import com.aspectran.aspectow.appmon.engine.exporter.ExporterManager;
 import com.aspectran.aspectow.appmon.engine.exporter.ExporterType;
 import com.aspectran.aspectow.appmon.engine.exporter.event.ChartDataExporter;
@@ -159,13 +160,14 @@ public abstract class AppMonManagerBuilder {
 
         PollingConfig pollingConfig = appMonConfig.touchPollingConfig();
         int counterPersistInterval = appMonConfig.getCounterPersistInterval(DEFAULT_SAMPLE_INTERVAL_IN_MINUTES);
+        RetentionConfig retentionConfig = appMonConfig.touchRetentionConfig();
 
         AppInfoHolder appInfoHolder = new AppInfoHolder(nodeId, appMonConfig.getAppInfoList());
 
         MessageRelayManager messageRelayManager = new MessageRelayManager(nodeManager.getRedisMessagePublisher());
 
         AppMonManager appMonManager = new AppMonManager(
-                nodeId, pollingConfig, counterPersistInterval,
+                nodeId, pollingConfig, counterPersistInterval, retentionConfig,
                 nodeInfoHolder, appInfoHolder, messageRelayManager);
         appMonManager.setActivityContext(context);
 
@@ -36,7 +36,7 @@ public abstract class AbstractEventCounter implements EventCounter {
 
     private final String eventId;
 
-    private final EventCount eventCount = new EventCount();
+    private final EventCount eventCount;
 
     /**
      * Instantiates a new AbstractEventCounter.
@@ -45,6 +45,8 @@ public abstract class AbstractEventCounter implements EventCounter {
     public AbstractEventCounter(@NonNull EventInfo eventInfo) {
         this.eventInfo = eventInfo;
         this.eventId = eventInfo.getEventId();
+        int maxErrorTypes = eventInfo.getMaxErrorTypes(EventCount.DEFAULT_MAX_ERROR_TYPES);
+        this.eventCount = new EventCount(maxErrorTypes > 0 ? maxErrorTypes : EventCount.DEFAULT_MAX_ERROR_TYPES);
     }
 
     @Override
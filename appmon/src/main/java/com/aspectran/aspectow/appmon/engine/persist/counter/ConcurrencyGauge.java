@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks how many events, such as activities, are in flight at once.
+ * <p>Besides the current number, it keeps the peak and the time-weighted
+ * average of the number in flight over each rollup period. The average is
+ * derived from the area under the in-flight curve: every event that finishes
+ * adds the part of its duration that falls within the period, and at rollup
+ * the events still in flight add the part up to that moment and are then
+ * treated as if they had started anew. No lock is taken when an event starts
+ * or finishes; an event finishing concurrently with a rollup may be
+ * attributed slightly imprecisely.</p>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+public class ConcurrencyGauge {
+
+    private final AtomicInteger current = new AtomicInteger();
+
+    private final AtomicInteger peak = new AtomicInteger();
+
+    /** The sum of the in-period durations of finished events, never reset */
+    private final LongAdder finishedArea = new LongAdder();
+
+    /** The sum of the in-period start times of the events in flight */
+    private final LongAdder inFlightStarts = new LongAdder();
+
+    private volatile long periodStart = System.currentTimeMillis();
+
+    private volatile long drainedArea;
+
+    /**
+     * Records that an event has started.
+     * @param startTime the start time in milliseconds since the epoch
+     */
+    public void enter(long startTime) {
+        int now = current.incrementAndGet();
+        int max;
+        while (now > (max = peak.get()) && !peak.compareAndSet(max, now)) {
+            // retry until the peak is at least the current number
+        }
+        inFlightStarts.add(startTime);
+    }
+
+    /**
+     * Records that an event has finished.
+     * @param startTime the start time in milliseconds since the epoch
+     * @param endTime the end time in milliseconds since the epoch
+     */
+    public void exit(long startTime, long endTime) {
+        long effectiveStart = Math.max(startTime, periodStart);
+        inFlightStarts.add(-effectiveStart);
+        finishedArea.add(Math.max(endTime - effectiveStart, 0L));
+        current.decrementAndGet();
+    }
+
+    /**
+     * Returns the readings of the current period so far.
+     * @return a snapshot of the gauge
+     */
+    public Snapshot snapshot() {
+        long now = System.currentTimeMillis();
+        int inFlight = Math.max(current.get(), 0);
+        long area = (finishedArea.sum() - drainedArea) + ((long)inFlight * now - inFlightStarts.sum());
+        return new Snapshot(inFlight, Math.max(peak.get(), inFlight), average(area, now - periodStart, inFlight));
+    }
+
+    /**
+     * Returns the readings of the current period and starts a new one.
+     * @return a snapshot of the gauge for the period just ended
+     */
+    synchronized Snapshot drain() {
+        long now = System.currentTimeMillis();
+        int inFlight = Math.max(current.get(), 0);
+        long starts = inFlightStarts.sum();
+        long area = finishedArea.sum();
+        long periodArea = (area - drainedArea) + ((long)inFlight * now - starts);
+        drainedArea = area;
+        // Events still in flight are carried over as if they started now
+        inFlightStarts.add((long)inFlight * now - starts);
+        long duration = now - periodStart;
+        periodStart = now;
+        int max = peak.getAndSet(inFlight);
+        return new Snapshot(inFlight, Math.max(max, inFlight), average(periodArea, duration, inFlight));
+    }
+
+    private static double average(long area, long duration, int inFlight) {
+        if (duration <= 0L) {
+            return inFlight;
+        }
+        return Math.max((double)area / duration, 0.0);
+    }
+
+    /**
+     * Immutable readings of a {@link ConcurrencyGauge}.
+     */
+    public static class Snapshot {
+
+        private final int current;
+
+        private final int peak;
+
+        private final double average;
+
+        Snapshot(int current, int peak, double average) {
+            this.current = current;
+            this.peak = peak;
+            this.average = average;
+        }
+
+        /**
+         * Returns the number of events in flight.
+         * @return the current number of events in flight
+         */
+        public int getCurrent() {
+            return current;
+        }
+
+        /**
+         * Returns the highest number of events in flight at once during the period.
+         * @return the peak number of events in flight
+         */
+        public int getPeak() {
+            return peak;
+        }
+
+        /**
+         * Returns the time-weighted average number of events in flight during the period.
+         * @return the average number of events in flight
+         */
+        public double getAverage() {
+            return average;
+        }
+
+    }
+
+}
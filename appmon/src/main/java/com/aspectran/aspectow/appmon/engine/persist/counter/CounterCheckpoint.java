@@ -0,0 +1,396 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter;
+
+import org.jspecify.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A local checkpoint of the event counters, so that the counts tallied since
+ * the last rollup are not lost when the process is killed before they are
+ * rolled up and saved.
+ * <p>The checkpoint is a small memory-mapped file with one fixed-size record
+ * per counter, written every second by a background thread. Each record has
+ * two slots that are written alternately, each with a sequence number and a
+ * checksum, so that a slot left incomplete by a crash is ignored in favor of
+ * the other. Only counters whose counts have changed are written, and the
+ * file is not forced to the storage device on each write: the mapped pages
+ * outlive the process, which is what the checkpoint guards against.</p>
+ * <p>Along with the counts, each record carries the counts of the last rollup
+ * known to be stored, either in the database or in the spill file from which
+ * it is replayed on startup. Errors are kept as a running total across rollup
+ * periods, like the event total, so that the errors of any number of rollups
+ * can be told apart from those already stored.</p>
+ * <p>On startup, the checkpoint is loaded before the counters are reset from
+ * their last saved state, and the counts it holds beyond that state are added
+ * back to the counters with {@link #recover(EventCounter)}.</p>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+public class CounterCheckpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(CounterCheckpoint.class);
+
+    static final int TALLIED_TOTAL = 0;
+
+    /** The errors rolled up since the counter was reset, not only in the last period */
+    static final int TALLIED_ERROR_TOTAL = 1;
+
+    static final int TALLYING_TOTAL = 2;
+
+    static final int TALLYING_ERROR = 3;
+
+    /** The tallied total as of the last rollup known to be stored */
+    static final int STORED_TOTAL = 4;
+
+    /** The running error total as of the last rollup known to be stored */
+    static final int STORED_ERROR_TOTAL = 5;
+
+    /** The number of values in the state of a counter */
+    static final int STATE_VALUES = 6;
+
+    private static final int MAGIC = 0x41434B50; // "ACKP"
+
+    private static final int VERSION = 2;
+
+    private static final int HEADER_SIZE = 16;
+
+    private static final int MAX_KEY_LENGTH = 190;
+
+    private static final int KEY_AREA_SIZE = 192;
+
+    /** A slot holds a sequence number, the state and a checksum */
+    private static final int SLOT_SIZE = (STATE_VALUES + 2) * Long.BYTES;
+
+    private static final int RECORD_SIZE = KEY_AREA_SIZE + 2 * SLOT_SIZE;
+
+    private final Path file;
+
+    private final Map<String, long[]> savedStates = new HashMap<>();
+
+    private final Object lock = new Object();
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    private FileChannel channel;
+
+    private MappedByteBuffer buffer;
+
+    private Thread thread;
+
+    private long interval;
+
+    private boolean stopped;
+
+    /**
+     * Instantiates a new CounterCheckpoint.
+     * @param file the path of the checkpoint file
+     */
+    public CounterCheckpoint(@NonNull Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Loads the counter states from the checkpoint written before the last shutdown, if any.
+     * A checkpoint file that cannot be recognized is ignored.
+     * @throws IOException if the checkpoint file cannot be read
+     */
+    public void load() throws IOException {
+        savedStates.clear();
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < HEADER_SIZE) {
+                logger.warn("Ignoring an incomplete counter checkpoint file {}", file);
+                return;
+            }
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int records = buf.getInt(8);
+            if (buf.getInt(0) != MAGIC || buf.getInt(4) != VERSION || buf.getInt(12) != RECORD_SIZE ||
+                    records < 0 || HEADER_SIZE + (long)records * RECORD_SIZE > size) {
+                logger.warn("Ignoring an unrecognized counter checkpoint file {}", file);
+                return;
+            }
+            for (int i = 0; i < records; i++) {
+                int offset = HEADER_SIZE + i * RECORD_SIZE;
+                int keyLength = buf.getShort(offset);
+                if (keyLength <= 0 || keyLength > MAX_KEY_LENGTH) {
+                    continue;
+                }
+                byte[] keyBytes = new byte[keyLength];
+                buf.get(offset + 2, keyBytes);
+                long[] state0 = new long[STATE_VALUES];
+                long[] state1 = new long[STATE_VALUES];
+                long seq0 = readSlot(buf, offset + KEY_AREA_SIZE, state0);
+                long seq1 = readSlot(buf, offset + KEY_AREA_SIZE + SLOT_SIZE, state1);
+                if (seq0 > 0L || seq1 > 0L) {
+                    savedStates.put(new String(keyBytes, StandardCharsets.UTF_8), (seq0 > seq1 ? state0 : state1));
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds back to a counter the counts that the loaded checkpoint holds beyond
+     * the state the counter has just been reset to from the database.
+     * <p>The counts of the rollups that were stored are never recovered, even
+     * if they have not reached the database yet: rollups still pending in the
+     * spill file will be written after the counter is reset, so only the counts
+     * of the rollups that were lost with the in-memory queue are recovered along
+     * with the counts tallied since the last rollup. If the database holds a
+     * rollup that was stored after the checkpoint was taken, the errors of the
+     * rollups in between can no longer be told apart, and only the errors
+     * tallied since the last rollup are recovered with the events. Nothing is
+     * recovered if the database holds every count of the checkpoint.</p>
+     * @param eventCounter the event counter that has been reset from its saved state
+     * @return true if counts were recovered; false otherwise
+     */
+    public boolean recover(@NonNull EventCounter eventCounter) {
+        long[] saved = savedStates.remove(createKey(eventCounter.getAppId(), eventCounter.getEventId()));
+        if (saved == null) {
+            return false;
+        }
+        long[] current = new long[STATE_VALUES];
+        eventCounter.getEventCount().snapshot(current);
+        long databaseTotal = current[TALLIED_TOTAL];
+        long total;
+        long error;
+        if (databaseTotal <= saved[STORED_TOTAL]) {
+            total = saved[TALLIED_TOTAL] + saved[TALLYING_TOTAL] - saved[STORED_TOTAL];
+            error = saved[TALLIED_ERROR_TOTAL] + saved[TALLYING_ERROR] - saved[STORED_ERROR_TOTAL];
+        } else if (databaseTotal <= saved[TALLIED_TOTAL]) {
+            total = saved[TALLIED_TOTAL] + saved[TALLYING_TOTAL] - databaseTotal;
+            error = saved[TALLYING_ERROR];
+        } else {
+            return false;
+        }
+        total = Math.max(total, 0L);
+        error = Math.max(error, 0L);
+        if (total == 0L && error == 0L) {
+            return false;
+        }
+        eventCounter.getEventCount().restore(total, error);
+        return true;
+    }
+
+    /**
+     * Writes a new checkpoint file for the given counters, replacing the one
+     * loaded, and starts the background thread that keeps it up to date.
+     * @param eventCounters the event counters to checkpoint
+     * @param interval the interval between checkpoints in milliseconds
+     * @throws IOException if the checkpoint file cannot be written
+     */
+    public void start(@NonNull List<EventCounter> eventCounters, long interval) throws IOException {
+        synchronized (lock) {
+            if (thread != null) {
+                return;
+            }
+            entries.clear();
+            for (EventCounter eventCounter : eventCounters) {
+                String key = createKey(eventCounter.getAppId(), eventCounter.getEventId());
+                byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+                if (keyBytes.length > MAX_KEY_LENGTH) {
+                    logger.warn("Event counter '{}' is not checkpointed because its identifier is too long", key);
+                    continue;
+                }
+                entries.add(new Entry(eventCounter.getEventCount(), keyBytes,
+                        HEADER_SIZE + entries.size() * RECORD_SIZE));
+            }
+
+            // Write the new file aside and move it into place, so that the loaded
+            // checkpoint is not lost if this is interrupted by a crash
+            long size = HEADER_SIZE + (long)entries.size() * RECORD_SIZE;
+            Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (FileChannel ch = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buf.putInt(4, VERSION);
+                buf.putInt(8, entries.size());
+                buf.putInt(12, RECORD_SIZE);
+                for (Entry entry : entries) {
+                    buf.putShort(entry.offset, (short)entry.keyBytes.length);
+                    buf.put(entry.offset + 2, entry.keyBytes);
+                    write(buf, entry);
+                }
+                buf.putInt(0, MAGIC);
+                buf.force();
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            savedStates.clear();
+
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            this.interval = interval;
+            stopped = false;
+            thread = new Thread(this::run, "appmon-counter-checkpoint");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Writes the current state of every counter whose counts have changed
+     * since the last checkpoint.
+     */
+    public void checkpoint() {
+        synchronized (lock) {
+            if (buffer != null) {
+                for (Entry entry : entries) {
+                    write(buffer, entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops the background thread, writes a final checkpoint and closes the file.
+     */
+    public void stop() {
+        Thread thread;
+        synchronized (lock) {
+            stopped = true;
+            lock.notifyAll();
+            thread = this.thread;
+            this.thread = null;
+        }
+        if (thread != null) {
+            try {
+                thread.join(interval + 1000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (lock) {
+            if (buffer != null) {
+                try {
+                    checkpoint();
+                    buffer.force();
+                } finally {
+                    buffer = null;
+                    try {
+                        channel.close();
+                    } catch (IOException e) {
+                        logger.warn("Failed to close the counter checkpoint file", e);
+                    }
+                    channel = null;
+                }
+            }
+        }
+    }
+
+    private void run() {
+        synchronized (lock) {
+            while (!stopped) {
+                try {
+                    lock.wait(interval);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                if (!stopped) {
+                    try {
+                        checkpoint();
+                    } catch (RuntimeException e) {
+                        logger.warn("Failed to checkpoint the event counters", e);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void write(@NonNull MappedByteBuffer buf, @NonNull Entry entry) {
+        entry.eventCount.snapshot(entry.state);
+        if (entry.seq > 0L && Arrays.equals(entry.state, entry.written)) {
+            return;
+        }
+        long seq = entry.seq + 1L;
+        int pos = entry.offset + KEY_AREA_SIZE + (int)(seq & 1L) * SLOT_SIZE;
+        buf.putLong(pos, seq);
+        for (int i = 0; i < STATE_VALUES; i++) {
+            buf.putLong(pos + (i + 1) * Long.BYTES, entry.state[i]);
+        }
+        buf.putLong(pos + (STATE_VALUES + 1) * Long.BYTES, checksum(seq, entry.state));
+        entry.seq = seq;
+        System.arraycopy(entry.state, 0, entry.written, 0, STATE_VALUES);
+    }
+
+    private static long readSlot(@NonNull MappedByteBuffer buf, int pos, long[] state) {
+        long seq = buf.getLong(pos);
+        if (seq <= 0L) {
+            return 0L;
+        }
+        for (int i = 0; i < STATE_VALUES; i++) {
+            state[i] = buf.getLong(pos + (i + 1) * Long.BYTES);
+        }
+        long checksum = buf.getLong(pos + (STATE_VALUES + 1) * Long.BYTES);
+        return (checksum == checksum(seq, state) ? seq : 0L);
+    }
+
+    private static long checksum(long seq, @NonNull long[] state) {
+        long hash = seq * 0x9E3779B97F4A7C15L;
+        for (long value : state) {
+            hash = (hash ^ value) * 0x100000001B3L;
+            hash ^= (hash >>> 29);
+        }
+        return hash;
+    }
+
+    @NonNull
+    private static String createKey(String appId, String eventId) {
+        return appId + ":" + eventId;
+    }
+
+    private static class Entry {
+
+        private final EventCount eventCount;
+
+        private final byte[] keyBytes;
+
+        private final int offset;
+
+        private final long[] state = new long[STATE_VALUES];
+
+        private final long[] written = new long[STATE_VALUES];
+
+        private long seq;
+
+        Entry(EventCount eventCount, byte[] keyBytes, int offset) {
+            this.eventCount = eventCount;
+            this.keyBytes = keyBytes;
+            this.offset = offset;
+        }
+
+    }
+
+}
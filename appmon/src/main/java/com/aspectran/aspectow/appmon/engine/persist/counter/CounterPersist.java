@@ -17,6 +17,7 @@ package com.aspectran.aspectow.appmon.engine.persist.counter;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Manages a list of {@link EventCounter} instances.
@@ -28,6 +29,8 @@ public class CounterPersist {
 
     private final List<EventCounter> eventCounterList = new ArrayList<>();
 
+    private final PersistJobStats persistJobStats = new PersistJobStats();
+
     /**
      * Adds an event counter to the manager.
      * @param eventCounter the event counter to add
@@ -36,6 +39,30 @@ public class CounterPersist {
         eventCounterList.add(eventCounter);
     }
 
+    /**
+     * Finds the event counter for the given app and event.
+     * @param appId the app identifier
+     * @param eventId the event identifier
+     * @return the event counter, or {@code null} if none is registered
+     */
+    public EventCounter getEventCounter(String appId, String eventId) {
+        for (EventCounter eventCounter : eventCounterList) {
+            if (Objects.equals(eventCounter.getAppId(), appId) &&
+                    Objects.equals(eventCounter.getEventId(), eventId)) {
+                return eventCounter;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the timing statistics of the job that persists the event counters.
+     * @return the persist job statistics
+     */
+    public PersistJobStats getPersistJobStats() {
+        return persistJobStats;
+    }
+
     /**
      * Gets the list of all registered event counters.
      * @return a list of {@link EventCounter} instances
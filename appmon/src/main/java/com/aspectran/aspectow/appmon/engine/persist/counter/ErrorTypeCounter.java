@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter;
+
+import com.aspectran.utils.Assert;
+import org.jspecify.annotations.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts errors by type, such as the class name of the root cause exception,
+ * in bounded memory.
+ * <p>At most {@code capacity} types are counted individually; errors of any
+ * further type are counted in a single {@link #OVERFLOW} bucket. As with
+ * {@link EventCount}, the counters are never reset: each drain takes the
+ * difference from the previous one. Types that had no errors during a period
+ * are dropped at the end of it to make room for new ones.</p>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+public class ErrorTypeCounter {
+
+    /** The type under which errors of types beyond the capacity are counted. */
+    public static final String OVERFLOW = "(other)";
+
+    private final int capacity;
+
+    private final Map<String, Slot> slots;
+
+    private final Slot overflow = new Slot();
+
+    /**
+     * Instantiates a new ErrorTypeCounter.
+     * @param capacity the maximum number of error types counted individually
+     */
+    public ErrorTypeCounter(int capacity) {
+        Assert.isTrue(capacity > 0, "capacity must be greater than 0");
+        this.capacity = capacity;
+        this.slots = new ConcurrentHashMap<>(capacity * 2);
+    }
+
+    /**
+     * Increments the count of the given error type.
+     * @param type the error type
+     */
+    public void count(@NonNull String type) {
+        while (true) {
+            Slot slot = slots.get(type);
+            if (slot == null) {
+                slot = admit(type);
+            }
+            if (slot.increment()) {
+                return;
+            }
+            // The slot was retired by a drain; count in a new one
+        }
+    }
+
+    private synchronized Slot admit(String type) {
+        Slot slot = slots.get(type);
+        if (slot == null) {
+            if (slots.size() >= capacity) {
+                return overflow;
+            }
+            slot = new Slot();
+            slots.put(type, slot);
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the error counts of the current period without draining them.
+     * @return the counts by error type, in descending order of count
+     */
+    public Map<String, Long> snapshot() {
+        List<Map.Entry<String, Long>> counts = new ArrayList<>(slots.size() + 1);
+        for (Map.Entry<String, Slot> entry : slots.entrySet()) {
+            long count = entry.getValue().pending();
+            if (count > 0L) {
+                counts.add(Map.entry(entry.getKey(), count));
+            }
+        }
+        long count = overflow.pending();
+        if (count > 0L) {
+            counts.add(Map.entry(OVERFLOW, count));
+        }
+        return sorted(counts);
+    }
+
+    /**
+     * Drains the error counts of the current period and starts a new one.
+     * A type that had been idle for the whole period is retired only if no
+     * error was counted for it in the meantime, so that none is missed.
+     * @return the counts by error type, in descending order of count
+     */
+    synchronized Map<String, Long> drain() {
+        List<Map.Entry<String, Long>> counts = new ArrayList<>(slots.size() + 1);
+        for (Map.Entry<String, Slot> entry : slots.entrySet()) {
+            long count = entry.getValue().drain();
+            if (count > 0L) {
+                counts.add(Map.entry(entry.getKey(), count));
+            } else if (entry.getValue().retire()) {
+                slots.remove(entry.getKey(), entry.getValue());
+            }
+        }
+        long count = overflow.drain();
+        if (count > 0L) {
+            counts.add(Map.entry(OVERFLOW, count));
+        }
+        return sorted(counts);
+    }
+
+    @NonNull
+    private static Map<String, Long> sorted(@NonNull List<Map.Entry<String, Long>> counts) {
+        if (counts.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        counts.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        Map<String, Long> map = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : counts) {
+            map.put(entry.getKey(), entry.getValue());
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    private static class Slot {
+
+        private static final long RETIRED = -1L;
+
+        private final AtomicLong count = new AtomicLong();
+
+        private volatile long drained;
+
+        boolean increment() {
+            long current;
+            do {
+                current = count.get();
+                if (current == RETIRED) {
+                    return false;
+                }
+            } while (!count.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        long pending() {
+            long current = count.get();
+            return (current == RETIRED ? 0L : Math.max(current - drained, 0L));
+        }
+
+        long drain() {
+            long sum = count.get();
+            long delta = sum - drained;
+            drained = sum;
+            return delta;
+        }
+
+        boolean retire() {
+            // Fails if an error was counted since the last drain
+            return count.compareAndSet(drained, RETIRED);
+        }
+
+    }
+
+}
@@ -19,28 +19,61 @@ import com.aspectran.utils.Assert;
 import org.jspecify.annotations.NonNull;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Holds and manages the count data for a specific event.
  * It separates counts into a short-term 'tallying' period and a long-term 'tallied' aggregate.
- * This class is thread-safe.
+ * This class is thread-safe, and no event counted concurrently with a rollup is lost.
  *
  * <p>Created: 2025-02-12</p>
  */
 public class EventCount {
 
-    private final Tallying tallying = new Tallying();
+    /** The default maximum number of error types counted individually. */
+    public static final int DEFAULT_MAX_ERROR_TYPES = 30;
+
+    private final Tallying tallying;
 
     private final Tallied tallied = new Tallied();
 
+    private final RollingWindow perSecond = new RollingWindow(1000L, 300);
+
+    private final RollingWindow perTenSeconds = new RollingWindow(10_000L, 360);
+
     private volatile boolean updated;
 
+    private long storedTotal;
+
+    private long storedErrorTotal;
+
+    /**
+     * Instantiates a new EventCount.
+     */
+    public EventCount() {
+        this(DEFAULT_MAX_ERROR_TYPES);
+    }
+
+    /**
+     * Instantiates a new EventCount.
+     * @param maxErrorTypes the maximum number of error types counted individually
+     */
+    public EventCount(int maxErrorTypes) {
+        this.tallying = new Tallying(maxErrorTypes);
+    }
+
     /**
      * Increments the event count.
      */
     public void count() {
         tallying.count();
+        long now = System.currentTimeMillis();
+        perSecond.count(now);
+        perTenSeconds.count(now);
     }
 
     /**
@@ -48,6 +81,47 @@ public class EventCount {
      */
     public void error() {
         tallying.error();
+        rollingError();
+    }
+
+    /**
+     * Increments the error count and the count of the given error type.
+     * @param type the error type, such as the class name of the root cause
+     */
+    public void error(@NonNull String type) {
+        tallying.error(type);
+        rollingError();
+    }
+
+    private void rollingError() {
+        long now = System.currentTimeMillis();
+        perSecond.error(now);
+        perTenSeconds.error(now);
+    }
+
+    /**
+     * Records the latency of a single event.
+     * @param elapsedTime the elapsed time in milliseconds
+     */
+    public void latency(long elapsedTime) {
+        tallying.latency(elapsedTime);
+    }
+
+    /**
+     * Records that an event has started and is now in flight.
+     * @param startTime the start time in milliseconds since the epoch
+     */
+    public void enter(long startTime) {
+        tallying.enter(startTime);
+    }
+
+    /**
+     * Records that an event previously entered has finished.
+     * @param startTime the start time in milliseconds since the epoch
+     * @param endTime the end time in milliseconds since the epoch
+     */
+    public void exit(long startTime, long endTime) {
+        tallying.exit(startTime, endTime);
     }
 
     /**
@@ -66,6 +140,24 @@ public class EventCount {
         return tallied;
     }
 
+    /**
+     * Gets the events and errors of the last five minutes in one-second buckets.
+     * These are kept in memory only, for live rates and sparklines.
+     * @return the per-second rolling window
+     */
+    public RollingWindow getPerSecond() {
+        return perSecond;
+    }
+
+    /**
+     * Gets the events and errors of the last hour in ten-second buckets.
+     * These are kept in memory only, for live rates and sparklines.
+     * @return the per-ten-seconds rolling window
+     */
+    public RollingWindow getPerTenSeconds() {
+        return perTenSeconds;
+    }
+
     /**
      * Checks if the count has been updated since the last rollup.
      * @return {@code true} if updated, {@code false} otherwise
@@ -81,7 +173,6 @@ public class EventCount {
     synchronized void rollup(LocalDateTime datetime) {
         Assert.notNull(datetime, "datetime must not be null");
         updated = tallied.update(datetime, tallying);
-        tallying.reset();
     }
 
     /**
@@ -98,10 +189,60 @@ public class EventCount {
         tallied.update(datetime, total, delta, error);
         tallying.reset();
         updated = false;
+        storedTotal = total;
+        storedErrorTotal = 0L;
+    }
+
+    /**
+     * Marks the counts rolled up so far, so that they can be reported as stored
+     * once the rollup that carries them has been written to the database or to
+     * a local file from which it will be replayed.
+     * @return the mark of the counts rolled up so far
+     */
+    public synchronized Mark mark() {
+        return new Mark(this, tallied.getTotal(), tallied.errorTotal);
+    }
+
+    private synchronized void stored(@NonNull Mark mark) {
+        if (mark.total >= storedTotal && mark.errorTotal >= storedErrorTotal) {
+            storedTotal = mark.total;
+            storedErrorTotal = mark.errorTotal;
+        }
+    }
+
+    /**
+     * Captures the tallied counts together with the counts tallied since the
+     * last rollup. Taken under the same lock as a rollup, so that no count is
+     * seen both as tallying and as tallied, or as neither.
+     * @param state the array to fill, indexed by the constants of {@link CounterCheckpoint}
+     */
+    synchronized void snapshot(@NonNull long[] state) {
+        state[CounterCheckpoint.TALLIED_TOTAL] = tallied.getTotal();
+        state[CounterCheckpoint.TALLIED_ERROR_TOTAL] = tallied.errorTotal;
+        state[CounterCheckpoint.TALLYING_TOTAL] = tallying.getTotal();
+        state[CounterCheckpoint.TALLYING_ERROR] = tallying.getError();
+        state[CounterCheckpoint.STORED_TOTAL] = storedTotal;
+        state[CounterCheckpoint.STORED_ERROR_TOTAL] = storedErrorTotal;
+    }
+
+    /**
+     * Adds counts that were lost by a crash to the current tallying period,
+     * so that they are included in the next rollup.
+     * @param total the number of events to add
+     * @param error the number of errors to add
+     */
+    void restore(long total, long error) {
+        Assert.isTrue(total >= 0, "total must be positive");
+        Assert.isTrue(error >= 0, "error must be positive");
+        tallying.restore(total, error);
     }
 
     /**
      * Holds the counts for the current, short-term tallying period.
+     * <p>The underlying counters are never reset, so incrementing them stays
+     * wait-free and cannot race with a rollup. Instead, each rollup drains the
+     * difference from the values it drained last time; an increment that lands
+     * while a rollup is in progress is simply counted in the next period.</p>
      */
     public static class Tallying {
 
@@ -109,6 +250,20 @@ public class EventCount {
 
         private final LongAdder error = new LongAdder();
 
+        private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+
+        private final ErrorTypeCounter errorTypeCounter;
+
+        private final ConcurrencyGauge concurrencyGauge = new ConcurrencyGauge();
+
+        private volatile long drainedTotal;
+
+        private volatile long drainedError;
+
+        private Tallying(int maxErrorTypes) {
+            this.errorTypeCounter = new ErrorTypeCounter(maxErrorTypes);
+        }
+
         /**
          * Increments the total count.
          */
@@ -123,12 +278,46 @@ public class EventCount {
             error.increment();
         }
 
+        /**
+         * Increments the error count and the count of the given error type.
+         * @param type the error type
+         */
+        public void error(@NonNull String type) {
+            error.increment();
+            errorTypeCounter.count(type);
+        }
+
+        /**
+         * Records the latency of a single event.
+         * @param elapsedTime the elapsed time in milliseconds
+         */
+        public void latency(long elapsedTime) {
+            latencyHistogram.record(elapsedTime);
+        }
+
+        /**
+         * Records that an event has started.
+         * @param startTime the start time in milliseconds since the epoch
+         */
+        public void enter(long startTime) {
+            concurrencyGauge.enter(startTime);
+        }
+
+        /**
+         * Records that an event has finished.
+         * @param startTime the start time in milliseconds since the epoch
+         * @param endTime the end time in milliseconds since the epoch
+         */
+        public void exit(long startTime, long endTime) {
+            concurrencyGauge.exit(startTime, endTime);
+        }
+
         /**
          * Gets the total count for the current period.
          * @return the total count
          */
         public long getTotal() {
-            return total.sum();
+            return Math.max(total.sum() - drainedTotal, 0L);
         }
 
         /**
@@ -136,15 +325,74 @@ public class EventCount {
          * @return the error count
          */
         public long getError() {
-            return error.sum();
+            return Math.max(error.sum() - drainedError, 0L);
+        }
+
+        /**
+         * Gets the latency distribution for the current period.
+         * @return a snapshot of the latency histogram
+         */
+        public LatencyHistogram.Snapshot getLatency() {
+            return latencyHistogram.snapshot();
+        }
+
+        /**
+         * Gets the error counts by type for the current period.
+         * @return the counts by error type, in descending order of count
+         */
+        public Map<String, Long> getErrorTypes() {
+            return errorTypeCounter.snapshot();
+        }
+
+        /**
+         * Gets the number of events in flight, with the peak and time-weighted
+         * average for the current period.
+         * @return a snapshot of the concurrency gauge
+         */
+        public ConcurrencyGauge.Snapshot getConcurrency() {
+            return concurrencyGauge.snapshot();
         }
 
         /**
          * Resets all counts for the current period to zero.
          */
-        public void reset() {
-            total.reset();
-            error.reset();
+        public synchronized void reset() {
+            drainTotal();
+            drainError();
+            latencyHistogram.reset();
+            errorTypeCounter.drain();
+            concurrencyGauge.drain();
+        }
+
+        private synchronized long drainTotal() {
+            long sum = total.sum();
+            long delta = sum - drainedTotal;
+            drainedTotal = sum;
+            return delta;
+        }
+
+        private synchronized long drainError() {
+            long sum = error.sum();
+            long delta = sum - drainedError;
+            drainedError = sum;
+            return delta;
+        }
+
+        private LatencyHistogram.Snapshot drainLatency() {
+            return latencyHistogram.drain();
+        }
+
+        private Map<String, Long> drainErrorTypes() {
+            return errorTypeCounter.drain();
+        }
+
+        private ConcurrencyGauge.Snapshot drainConcurrency() {
+            return concurrencyGauge.drain();
+        }
+
+        private void restore(long total, long error) {
+            this.total.add(total);
+            this.error.add(error);
         }
 
     }
@@ -162,6 +410,21 @@ public class EventCount {
 
         private long error;
 
+        /** The errors rolled up since the counter was reset, across periods */
+        private long errorTotal;
+
+        private long p50;
+
+        private long p95;
+
+        private long p99;
+
+        private Map<String, Long> errorTypes = Collections.emptyMap();
+
+        private int peak;
+
+        private double concurrency;
+
         /**
          * Gets the datetime of the last rollup.
          * @return the datetime object
@@ -194,18 +457,86 @@ public class EventCount {
             return error;
         }
 
+        /**
+         * Gets the 50th percentile latency of the last rollup period.
+         * @return the median latency in milliseconds
+         */
+        public long getP50() {
+            return p50;
+        }
+
+        /**
+         * Gets the 95th percentile latency of the last rollup period.
+         * @return the 95th percentile latency in milliseconds
+         */
+        public long getP95() {
+            return p95;
+        }
+
+        /**
+         * Gets the 99th percentile latency of the last rollup period.
+         * @return the 99th percentile latency in milliseconds
+         */
+        public long getP99() {
+            return p99;
+        }
+
+        /**
+         * Gets the error counts by type of the last rollup period.
+         * @return the counts by error type, in descending order of count
+         */
+        public Map<String, Long> getErrorTypes() {
+            return errorTypes;
+        }
+
+        /**
+         * Gets the highest number of events in flight at once during the last rollup period.
+         * @return the peak concurrency
+         */
+        public int getPeak() {
+            return peak;
+        }
+
+        /**
+         * Gets the time-weighted average number of events in flight during the last rollup period.
+         * @return the average concurrency
+         */
+        public double getConcurrency() {
+            return concurrency;
+        }
+
         private boolean update(@NonNull LocalDateTime datetime, @NonNull Tallying tallying) {
-            long total = tallying.getTotal();
-            long error = tallying.getError();
+            long total = tallying.drainTotal();
+            long error = tallying.drainError();
+            LatencyHistogram.Snapshot latency = tallying.drainLatency();
+            long p50 = latency.getValueAtPercentile(50.0);
+            long p95 = latency.getValueAtPercentile(95.0);
+            long p99 = latency.getValueAtPercentile(99.0);
+            Map<String, Long> errorTypes = tallying.drainErrorTypes();
+            ConcurrencyGauge.Snapshot concurrency = tallying.drainConcurrency();
+            this.errorTotal += error;
             if (datetime.equals(this.datetime)) {
                 this.total += total;
                 this.delta += total;
                 this.error += error;
+                // Percentiles cannot be merged, so keep the worse of the two
+                this.p50 = Math.max(this.p50, p50);
+                this.p95 = Math.max(this.p95, p95);
+                this.p99 = Math.max(this.p99, p99);
+                this.errorTypes = merge(this.errorTypes, errorTypes);
+                this.peak = Math.max(this.peak, concurrency.getPeak());
+                this.concurrency = Math.max(this.concurrency, concurrency.getAverage());
             } else {
                 this.datetime = datetime;
                 this.total += total;
                 this.delta = total;
                 this.error = error;
+                this.p50 = p50;
+                this.p95 = p95;
+                this.p99 = p99;
+                this.errorTypes = errorTypes;
+                this.peak = concurrency.getPeak();
+                this.concurrency = concurrency.getAverage();
             }
             return (total > 0);
         }
@@ -215,6 +546,57 @@ public class EventCount {
             this.total = total;
             this.delta = delta;
             this.error = error;
+            this.errorTotal = 0L;
+            this.p50 = 0L;
+            this.p95 = 0L;
+            this.p99 = 0L;
+            this.errorTypes = Collections.emptyMap();
+            this.peak = 0;
+            this.concurrency = 0.0;
+        }
+
+        @NonNull
+        private static Map<String, Long> merge(@NonNull Map<String, Long> map1, @NonNull Map<String, Long> map2) {
+            if (map1.isEmpty()) {
+                return map2;
+            } else if (map2.isEmpty()) {
+                return map1;
+            }
+            Map<String, Long> merged = new HashMap<>(map1);
+            map2.forEach((type, count) -> merged.merge(type, count, Long::sum));
+            Map<String, Long> sorted = new LinkedHashMap<>();
+            merged.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                    .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+            return Collections.unmodifiableMap(sorted);
+        }
+
+    }
+
+    /**
+     * The counts rolled up by a counter up to a certain rollup.
+     * @see #mark()
+     */
+    public static class Mark {
+
+        private final EventCount eventCount;
+
+        private final long total;
+
+        private final long errorTotal;
+
+        private Mark(EventCount eventCount, long total, long errorTotal) {
+            this.eventCount = eventCount;
+            this.total = total;
+            this.errorTotal = errorTotal;
+        }
+
+        /**
+         * Reports that the rollup carrying these counts has been stored, so
+         * that a checkpoint no longer needs to recover them after a crash.
+         */
+        public void stored() {
+            eventCount.stored(this);
         }
 
     }
@@ -50,6 +50,21 @@ public class EventCountVO implements Serializable {
     /** The number of errors associated with the event */
     private long error;
 
+    /** The 50th percentile latency in milliseconds */
+    private long p50;
+
+    /** The 95th percentile latency in milliseconds */
+    private long p95;
+
+    /** The 99th percentile latency in milliseconds */
+    private long p99;
+
+    /** The highest number of events in flight at once */
+    private long peak;
+
+    /** The time-weighted average number of events in flight */
+    private double avgConcurrency;
+
     /**
      * Returns the node identifier.
      * @return the node identifier
@@ -162,4 +177,107 @@ public class EventCountVO implements Serializable {
         this.error = error;
     }
 
+    /**
+     * Returns the 50th percentile latency.
+     * @return the median latency in milliseconds
+     */
+    public long getP50() {
+        return p50;
+    }
+
+    /**
+     * Sets the 50th percentile latency.
+     * @param p50 the median latency in milliseconds
+     */
+    public void setP50(long p50) {
+        this.p50 = p50;
+    }
+
+    /**
+     * Returns the 95th percentile latency.
+     * @return the 95th percentile latency in milliseconds
+     */
+    public long getP95() {
+        return p95;
+    }
+
+    /**
+     * Sets the 95th percentile latency.
+     * @param p95 the 95th percentile latency in milliseconds
+     */
+    public void setP95(long p95) {
+        this.p95 = p95;
+    }
+
+    /**
+     * Returns the 99th percentile latency.
+     * @return the 99th percentile latency in milliseconds
+     */
+    public long getP99() {
+        return p99;
+    }
+
+    /**
+     * Sets the 99th percentile latency.
+     * @param p99 the 99th percentile latency in milliseconds
+     */
+    public void setP99(long p99) {
+        this.p99 = p99;
+    }
+
+    /**
+     * Returns the highest number of events in flight at once.
+     * @return the peak concurrency
+     */
+    public long getPeak() {
+        return peak;
+    }
+
+    /**
+     * Sets the highest number of events in flight at once.
+     * @param peak the peak concurrency
+     */
+    public void setPeak(long peak) {
+        this.peak = peak;
+    }
+
+    /**
+     * Returns the time-weighted average number of events in flight.
+     * @return the average concurrency
+     */
+    public double getAvgConcurrency() {
+        return avgConcurrency;
+    }
+
+    /**
+     * Sets the time-weighted average number of events in flight.
+     * @param avgConcurrency the average concurrency
+     */
+    public void setAvgConcurrency(double avgConcurrency) {
+        this.avgConcurrency = avgConcurrency;
+    }
+
+    /**
+     * Creates a copy of this event count recorded at a different date and time,
+     * such as the start of the day or month that the count is aggregated into.
+     * @param datetime the date and time of the copy
+     * @return a new event count with the same identifiers and values
+     */
+    public EventCountVO copyOf(LocalDateTime datetime) {
+        EventCountVO vo = new EventCountVO();
+        vo.setNodeId(nodeId);
+        vo.setInstanceId(appId);
+        vo.setEventId(eventId);
+        vo.setDatetime(datetime);
+        vo.setTotal(total);
+        vo.setDelta(delta);
+        vo.setError(error);
+        vo.setP50(p50);
+        vo.setP95(p95);
+        vo.setP99(p99);
+        vo.setPeak(peak);
+        vo.setAvgConcurrency(avgConcurrency);
+        return vo;
+    }
+
 }
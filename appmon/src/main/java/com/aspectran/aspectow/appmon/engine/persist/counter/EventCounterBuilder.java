@@ -56,7 +56,9 @@ public abstract class EventCounterBuilder {
                 return new ActivityEventCounter(eventInfo);
             } else if ("session".equals(eventInfo.getEventId())) {
                 return new SessionEventCounter(eventInfo);
-            } else if (eventInfo.getReader() != null) {
+            } else if ("slowest".equals(eventInfo.getEventId()) || "active".equals(eventInfo.getEventId()) ||
+                    "clients".equals(eventInfo.getEventId()) || "rates".equals(eventInfo.getEventId()) ||
+                    eventInfo.getReader() != null) {
                 return null;
             } else {
                 String msg = ToStringBuilder.toString("No event counter specified for " + eventInfo.getEventId(), eventInfo);
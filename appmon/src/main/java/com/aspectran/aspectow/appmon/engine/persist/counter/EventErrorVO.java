@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * A Value Object (VO) representing the error count of a single error type
+ * for database persistence.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+public class EventErrorVO implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = -3349281653020563617L;
+
+    /** The node identifier to which the instance belongs */
+    private String nodeId;
+
+    /** The identifier of the instance where the errors occurred */
+    private String appId;
+
+    /** The identifier of the event being counted */
+    private String eventId;
+
+    /** The date and time when the error count was recorded */
+    private LocalDateTime datetime;
+
+    /** The type of the errors, such as the class name of the root cause */
+    private String errorType;
+
+    /** The number of errors of the type in the interval */
+    private long error;
+
+    /**
+     * Returns the node identifier.
+     * @return the node identifier
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Sets the node identifier.
+     * @param nodeId the node identifier
+     */
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    /**
+     * Returns the app identifier.
+     * @return the app identifier
+     */
+    public String getAppId() {
+        return appId;
+    }
+
+    /**
+     * Sets the app identifier.
+     * @param appId the app identifier
+     */
+    public void setAppId(String appId) {
+        this.appId = appId;
+    }
+
+    /**
+     * Returns the event identifier.
+     * @return the event identifier
+     */
+    public String getEventId() {
+        return eventId;
+    }
+
+    /**
+     * Sets the event identifier.
+     * @param eventId the event identifier
+     */
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    /**
+     * Returns the date and time of the record.
+     * @return the date and time
+     */
+    public LocalDateTime getDatetime() {
+        return datetime;
+    }
+
+    /**
+     * Sets the date and time of the record.
+     * @param datetime the date and time
+     */
+    public void setDatetime(LocalDateTime datetime) {
+        this.datetime = datetime;
+    }
+
+    /**
+     * Returns the error type.
+     * @return the error type
+     */
+    public String getErrorType() {
+        return errorType;
+    }
+
+    /**
+     * Sets the error type.
+     * @param errorType the error type
+     */
+    public void setErrorType(String errorType) {
+        this.errorType = errorType;
+    }
+
+    /**
+     * Returns the number of errors of the type.
+     * @return the error count
+     */
+    public long getError() {
+        return error;
+    }
+
+    /**
+     * Sets the number of errors of the type.
+     * @param error the error count
+     */
+    public void setError(long error) {
+        this.error = error;
+    }
+
+}
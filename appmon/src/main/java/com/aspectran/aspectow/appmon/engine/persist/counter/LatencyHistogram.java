@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter;
+
+import com.aspectran.utils.Assert;
+import org.jspecify.annotations.NonNull;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free, fixed-size latency histogram with log-linear buckets.
+ * <p>With the default precision, values up to 16 are counted exactly; above that,
+ * each power of two is split into 16 linear sub-buckets, so every recorded value
+ * is resolved with a relative error of at most about 6%. Recording is a single
+ * atomic increment, and the memory footprint is constant regardless of the
+ * number of samples.</p>
+ * <p>Bucket counts are never cleared. Instead, {@link #drain()} remembers the
+ * counts it has handed out, and snapshots only cover what has been recorded
+ * since the last drain, so a value recorded concurrently with a drain is
+ * never lost; it is simply reported by the next one.</p>
+ * <p>Latencies are recorded in milliseconds; values beyond the highest
+ * trackable value are clamped into the last bucket.</p>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+public class LatencyHistogram {
+
+    private static final int DEFAULT_SUB_BUCKET_BITS = 4;
+
+    private static final int MAX_EXPONENT = 40;
+
+    private final int subBucketBits;
+
+    private final int subBucketCount;
+
+    private final int bucketCount;
+
+    private final AtomicLongArray counts;
+
+    private volatile long[] drained;
+
+    /**
+     * Instantiates a new LatencyHistogram with 16 sub-buckets per power of two.
+     */
+    public LatencyHistogram() {
+        this(DEFAULT_SUB_BUCKET_BITS);
+    }
+
+    /**
+     * Instantiates a new LatencyHistogram with the given precision.
+     * Each power of two is split into {@code 2^subBucketBits} sub-buckets,
+     * so fewer bits trade resolution for a smaller footprint.
+     * @param subBucketBits the number of bits of precision, between 1 and 8
+     */
+    public LatencyHistogram(int subBucketBits) {
+        Assert.isTrue(subBucketBits >= 1 && subBucketBits <= 8, "subBucketBits must be between 1 and 8");
+        this.subBucketBits = subBucketBits;
+        this.subBucketCount = 1 << subBucketBits;
+        this.bucketCount = (MAX_EXPONENT - subBucketBits + 2) * subBucketCount;
+        this.counts = new AtomicLongArray(bucketCount);
+    }
+
+    /**
+     * Records a single latency value.
+     * @param value the latency in milliseconds
+     */
+    public void record(long value) {
+        counts.incrementAndGet(indexOf(Math.max(value, 0L)));
+    }
+
+    /**
+     * Takes a point-in-time copy of the values recorded since the last drain.
+     * Concurrent recordings may or may not be reflected in the copy.
+     * @return the snapshot of this histogram
+     */
+    public Snapshot snapshot() {
+        long[] baseline = drained;
+        long[] copy = new long[bucketCount];
+        long total = 0L;
+        for (int i = 0; i < bucketCount; i++) {
+            long count = counts.get(i);
+            if (baseline != null) {
+                count = Math.max(count - baseline[i], 0L);
+            }
+            copy[i] = count;
+            total += count;
+        }
+        return new Snapshot(this, copy, total);
+    }
+
+    /**
+     * Takes a copy of the values recorded since the last drain and marks
+     * them as drained. Values recorded concurrently are either included
+     * in this copy or left for the next one.
+     * @return the snapshot of the drained values
+     */
+    public synchronized Snapshot drain() {
+        long[] baseline = drained;
+        long[] current = new long[bucketCount];
+        long[] copy = new long[bucketCount];
+        long total = 0L;
+        for (int i = 0; i < bucketCount; i++) {
+            long count = counts.get(i);
+            current[i] = count;
+            if (baseline != null) {
+                count -= baseline[i];
+            }
+            copy[i] = count;
+            total += count;
+        }
+        drained = current;
+        return new Snapshot(this, copy, total);
+    }
+
+    /**
+     * Records all the values of the given snapshot, as if each of them
+     * had been recorded individually.
+     * @param snapshot a snapshot of a histogram with the same precision
+     */
+    public void add(@NonNull Snapshot snapshot) {
+        Assert.isTrue(snapshot.histogram.subBucketBits == subBucketBits,
+                "snapshot must be taken from a histogram with the same precision");
+        for (int i = 0; i < bucketCount; i++) {
+            long count = snapshot.counts[i];
+            if (count > 0L) {
+                counts.addAndGet(i, count);
+            }
+        }
+    }
+
+    /**
+     * Discards the values recorded so far.
+     */
+    public void reset() {
+        drain();
+    }
+
+    int indexOf(long value) {
+        if (value < subBucketCount) {
+            return (int)value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return bucketCount - 1;
+        }
+        int subBucket = (int)(value >>> (exponent - subBucketBits)) & (subBucketCount - 1);
+        return (exponent - subBucketBits + 1) * subBucketCount + subBucket;
+    }
+
+    long highestEquivalentValue(int index) {
+        if (index < subBucketCount) {
+            return index;
+        }
+        int exponent = index / subBucketCount + subBucketBits - 1;
+        int subBucket = index % subBucketCount;
+        int shift = exponent - subBucketBits;
+        long lowest = (long)(subBucketCount + subBucket) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * An immutable copy of the bucket counts from which percentiles are computed.
+     */
+    public static class Snapshot {
+
+        private final LatencyHistogram histogram;
+
+        private final long[] counts;
+
+        private final long total;
+
+        private Snapshot(LatencyHistogram histogram, long[] counts, long total) {
+            this.histogram = histogram;
+            this.counts = counts;
+            this.total = total;
+        }
+
+        /**
+         * Returns the number of values in this snapshot.
+         * @return the total count
+         */
+        public long getTotal() {
+            return total;
+        }
+
+        /**
+         * Returns the value at the given percentile.
+         * @param percentile the percentile, between 0 and 100
+         * @return the highest value equivalent to the percentile's bucket,
+         *      or {@code 0} if the snapshot is empty
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (total == 0L) {
+                return 0L;
+            }
+            long rank = (long)Math.ceil(Math.min(Math.max(percentile, 0.0), 100.0) / 100.0 * total);
+            if (rank < 1L) {
+                rank = 1L;
+            }
+            long seen = 0L;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return histogram.highestEquivalentValue(i);
+                }
+            }
+            return histogram.highestEquivalentValue(counts.length - 1);
+        }
+
+    }
+
+}
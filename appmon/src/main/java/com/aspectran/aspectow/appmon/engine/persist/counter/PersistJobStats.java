@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter;
+
+/**
+ * Keeps timing statistics of the job that persists the event counters,
+ * so that the cost of writing each rollup to the database can be monitored.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+public class PersistJobStats {
+
+    private long runs;
+
+    private long failures;
+
+    private long lastTime;
+
+    private long lastElapsedTime;
+
+    private long maxElapsedTime;
+
+    private long totalElapsedTime;
+
+    private int lastCounters;
+
+    private int lastRows;
+
+    private int queuedRollups;
+
+    private int spilledRollups;
+
+    /**
+     * Records a run of the persist job.
+     * @param elapsedTime the time it took to write the rollup in milliseconds
+     * @param counters the number of updated counters written
+     * @param rows the number of rows written
+     * @param failed whether the run failed
+     */
+    public synchronized void record(long elapsedTime, int counters, int rows, boolean failed) {
+        runs++;
+        if (failed) {
+            failures++;
+        }
+        lastTime = System.currentTimeMillis();
+        lastElapsedTime = elapsedTime;
+        if (elapsedTime > maxElapsedTime) {
+            maxElapsedTime = elapsedTime;
+        }
+        totalElapsedTime += elapsedTime;
+        lastCounters = counters;
+        lastRows = rows;
+    }
+
+    /**
+     * Returns the number of times the job has run.
+     * @return the number of runs
+     */
+    public synchronized long getRuns() {
+        return runs;
+    }
+
+    /**
+     * Returns the number of runs that failed.
+     * @return the number of failures
+     */
+    public synchronized long getFailures() {
+        return failures;
+    }
+
+    /**
+     * Returns the time the job last ran.
+     * @return the time in milliseconds since the epoch, or {@code 0} if it has not run
+     */
+    public synchronized long getLastTime() {
+        return lastTime;
+    }
+
+    /**
+     * Returns the time it took the last run to write the rollup.
+     * @return the elapsed time in milliseconds
+     */
+    public synchronized long getLastElapsedTime() {
+        return lastElapsedTime;
+    }
+
+    /**
+     * Returns the longest time a run took to write the rollup.
+     * @return the elapsed time in milliseconds
+     */
+    public synchronized long getMaxElapsedTime() {
+        return maxElapsedTime;
+    }
+
+    /**
+     * Returns the average time a run took to write the rollup.
+     * @return the elapsed time in milliseconds
+     */
+    public synchronized long getAverageElapsedTime() {
+        return (runs > 0L ? totalElapsedTime / runs : 0L);
+    }
+
+    /**
+     * Returns the number of updated counters written by the last run.
+     * @return the number of counters
+     */
+    public synchronized int getLastCounters() {
+        return lastCounters;
+    }
+
+    /**
+     * Returns the number of rows written by the last run.
+     * @return the number of rows
+     */
+    public synchronized int getLastRows() {
+        return lastRows;
+    }
+
+    /**
+     * Records the number of rollups waiting to be written to the database.
+     * @param queuedRollups the number of rollups queued in memory
+     * @param spilledRollups the number of rollups spilled to a local file
+     */
+    public synchronized void setBacklog(int queuedRollups, int spilledRollups) {
+        this.queuedRollups = queuedRollups;
+        this.spilledRollups = spilledRollups;
+    }
+
+    /**
+     * Returns the number of rollups queued in memory waiting to be written.
+     * @return the number of queued rollups
+     */
+    public synchronized int getQueuedRollups() {
+        return queuedRollups;
+    }
+
+    /**
+     * Returns the number of rollups spilled to a local file waiting to be replayed.
+     * @return the number of spilled rollups
+     */
+    public synchronized int getSpilledRollups() {
+        return spilledRollups;
+    }
+
+}
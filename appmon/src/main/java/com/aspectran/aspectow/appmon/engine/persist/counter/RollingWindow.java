@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An in-memory ring of fixed-width time buckets counting events and errors,
+ * from which live rates and sparklines are read without touching the database.
+ * <p>Each slot of the ring holds the bucket of a single time period. A slot
+ * whose bucket has expired is replaced by a fresh one with a compare-and-set
+ * the first time an event falls into its new period, so counting never locks
+ * and a count is never added to a bucket of another period.</p>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+public class RollingWindow {
+
+    private final long bucketMillis;
+
+    private final int bucketCount;
+
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    /**
+     * Instantiates a new RollingWindow.
+     * The ring has one more slot than the given number of buckets,
+     * for the bucket of the current period.
+     * @param bucketMillis the width of each bucket in milliseconds
+     * @param bucketCount the number of complete buckets to keep
+     */
+    public RollingWindow(long bucketMillis, int bucketCount) {
+        if (bucketMillis <= 0L || bucketCount <= 0) {
+            throw new IllegalArgumentException("bucketMillis and bucketCount must be greater than 0");
+        }
+        this.bucketMillis = bucketMillis;
+        this.bucketCount = bucketCount;
+        this.buckets = new AtomicReferenceArray<>(bucketCount + 1);
+    }
+
+    /**
+     * Returns the width of each bucket.
+     * @return the bucket width in milliseconds
+     */
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    /**
+     * Returns the number of complete buckets kept.
+     * @return the bucket count
+     */
+    public int getBucketCount() {
+        return bucketCount;
+    }
+
+    /**
+     * Counts an event that occurred at the given time.
+     * @param time the time in milliseconds since the epoch
+     */
+    public void count(long time) {
+        bucketAt(time / bucketMillis).events.increment();
+    }
+
+    /**
+     * Counts an error that occurred at the given time.
+     * @param time the time in milliseconds since the epoch
+     */
+    public void error(long time) {
+        bucketAt(time / bucketMillis).errors.increment();
+    }
+
+    /**
+     * Returns the average number of events per second over the given span,
+     * made up of the complete buckets just before the current one.
+     * @param span the span in milliseconds, at most the span of the complete buckets
+     * @param now the current time in milliseconds since the epoch
+     * @return the event rate per second
+     */
+    public double getEventRate(long span, long now) {
+        return rate(span, now, false);
+    }
+
+    /**
+     * Returns the average number of errors per second over the given span,
+     * made up of the complete buckets just before the current one.
+     * @param span the span in milliseconds, at most the span of the complete buckets
+     * @param now the current time in milliseconds since the epoch
+     * @return the error rate per second
+     */
+    public double getErrorRate(long span, long now) {
+        return rate(span, now, true);
+    }
+
+    /**
+     * Returns the event counts of the complete buckets,
+     * from the oldest to the most recent.
+     * @param now the current time in milliseconds since the epoch
+     * @return the event count of each bucket
+     */
+    public long[] getEventSeries(long now) {
+        return series(now, false);
+    }
+
+    /**
+     * Returns the error counts of the complete buckets,
+     * from the oldest to the most recent.
+     * @param now the current time in milliseconds since the epoch
+     * @return the error count of each bucket
+     */
+    public long[] getErrorSeries(long now) {
+        return series(now, true);
+    }
+
+    private Bucket bucketAt(long period) {
+        int index = (int)(period % buckets.length());
+        while (true) {
+            Bucket bucket = buckets.get(index);
+            if (bucket != null && bucket.period == period) {
+                return bucket;
+            }
+            if (bucket != null && bucket.period > period) {
+                // An event from the past that the ring no longer covers
+                return new Bucket(period);
+            }
+            Bucket fresh = new Bucket(period);
+            if (buckets.compareAndSet(index, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private long sumOf(long period, boolean errors) {
+        Bucket bucket = buckets.get((int)(period % buckets.length()));
+        if (bucket == null || bucket.period != period) {
+            return 0L;
+        }
+        return (errors ? bucket.errors.sum() : bucket.events.sum());
+    }
+
+    private double rate(long span, long now, boolean errors) {
+        int count = (int)Math.min(Math.max(span / bucketMillis, 1L), bucketCount);
+        long current = now / bucketMillis;
+        long total = 0L;
+        for (long period = current - count; period < current; period++) {
+            total += sumOf(period, errors);
+        }
+        return total * 1000.0d / (count * bucketMillis);
+    }
+
+    private long[] series(long now, boolean errors) {
+        int count = bucketCount;
+        long current = now / bucketMillis;
+        long[] series = new long[count];
+        for (int i = 0; i < count; i++) {
+            series[i] = sumOf(current - count + i, errors);
+        }
+        return series;
+    }
+
+    private static class Bucket {
+
+        private final long period;
+
+        private final LongAdder events = new LongAdder();
+
+        private final LongAdder errors = new LongAdder();
+
+        Bucket(long period) {
+            this.period = period;
+        }
+
+    }
+
+}
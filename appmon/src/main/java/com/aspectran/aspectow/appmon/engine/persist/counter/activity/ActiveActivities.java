@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter.activity;
+
+import com.aspectran.core.activity.Activity;
+import com.aspectran.core.activity.Translet;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A registry of the activities that are currently executing, keyed by the
+ * thread that performs them.
+ * <p>Each thread is given a slot the first time it performs an activity, and
+ * the slot is reused for every later activity of that thread, so registering
+ * and unregistering an activity are just two volatile writes that allocate
+ * nothing. Slots of threads that have terminated are removed on rollup. Only
+ * the outermost activity of a thread is registered; an activity started
+ * while another one is still running on the same thread is part of the
+ * outer one.</p>
+ * <p>Since a virtual thread is created for each request, it leaves a slot
+ * behind that is only removed on the next rollup, so with virtual threads
+ * the registry grows with the request rate between rollups. It is therefore
+ * only kept when {@code trackActiveActivities} is enabled for the event.</p>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+public class ActiveActivities extends ActivityRecorder {
+
+    private final ConcurrentMap<Thread, Slot> slots = new ConcurrentHashMap<>();
+
+    @Override
+    void activityStarted(@NonNull Activity activity, @NonNull ActivityEventAdvice advice) {
+        Translet translet = activity.getTranslet();
+        advice.setActiveSlot(enter((translet != null ? translet.getRequestName() : null), advice.getStartTime()));
+    }
+
+    @Override
+    void activityFinished(@NonNull Activity activity, @NonNull ActivityEventAdvice advice) {
+        Slot slot = advice.getActiveSlot();
+        if (slot != null) {
+            exit(slot);
+        }
+    }
+
+    @Override
+    void rollup() {
+        slots.values().removeIf(slot -> !slot.thread.isAlive());
+    }
+
+    /**
+     * Registers an activity that has started on the current thread.
+     * @param name the request name of the activity
+     * @param startTime the time the activity started
+     * @return the slot of the current thread, or {@code null} if another
+     *      activity is already running on the current thread
+     */
+    @Nullable
+    Slot enter(String name, long startTime) {
+        Thread thread = Thread.currentThread();
+        Slot slot = slots.get(thread);
+        if (slot == null) {
+            slot = slots.computeIfAbsent(thread, Slot::new);
+        }
+        if (slot.startTime != 0L) {
+            return null;
+        }
+        slot.name = name;
+        slot.startTime = Math.max(startTime, 1L);
+        return slot;
+    }
+
+    /**
+     * Unregisters an activity that has finished.
+     * @param slot the slot returned when the activity was registered
+     */
+    void exit(@NonNull Slot slot) {
+        slot.startTime = 0L;
+    }
+
+    /**
+     * Returns the number of activities currently executing.
+     * @return the number of active activities
+     */
+    public int size() {
+        int size = 0;
+        for (Slot slot : slots.values()) {
+            if (slot.startTime != 0L) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the activities that have been running for at least the given
+     * time, longest-running first.
+     * @param threshold the minimum running time in milliseconds
+     * @param limit the maximum number of activities to return
+     * @return the long-running activities
+     */
+    public List<ActiveActivity> getRunningLongerThan(long threshold, int limit) {
+        long startedBefore = System.currentTimeMillis() - threshold;
+        List<ActiveActivity> list = new ArrayList<>();
+        for (Slot slot : slots.values()) {
+            ActiveActivity activeActivity = slot.snapshot();
+            if (activeActivity != null && activeActivity.getStartTime() <= startedBefore) {
+                list.add(activeActivity);
+            }
+        }
+        list.sort(Comparator.comparingLong(ActiveActivity::getStartTime));
+        return (list.size() > limit ? new ArrayList<>(list.subList(0, limit)) : list);
+    }
+
+    /**
+     * The reusable registration of the activity running on a single thread.
+     * A start time of zero means that no activity is running.
+     */
+    static final class Slot {
+
+        private final Thread thread;
+
+        private volatile String name;
+
+        private volatile long startTime;
+
+        private Slot(Thread thread) {
+            this.thread = thread;
+        }
+
+        @Nullable
+        private ActiveActivity snapshot() {
+            long startTime = this.startTime;
+            if (startTime == 0L) {
+                return null;
+            }
+            String name = this.name;
+            if (this.startTime != startTime) {
+                // The activity finished, or another one started, while reading
+                return null;
+            }
+            return new ActiveActivity(name, startTime, thread);
+        }
+
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter.activity;
+
+import org.jspecify.annotations.NonNull;
+
+/**
+ * A snapshot of an activity that is currently executing, as registered in
+ * {@link ActiveActivities} when it started.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+public class ActiveActivity {
+
+    private final String name;
+
+    private final long startTime;
+
+    private final Thread thread;
+
+    ActiveActivity(String name, long startTime, @NonNull Thread thread) {
+        this.name = name;
+        this.startTime = startTime;
+        this.thread = thread;
+    }
+
+    /**
+     * Returns the request name of the translet performed by the activity.
+     * @return the request name, or {@code null} if not known when it started
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the time the activity started.
+     * @return the start time in milliseconds since the epoch
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Returns the thread that is performing the activity.
+     * @return the thread
+     */
+    public Thread getThread() {
+        return thread;
+    }
+
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2020-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter.activity;
+
+import com.aspectran.core.activity.Activity;
+import com.aspectran.core.activity.Translet;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Holds the state captured when an Activity starts, until it finishes.
+ * It records the start time and the session's activity count, the session ID
+ * while anyone is listening for activity events, and the thread's CPU time
+ * and allocated bytes so far if resource usage is measured.
+ * <p>When the activity finishes, its elapsed time, error, request name and
+ * resource usage are worked out once, so that every {@link ActivityRecorder}
+ * and listener reads the same values.</p>
+ * <p>Instances are recycled through {@link ActivityEventAdvicePool}, so
+ * advising an activity allocates nothing.</p>
+ *
+ * <p>Created: 2024-12-19</p>
+ */
+class ActivityEventAdvice {
+
+    private long startTime;
+
+    private String sessionId;
+
+    private int activityCount;
+
+    private Thread thread;
+
+    private long startCpuTime = ThreadResourceMeter.UNAVAILABLE;
+
+    private long startAllocatedBytes = ThreadResourceMeter.UNAVAILABLE;
+
+    private ActiveActivities.Slot activeSlot;
+
+    private long endTime;
+
+    private Throwable error;
+
+    private String requestName;
+
+    private long cpuTime = ThreadResourceMeter.UNAVAILABLE;
+
+    private long allocatedBytes = ThreadResourceMeter.UNAVAILABLE;
+
+    /**
+     * Called before the advised activity executes.
+     * Records the start time and, if requested, the session ID and
+     * the resources used by the current thread so far.
+     * @param activity the activity that is about to be executed
+     * @param activityCount the number of activities of the session so far
+     * @param captureSessionId whether to record the session ID
+     * @param measureResources whether to record the thread's resource usage
+     */
+    void before(@NonNull Activity activity, int activityCount, boolean captureSessionId, boolean measureResources) {
+        this.startTime = System.currentTimeMillis();
+        this.activityCount = activityCount;
+        if (measureResources) {
+            this.thread = Thread.currentThread();
+            this.startCpuTime = ThreadResourceMeter.currentThreadCpuTime();
+            this.startAllocatedBytes = ThreadResourceMeter.currentThreadAllocatedBytes();
+        }
+
+        // Since the servlet container does not allow session creation after
+        // the response is committed, the session ID must be secured in advance.
+        if (captureSessionId && activity.hasSessionAdapter()) {
+            sessionId = activity.getSessionAdapter().getId();
+        }
+    }
+
+    /**
+     * Called after the advised activity has finished.
+     * Records the end time, the root cause of any exception raised, the
+     * request name and, if they were measured at the start, the resources
+     * used by the current thread since then.
+     * @param activity the activity that has finished executing
+     */
+    void after(@NonNull Activity activity) {
+        this.endTime = System.currentTimeMillis();
+        this.error = activity.getRootCauseOfRaisedException();
+        Translet translet = activity.getTranslet();
+        this.requestName = (translet != null ? translet.getRequestName() : null);
+        this.cpuTime = getCpuTimeSinceStart();
+        this.allocatedBytes = getAllocatedBytesSinceStart();
+    }
+
+    /**
+     * Returns the time the advised activity started.
+     * @return the start time in milliseconds since the epoch
+     */
+    long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Returns the session ID captured before the advised activity executed.
+     * @return the session ID, or {@code null} if not captured
+     */
+    String getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * Returns the number of activities of the session, including the advised one.
+     * @return the session's activity count
+     */
+    int getActivityCount() {
+        return activityCount;
+    }
+
+    /**
+     * Returns the time the advised activity finished.
+     * @return the end time in milliseconds since the epoch
+     */
+    long getEndTime() {
+        return endTime;
+    }
+
+    /**
+     * Returns the time the advised activity took.
+     * @return the elapsed time in milliseconds
+     */
+    long getElapsedTime() {
+        return (endTime - startTime);
+    }
+
+    /**
+     * Returns the root cause of the exception raised by the advised activity.
+     * @return the error, or {@code null} if the activity succeeded
+     */
+    Throwable getError() {
+        return error;
+    }
+
+    /**
+     * Returns the request name of the translet performed by the advised activity.
+     * @return the request name, or {@code null} if the activity had no translet
+     */
+    String getRequestName() {
+        return requestName;
+    }
+
+    /**
+     * Returns the CPU time consumed by the advised activity.
+     * @return the CPU time in nanoseconds, or {@link ThreadResourceMeter#UNAVAILABLE}
+     *      if it was not measured or the activity finished on another thread
+     */
+    long getCpuTime() {
+        return cpuTime;
+    }
+
+    /**
+     * Returns the bytes allocated by the advised activity.
+     * @return the allocated bytes, or {@link ThreadResourceMeter#UNAVAILABLE}
+     *      if they were not measured or the activity finished on another thread
+     */
+    long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Returns the slot in which the advised activity is registered in the
+     * registry of active activities.
+     * @return the slot, or {@code null} if the activity was not registered
+     */
+    ActiveActivities.Slot getActiveSlot() {
+        return activeSlot;
+    }
+
+    /**
+     * Sets the slot in which the advised activity is registered in the
+     * registry of active activities.
+     * @param activeSlot the slot
+     */
+    void setActiveSlot(ActiveActivities.Slot activeSlot) {
+        this.activeSlot = activeSlot;
+    }
+
+    /**
+     * Clears the state captured for the previous activity so that
+     * this advice can be reused.
+     */
+    void reset() {
+        startTime = 0L;
+        sessionId = null;
+        activityCount = 0;
+        thread = null;
+        startCpuTime = ThreadResourceMeter.UNAVAILABLE;
+        startAllocatedBytes = ThreadResourceMeter.UNAVAILABLE;
+        activeSlot = null;
+        endTime = 0L;
+        error = null;
+        requestName = null;
+        cpuTime = ThreadResourceMeter.UNAVAILABLE;
+        allocatedBytes = ThreadResourceMeter.UNAVAILABLE;
+    }
+
+    private long getCpuTimeSinceStart() {
+        if (startCpuTime < 0L || thread != Thread.currentThread()) {
+            return ThreadResourceMeter.UNAVAILABLE;
+        }
+        long now = ThreadResourceMeter.currentThreadCpuTime();
+        return (now >= startCpuTime ? now - startCpuTime : ThreadResourceMeter.UNAVAILABLE);
+    }
+
+    private long getAllocatedBytesSinceStart() {
+        if (startAllocatedBytes < 0L || thread != Thread.currentThread()) {
+            return ThreadResourceMeter.UNAVAILABLE;
+        }
+        long now = ThreadResourceMeter.currentThreadAllocatedBytes();
+        return (now >= startAllocatedBytes ? now - startAllocatedBytes : ThreadResourceMeter.UNAVAILABLE);
+    }
+
+}
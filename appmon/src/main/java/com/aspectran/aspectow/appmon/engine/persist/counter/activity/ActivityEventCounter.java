@@ -18,7 +18,10 @@ package com.aspectran.aspectow.appmon.engine.persist.counter.activity;
 import com.aspectran.aspectow.appmon.engine.config.EventInfo;
 import com.aspectran.aspectow.appmon.engine.persist.counter.AbstractEventCounter;
 import com.aspectran.aspectow.appmon.engine.persist.counter.EventCounter;
-import com.aspectran.core.adapter.SessionAdapter;
+import com.aspectran.aspectow.appmon.engine.persist.counter.session.SessionActivityCounts;
+import com.aspectran.core.activity.Activity;
+import com.aspectran.core.component.session.SessionListenerRegistration;
+import com.aspectran.core.component.session.SessionManager;
 import com.aspectran.core.context.ActivityContext;
 import com.aspectran.core.context.rule.AdviceRule;
 import com.aspectran.core.context.rule.AspectRule;
@@ -28,22 +31,69 @@ import com.aspectran.core.context.rule.type.JoinpointTargetType;
 import com.aspectran.core.service.CoreService;
 import com.aspectran.core.service.CoreServiceHolder;
 import com.aspectran.core.service.ServiceHoldingListener;
+import com.aspectran.undertow.server.TowServer;
+import com.aspectran.undertow.support.SessionListenerRegistrationBean;
 import org.jspecify.annotations.NonNull;
 
-import java.util.concurrent.atomic.AtomicInteger;
-
-import static com.aspectran.aspectow.appmon.engine.exporter.event.session.SessionEventReader.USER_ACTIVITY_COUNT;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Function;
 
 /**
  * An {@link EventCounter} for counting Aspectran's Activity events.
- * It dynamically registers an aspect to intercept and count activity executions.
+ * It dynamically registers an aspect to intercept and count activity executions,
+ * to record their latency, concurrency and, optionally, their CPU time,
+ * allocation and queue wait, to break them down by translet, to keep the
+ * slowest of them for each rollup window, to register the ones still running,
+ * and to find the clients and sessions that perform the most of them.
+ * <p>Apart from the event count itself, each of these is an
+ * {@link ActivityRecorder} that is enabled by the event configuration; the
+ * advice only fills in an {@link ActivityEventAdvice} and hands it to the
+ * recorders that are enabled, and then to the listeners.</p>
+ * <p>This is the only aspect that instruments activities of the target context.
+ * Live readers do not register their own; they subscribe to this counter as
+ * {@link ActivityEventListener}s, so the cost of advising each activity is
+ * paid once whether or not a dashboard is attached.</p>
  *
  * <p>Created: 2025-02-12</p>
  */
 public class ActivityEventCounter extends AbstractEventCounter {
 
+    static final int DEFAULT_MAX_TRANSLETS = 100;
+
+    static final int DEFAULT_TOP_TRANSLETS = 10;
+
+    static final int DEFAULT_SESSION_FLUSH_INTERVAL = 30;
+
+    static final int DEFAULT_SLOWEST_ACTIVITIES = 10;
+
+    static final int DEFAULT_HEAVY_HITTERS = 0;
+
     private final String aspectId;
 
+    private final TransletBreakdown transletBreakdown;
+
+    private final SessionActivityCounts sessionActivityCounts;
+
+    private final SlowestActivities slowestActivities;
+
+    private final ResourceUsage resourceUsage;
+
+    private final ActiveActivities activeActivities;
+
+    private final QueueWaitTime queueWaitTime;
+
+    private final HeavyHitters clientHeavyHitters;
+
+    private final HeavyHitters sessionHeavyHitters;
+
+    private final ActivityRecorder[] recorders;
+
+    private final ActivityEventAdvicePool advicePool = new ActivityEventAdvicePool();
+
+    private volatile ActivityEventListener[] activityEventListeners = new ActivityEventListener[0];
+
     /**
      * Instantiates a new ActivityEventCounter.
      * @param eventInfo the event configuration
@@ -51,6 +101,133 @@ public class ActivityEventCounter extends AbstractEventCounter {
     public ActivityEventCounter(@NonNull EventInfo eventInfo) {
         super(eventInfo);
         this.aspectId = getClass().getName() + ".ASPECT@" + hashCode() + "[" + eventInfo.getTarget() + "]";
+        int maxTranslets = eventInfo.getMaxTranslets(DEFAULT_MAX_TRANSLETS);
+        int topTranslets = eventInfo.getTopTranslets(DEFAULT_TOP_TRANSLETS);
+        this.transletBreakdown = new TransletBreakdown(
+                (maxTranslets > 0 ? maxTranslets : DEFAULT_MAX_TRANSLETS),
+                (topTranslets > 0 ? topTranslets : DEFAULT_TOP_TRANSLETS));
+        int sessionFlushInterval = eventInfo.getSessionFlushInterval(DEFAULT_SESSION_FLUSH_INTERVAL);
+        this.sessionActivityCounts = new SessionActivityCounts(
+                (sessionFlushInterval >= 0 ? sessionFlushInterval : DEFAULT_SESSION_FLUSH_INTERVAL) * 1000L);
+        int slowestActivities = eventInfo.getSlowestActivities(DEFAULT_SLOWEST_ACTIVITIES);
+        this.slowestActivities = (slowestActivities > 0 ?
+                new SlowestActivities(slowestActivities, eventInfo.isCaptureParameters()) : null);
+        this.resourceUsage = (eventInfo.isMeasureResources() ? new ResourceUsage() : null);
+        this.activeActivities = (eventInfo.isTrackActiveActivities() ? new ActiveActivities() : null);
+        this.queueWaitTime = (eventInfo.isMeasureQueueWait() && isUndertowPresent() ? new QueueWaitTime() : null);
+        int heavyHitters = eventInfo.getHeavyHitters(DEFAULT_HEAVY_HITTERS);
+        if (heavyHitters > 0) {
+            Function<Activity, String> clientKeyOf = (eventInfo.isTrustForwardedFor() ?
+                    HeavyHitters::forwardedClientAddressOf : HeavyHitters::clientAddressOf);
+            this.clientHeavyHitters = new HeavyHitters(heavyHitters, clientKeyOf);
+        } else {
+            this.clientHeavyHitters = null;
+        }
+        this.sessionHeavyHitters = (heavyHitters > 0 ? new HeavyHitters(heavyHitters, HeavyHitters::sessionIdOf) : null);
+        this.recorders = Arrays.stream(new ActivityRecorder[] {
+                queueWaitTime, clientHeavyHitters, sessionHeavyHitters, activeActivities,
+                resourceUsage, transletBreakdown, this.slowestActivities
+        }).filter(Objects::nonNull).toArray(ActivityRecorder[]::new);
+    }
+
+    /**
+     * Returns the per-translet breakdown of the activities counted.
+     * @return the translet breakdown
+     */
+    public TransletBreakdown getTransletBreakdown() {
+        return transletBreakdown;
+    }
+
+    /**
+     * Returns the number of activities performed in each session of the target app.
+     * @return the session activity counts
+     */
+    public SessionActivityCounts getSessionActivityCounts() {
+        return sessionActivityCounts;
+    }
+
+    /**
+     * Returns the slowest activities kept for each rollup window.
+     * @return the slowest activities, or {@code null} if they are not kept
+     */
+    public SlowestActivities getSlowestActivities() {
+        return slowestActivities;
+    }
+
+    /**
+     * Returns the CPU time and heap allocation of the activities counted.
+     * @return the resource usage, or {@code null} if it is not measured
+     */
+    public ResourceUsage getResourceUsage() {
+        return resourceUsage;
+    }
+
+    /**
+     * Returns the registry of the activities that are currently executing.
+     * @return the active activities, or {@code null} if they are not tracked
+     */
+    public ActiveActivities getActiveActivities() {
+        return activeActivities;
+    }
+
+    /**
+     * Returns how long requests waited for a worker thread before their activity started.
+     * @return the queue wait time, or {@code null} if it is not measured
+     */
+    public QueueWaitTime getQueueWaitTime() {
+        return queueWaitTime;
+    }
+
+    /**
+     * Returns the client addresses that performed the most activities in each rollup window.
+     * @return the heaviest clients, or {@code null} if they are not tracked
+     */
+    public HeavyHitters getClientHeavyHitters() {
+        return clientHeavyHitters;
+    }
+
+    /**
+     * Returns the sessions that performed the most activities in each rollup window.
+     * @return the heaviest sessions, or {@code null} if they are not tracked
+     */
+    public HeavyHitters getSessionHeavyHitters() {
+        return sessionHeavyHitters;
+    }
+
+    /**
+     * Adds a listener to be notified each time an activity has finished.
+     * @param activityEventListener the listener to add
+     */
+    public synchronized void addActivityEventListener(@NonNull ActivityEventListener activityEventListener) {
+        ActivityEventListener[] listeners = Arrays.copyOf(activityEventListeners, activityEventListeners.length + 1);
+        listeners[listeners.length - 1] = activityEventListener;
+        activityEventListeners = listeners;
+    }
+
+    /**
+     * Removes a previously added activity event listener.
+     * @param activityEventListener the listener to remove
+     */
+    public synchronized void removeActivityEventListener(ActivityEventListener activityEventListener) {
+        ActivityEventListener[] listeners = activityEventListeners;
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == activityEventListener) {
+                ActivityEventListener[] remaining = new ActivityEventListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, remaining, 0, i);
+                System.arraycopy(listeners, i + 1, remaining, i, listeners.length - i - 1);
+                activityEventListeners = remaining;
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void rollup(LocalDateTime datetime) {
+        for (ActivityRecorder recorder : recorders) {
+            recorder.rollup();
+        }
+        sessionActivityCounts.purge();
+        super.rollup(datetime);
     }
 
     @Override
@@ -92,18 +269,13 @@ public class ActivityEventCounter extends AbstractEventCounter {
             aspectRule.setJoinpointRule(joinpointRule);
 
             AdviceRule beforeAdviceRule = aspectRule.newBeforeAdviceRule();
-            beforeAdviceRule.setAdviceAction(activity -> {
-                getEventCount().count();
-                if (activity.hasSessionAdapter()) {
-                    SessionAdapter sessionAdapter = activity.getSessionAdapter();
-                    AtomicInteger count = sessionAdapter.getAttribute(USER_ACTIVITY_COUNT);
-                    if (count != null) {
-                        count.incrementAndGet();
-                    } else {
-                        count = new AtomicInteger(1);
-                    }
-                    // To ensure that session data is stored
-                    sessionAdapter.setAttribute(USER_ACTIVITY_COUNT, count);
+            beforeAdviceRule.setAdviceAction(this::beforeActivity);
+
+            AdviceRule finallyAdviceRule = aspectRule.newFinallyAdviceRule();
+            finallyAdviceRule.setAdviceAction(activity -> {
+                ActivityEventAdvice activityEventAdvice = activity.getBeforeAdviceResult(aspectId);
+                if (activityEventAdvice != null) {
+                    afterActivity(activity, activityEventAdvice);
                 }
                 return null;
             });
@@ -112,6 +284,107 @@ public class ActivityEventCounter extends AbstractEventCounter {
         } catch (Exception e) {
             throw new RuntimeException("Cannot register aspect id=" + aspectId, e);
         }
+        registerSessionListener(context);
+    }
+
+    /**
+     * Registers the session activity counts as a listener of the session manager
+     * of the target app, if it is served by Undertow, so that they learn when
+     * sessions are destroyed or evicted. Otherwise, their entries are only
+     * dropped once idle.
+     */
+    private void registerSessionListener(@NonNull ActivityContext context) {
+        if (!context.getBeanRegistry().containsBean(TowServer.class)) {
+            return;
+        }
+        String deploymentName = context.getName();
+        SessionManager sessionManager;
+        try {
+            TowServer towServer = context.getBeanRegistry().getBean(TowServer.class);
+            sessionManager = towServer.getSessionManager(deploymentName);
+        } catch (Exception e) {
+            throw new RuntimeException("Cannot resolve session manager of " + deploymentName, e);
+        }
+        if (sessionManager != null) {
+            SessionListenerRegistration sessionListenerRegistration;
+            if (context.getBeanRegistry().containsBean(SessionListenerRegistration.class)) {
+                sessionListenerRegistration = context.getBeanRegistry().getBean(SessionListenerRegistration.class);
+            } else {
+                sessionListenerRegistration = new SessionListenerRegistrationBean();
+            }
+            sessionListenerRegistration.register(sessionActivityCounts, deploymentName);
+            sessionActivityCounts.setSessionManager(sessionManager);
+        }
+    }
+
+    /**
+     * Called by the before advice of the registered aspect when an activity starts.
+     * @param activity the activity that is about to be executed
+     * @return the advice that holds the state of the activity until it finishes
+     */
+    @NonNull
+    ActivityEventAdvice beforeActivity(@NonNull Activity activity) {
+        getEventCount().count();
+        int activityCount = 0;
+        if (activity.hasSessionAdapter()) {
+            activityCount = sessionActivityCounts.increment(activity.getSessionAdapter());
+        }
+        ActivityEventAdvice activityEventAdvice = advicePool.acquire();
+        activityEventAdvice.before(activity, activityCount,
+                activityEventListeners.length > 0, resourceUsage != null);
+        getEventCount().enter(activityEventAdvice.getStartTime());
+        for (ActivityRecorder recorder : recorders) {
+            recorder.activityStarted(activity, activityEventAdvice);
+        }
+        return activityEventAdvice;
+    }
+
+    /**
+     * Called by the finally advice of the registered aspect when an activity
+     * has finished; the advice is returned to the pool afterwards.
+     * @param activity the activity that has finished executing
+     * @param activityEventAdvice the advice returned when the activity started
+     */
+    void afterActivity(@NonNull Activity activity, @NonNull ActivityEventAdvice activityEventAdvice) {
+        try {
+            recordActivity(activity, activityEventAdvice);
+        } finally {
+            advicePool.release(activityEventAdvice);
+        }
+    }
+
+    private void recordActivity(@NonNull Activity activity, @NonNull ActivityEventAdvice activityEventAdvice) {
+        activityEventAdvice.after(activity);
+        long startTime = activityEventAdvice.getStartTime();
+        long elapsedTime = activityEventAdvice.getElapsedTime();
+        Throwable error = activityEventAdvice.getError();
+        getEventCount().exit(startTime, activityEventAdvice.getEndTime());
+        if (error != null) {
+            getEventCount().error(error.getClass().getName());
+        }
+        getEventCount().latency(elapsedTime);
+        for (ActivityRecorder recorder : recorders) {
+            recorder.activityFinished(activity, activityEventAdvice);
+        }
+
+        ActivityEventListener[] listeners = activityEventListeners;
+        if (listeners.length > 0) {
+            String sessionId = activityEventAdvice.getSessionId();
+            int activityCount = activityEventAdvice.getActivityCount();
+            for (ActivityEventListener listener : listeners) {
+                listener.onActivityFinished(startTime, elapsedTime, sessionId, activityCount, error);
+            }
+        }
+    }
+
+    private static boolean isUndertowPresent() {
+        try {
+            Class.forName("io.undertow.servlet.handlers.ServletRequestContext");
+            return true;
+        } catch (ClassNotFoundException e) {
+            // Undertow not available
+            return false;
+        }
     }
 
 }
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter.activity;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A listener that is notified each time an activity counted by an
+ * {@link ActivityEventCounter} has finished.
+ * <p>It is called on the request thread, so implementations must return
+ * quickly and should hand the event off rather than process it inline.</p>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+public interface ActivityEventListener {
+
+    /**
+     * Called after an activity has finished.
+     * @param startTime the time the activity started, in milliseconds since the epoch
+     * @param elapsedTime the elapsed time in milliseconds
+     * @param sessionId the ID of the session the activity belongs to, if any
+     * @param activityCount the number of activities of the session so far
+     * @param error the root cause of the exception raised by the activity, if any
+     */
+    void onActivityFinished(
+            long startTime, long elapsedTime, @Nullable String sessionId,
+            int activityCount, @Nullable Throwable error);
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter.activity;
+
+import com.aspectran.core.activity.Activity;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * The base class of everything an {@link ActivityEventCounter} records about
+ * each activity beyond the event count itself.
+ * <p>The counter keeps the recorders that are enabled for its event in a
+ * single array and calls each of them, in order, when an activity starts,
+ * when it finishes, and when a rollup window closes; a recorder that is not
+ * enabled costs nothing. The methods are called on the request thread, apart
+ * from {@link #rollup()}, so they must not block.</p>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+abstract class ActivityRecorder {
+
+    /**
+     * Called after the advice has been filled in for an activity that is
+     * about to be executed.
+     * @param activity the activity that is about to be executed
+     * @param advice the advice that holds the state of the activity
+     */
+    void activityStarted(@NonNull Activity activity, @NonNull ActivityEventAdvice advice) {
+    }
+
+    /**
+     * Called after the advice has been completed for an activity that
+     * has finished executing.
+     * @param activity the activity that has finished executing
+     * @param advice the advice that holds the state of the activity
+     */
+    void activityFinished(@NonNull Activity activity, @NonNull ActivityEventAdvice advice) {
+    }
+
+    /**
+     * Called when the rollup window of the counter closes.
+     */
+    void rollup() {
+    }
+
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter.activity;
+
+/**
+ * A key that ranked among the most frequent of a rollup window,
+ * with its estimated number of occurrences.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+public class HeavyHitter {
+
+    private final String key;
+
+    private final long count;
+
+    HeavyHitter(String key, long count) {
+        this.key = key;
+        this.count = count;
+    }
+
+    /**
+     * Returns the key, such as a client IP address or a session id.
+     * @return the key
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Returns the estimated number of occurrences of the key in the window.
+     * The estimate never undercounts, and overcounts by at most a small
+     * fraction of the total number of occurrences of all keys.
+     * @return the estimated count
+     */
+    public long getCount() {
+        return count;
+    }
+
+}
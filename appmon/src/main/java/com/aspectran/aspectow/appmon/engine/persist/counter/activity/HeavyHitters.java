@@ -0,0 +1,385 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter.activity;
+
+import com.aspectran.core.activity.Activity;
+import com.aspectran.core.adapter.RequestAdapter;
+import com.aspectran.utils.StringUtils;
+import com.aspectran.web.support.http.HttpHeaders;
+import jakarta.servlet.http.HttpServletRequest;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Finds the most frequent keys, such as client IP addresses or session ids,
+ * within each rollup window using constant memory.
+ * <p>Occurrences are counted in a count-min sketch: a few rows of counters,
+ * each indexed by a different hash of the key, where the estimate of a key
+ * is the smallest of its counters. Counting is a handful of atomic increments
+ * and never allocates, however many distinct keys there are. Only the top K
+ * keys by estimate are kept by name; the estimate of the least frequent of
+ * them is published as a threshold, and keys below it are turned away
+ * without taking the lock. A key already in the top set has its count raised
+ * in place, also without the lock; only a new key above the threshold takes
+ * it, to replace the least frequent key at the root of a min-heap in
+ * O(log K). A count raised while its key is being replaced is lost with it.</p>
+ * <p>At each rollup, the top keys are sorted into the list of the last window
+ * and counting starts over in a fresh sketch. A key counted while the window
+ * is being replaced may be attributed to either window.</p>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+public class HeavyHitters extends ActivityRecorder {
+
+    static final int DEFAULT_WIDTH = 2048;
+
+    static final int DEFAULT_DEPTH = 4;
+
+    private static final Comparator<HeavyHitter> MOST_FREQUENT_FIRST =
+            Comparator.comparingLong(HeavyHitter::getCount).reversed();
+
+    private final int capacity;
+
+    private final int width;
+
+    private final int depth;
+
+    private final Function<Activity, String> keyOf;
+
+    private volatile Window window;
+
+    private volatile List<HeavyHitter> lastWindow = Collections.emptyList();
+
+    private volatile long version;
+
+    /**
+     * Instantiates a new HeavyHitters with the default sketch size.
+     * @param capacity the number of most frequent keys to keep per window
+     */
+    HeavyHitters(int capacity) {
+        this(capacity, DEFAULT_WIDTH, DEFAULT_DEPTH, null);
+    }
+
+    /**
+     * Instantiates a new HeavyHitters with the default sketch size that
+     * counts a key of each activity started.
+     * @param capacity the number of most frequent keys to keep per window
+     * @param keyOf the function that returns the key of an activity,
+     *      or {@code null} if the activity has none
+     */
+    HeavyHitters(int capacity, @NonNull Function<Activity, String> keyOf) {
+        this(capacity, DEFAULT_WIDTH, DEFAULT_DEPTH, keyOf);
+    }
+
+    /**
+     * Instantiates a new HeavyHitters.
+     * @param capacity the number of most frequent keys to keep per window
+     * @param width the number of counters in each row of the sketch,
+     *      rounded up to a power of two
+     * @param depth the number of rows of the sketch
+     * @param keyOf the function that returns the key of an activity started,
+     *      or {@code null} to count only the keys recorded explicitly
+     */
+    HeavyHitters(int capacity, int width, int depth, @Nullable Function<Activity, String> keyOf) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be greater than 0");
+        }
+        if (width <= 0 || depth <= 0) {
+            throw new IllegalArgumentException("width and depth must be greater than 0");
+        }
+        this.capacity = capacity;
+        int size = 1;
+        while (size < width) {
+            size <<= 1;
+        }
+        this.width = size;
+        this.depth = depth;
+        this.keyOf = keyOf;
+        this.window = new Window();
+    }
+
+    @Override
+    void activityStarted(@NonNull Activity activity, @NonNull ActivityEventAdvice advice) {
+        if (keyOf != null) {
+            String key = keyOf.apply(activity);
+            if (key != null) {
+                record(key);
+            }
+        }
+    }
+
+    /**
+     * Counts one occurrence of the given key.
+     * @param key the key to count
+     */
+    void record(@NonNull String key) {
+        Window window = this.window;
+        long estimate = window.add(key);
+        if (estimate > window.threshold) {
+            window.offer(key, estimate);
+        }
+    }
+
+    /**
+     * Closes the current window, making its most frequent keys available as
+     * the last window sorted from most to least frequent, and starts an empty one.
+     */
+    @Override
+    synchronized void rollup() {
+        Window closed = window;
+        window = new Window();
+        lastWindow = closed.toList();
+        version++;
+    }
+
+    /**
+     * Returns the most frequent keys of the last completed window.
+     * @return the keys sorted from most to least frequent
+     */
+    public List<HeavyHitter> getLastWindow() {
+        return lastWindow;
+    }
+
+    /**
+     * Returns a number that changes each time a window is completed.
+     * @return the version of the last window
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the address the request of the given activity came from.
+     * @param activity the activity
+     * @return the client address, or {@code null} if the activity has no request
+     */
+    @Nullable
+    static String clientAddressOf(@NonNull Activity activity) {
+        RequestAdapter requestAdapter = activity.getRequestAdapter();
+        if (requestAdapter != null && requestAdapter.getAdaptee() instanceof HttpServletRequest request) {
+            return request.getRemoteAddr();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the address of the client that sent the request of the given
+     * activity, preferring the first address of {@code X-Forwarded-For}.
+     * Use it only behind a proxy that sets the header, since otherwise
+     * a client can report any address it likes.
+     * @param activity the activity
+     * @return the client address, or {@code null} if the activity has no request
+     */
+    @Nullable
+    static String forwardedClientAddressOf(@NonNull Activity activity) {
+        RequestAdapter requestAdapter = activity.getRequestAdapter();
+        if (requestAdapter == null) {
+            return null;
+        }
+        String clientAddress = requestAdapter.getHeader(HttpHeaders.X_FORWARDED_FOR);
+        if (StringUtils.hasLength(clientAddress)) {
+            int index = clientAddress.indexOf(',');
+            return (index >= 0 ? clientAddress.substring(0, index) : clientAddress).trim();
+        }
+        return clientAddressOf(activity);
+    }
+
+    /**
+     * Returns the ID of the session the given activity belongs to.
+     * @param activity the activity
+     * @return the session ID, or {@code null} if the activity has no session
+     */
+    @Nullable
+    static String sessionIdOf(@NonNull Activity activity) {
+        return (activity.hasSessionAdapter() ? activity.getSessionAdapter().getId() : null);
+    }
+
+    static int hash(int hashCode, int row) {
+        // Derive an independent hash for each row by mixing in the row number
+        // with the finalizer of MurmurHash3.
+        int h = hashCode ^ (row * 0x9E3779B9);
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * The sketch and the top keys of a single rollup window.
+     */
+    private class Window {
+
+        private final AtomicLongArray counters = new AtomicLongArray(width * depth);
+
+        private final Map<String, Entry> top = new ConcurrentHashMap<>();
+
+        /** Min-heap of the top entries ordered by their settled counts; guarded by this window. */
+        private final Entry[] heap = new Entry[capacity];
+
+        private int size;
+
+        private volatile long threshold;
+
+        long add(String key) {
+            int hashCode = key.hashCode();
+            int mask = width - 1;
+            long estimate = Long.MAX_VALUE;
+            for (int row = 0; row < depth; row++) {
+                int index = row * width + (hash(hashCode, row) & mask);
+                long count = counters.incrementAndGet(index);
+                if (count < estimate) {
+                    estimate = count;
+                }
+            }
+            return estimate;
+        }
+
+        void offer(String key, long estimate) {
+            Entry entry = top.get(key);
+            if (entry != null) {
+                entry.raise(estimate);
+            } else {
+                admit(key, estimate);
+            }
+        }
+
+        private synchronized void admit(String key, long estimate) {
+            Entry entry = top.get(key);
+            if (entry != null) {
+                entry.raise(estimate);
+                return;
+            }
+            if (size < capacity) {
+                entry = new Entry(key, estimate);
+                heap[size] = entry;
+                siftUp(size++);
+                top.put(key, entry);
+                if (size == capacity) {
+                    threshold = settleLeast();
+                }
+                return;
+            }
+            long least = settleLeast();
+            if (estimate > least) {
+                top.remove(heap[0].key);
+                entry = new Entry(key, estimate);
+                heap[0] = entry;
+                siftDown(0);
+                top.put(key, entry);
+                least = settleLeast();
+            }
+            threshold = least;
+        }
+
+        /**
+         * Counts rise without the lock, so the heap is ordered by the counts
+         * its entries had when last settled. Settles the root until its count
+         * is current, at which point no other entry can have a smaller one.
+         */
+        private long settleLeast() {
+            Entry root = heap[0];
+            long count;
+            while ((count = root.count.get()) != root.settledCount) {
+                root.settledCount = count;
+                siftDown(0);
+                root = heap[0];
+            }
+            return root.settledCount;
+        }
+
+        private void siftUp(int index) {
+            Entry entry = heap[index];
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (heap[parent].settledCount <= entry.settledCount) {
+                    break;
+                }
+                heap[index] = heap[parent];
+                index = parent;
+            }
+            heap[index] = entry;
+        }
+
+        private void siftDown(int index) {
+            Entry entry = heap[index];
+            int half = size >>> 1;
+            while (index < half) {
+                int child = 2 * index + 1;
+                int right = child + 1;
+                if (right < size && heap[right].settledCount < heap[child].settledCount) {
+                    child = right;
+                }
+                if (entry.settledCount <= heap[child].settledCount) {
+                    break;
+                }
+                heap[index] = heap[child];
+                index = child;
+            }
+            heap[index] = entry;
+        }
+
+        synchronized List<HeavyHitter> toList() {
+            List<HeavyHitter> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                list.add(new HeavyHitter(heap[i].key, heap[i].count.get()));
+            }
+            list.sort(MOST_FREQUENT_FIRST);
+            return List.copyOf(list);
+        }
+
+    }
+
+    /**
+     * A key in the top set, whose count is raised in place without the lock.
+     */
+    private static final class Entry {
+
+        private final String key;
+
+        private final AtomicLong count;
+
+        private long settledCount;
+
+        Entry(String key, long count) {
+            this.key = key;
+            this.count = new AtomicLong(count);
+            this.settledCount = count;
+        }
+
+        void raise(long estimate) {
+            long current;
+            while ((current = count.get()) < estimate) {
+                if (count.compareAndSet(current, estimate)) {
+                    return;
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter.activity;
+
+import com.aspectran.aspectow.appmon.engine.persist.counter.LatencyHistogram;
+import com.aspectran.core.activity.Activity;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Records how long requests of an app waited for a worker thread, from the
+ * time the server started reading them to the time their activity started.
+ * <p>Waits are recorded in microseconds, since a healthy server dispatches
+ * requests well within a millisecond; a wait that grows into milliseconds
+ * is an early sign that the worker pool is saturated.</p>
+ * <p>It refers to Undertow types when an activity starts, so it must only
+ * be enabled once Undertow is known to be present.</p>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+public class QueueWaitTime extends ActivityRecorder {
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    private volatile LatencyHistogram.Snapshot lastPeriod = histogram.snapshot();
+
+    /**
+     * Records the queue wait of a single request.
+     * @param queueWait the queue wait in microseconds
+     */
+    void record(long queueWait) {
+        histogram.record(queueWait);
+    }
+
+    @Override
+    void activityStarted(@NonNull Activity activity, @NonNull ActivityEventAdvice advice) {
+        long queueWait = UndertowQueueWait.measure(activity);
+        if (queueWait >= 0L) {
+            record(queueWait);
+        }
+    }
+
+    /**
+     * Closes the current period, making its distribution available as the last period.
+     */
+    @Override
+    void rollup() {
+        lastPeriod = histogram.drain();
+    }
+
+    /**
+     * Returns the distribution of queue waits recorded so far in the current period.
+     * @return a snapshot of queue waits in microseconds
+     */
+    public LatencyHistogram.Snapshot getCurrentPeriod() {
+        return histogram.snapshot();
+    }
+
+    /**
+     * Returns the distribution of queue waits of the last completed period.
+     * @return a snapshot of queue waits in microseconds
+     */
+    public LatencyHistogram.Snapshot getLastPeriod() {
+        return lastPeriod;
+    }
+
+}
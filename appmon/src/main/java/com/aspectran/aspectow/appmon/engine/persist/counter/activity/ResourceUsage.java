@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter.activity;
+
+import com.aspectran.core.activity.Activity;
+import org.jspecify.annotations.NonNull;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates the CPU time and heap allocation of the activities of an app.
+ * <p>The adders are never reset. Each rollup instead records how much they
+ * had reached, so the usage of a period is the difference from the previous
+ * rollup and no activity completing concurrently with it is lost.</p>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+public class ResourceUsage extends ActivityRecorder {
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder cpuTime = new LongAdder();
+
+    private final LongAdder allocatedBytes = new LongAdder();
+
+    private volatile Usage drained = new Usage(0L, 0L, 0L);
+
+    private volatile Usage lastPeriod = new Usage(0L, 0L, 0L);
+
+    /**
+     * Records the resources used by a completed activity.
+     * @param cpuTime the CPU time in nanoseconds, or a negative value if not measured
+     * @param allocatedBytes the allocated bytes, or a negative value if not measured
+     */
+    void record(long cpuTime, long allocatedBytes) {
+        count.increment();
+        if (cpuTime > 0L) {
+            this.cpuTime.add(cpuTime);
+        }
+        if (allocatedBytes > 0L) {
+            this.allocatedBytes.add(allocatedBytes);
+        }
+    }
+
+    @Override
+    void activityFinished(@NonNull Activity activity, @NonNull ActivityEventAdvice advice) {
+        record(advice.getCpuTime(), advice.getAllocatedBytes());
+    }
+
+    /**
+     * Closes the current period, making its usage available as the last period.
+     */
+    @Override
+    synchronized void rollup() {
+        Usage reached = new Usage(count.sum(), cpuTime.sum(), allocatedBytes.sum());
+        lastPeriod = reached.minus(drained);
+        drained = reached;
+    }
+
+    /**
+     * Returns the resources used so far in the current period.
+     * @return the usage of the current period
+     */
+    public Usage getCurrentPeriod() {
+        return new Usage(count.sum(), cpuTime.sum(), allocatedBytes.sum()).minus(drained);
+    }
+
+    /**
+     * Returns the resources used in the last completed period.
+     * @return the usage of the last period
+     */
+    public Usage getLastPeriod() {
+        return lastPeriod;
+    }
+
+    /**
+     * Immutable resource usage of the activities of a period.
+     */
+    public static class Usage {
+
+        private final long count;
+
+        private final long cpuTime;
+
+        private final long allocatedBytes;
+
+        Usage(long count, long cpuTime, long allocatedBytes) {
+            this.count = count;
+            this.cpuTime = cpuTime;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        /**
+         * Returns the number of activities measured.
+         * @return the activity count
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Returns the total CPU time consumed by the activities.
+         * @return the CPU time in nanoseconds
+         */
+        public long getCpuTime() {
+            return cpuTime;
+        }
+
+        /**
+         * Returns the total bytes allocated by the activities.
+         * @return the allocated bytes
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        Usage minus(Usage other) {
+            return new Usage(
+                    Math.max(0L, count - other.count),
+                    Math.max(0L, cpuTime - other.cpuTime),
+                    Math.max(0L, allocatedBytes - other.allocatedBytes));
+        }
+
+    }
+
+}
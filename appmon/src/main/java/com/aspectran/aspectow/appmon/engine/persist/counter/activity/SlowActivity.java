@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter.activity;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An immutable record of an activity that ranked among the slowest of
+ * a rollup window, with the context needed to investigate it.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+public class SlowActivity {
+
+    private final String name;
+
+    private final long startTime;
+
+    private final long elapsedTime;
+
+    private final String thread;
+
+    private final String sessionId;
+
+    private final String error;
+
+    private final String parameters;
+
+    SlowActivity(
+            String name, long startTime, long elapsedTime, String thread,
+            @Nullable String sessionId, @Nullable String error, @Nullable String parameters) {
+        this.name = name;
+        this.startTime = startTime;
+        this.elapsedTime = elapsedTime;
+        this.thread = thread;
+        this.sessionId = sessionId;
+        this.error = error;
+        this.parameters = parameters;
+    }
+
+    /**
+     * Returns the request name of the translet performed by the activity.
+     * @return the request name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the time the activity started.
+     * @return the start time in milliseconds since the epoch
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Returns the time it took to complete the activity.
+     * @return the elapsed time in milliseconds
+     */
+    public long getElapsedTime() {
+        return elapsedTime;
+    }
+
+    /**
+     * Returns the name of the thread that performed the activity.
+     * @return the thread name
+     */
+    public String getThread() {
+        return thread;
+    }
+
+    /**
+     * Returns the id of the session in which the activity was performed.
+     * @return the session id, or {@code null} if there was no session
+     */
+    @Nullable
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * Returns a description of the error that terminated the activity.
+     * @return the error, or {@code null} if the activity completed normally
+     */
+    @Nullable
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Returns the request parameters of the activity in query string form.
+     * @return the parameters, or {@code null} if they were not captured
+     */
+    @Nullable
+    public String getParameters() {
+        return parameters;
+    }
+
+}
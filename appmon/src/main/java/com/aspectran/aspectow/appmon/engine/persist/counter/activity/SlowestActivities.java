@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter.activity;
+
+import com.aspectran.core.activity.Activity;
+import com.aspectran.core.adapter.RequestAdapter;
+import org.jspecify.annotations.NonNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the N slowest activities completed within the current rollup window.
+ * <p>Activities are held in a fixed-size min-heap ordered by elapsed time, so
+ * that admitting one costs O(log N). The elapsed time at the root of a full
+ * heap is published as a threshold, and any activity that is not slower than
+ * it is turned away without taking the lock or allocating anything. At each
+ * rollup, the heap is sorted into the list of the last window and emptied.</p>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+public class SlowestActivities extends ActivityRecorder {
+
+    private static final int MAX_PARAMETERS_LENGTH = 1000;
+
+    private static final Comparator<SlowActivity> SLOWEST_FIRST =
+            Comparator.comparingLong(SlowActivity::getElapsedTime).reversed();
+
+    private final SlowActivity[] heap;
+
+    private final boolean captureParameters;
+
+    private int size;
+
+    private volatile long threshold = -1L;
+
+    private volatile List<SlowActivity> lastWindow = Collections.emptyList();
+
+    private volatile long version;
+
+    /**
+     * Instantiates a new SlowestActivities.
+     * @param capacity the number of slowest activities to keep per window
+     */
+    SlowestActivities(int capacity) {
+        this(capacity, false);
+    }
+
+    /**
+     * Instantiates a new SlowestActivities.
+     * @param capacity the number of slowest activities to keep per window
+     * @param captureParameters whether to keep the request parameters of
+     *      the activities admitted
+     */
+    SlowestActivities(int capacity, boolean captureParameters) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be greater than 0");
+        }
+        this.heap = new SlowActivity[capacity];
+        this.captureParameters = captureParameters;
+    }
+
+    @Override
+    void activityFinished(@NonNull Activity activity, @NonNull ActivityEventAdvice advice) {
+        long elapsedTime = advice.getElapsedTime();
+        if (qualifies(elapsedTime)) {
+            String sessionId = advice.getSessionId();
+            if (sessionId == null && activity.hasSessionAdapter()) {
+                sessionId = activity.getSessionAdapter().getId();
+            }
+            Throwable error = advice.getError();
+            record(new SlowActivity(
+                    advice.getRequestName(), advice.getStartTime(), elapsedTime,
+                    Thread.currentThread().getName(), sessionId,
+                    (error != null ? error.toString() : null),
+                    (captureParameters ? formatParameters(activity) : null)));
+        }
+    }
+
+    /**
+     * Returns whether an activity that took the given time would be admitted.
+     * @param elapsedTime the elapsed time of the activity in milliseconds
+     * @return {@code true} if the activity is slower than the fastest one kept
+     */
+    boolean qualifies(long elapsedTime) {
+        return (elapsedTime > threshold);
+    }
+
+    /**
+     * Admits the given activity if it is still slower than the fastest one kept,
+     * evicting that one when the heap is full.
+     * @param slowActivity the activity to admit
+     */
+    synchronized void record(@NonNull SlowActivity slowActivity) {
+        if (size < heap.length) {
+            heap[size] = slowActivity;
+            siftUp(size++);
+        } else if (slowActivity.getElapsedTime() > heap[0].getElapsedTime()) {
+            heap[0] = slowActivity;
+            siftDown(0);
+        } else {
+            return;
+        }
+        if (size == heap.length) {
+            threshold = heap[0].getElapsedTime();
+        }
+    }
+
+    /**
+     * Closes the current window, making its activities available as the last
+     * window sorted from slowest to fastest, and starts an empty one.
+     */
+    @Override
+    synchronized void rollup() {
+        SlowActivity[] activities = Arrays.copyOf(heap, size);
+        Arrays.sort(activities, SLOWEST_FIRST);
+        Arrays.fill(heap, 0, size, null);
+        size = 0;
+        threshold = -1L;
+        lastWindow = List.of(activities);
+        version++;
+    }
+
+    /**
+     * Returns the slowest activities of the last completed window.
+     * @return the activities sorted from slowest to fastest
+     */
+    public List<SlowActivity> getLastWindow() {
+        return lastWindow;
+    }
+
+    /**
+     * Returns a number that changes each time a window is completed.
+     * @return the version of the last window
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    private static String formatParameters(@NonNull Activity activity) {
+        RequestAdapter requestAdapter = activity.getRequestAdapter();
+        if (requestAdapter == null) {
+            return null;
+        }
+        Map<String, String[]> parameterMap = requestAdapter.getParameterMap();
+        if (parameterMap == null || parameterMap.isEmpty()) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String[]> entry : parameterMap.entrySet()) {
+            String[] values = entry.getValue();
+            if (values == null || values.length == 0) {
+                values = new String[] { "" };
+            }
+            for (String value : values) {
+                if (!sb.isEmpty()) {
+                    sb.append('&');
+                }
+                sb.append(entry.getKey()).append('=').append(value);
+                if (sb.length() > MAX_PARAMETERS_LENGTH) {
+                    sb.setLength(MAX_PARAMETERS_LENGTH);
+                    return sb.append("...").toString();
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private void siftUp(int index) {
+        SlowActivity activity = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent].getElapsedTime() <= activity.getElapsedTime()) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = activity;
+    }
+
+    private void siftDown(int index) {
+        SlowActivity activity = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = (index << 1) + 1;
+            int right = child + 1;
+            if (right < size && heap[right].getElapsedTime() < heap[child].getElapsedTime()) {
+                child = right;
+            }
+            if (activity.getElapsedTime() <= heap[child].getElapsedTime()) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = activity;
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter.activity;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Reads the CPU time consumed and the bytes allocated by the current thread
+ * so far, where the JVM supports it.
+ * <p>Both readings are cumulative for the thread; the resources used by an
+ * activity are the difference between readings taken on the same thread
+ * before and after it.</p>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+final class ThreadResourceMeter {
+
+    /** The value returned when a reading is not available. */
+    static final long UNAVAILABLE = -1L;
+
+    private static final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+    private static final com.sun.management.ThreadMXBean allocationMXBean;
+
+    private static final boolean cpuTimeSupported;
+
+    static {
+        boolean supported;
+        try {
+            supported = threadMXBean.isCurrentThreadCpuTimeSupported();
+        } catch (Exception e) {
+            supported = false;
+        }
+        cpuTimeSupported = supported;
+
+        com.sun.management.ThreadMXBean bean = null;
+        try {
+            if (threadMXBean instanceof com.sun.management.ThreadMXBean extended &&
+                    extended.isThreadAllocatedMemorySupported()) {
+                bean = extended;
+            }
+        } catch (Exception e) {
+            // not supported
+        }
+        allocationMXBean = bean;
+    }
+
+    private ThreadResourceMeter() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Returns the CPU time consumed by the current thread so far.
+     * @return the CPU time in nanoseconds, or {@link #UNAVAILABLE}
+     *      if CPU time measurement is not supported or is disabled
+     */
+    static long currentThreadCpuTime() {
+        if (cpuTimeSupported) {
+            long cpuTime = threadMXBean.getCurrentThreadCpuTime();
+            return (cpuTime >= 0L ? cpuTime : UNAVAILABLE);
+        } else {
+            return UNAVAILABLE;
+        }
+    }
+
+    /**
+     * Returns the number of bytes allocated in the heap by the current thread so far.
+     * @return the allocated bytes, or {@link #UNAVAILABLE}
+     *      if allocation measurement is not supported or is disabled
+     */
+    static long currentThreadAllocatedBytes() {
+        if (allocationMXBean != null) {
+            long allocatedBytes = allocationMXBean.getCurrentThreadAllocatedBytes();
+            return (allocatedBytes >= 0L ? allocatedBytes : UNAVAILABLE);
+        } else {
+            return UNAVAILABLE;
+        }
+    }
+
+}
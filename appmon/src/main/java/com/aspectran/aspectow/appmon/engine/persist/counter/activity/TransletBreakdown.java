@@ -0,0 +1,479 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter.activity;
+
+import com.aspectran.aspectow.appmon.engine.persist.counter.LatencyHistogram;
+import com.aspectran.core.activity.Activity;
+import com.aspectran.utils.Assert;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded-memory breakdown of activity counts, errors and latency by translet.
+ * <p>It is based on the Space-Saving algorithm: at most {@code capacity}
+ * translets are tracked at a time, in a min-heap ordered by how active they
+ * are. Recording a translet that is already tracked is lock-free. A translet
+ * that is not tracked is first counted in a small count-min sketch, and is
+ * only admitted once its estimate exceeds the activity of the least active
+ * translet tracked by a margin, which is published as a threshold; below it,
+ * the translet is turned away without taking the lock or allocating anything.
+ * The margin keeps a stream of one-off request names from taking turns
+ * evicting translets that have gone idle.
+ * An admitted translet takes over the slot at the top of the heap and its
+ * sketch estimate is kept as a possible overestimate. Heavy hitters are
+ * therefore always retained, however many distinct request names an
+ * application has.</p>
+ * <p>Activities of translets that are not tracked, including those of
+ * evicted translets, are not dropped but folded into a single "other"
+ * bucket, so the breakdown always adds up to the total. An evicted translet
+ * is marked as retired, so that an activity recorded into it by a thread
+ * that looked it up just before the eviction is folded in as well.</p>
+ * <p>At every rollup the top translets by volume, error rate, p99 latency
+ * and, if measured, CPU time and allocation are captured, so each ranking
+ * reflects a single rollup period. The tracked translets are kept for the
+ * next period, each with half of its past activity as a head start, so that
+ * translets that stay busy are not evicted at the start of every period
+ * while idle ones age out.</p>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+public class TransletBreakdown extends ActivityRecorder {
+
+    private static final int LATENCY_PRECISION_BITS = 3;
+
+    private static final int SKETCH_WIDTH = 1024;
+
+    private static final int SKETCH_DEPTH = 4;
+
+    /** How much the estimate of a translet must exceed the least active one to replace it */
+    private static final long ADMISSION_MARGIN = 1L;
+
+    private static final Comparator<TransletStats> BY_VOLUME =
+            Comparator.comparingLong(TransletStats::getCount).reversed();
+
+    private static final Comparator<TransletStats> BY_ERROR_RATE =
+            Comparator.comparingDouble(TransletStats::getErrorRate)
+                    .thenComparingLong(TransletStats::getErrors).reversed();
+
+    private static final Comparator<TransletStats> BY_LATENCY =
+            Comparator.comparingLong(TransletStats::getP99).reversed();
+
+    private static final Comparator<TransletStats> BY_CPU_TIME =
+            Comparator.comparingLong(TransletStats::getCpuTime).reversed();
+
+    private static final Comparator<TransletStats> BY_ALLOCATION =
+            Comparator.comparingLong(TransletStats::getAllocatedBytes).reversed();
+
+    private final int topN;
+
+    private final Map<String, Entry> entries;
+
+    private final Entry[] heap;
+
+    private int size;
+
+    private final Entry other = new Entry(null);
+
+    private volatile AtomicLongArray sketch = new AtomicLongArray(SKETCH_WIDTH * SKETCH_DEPTH);
+
+    private volatile long threshold = -1L;
+
+    private volatile Ranking ranking = new Ranking(List.of(), List.of(), List.of(), List.of(), List.of(), null);
+
+    /**
+     * Instantiates a new TransletBreakdown.
+     * @param capacity the maximum number of translets tracked at a time
+     * @param topN the number of translets to keep in each ranking
+     */
+    public TransletBreakdown(int capacity, int topN) {
+        Assert.isTrue(capacity > 0, "capacity must be greater than 0");
+        Assert.isTrue(topN > 0, "topN must be greater than 0");
+        this.topN = topN;
+        this.entries = new ConcurrentHashMap<>(capacity * 2);
+        this.heap = new Entry[capacity];
+    }
+
+    /**
+     * Records a completed activity of the given translet.
+     * @param name the request name of the translet
+     * @param elapsedTime the elapsed time in milliseconds
+     * @param error whether the activity raised an error
+     */
+    public void record(@NonNull String name, long elapsedTime, boolean error) {
+        record(name, elapsedTime, error, -1L, -1L);
+    }
+
+    /**
+     * Records a completed activity of the given translet along with
+     * the resources it used.
+     * @param name the request name of the translet
+     * @param elapsedTime the elapsed time in milliseconds
+     * @param error whether the activity raised an error
+     * @param cpuTime the CPU time in nanoseconds, or a negative value if not measured
+     * @param allocatedBytes the allocated bytes, or a negative value if not measured
+     */
+    public void record(@NonNull String name, long elapsedTime, boolean error, long cpuTime, long allocatedBytes) {
+        Entry entry = entries.get(name);
+        if (entry == null) {
+            long threshold = this.threshold;
+            long estimate = (threshold >= 0L ? estimate(name) : 0L);
+            if (estimate > threshold) {
+                entry = admit(name, estimate);
+            }
+            if (entry == null) {
+                entry = other;
+            }
+        }
+        entry.record(elapsedTime, error, cpuTime, allocatedBytes);
+        if (entry.retired) {
+            // Evicted while this activity was being recorded into it
+            other.add(entry);
+        }
+    }
+
+    @Override
+    void activityFinished(@NonNull Activity activity, @NonNull ActivityEventAdvice advice) {
+        String requestName = advice.getRequestName();
+        if (requestName != null) {
+            record(requestName, advice.getElapsedTime(), (advice.getError() != null),
+                    advice.getCpuTime(), advice.getAllocatedBytes());
+        }
+    }
+
+    /**
+     * Counts an occurrence of a translet that is not tracked in the sketch.
+     * @return the estimated number of occurrences in this period, including this one
+     */
+    private long estimate(@NonNull String name) {
+        AtomicLongArray sketch = this.sketch;
+        int hashCode = name.hashCode();
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < SKETCH_DEPTH; row++) {
+            int index = row * SKETCH_WIDTH + (HeavyHitters.hash(hashCode, row) & (SKETCH_WIDTH - 1));
+            long count = sketch.incrementAndGet(index);
+            if (count < estimate) {
+                estimate = count;
+            }
+        }
+        return estimate;
+    }
+
+    @Nullable
+    private synchronized Entry admit(String name, long estimate) {
+        Entry entry = entries.get(name);
+        if (entry != null) {
+            return entry;
+        }
+        if (size < heap.length) {
+            entry = new Entry(name);
+            heap[size] = entry;
+            siftUp(size++);
+        } else {
+            Entry victim = leastActive();
+            if (estimate <= victim.weight + ADMISSION_MARGIN) {
+                threshold = victim.weight + ADMISSION_MARGIN;
+                return null;
+            }
+            entries.remove(victim.name);
+            victim.retired = true;
+            other.add(victim);
+            // Earlier occurrences of the admitted translet were recorded as other
+            // activities; they are only carried over as a possible overestimate
+            entry = new Entry(name);
+            entry.overestimate = estimate - 1L;
+            entry.weight = entry.overestimate;
+            heap[0] = entry;
+            siftDown(0);
+        }
+        entries.put(name, entry);
+        if (size == heap.length) {
+            threshold = leastActive().weight + ADMISSION_MARGIN;
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the least active translet tracked. The weights kept in the heap
+     * lag behind the lock-free counts, so the top of the heap is brought up to
+     * date, and sifted down if it is no longer the least active, until it is.
+     */
+    @NonNull
+    private Entry leastActive() {
+        while (true) {
+            Entry top = heap[0];
+            long weight = top.getWeight();
+            if (weight == top.weight) {
+                return top;
+            }
+            top.weight = weight;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Captures the rankings of the current period and starts a new one.
+     * Activities completing concurrently with the rollup may be attributed
+     * to either period or, rarely, not at all.
+     */
+    @Override
+    public synchronized void rollup() {
+        List<TransletStats> stats = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Entry entry = heap[i];
+            TransletStats stat = entry.drain();
+            if (stat != null) {
+                stats.add(stat);
+            }
+        }
+        for (int i = (size >>> 1) - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+        sketch = new AtomicLongArray(SKETCH_WIDTH * SKETCH_DEPTH);
+        threshold = (size == heap.length ? heap[0].weight + ADMISSION_MARGIN : -1L);
+        TransletStats others = other.drain();
+
+        List<TransletStats> erroneous = new ArrayList<>();
+        List<TransletStats> cpuBound = new ArrayList<>();
+        List<TransletStats> allocating = new ArrayList<>();
+        for (TransletStats stat : stats) {
+            if (stat.getErrors() > 0L) {
+                erroneous.add(stat);
+            }
+            if (stat.getCpuTime() > 0L) {
+                cpuBound.add(stat);
+            }
+            if (stat.getAllocatedBytes() > 0L) {
+                allocating.add(stat);
+            }
+        }
+        ranking = new Ranking(top(stats, BY_VOLUME), top(erroneous, BY_ERROR_RATE), top(stats, BY_LATENCY),
+                top(cpuBound, BY_CPU_TIME), top(allocating, BY_ALLOCATION), others);
+    }
+
+    /**
+     * Returns the top translets by activity count in the last rollup period.
+     * @return the translets in descending order of volume
+     */
+    public List<TransletStats> getTopByVolume() {
+        return ranking.byVolume;
+    }
+
+    /**
+     * Returns the top translets by error rate in the last rollup period.
+     * Translets without errors are not included.
+     * @return the translets in descending order of error rate
+     */
+    public List<TransletStats> getTopByErrorRate() {
+        return ranking.byErrorRate;
+    }
+
+    /**
+     * Returns the top translets by p99 latency in the last rollup period.
+     * @return the translets in descending order of p99 latency
+     */
+    public List<TransletStats> getTopByLatency() {
+        return ranking.byLatency;
+    }
+
+    /**
+     * Returns the top translets by total CPU time in the last rollup period.
+     * Empty unless resource usage is measured.
+     * @return the translets in descending order of CPU time
+     */
+    public List<TransletStats> getTopByCpuTime() {
+        return ranking.byCpuTime;
+    }
+
+    /**
+     * Returns the top translets by total allocated bytes in the last rollup period.
+     * Empty unless resource usage is measured.
+     * @return the translets in descending order of allocated bytes
+     */
+    public List<TransletStats> getTopByAllocation() {
+        return ranking.byAllocation;
+    }
+
+    /**
+     * Returns the combined statistics of the activities in the last rollup
+     * period whose translets were not tracked when they completed.
+     * @return the statistics without a name, or {@code null} if there were none
+     */
+    @Nullable
+    public TransletStats getOther() {
+        return ranking.other;
+    }
+
+    @NonNull
+    private List<TransletStats> top(@NonNull List<TransletStats> stats, Comparator<TransletStats> comparator) {
+        if (stats.isEmpty()) {
+            return List.of();
+        }
+        List<TransletStats> sorted = new ArrayList<>(stats);
+        sorted.sort(comparator);
+        return Collections.unmodifiableList(sorted.subList(0, Math.min(topN, sorted.size())));
+    }
+
+    private void siftUp(int index) {
+        Entry entry = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent].weight <= entry.weight) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = entry;
+    }
+
+    private void siftDown(int index) {
+        Entry entry = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = (index << 1) + 1;
+            int right = child + 1;
+            if (right < size && heap[right].weight < heap[child].weight) {
+                child = right;
+            }
+            if (entry.weight <= heap[child].weight) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = entry;
+    }
+
+    private static class Entry {
+
+        private final String name;
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder errors = new LongAdder();
+
+        private final LatencyHistogram latency = new LatencyHistogram(LATENCY_PRECISION_BITS);
+
+        private final LongAdder cpuTime = new LongAdder();
+
+        private final LongAdder allocatedBytes = new LongAdder();
+
+        /** The possible overcount in the current period; guarded by the breakdown */
+        private long overestimate;
+
+        /** Half of the activity of past periods; guarded by the breakdown */
+        private long headStart;
+
+        /** The weight of this entry as last seen in the heap; guarded by the breakdown */
+        private long weight;
+
+        /** Whether this entry has been evicted and folded into other */
+        private volatile boolean retired;
+
+        Entry(String name) {
+            this.name = name;
+        }
+
+        void record(long elapsedTime, boolean error, long cpuTime, long allocatedBytes) {
+            count.increment();
+            if (error) {
+                errors.increment();
+            }
+            latency.record(elapsedTime);
+            if (cpuTime > 0L) {
+                this.cpuTime.add(cpuTime);
+            }
+            if (allocatedBytes > 0L) {
+                this.allocatedBytes.add(allocatedBytes);
+            }
+        }
+
+        /**
+         * Adds the activities recorded so far by the given entry to this one.
+         */
+        void add(@NonNull Entry entry) {
+            count.add(entry.count.sumThenReset());
+            errors.add(entry.errors.sumThenReset());
+            latency.add(entry.latency.drain());
+            cpuTime.add(entry.cpuTime.sumThenReset());
+            allocatedBytes.add(entry.allocatedBytes.sumThenReset());
+        }
+
+        long getWeight() {
+            return headStart + overestimate + count.sum();
+        }
+
+        /**
+         * Returns the statistics of the current period and resets them,
+         * halving the weight of this entry as its head start for the next period.
+         * @return the statistics, or {@code null} if there was no activity
+         */
+        @Nullable
+        TransletStats drain() {
+            long observed = count.sumThenReset();
+            long overestimate = this.overestimate;
+            long errors = this.errors.sumThenReset();
+            LatencyHistogram.Snapshot latency = this.latency.drain();
+            long cpuTime = this.cpuTime.sumThenReset();
+            long allocatedBytes = this.allocatedBytes.sumThenReset();
+            headStart = (headStart + overestimate + observed) >>> 1;
+            weight = headStart;
+            this.overestimate = 0L;
+            if (observed == 0L) {
+                return null;
+            }
+            return new TransletStats(name, overestimate + observed, overestimate, errors,
+                    latency.getValueAtPercentile(99.0), cpuTime, allocatedBytes);
+        }
+
+    }
+
+    private static class Ranking {
+
+        private final List<TransletStats> byVolume;
+
+        private final List<TransletStats> byErrorRate;
+
+        private final List<TransletStats> byLatency;
+
+        private final List<TransletStats> byCpuTime;
+
+        private final List<TransletStats> byAllocation;
+
+        private final TransletStats other;
+
+        Ranking(List<TransletStats> byVolume, List<TransletStats> byErrorRate, List<TransletStats> byLatency,
+                List<TransletStats> byCpuTime, List<TransletStats> byAllocation, TransletStats other) {
+            this.byVolume = byVolume;
+            this.byErrorRate = byErrorRate;
+            this.byLatency = byLatency;
+            this.byCpuTime = byCpuTime;
+            this.byAllocation = byAllocation;
+            this.other = other;
+        }
+
+    }
+
+}
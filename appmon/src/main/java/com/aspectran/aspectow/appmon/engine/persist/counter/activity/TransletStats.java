@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter.activity;
+
+/**
+ * Immutable activity statistics of a single translet for one rollup period.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+public class TransletStats {
+
+    private final String name;
+
+    private final long count;
+
+    private final long overestimate;
+
+    private final long errors;
+
+    private final long p99;
+
+    private final long cpuTime;
+
+    private final long allocatedBytes;
+
+    TransletStats(String name, long count, long overestimate, long errors, long p99,
+                  long cpuTime, long allocatedBytes) {
+        this.name = name;
+        this.count = count;
+        this.overestimate = overestimate;
+        this.errors = errors;
+        this.p99 = p99;
+        this.cpuTime = cpuTime;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    /**
+     * Returns the request name of the translet.
+     * @return the translet name, or {@code null} for the combined statistics
+     *      of the translets that were not tracked
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the estimated number of activities of the translet.
+     * The estimate never undercounts, and exceeds the true count by
+     * at most {@link #getOverestimate()}.
+     * @return the estimated activity count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the maximum amount by which {@link #getCount()} may overcount.
+     * This is non-zero only if the translet took over the slot of another
+     * translet that was evicted during the period.
+     * @return the maximum overcount
+     */
+    public long getOverestimate() {
+        return overestimate;
+    }
+
+    /**
+     * Returns the number of activities of the translet that raised an error.
+     * @return the error count
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * Returns the ratio of errors to the activities actually observed
+     * since the translet was last admitted.
+     * @return the error rate, between 0 and 1
+     */
+    public double getErrorRate() {
+        long observed = count - overestimate;
+        return (observed > 0L ? (double)errors / observed : 0.0);
+    }
+
+    /**
+     * Returns the 99th percentile latency of the translet.
+     * @return the 99th percentile latency in milliseconds
+     */
+    public long getP99() {
+        return p99;
+    }
+
+    /**
+     * Returns the total CPU time consumed by the activities of the translet.
+     * This is zero unless resource usage is measured.
+     * @return the CPU time in nanoseconds
+     */
+    public long getCpuTime() {
+        return cpuTime;
+    }
+
+    /**
+     * Returns the total bytes allocated by the activities of the translet.
+     * This is zero unless resource usage is measured.
+     * @return the allocated bytes
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+}
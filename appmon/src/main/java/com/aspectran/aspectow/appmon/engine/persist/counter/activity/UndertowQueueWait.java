@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter.activity;
+
+import com.aspectran.core.activity.Activity;
+import com.aspectran.core.adapter.RequestAdapter;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.servlet.handlers.ServletRequestContext;
+import io.undertow.servlet.spec.HttpServletRequestImpl;
+import io.undertow.util.AttachmentKey;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Measures how long the request of an activity waited between the time
+ * Undertow started reading it and the time the activity started.
+ * <p>The request start time is only recorded by Undertow when the server
+ * option {@code RECORD_REQUEST_START_TIME} is enabled; otherwise nothing
+ * is measured. This class refers to Undertow types, so it must only be
+ * used once Undertow is known to be present.</p>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+final class UndertowQueueWait {
+
+    /** The value returned when the queue wait cannot be measured. */
+    static final long UNAVAILABLE = -1L;
+
+    private static final AttachmentKey<Boolean> MEASURED = AttachmentKey.create(Boolean.class);
+
+    private UndertowQueueWait() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Returns the time the request of the given activity waited before the
+     * activity started. Only the first activity of an exchange is measured,
+     * so activities included or forwarded within the same request are not.
+     * @param activity the activity that is about to be executed
+     * @return the queue wait in microseconds, or {@link #UNAVAILABLE}
+     */
+    static long measure(@NonNull Activity activity) {
+        HttpServerExchange exchange = getExchange(activity);
+        if (exchange == null) {
+            return UNAVAILABLE;
+        }
+        long requestStartTime = exchange.getRequestStartTime();
+        if (requestStartTime <= 0L || exchange.getAttachment(MEASURED) != null) {
+            return UNAVAILABLE;
+        }
+        exchange.putAttachment(MEASURED, Boolean.TRUE);
+        long queueWait = System.nanoTime() - requestStartTime;
+        return (queueWait >= 0L ? queueWait / 1000L : UNAVAILABLE);
+    }
+
+    private static HttpServerExchange getExchange(@NonNull Activity activity) {
+        RequestAdapter requestAdapter = activity.getRequestAdapter();
+        if (requestAdapter != null) {
+            Object adaptee = requestAdapter.getAdaptee();
+            if (adaptee instanceof HttpServerExchange exchange) {
+                return exchange;
+            }
+            if (adaptee instanceof HttpServletRequestImpl request) {
+                return request.getExchange();
+            }
+        }
+        ServletRequestContext servletRequestContext = ServletRequestContext.current();
+        return (servletRequestContext != null ? servletRequestContext.getExchange() : null);
+    }
+
+}
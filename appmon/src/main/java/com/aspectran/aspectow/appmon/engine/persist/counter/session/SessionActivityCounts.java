@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter.session;
+
+import com.aspectran.core.adapter.SessionAdapter;
+import com.aspectran.core.component.session.ManagedSession;
+import com.aspectran.core.component.session.Session;
+import com.aspectran.core.component.session.SessionListener;
+import com.aspectran.core.component.session.SessionManager;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.aspectran.aspectow.appmon.engine.exporter.event.session.SessionEventReader.USER_ACTIVITY_COUNT;
+
+/**
+ * Keeps the number of activities performed in each session of an app on this node.
+ * <p>Counting is done in a node-local map keyed by session id rather than in
+ * the session itself, so that a request does not have to write to the session
+ * just to bump its counter. With a file- or Redis-backed session store, every
+ * such write would mark the session dirty and force it to be saved again.
+ * Instead, the count is written behind into the session attribute
+ * {@code user.activityCount} at most once per flush interval, and once more
+ * when the session is evicted from this node.</p>
+ * <p>Each instance is owned by the activity event counter of an app, and is
+ * registered by it as a {@link SessionListener} of the app's session manager,
+ * so that its entries are dropped when sessions are destroyed, independently
+ * of whether session events are counted or read. Entries of sessions that
+ * have not been accessed for a long time are purged at each rollup, after
+ * writing any count still pending into the session, as their end may not
+ * have been reported; for instance, when no session manager could be found.</p>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+public class SessionActivityCounts implements SessionListener {
+
+    /**
+     * Entries not accessed for this long are dropped even if no session
+     * listener reported the end of the session.
+     */
+    static final long MAX_IDLE_TIME = 30L * 60L * 1000L;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final long flushInterval;
+
+    private volatile SessionManager sessionManager;
+
+    /**
+     * Instantiates a new SessionActivityCounts.
+     * @param flushInterval the minimum interval, in milliseconds, between writes
+     *      of the count into the session attributes
+     */
+    public SessionActivityCounts(long flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    /**
+     * Sets the session manager from which sessions are looked up to write
+     * their pending counts before their entries are purged.
+     * @param sessionManager the session manager of the app
+     */
+    public void setSessionManager(@Nullable SessionManager sessionManager) {
+        this.sessionManager = sessionManager;
+    }
+
+    /**
+     * Increments the activity count of the given session, and writes it into
+     * the session attributes if it has not been written within the flush interval.
+     * @param sessionAdapter the session adapter of the current activity
+     * @return the activity count of the session, including the current activity
+     */
+    public int increment(@NonNull SessionAdapter sessionAdapter) {
+        String sessionId = sessionAdapter.getId();
+        if (sessionId == null) {
+            return 0;
+        }
+        Entry entry = entries.get(sessionId);
+        if (entry == null) {
+            entry = entries.computeIfAbsent(sessionId, id ->
+                    new Entry(sessionAdapter.getAttribute(USER_ACTIVITY_COUNT)));
+        }
+        int count = entry.count.incrementAndGet();
+        long now = System.currentTimeMillis();
+        entry.lastAccessedTime = now;
+        if (now - entry.lastFlushedTime >= flushInterval) {
+            entry.lastFlushedTime = now;
+            entry.flushedCount = count;
+            sessionAdapter.setAttribute(USER_ACTIVITY_COUNT, entry.count);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the activity count of the given session, preferring the count
+     * kept on this node over the one last written into the session.
+     * @param session the session
+     * @return the activity count of the session
+     */
+    public int getCount(@NonNull Session session) {
+        Entry entry = entries.get(session.getId());
+        if (entry != null) {
+            return entry.count.get();
+        }
+        return getStoredCount(session);
+    }
+
+    /**
+     * Returns the activity count last written into the given session.
+     * @param session the session
+     * @return the stored activity count of the session
+     */
+    public static int getStoredCount(@NonNull Session session) {
+        AtomicInteger count = session.getAttribute(USER_ACTIVITY_COUNT);
+        return (count != null ? count.get() : 0);
+    }
+
+    /**
+     * Stops counting the given session without writing its count.
+     * @param session the destroyed session
+     */
+    @Override
+    public void sessionDestroyed(@NonNull Session session) {
+        entries.remove(session.getId());
+    }
+
+    /**
+     * Writes the pending count of the given session into its attributes and
+     * stops counting it on this node, as it may be resumed on another node
+     * from what was last stored.
+     * @param session the evicted session
+     */
+    @Override
+    public void sessionEvicted(@NonNull Session session) {
+        Entry entry = entries.remove(session.getId());
+        if (entry != null && entry.isPending()) {
+            session.setAttribute(USER_ACTIVITY_COUNT, entry.count);
+        }
+    }
+
+    /**
+     * Drops the entries of sessions that have not been accessed for a long time.
+     * Such sessions have most likely ended without this node being notified;
+     * if one of them can still be found in the session manager, its pending
+     * count is written into it first, so that it is not lost.
+     */
+    public void purge() {
+        purge(MAX_IDLE_TIME);
+    }
+
+    void purge(long maxIdleTime) {
+        long threshold = System.currentTimeMillis() - maxIdleTime;
+        SessionManager sessionManager = this.sessionManager;
+        for (Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Entry> mapEntry = it.next();
+            Entry entry = mapEntry.getValue();
+            if (entry.lastAccessedTime < threshold) {
+                if (entry.isPending() && sessionManager != null) {
+                    ManagedSession session = sessionManager.getSession(mapEntry.getKey());
+                    if (session != null) {
+                        session.setAttribute(USER_ACTIVITY_COUNT, entry.count);
+                    }
+                }
+                it.remove();
+            }
+        }
+    }
+
+    private static class Entry {
+
+        private final AtomicInteger count;
+
+        private volatile long lastAccessedTime;
+
+        private volatile long lastFlushedTime;
+
+        private volatile int flushedCount;
+
+        Entry(AtomicInteger stored) {
+            if (stored != null) {
+                this.count = stored;
+                this.lastFlushedTime = System.currentTimeMillis();
+                this.flushedCount = stored.get();
+            } else {
+                this.count = new AtomicInteger();
+            }
+        }
+
+        boolean isPending() {
+            return (flushedCount != count.get());
+        }
+
+    }
+
+}
@@ -16,6 +16,7 @@
 package com.aspectran.aspectow.appmon.engine.persist.db.mapper;
 
 import com.aspectran.aspectow.appmon.engine.persist.counter.EventCountVO;
+import com.aspectran.aspectow.appmon.engine.persist.counter.EventErrorVO;
 import com.aspectran.aspectow.appmon.engine.persist.db.tx.AppMonSqlMapperProvider;
 import com.aspectran.core.component.bean.annotation.Autowired;
 import com.aspectran.core.component.bean.annotation.Bean;
@@ -23,8 +24,10 @@ import com.aspectran.core.component.bean.annotation.Component;
 import com.aspectran.core.component.bean.annotation.Profile;
 import com.aspectran.mybatis.SqlMapperAccess;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.session.SqlSession;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 /**
@@ -43,6 +46,14 @@ public interface EventCountMapper {
      */
     EventCountVO getLastEventCount(String nodeId, String appId, String eventId);
 
+    /**
+     * Retrieves the last recorded event counts of all instances and events of the specified node,
+     * so that every counter can be restored at startup with a single query.
+     * @param nodeId the node identifier
+     * @return a list of the last event count VOs
+     */
+    List<EventCountVO> getLastEventCounts(String nodeId);
+
     /**
      * Updates the last recorded event count.
      * @param eventCountVO the event count data to update
@@ -61,6 +72,80 @@ public interface EventCountMapper {
      */
     void insertEventCountHourly(EventCountVO eventCountVO);
 
+    /**
+     * Inserts a daily aggregated event count record,
+     * adding to the counts already recorded for the same day, if any.
+     * @param eventCountVO the event count data to insert, dated at the start of the day (UTC)
+     */
+    void insertEventCountDaily(EventCountVO eventCountVO);
+
+    /**
+     * Inserts a monthly aggregated event count record,
+     * adding to the counts already recorded for the same month, if any.
+     * @param eventCountVO the event count data to insert, dated at the start of the month (UTC)
+     */
+    void insertEventCountMonthly(EventCountVO eventCountVO);
+
+    /**
+     * Inserts the error count of a single error type for an interval,
+     * adding to the count already recorded for the same interval, if any.
+     * @param eventErrorVO the error count data to insert
+     */
+    void insertEventError(EventErrorVO eventErrorVO);
+
+    /**
+     * Saves the results of a counter rollup: the last state, the raw counts and
+     * the hourly counts of each updated counter, and their error counts by type.
+     * The daily and monthly counts are derived from the hourly counts, so that
+     * charts over longer periods can be read without aggregating the hourly data.
+     * Statements of the same kind are issued together, so that a batching
+     * executor can send each kind to the database as a single batch.
+     * The last state is written last, so that it only records the time of
+     * the rollup once the counts it adds to have been written.
+     * @param eventCounts the raw event counts, one per updated counter
+     * @param hourlyEventCounts the hourly event counts, one per updated counter
+     * @param eventErrors the error counts by type of all updated counters
+     */
+    default void saveRollup(
+            List<EventCountVO> eventCounts, List<EventCountVO> hourlyEventCounts, List<EventErrorVO> eventErrors) {
+        for (EventCountVO eventCountVO : eventCounts) {
+            insertEventCount(eventCountVO);
+        }
+        for (EventCountVO eventCountVO : hourlyEventCounts) {
+            insertEventCountHourly(eventCountVO);
+        }
+        for (EventCountVO eventCountVO : hourlyEventCounts) {
+            insertEventCountDaily(eventCountVO.copyOf(startOfDay(eventCountVO.getDatetime())));
+        }
+        for (EventCountVO eventCountVO : hourlyEventCounts) {
+            insertEventCountMonthly(eventCountVO.copyOf(startOfMonth(eventCountVO.getDatetime())));
+        }
+        for (EventErrorVO eventErrorVO : eventErrors) {
+            insertEventError(eventErrorVO);
+        }
+        for (EventCountVO eventCountVO : eventCounts) {
+            updateLastEventCount(eventCountVO);
+        }
+    }
+
+    private static LocalDateTime startOfDay(LocalDateTime datetime) {
+        return datetime.truncatedTo(ChronoUnit.DAYS);
+    }
+
+    private static LocalDateTime startOfMonth(LocalDateTime datetime) {
+        return datetime.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS);
+    }
+
+    /**
+     * Retrieves the error counts by type recorded since the specified date/time.
+     * @param nodeId the node identifier
+     * @param appId the app identifier
+     * @param eventId the event identifier
+     * @param dateOffset the date/time from which to fetch data
+     * @return a list of error count records in chronological order
+     */
+    List<EventErrorVO> getEventErrors(String nodeId, String appId, String eventId, LocalDateTime dateOffset);
+
     /**
      * Retrieves raw chart data for the specified criteria.
      * @param nodeId the node identifier
@@ -84,33 +169,38 @@ public interface EventCountMapper {
 
     /**
      * Retrieves chart data aggregated by day for the specified criteria.
+     * The pre-aggregated daily counts are read, which are kept by UTC day
+     * whatever the time zone of the viewer.
      * @param nodeId the node identifier
      * @param appId the app identifier
      * @param eventId the event identifier
      * @param zoneOffset the time zone offset in seconds
-     * @param dateOffset the start date/time for fetching data
+     * @param dateOffset the start of the UTC day before which to fetch data
      * @return a list of event count records aggregated by day
      */
     List<EventCountVO> getChartDataByDay(String nodeId, String appId, String eventId, int zoneOffset, LocalDateTime dateOffset);
 
     /**
      * Retrieves chart data aggregated by month for the specified criteria.
+     * The pre-aggregated monthly counts are read, which are kept by UTC month
+     * whatever the time zone of the viewer.
      * @param nodeId the node identifier
      * @param appId the app identifier
      * @param eventId the event identifier
      * @param zoneOffset the time zone offset in seconds
-     * @param dateOffset the start date/time for fetching data
+     * @param dateOffset the start of the UTC month before which to fetch data
      * @return a list of event count records aggregated by month
      */
     List<EventCountVO> getChartDataByMonth(String nodeId, String appId, String eventId, int zoneOffset, LocalDateTime dateOffset);
 
     /**
      * Retrieves chart data aggregated by year for the specified criteria.
+     * The pre-aggregated monthly counts are summed up by UTC year.
      * @param nodeId the node identifier
      * @param appId the app identifier
      * @param eventId the event identifier
      * @param zoneOffset the time zone offset in seconds
-     * @param dateOffset the start date/time for fetching data
+     * @param dateOffset the start of the UTC year before which to fetch data
      * @return a list of event count records aggregated by year
      */
     List<EventCountVO> getChartDataByYear(String nodeId, String appId, String eventId, int zoneOffset, LocalDateTime dateOffset);
@@ -124,6 +214,8 @@ public interface EventCountMapper {
     @Profile("!appmon.ext-persistence")
     class Dao extends SqlMapperAccess<EventCountMapper> implements EventCountMapper {
 
+        private final AppMonSqlMapperProvider sqlMapperProvider;
+
         /**
          * Constructs a new Dao.
          * @param sqlMapperProvider the SQL mapper provider
@@ -131,6 +223,7 @@ public interface EventCountMapper {
         @Autowired
         public Dao(AppMonSqlMapperProvider sqlMapperProvider) {
             super(sqlMapperProvider);
+            this.sqlMapperProvider = sqlMapperProvider;
         }
 
         @Override
@@ -138,6 +231,11 @@ public interface EventCountMapper {
             return mapper().getLastEventCount(nodeId, appId, eventId);
         }
 
+        @Override
+        public List<EventCountVO> getLastEventCounts(String nodeId) {
+            return mapper().getLastEventCounts(nodeId);
+        }
+
         @Override
         public void updateLastEventCount(EventCountVO eventCountVO) {
             mapper().updateLastEventCount(eventCountVO);
@@ -153,6 +251,57 @@ public interface EventCountMapper {
             mapper().insertEventCountHourly(eventCountVO);
         }
 
+        @Override
+        public void insertEventCountDaily(EventCountVO eventCountVO) {
+            mapper().insertEventCountDaily(eventCountVO);
+        }
+
+        @Override
+        public void insertEventCountMonthly(EventCountVO eventCountVO) {
+            mapper().insertEventCountMonthly(eventCountVO);
+        }
+
+        @Override
+        public void insertEventError(EventErrorVO eventErrorVO) {
+            mapper().insertEventError(eventErrorVO);
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p>All rows are written through the batched session in a single
+         * transaction, which is committed when the current activity completes.</p>
+         */
+        @Override
+        public void saveRollup(
+                List<EventCountVO> eventCounts, List<EventCountVO> hourlyEventCounts, List<EventErrorVO> eventErrors) {
+            SqlSession batchSqlSession = sqlMapperProvider.getBatchSqlSession();
+            EventCountMapper batchMapper = batchSqlSession.getMapper(EventCountMapper.class);
+            for (EventCountVO eventCountVO : eventCounts) {
+                batchMapper.insertEventCount(eventCountVO);
+            }
+            for (EventCountVO eventCountVO : hourlyEventCounts) {
+                batchMapper.insertEventCountHourly(eventCountVO);
+            }
+            for (EventCountVO eventCountVO : hourlyEventCounts) {
+                batchMapper.insertEventCountDaily(eventCountVO.copyOf(startOfDay(eventCountVO.getDatetime())));
+            }
+            for (EventCountVO eventCountVO : hourlyEventCounts) {
+                batchMapper.insertEventCountMonthly(eventCountVO.copyOf(startOfMonth(eventCountVO.getDatetime())));
+            }
+            for (EventErrorVO eventErrorVO : eventErrors) {
+                batchMapper.insertEventError(eventErrorVO);
+            }
+            for (EventCountVO eventCountVO : eventCounts) {
+                batchMapper.updateLastEventCount(eventCountVO);
+            }
+            batchSqlSession.flushStatements();
+        }
+
+        @Override
+        public List<EventErrorVO> getEventErrors(String nodeId, String appId, String eventId, LocalDateTime dateOffset) {
+            return mapper().getEventErrors(nodeId, appId, eventId, dateOffset);
+        }
+
         @Override
         public List<EventCountVO> getChartData(String nodeId, String appId, String eventId, LocalDateTime dateOffset) {
             return mapper().getChartData(nodeId, appId, eventId, dateOffset);
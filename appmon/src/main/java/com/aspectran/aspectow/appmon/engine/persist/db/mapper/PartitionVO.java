@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.db.mapper;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * A Value Object (VO) representing a range partition of a table,
+ * as reported by the database catalog.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+public class PartitionVO implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 5530372129468437208L;
+
+    /** The name of the partition */
+    private String name;
+
+    /** The bound of the partition as described by the database */
+    private String bound;
+
+    /**
+     * Returns the name of the partition.
+     * @return the partition name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Sets the name of the partition.
+     * @param name the partition name
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the bound of the partition as described by the database,
+     * such as {@code '2026-01-01 00:00:00'} on MySQL or
+     * {@code FOR VALUES FROM (...) TO ('2026-01-01 00:00:00')} on PostgreSQL.
+     * @return the partition bound
+     */
+    public String getBound() {
+        return bound;
+    }
+
+    /**
+     * Sets the bound of the partition.
+     * @param bound the partition bound
+     */
+    public void setBound(String bound) {
+        this.bound = bound;
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.db.mapper;
+
+import com.aspectran.aspectow.appmon.engine.persist.db.tx.AppMonSqlMapperProvider;
+import com.aspectran.core.component.bean.annotation.Autowired;
+import com.aspectran.core.component.bean.annotation.Bean;
+import com.aspectran.core.component.bean.annotation.Component;
+import com.aspectran.core.component.bean.annotation.Profile;
+import com.aspectran.mybatis.SqlMapperAccess;
+import org.apache.ibatis.annotations.Mapper;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The MyBatis mapper interface for removing expired event count data.
+ * The table names passed to these methods are substituted into the statements
+ * as is, so they must be the names of the appmon tables, never user input.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+@Mapper
+public interface RetentionMapper {
+
+    /**
+     * Deletes up to the given number of rows of the node recorded before the specified date/time.
+     * @param table the name of the table
+     * @param nodeId the node identifier
+     * @param before the date/time before which rows are deleted
+     * @param limit the maximum number of rows to delete
+     * @return the number of rows deleted
+     */
+    int deleteExpired(String table, String nodeId, LocalDateTime before, int limit);
+
+    /**
+     * Retrieves the range partitions of the table, if the table is partitioned
+     * and the database supports dropping its partitions.
+     * @param table the name of the table
+     * @return a list of partitions, empty if the table is not partitioned
+     */
+    List<PartitionVO> getPartitions(String table);
+
+    /**
+     * Drops a partition of the table along with all its rows.
+     * @param table the name of the table
+     * @param partition the name of the partition
+     */
+    void dropPartition(String table, String partition);
+
+    /**
+     * Data Access Object (DAO) for {@link RetentionMapper}.
+     * Provides a convenient way to access the mapper methods using Aspectran's bean container.
+     */
+    @Component
+    @Bean("appmon.retentionDao")
+    @Profile("!appmon.ext-persistence")
+    class Dao extends SqlMapperAccess<RetentionMapper> implements RetentionMapper {
+
+        /**
+         * Constructs a new Dao.
+         * @param sqlMapperProvider the SQL mapper provider
+         */
+        @Autowired
+        public Dao(AppMonSqlMapperProvider sqlMapperProvider) {
+            super(sqlMapperProvider);
+        }
+
+        @Override
+        public int deleteExpired(String table, String nodeId, LocalDateTime before, int limit) {
+            return mapper().deleteExpired(table, nodeId, before, limit);
+        }
+
+        @Override
+        public List<PartitionVO> getPartitions(String table) {
+            return mapper().getPartitions(table);
+        }
+
+        @Override
+        public void dropPartition(String table, String partition) {
+            mapper().dropPartition(table, partition);
+        }
+
+    }
+
+}
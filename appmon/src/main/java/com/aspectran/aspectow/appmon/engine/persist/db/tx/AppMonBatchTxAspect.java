@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.db.tx;
+
+import com.aspectran.core.component.bean.annotation.After;
+import com.aspectran.core.component.bean.annotation.Aspect;
+import com.aspectran.core.component.bean.annotation.Autowired;
+import com.aspectran.core.component.bean.annotation.Bean;
+import com.aspectran.core.component.bean.annotation.Before;
+import com.aspectran.core.component.bean.annotation.Component;
+import com.aspectran.core.component.bean.annotation.Finally;
+import com.aspectran.core.component.bean.annotation.Joinpoint;
+import com.aspectran.core.component.bean.annotation.Profile;
+import com.aspectran.core.component.bean.annotation.Qualifier;
+import com.aspectran.core.component.bean.annotation.Scope;
+import com.aspectran.core.context.rule.type.ScopeType;
+import com.aspectran.mybatis.SqlSessionAdvice;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+/**
+ * An aspect for handling batched database transactions.
+ * It advises methods annotated with {@code @appmonBatchSqlSession} to manage the lifecycle
+ * of a {@link org.apache.ibatis.session.SqlSession}.
+ * <ul>
+ * <li>A transaction scope will be started (i.e., NOT auto-commit), and committed
+ *     only when the advised activity completes.</li>
+ * <li>A Connection object will be acquired from the DataSource instance
+ *     configured by the active environment.</li>
+ * <li>The transaction isolation level will be the default used by the driver or
+ *     data source.</li>
+ * <li>Consecutive executions of the same statement will be sent to the database
+ *     as a single JDBC batch.</li>
+ * </ul>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+@Component
+@Bean(lazyDestroy = true)
+@Profile("!appmon.ext-persistence")
+@Scope(ScopeType.PROTOTYPE)
+@Aspect(
+        id = "appmonBatchTxAspect",
+        order = 0
+)
+@Joinpoint(
+        pointcut = {
+                "+: **@appmonBatchSqlSession"
+        }
+)
+public class AppMonBatchTxAspect extends SqlSessionAdvice {
+
+    @Autowired
+    public AppMonBatchTxAspect(@Qualifier("appmonSqlSessionFactory") SqlSessionFactory sqlSessionFactory) {
+        super(sqlSessionFactory);
+        setAutoCommit(false);
+        setExecutorType(ExecutorType.BATCH);
+    }
+
+    @Before
+    public void open() {
+        // Leave empty to support lazy opening
+    }
+
+    @After
+    public void commit() {
+        super.commit();
+    }
+
+    @Finally
+    public void close() {
+        super.close();
+    }
+
+}
@@ -24,7 +24,8 @@ import org.apache.ibatis.session.SqlSession;
 
 /**
  * The default provider for {@link SqlSession} instances.
- * It supplies the simple, auto-committing SqlSession for database operations.
+ * It supplies the simple, auto-committing SqlSession for database operations,
+ * and the batched, transactional SqlSession for writing many rows at once.
  *
  * <p>Created: 2025. 2. 15.</p>
  */
@@ -35,9 +36,12 @@ public class AppMonSqlMapperProvider implements SqlMapperProvider {
 
     private final SqlSession simpleSqlSession;
 
+    private final SqlSession batchSqlSession;
+
     @Autowired
-    public AppMonSqlMapperProvider(AppMonSqlSession simpleSqlSession) {
+    public AppMonSqlMapperProvider(AppMonSqlSession simpleSqlSession, AppMonBatchSqlSession batchSqlSession) {
         this.simpleSqlSession = simpleSqlSession;
+        this.batchSqlSession = batchSqlSession;
     }
 
     @Override
@@ -45,4 +49,9 @@ public class AppMonSqlMapperProvider implements SqlMapperProvider {
         return simpleSqlSession;
     }
 
+    @Override
+    public SqlSession getBatchSqlSession() {
+        return batchSqlSession;
+    }
+
 }
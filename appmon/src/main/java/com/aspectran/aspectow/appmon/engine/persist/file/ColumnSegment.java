@@ -0,0 +1,306 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.file;
+
+import org.jspecify.annotations.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A segment file that holds a fixed number of rows of {@code long} values,
+ * stored column by column and accessed through a memory mapping.
+ * <p>The file starts with a header holding the format version, the number of
+ * columns, the capacity and the number of rows written so far, followed by one
+ * contiguous block per column. A file written in a format version other than
+ * the current one is rejected rather than misread. Rows are only ever appended, and the row count in the header is
+ * updated after the values of a row have been written, so a row left
+ * incomplete by a crash is not visible when the segment is opened again.
+ * The first column holds the time of each row, which never decreases, so that
+ * rows can be looked up by time with a binary search.</p>
+ * <p>A segment is not thread-safe; access is guarded by its owner.</p>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+final class ColumnSegment implements Closeable {
+
+    private static final int MAGIC = 0x41534547; // "ASEG"
+
+    /** The version of the file format, to be raised whenever the layout changes */
+    static final int FORMAT_VERSION = 1;
+
+    /** The size of the header, a multiple of 8 so that the values are aligned */
+    private static final int HEADER_SIZE = 24;
+
+    private static final int VERSION_POSITION = 4;
+
+    private static final int COLUMNS_POSITION = 8;
+
+    private static final int CAPACITY_POSITION = 12;
+
+    private static final int COUNT_POSITION = 16;
+
+    private final Path file;
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    private final int columns;
+
+    private final int capacity;
+
+    private int count;
+
+    private ColumnSegment(
+            Path file, FileChannel channel, MappedByteBuffer buffer, int columns, int capacity, int count) {
+        this.file = file;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.columns = columns;
+        this.capacity = capacity;
+        this.count = count;
+    }
+
+    /**
+     * Returns the path of the segment file.
+     * @return the path of the segment file
+     */
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the number of columns of each row.
+     * @return the number of columns
+     */
+    int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Returns the maximum number of rows the segment can hold.
+     * @return the capacity of the segment
+     */
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of rows written to the segment.
+     * @return the number of rows
+     */
+    int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns whether the segment cannot hold any more rows.
+     * @return true if the segment is full; false otherwise
+     */
+    boolean isFull() {
+        return (count >= capacity);
+    }
+
+    /**
+     * Returns a single value.
+     * @param column the column index
+     * @param index the row index
+     * @return the value
+     */
+    long get(int column, int index) {
+        return buffer.getLong(position(column, index));
+    }
+
+    /**
+     * Overwrites a single value of a row that has already been written.
+     * @param column the column index
+     * @param index the row index
+     * @param value the new value
+     */
+    void put(int column, int index, long value) {
+        if (index >= count) {
+            throw new IndexOutOfBoundsException("Row " + index + " has not been written to " + file);
+        }
+        buffer.putLong(position(column, index), value);
+    }
+
+    /**
+     * Copies the values of a range of rows of a column into an array.
+     * @param column the column index
+     * @param from the index of the first row to copy
+     * @param dest the destination array
+     * @param destPos the starting position in the destination array
+     * @param length the number of rows to copy
+     */
+    void read(int column, int from, long[] dest, int destPos, int length) {
+        buffer.slice(position(column, from), length * Long.BYTES)
+                .asLongBuffer()
+                .get(dest, destPos, length);
+    }
+
+    /**
+     * Appends a row.
+     * @param row the values of the row, one per column
+     * @return the index of the appended row
+     */
+    int append(@NonNull long[] row) {
+        if (row.length != columns) {
+            throw new IllegalArgumentException("Expected " + columns + " columns but got " + row.length);
+        }
+        if (isFull()) {
+            throw new IllegalStateException("Segment is full: " + file);
+        }
+        int index = count;
+        for (int column = 0; column < columns; column++) {
+            buffer.putLong(position(column, index), row[column]);
+        }
+        count = index + 1;
+        buffer.putInt(COUNT_POSITION, count);
+        return index;
+    }
+
+    /**
+     * Returns the index of the first row whose time is not before the given time.
+     * @param datetime the time to look for
+     * @return the index of the first such row, or the row count if there is none
+     */
+    int lowerBound(long datetime) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (get(0, mid) < datetime) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Forces the rows written so far to be written to the storage device.
+     */
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int position(int column, int index) {
+        return HEADER_SIZE + (column * capacity + index) * Long.BYTES;
+    }
+
+    /**
+     * Opens a segment file for reading and writing, creating it if it does not exist.
+     * @param file the path of the segment file
+     * @param columns the number of columns of each row
+     * @param capacity the maximum number of rows of a new segment
+     * @return the opened segment
+     * @throws IOException if the file cannot be opened or is not a valid segment
+     */
+    @NonNull
+    static ColumnSegment open(@NonNull Path file, int columns, int capacity) throws IOException {
+        long size = (long)HEADER_SIZE + (long)columns * capacity * Long.BYTES;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment too large: " + columns + " columns of " + capacity + " rows");
+        }
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < HEADER_SIZE || readHeader(channel).getInt(0) == 0) {
+                // A new file, or one left empty by a crash before its header was written
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.putInt(VERSION_POSITION, FORMAT_VERSION);
+                buffer.putInt(COLUMNS_POSITION, columns);
+                buffer.putInt(CAPACITY_POSITION, capacity);
+                buffer.putInt(COUNT_POSITION, 0);
+                buffer.putInt(0, MAGIC);
+                return new ColumnSegment(file, channel, buffer, columns, capacity, 0);
+            }
+            return map(file, channel, columns, FileChannel.MapMode.READ_WRITE);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens an existing segment file for reading only.
+     * @param file the path of the segment file
+     * @param columns the number of columns of each row
+     * @return the opened segment
+     * @throws IOException if the file cannot be opened or is not a valid segment
+     */
+    @NonNull
+    static ColumnSegment openReadOnly(@NonNull Path file, int columns) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return map(file, channel, columns, FileChannel.MapMode.READ_ONLY);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @NonNull
+    private static ColumnSegment map(
+            Path file, @NonNull FileChannel channel, int columns, FileChannel.MapMode mode) throws IOException {
+        if (channel.size() < HEADER_SIZE) {
+            throw new IOException("Not a valid segment file: " + file);
+        }
+        ByteBuffer header = readHeader(channel);
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException("Not a valid segment file: " + file);
+        }
+        int version = header.getInt(VERSION_POSITION);
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported segment format version " + version + ": " + file);
+        }
+        if (header.getInt(COLUMNS_POSITION) != columns) {
+            throw new IOException("Not a valid segment file: " + file);
+        }
+        int capacity = header.getInt(CAPACITY_POSITION);
+        long size = (long)HEADER_SIZE + (long)columns * capacity * Long.BYTES;
+        if (capacity <= 0 || channel.size() < size) {
+            throw new IOException("Truncated segment file: " + file);
+        }
+        int count = Math.max(0, Math.min(header.getInt(COUNT_POSITION), capacity));
+        MappedByteBuffer buffer = channel.map(mode, 0, size);
+        return new ColumnSegment(file, channel, buffer, columns, capacity, count);
+    }
+
+    @NonNull
+    private static ByteBuffer readHeader(@NonNull FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                break;
+            }
+        }
+        return header;
+    }
+
+}
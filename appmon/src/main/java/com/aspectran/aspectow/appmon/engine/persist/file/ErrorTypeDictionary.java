@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.file;
+
+import org.jspecify.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UTFDataFormatException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An append-only file that assigns a number to each error type of an event,
+ * so that error counts can be stored by type in a {@link ColumnSegment}.
+ * <p>An error type left incomplete by a crash while it was being appended
+ * is discarded when the file is opened.</p>
+ * <p>A dictionary is not thread-safe; access is guarded by its owner.</p>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+final class ErrorTypeDictionary implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ErrorTypeDictionary.class);
+
+    private final Path file;
+
+    private final List<String> errorTypes = new ArrayList<>();
+
+    private final Map<String, Integer> numbers = new HashMap<>();
+
+    private RandomAccessFile raf;
+
+    /**
+     * Instantiates a new ErrorTypeDictionary, loading the error types already in the file.
+     * The file is created when the first error type is added.
+     * @param file the path of the dictionary file
+     * @throws IOException if the file cannot be read
+     */
+    ErrorTypeDictionary(@NonNull Path file) throws IOException {
+        this.file = file;
+        if (Files.exists(file)) {
+            raf = new RandomAccessFile(file.toFile(), "rw");
+            long offset = 0L;
+            try {
+                while (offset < raf.length()) {
+                    String errorType = raf.readUTF();
+                    add(errorType);
+                    offset = raf.getFilePointer();
+                }
+            } catch (EOFException | UTFDataFormatException e) {
+                logger.warn("Discarding an incomplete error type at the end of {}", file);
+                raf.setLength(offset);
+            }
+        }
+    }
+
+    /**
+     * Returns the number assigned to an error type.
+     * @param errorType the error type
+     * @return the number of the error type, or -1 if it has not been added
+     */
+    int numberOf(String errorType) {
+        Integer number = numbers.get(errorType);
+        return (number != null ? number : -1);
+    }
+
+    /**
+     * Returns the number assigned to an error type, adding it if it is new.
+     * @param errorType the error type
+     * @return the number of the error type
+     * @throws IOException if a new error type cannot be written to the file
+     */
+    int numberOrAdd(@NonNull String errorType) throws IOException {
+        int number = numberOf(errorType);
+        if (number >= 0) {
+            return number;
+        }
+        if (raf == null) {
+            Files.createDirectories(file.getParent());
+            raf = new RandomAccessFile(file.toFile(), "rw");
+        }
+        long offset = raf.length();
+        try {
+            raf.seek(offset);
+            raf.writeUTF(errorType);
+        } catch (IOException e) {
+            raf.setLength(offset);
+            throw e;
+        }
+        return add(errorType);
+    }
+
+    /**
+     * Returns the error type that has been assigned the given number.
+     * @param number the number of the error type
+     * @return the error type, or null if no error type has the number
+     */
+    String errorTypeOf(long number) {
+        return (number >= 0 && number < errorTypes.size() ? errorTypes.get((int)number) : null);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (raf != null) {
+            try {
+                raf.close();
+            } finally {
+                raf = null;
+            }
+        }
+    }
+
+    private int add(String errorType) {
+        int number = errorTypes.size();
+        errorTypes.add(errorType);
+        numbers.put(errorType, number);
+        return number;
+    }
+
+}
@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.file;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The stored counts of a single event of an app on a node.
+ * <p>The last state, the raw counts, the counts aggregated by hour, day and
+ * month, and the error counts by type are each kept in their own directory
+ * under the directory of the event. Raw counts are partitioned by day, hourly
+ * counts by month, daily counts by year and monthly counts by decade, so that
+ * each segment file stays small and a chart only needs to open the few
+ * segments that cover it.</p>
+ * <p>All methods are synchronized, since the counts are written by the persist
+ * job while they are read for charts.</p>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+final class EventSeries implements Closeable {
+
+    /** The column of the time of a row, in epoch milliseconds */
+    static final int DATETIME = 0;
+
+    static final int TOTAL = 1;
+
+    static final int DELTA = 2;
+
+    static final int ERROR = 3;
+
+    static final int P50 = 4;
+
+    static final int P95 = 5;
+
+    static final int P99 = 6;
+
+    static final int PEAK = 7;
+
+    /** The column of the average concurrency, in hundredths */
+    static final int AVG_CONCURRENCY = 8;
+
+    /** The number of columns of an event count row */
+    static final int COUNT_COLUMNS = 9;
+
+    /** The column of the error type number of an error count row */
+    static final int ERROR_TYPE = 1;
+
+    /** The column of the error count of an error count row */
+    static final int ERROR_COUNT = 2;
+
+    /** The number of columns of an error count row */
+    static final int ERROR_COLUMNS = 3;
+
+    private static final String LAST_FILE = "last.seg";
+
+    private static final String ERROR_TYPES_FILE = "error-types.dat";
+
+    private final Path dir;
+
+    private final SegmentedSeries raw;
+
+    private final SegmentedSeries hourly;
+
+    private final SegmentedSeries daily;
+
+    private final SegmentedSeries monthly;
+
+    private final SegmentedSeries errors;
+
+    private final ErrorTypeDictionary errorTypes;
+
+    private ColumnSegment last;
+
+    /**
+     * Instantiates a new EventSeries, listing the segment files already in its directory.
+     * @param dir the directory of the event
+     * @throws IOException if the stored counts cannot be listed
+     */
+    EventSeries(@NonNull Path dir) throws IOException {
+        this.dir = dir;
+        this.raw = new SegmentedSeries(dir.resolve("raw"),
+                COUNT_COLUMNS, SegmentedSeries.Partitioning.DAY, 1440);
+        this.hourly = new SegmentedSeries(dir.resolve("hourly"),
+                COUNT_COLUMNS, SegmentedSeries.Partitioning.MONTH, 744);
+        this.daily = new SegmentedSeries(dir.resolve("daily"),
+                COUNT_COLUMNS, SegmentedSeries.Partitioning.YEAR, 366);
+        this.monthly = new SegmentedSeries(dir.resolve("monthly"),
+                COUNT_COLUMNS, SegmentedSeries.Partitioning.DECADE, 120);
+        this.errors = new SegmentedSeries(dir.resolve("errors"),
+                ERROR_COLUMNS, SegmentedSeries.Partitioning.DAY, 4096);
+        this.errorTypes = new ErrorTypeDictionary(dir.resolve(ERROR_TYPES_FILE));
+    }
+
+    /**
+     * Returns the last recorded state.
+     * @return the row of the last state, or null if none has been recorded
+     * @throws IOException if the last state cannot be read
+     */
+    @Nullable
+    synchronized long[] getLast() throws IOException {
+        if (last == null) {
+            Path file = dir.resolve(LAST_FILE);
+            if (!Files.exists(file)) {
+                return null;
+            }
+            last = ColumnSegment.open(file, COUNT_COLUMNS, 1);
+        }
+        if (last.getCount() == 0) {
+            return null;
+        }
+        long[] row = new long[COUNT_COLUMNS];
+        for (int column = 0; column < COUNT_COLUMNS; column++) {
+            row[column] = last.get(column, 0);
+        }
+        return row;
+    }
+
+    /**
+     * Replaces the last recorded state.
+     * @param row the row of the last state
+     * @throws IOException if the last state cannot be written
+     */
+    synchronized void updateLast(@NonNull long[] row) throws IOException {
+        if (last == null) {
+            Files.createDirectories(dir);
+            last = ColumnSegment.open(dir.resolve(LAST_FILE), COUNT_COLUMNS, 1);
+        }
+        if (last.getCount() == 0) {
+            last.append(row);
+        } else {
+            last.put(DATETIME, 0, row[DATETIME]);
+            replace(last, 0, row);
+        }
+    }
+
+    /**
+     * Writes a raw event count, replacing the one recorded at the same time, if any.
+     * @param row the row of the event count
+     * @return true if the count was written; false if it is older than the newest count
+     * @throws IOException if the count cannot be written
+     */
+    synchronized boolean putRaw(@NonNull long[] row) throws IOException {
+        return raw.upsert(row, 1, EventSeries::replace);
+    }
+
+    /**
+     * Writes an event count aggregated by hour, day or month, adding it to
+     * the one recorded for the same period, if any.
+     * @param aggregation the aggregation period
+     * @param row the row of the event count
+     * @return true if the count was written; false if it is older than the newest count
+     * @throws IOException if the count cannot be written
+     */
+    synchronized boolean putAggregated(@NonNull Aggregation aggregation, @NonNull long[] row) throws IOException {
+        return getSeries(aggregation).upsert(row, 1, EventSeries::accumulate);
+    }
+
+    /**
+     * Writes the error count of an error type, adding it to the one recorded
+     * for the same time and type, if any.
+     * @param datetime the time of the error count, in epoch milliseconds
+     * @param errorType the error type
+     * @param error the error count
+     * @return true if the count was written; false if it is older than the newest count
+     * @throws IOException if the count cannot be written
+     */
+    synchronized boolean putError(long datetime, @NonNull String errorType, long error) throws IOException {
+        long[] row = new long[ERROR_COLUMNS];
+        row[DATETIME] = datetime;
+        row[ERROR_TYPE] = errorTypes.numberOrAdd(errorType);
+        row[ERROR_COUNT] = error;
+        return errors.upsert(row, 2, (segment, index, values) ->
+                segment.put(ERROR_COUNT, index, segment.get(ERROR_COUNT, index) + values[ERROR_COUNT]));
+    }
+
+    /**
+     * Reads the newest raw event counts before the given time.
+     * @param before the time before which to read, in epoch milliseconds,
+     *      or {@link Long#MAX_VALUE} to read the newest counts
+     * @param limit the maximum number of counts to read
+     * @return the values of the counts, indexed by column and then by row, in ascending order of time
+     * @throws IOException if the counts cannot be read
+     */
+    synchronized long[][] readRaw(long before, int limit) throws IOException {
+        return raw.read(Long.MIN_VALUE, before, limit);
+    }
+
+    /**
+     * Reads the newest event counts aggregated by hour, day or month before the given time.
+     * @param aggregation the aggregation period
+     * @param before the time before which to read, in epoch milliseconds,
+     *      or {@link Long#MAX_VALUE} to read the newest counts
+     * @param limit the maximum number of counts to read
+     * @return the values of the counts, indexed by column and then by row, in ascending order of time
+     * @throws IOException if the counts cannot be read
+     */
+    synchronized long[][] readAggregated(@NonNull Aggregation aggregation, long before, int limit)
+            throws IOException {
+        return getSeries(aggregation).read(Long.MIN_VALUE, before, limit);
+    }
+
+    /**
+     * Reads the error counts recorded since the given time.
+     * @param from the time from which to read, in epoch milliseconds,
+     *      or {@link Long#MIN_VALUE} to read all error counts
+     * @param limit the maximum number of counts to read
+     * @return the values of the counts, indexed by column and then by row, in ascending order of time
+     * @throws IOException if the counts cannot be read
+     */
+    synchronized long[][] readErrors(long from, int limit) throws IOException {
+        return errors.read(from, Long.MAX_VALUE, limit);
+    }
+
+    /**
+     * Returns the error type that has been assigned the given number.
+     * @param number the number of the error type
+     * @return the error type, or null if no error type has the number
+     */
+    synchronized String getErrorType(long number) {
+        return errorTypes.errorTypeOf(number);
+    }
+
+    /**
+     * Forces the counts written so far to be written to the storage device.
+     */
+    synchronized void force() {
+        if (last != null) {
+            last.force();
+        }
+        raw.force();
+        hourly.force();
+        daily.force();
+        monthly.force();
+        errors.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        IOException failure = null;
+        for (Closeable closeable : new Closeable[] {last, raw, hourly, daily, monthly, errors, errorTypes}) {
+            if (closeable != null) {
+                try {
+                    closeable.close();
+                } catch (IOException e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+        }
+        last = null;
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @NonNull
+    private SegmentedSeries getSeries(@NonNull Aggregation aggregation) {
+        return switch (aggregation) {
+            case HOURLY -> hourly;
+            case DAILY -> daily;
+            case MONTHLY -> monthly;
+        };
+    }
+
+    private static void replace(@NonNull ColumnSegment segment, int index, @NonNull long[] row) {
+        for (int column = 1; column < COUNT_COLUMNS; column++) {
+            segment.put(column, index, row[column]);
+        }
+    }
+
+    private static void accumulate(@NonNull ColumnSegment segment, int index, @NonNull long[] row) {
+        segment.put(TOTAL, index, row[TOTAL]);
+        segment.put(DELTA, index, segment.get(DELTA, index) + row[DELTA]);
+        segment.put(ERROR, index, segment.get(ERROR, index) + row[ERROR]);
+        segment.put(P50, index, Math.max(segment.get(P50, index), row[P50]));
+        segment.put(P95, index, Math.max(segment.get(P95, index), row[P95]));
+        segment.put(P99, index, Math.max(segment.get(P99, index), row[P99]));
+        segment.put(PEAK, index, Math.max(segment.get(PEAK, index), row[PEAK]));
+        segment.put(AVG_CONCURRENCY, index, Math.max(segment.get(AVG_CONCURRENCY, index), row[AVG_CONCURRENCY]));
+    }
+
+    /**
+     * The periods by which event counts are aggregated.
+     */
+    enum Aggregation {
+
+        HOURLY,
+        DAILY,
+        MONTHLY
+
+    }
+
+}
@@ -0,0 +1,467 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.file;
+
+import com.aspectran.aspectow.appmon.engine.manager.AppMonManager;
+import com.aspectran.aspectow.appmon.engine.persist.counter.EventCountVO;
+import com.aspectran.aspectow.appmon.engine.persist.counter.EventErrorVO;
+import com.aspectran.aspectow.appmon.engine.persist.db.mapper.EventCountMapper;
+import com.aspectran.core.component.bean.annotation.Autowired;
+import com.aspectran.core.component.bean.annotation.Bean;
+import com.aspectran.core.component.bean.annotation.Component;
+import com.aspectran.core.component.bean.annotation.Destroy;
+import com.aspectran.core.component.bean.annotation.Initialize;
+import com.aspectran.core.component.bean.annotation.Profile;
+import org.jspecify.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongUnaryOperator;
+
+import static com.aspectran.aspectow.appmon.engine.persist.file.EventSeries.AVG_CONCURRENCY;
+import static com.aspectran.aspectow.appmon.engine.persist.file.EventSeries.DATETIME;
+import static com.aspectran.aspectow.appmon.engine.persist.file.EventSeries.DELTA;
+import static com.aspectran.aspectow.appmon.engine.persist.file.EventSeries.ERROR;
+import static com.aspectran.aspectow.appmon.engine.persist.file.EventSeries.ERROR_COUNT;
+import static com.aspectran.aspectow.appmon.engine.persist.file.EventSeries.ERROR_TYPE;
+import static com.aspectran.aspectow.appmon.engine.persist.file.EventSeries.P50;
+import static com.aspectran.aspectow.appmon.engine.persist.file.EventSeries.P95;
+import static com.aspectran.aspectow.appmon.engine.persist.file.EventSeries.P99;
+import static com.aspectran.aspectow.appmon.engine.persist.file.EventSeries.PEAK;
+import static com.aspectran.aspectow.appmon.engine.persist.file.EventSeries.TOTAL;
+
+/**
+ * An {@link EventCountMapper} that stores event counts in local files instead of a database.
+ * <p>The counts of each event of an app on a node are kept in append-only,
+ * memory-mapped segment files that hold each column as a contiguous block of
+ * {@code long} values, with a new segment started for each time partition.
+ * Chart data is read by copying the newest rows before the requested time
+ * straight out of the mapped columns and aggregating them in place, so no
+ * database or SQL mapping is involved. The files are kept under
+ * {@code /work/appmon/timeseries}, one directory per node, app and event.</p>
+ * <p>This store replaces the database mapper when the {@code appmon.ext-persistence}
+ * profile is active. Counts older than the newest count of the same series and
+ * not recorded before are discarded, since segments only grow at the end.</p>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+@Component
+@Bean(id = "appmon.eventCountDao", lazyDestroy = true)
+@Profile("appmon.ext-persistence")
+public class FileEventCountMapper implements EventCountMapper {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileEventCountMapper.class);
+
+    private static final String STORE_DIR = "/work/appmon/timeseries";
+
+    private static final int MAX_CHART_POINTS = 100;
+
+    /** The number of monthly counts aggregated into years */
+    private static final int MAX_MONTHS_BY_YEAR = MAX_CHART_POINTS * 12;
+
+    private static final int MAX_EVENT_ERRORS = 10000;
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private final AppMonManager appMonManager;
+
+    private final Map<String, EventSeries> seriesMap = new ConcurrentHashMap<>();
+
+    private Path storeDir;
+
+    /**
+     * Instantiates a new FileEventCountMapper.
+     * @param appMonManager the AppMon manager
+     */
+    @Autowired
+    public FileEventCountMapper(@NonNull AppMonManager appMonManager) {
+        this.appMonManager = appMonManager;
+    }
+
+    /**
+     * Instantiates a new FileEventCountMapper that keeps its files in the given directory.
+     * @param storeDir the directory that holds the stored counts
+     */
+    FileEventCountMapper(@NonNull Path storeDir) {
+        this.appMonManager = null;
+        this.storeDir = storeDir;
+    }
+
+    /**
+     * Resolves the directory that holds the stored counts.
+     * @throws Exception if the directory cannot be resolved
+     */
+    @Initialize
+    public void initialize() throws Exception {
+        storeDir = appMonManager.getApplicationAdapter().getRealPath(STORE_DIR);
+        logger.info("Event counts are stored in {}", storeDir);
+    }
+
+    /**
+     * Closes the segment files of all events.
+     */
+    @Destroy
+    public void destroy() {
+        for (EventSeries series : seriesMap.values()) {
+            try {
+                series.force();
+                series.close();
+            } catch (Exception e) {
+                logger.warn("Failed to close the stored counts of an event", e);
+            }
+        }
+        seriesMap.clear();
+    }
+
+    @Override
+    public EventCountVO getLastEventCount(String nodeId, String appId, String eventId) {
+        try {
+            long[] row = getSeries(nodeId, appId, eventId).getLast();
+            return (row != null ? toLastEventCount(nodeId, appId, eventId, row) : null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the last event count", e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>The directories of the node are listed to find the stored events.</p>
+     */
+    @Override
+    public List<EventCountVO> getLastEventCounts(String nodeId) {
+        if (storeDir == null) {
+            throw new IllegalStateException("FileEventCountMapper is not initialized");
+        }
+        List<EventCountVO> list = new ArrayList<>();
+        Path nodeDir = storeDir.resolve(toFileName(nodeId));
+        if (!Files.isDirectory(nodeDir)) {
+            return list;
+        }
+        try (DirectoryStream<Path> appDirs = Files.newDirectoryStream(nodeDir, Files::isDirectory)) {
+            for (Path appDir : appDirs) {
+                String appId = fromFileName(appDir.getFileName().toString());
+                try (DirectoryStream<Path> eventDirs = Files.newDirectoryStream(appDir, Files::isDirectory)) {
+                    for (Path eventDir : eventDirs) {
+                        String eventId = fromFileName(eventDir.getFileName().toString());
+                        long[] row = getSeries(nodeId, appId, eventId).getLast();
+                        if (row != null) {
+                            list.add(toLastEventCount(nodeId, appId, eventId, row));
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the last event counts", e);
+        }
+        return list;
+    }
+
+    @Override
+    public void updateLastEventCount(@NonNull EventCountVO eventCountVO) {
+        try {
+            getSeries(eventCountVO).updateLast(toRow(eventCountVO));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to update the last event count", e);
+        }
+    }
+
+    @Override
+    public void insertEventCount(@NonNull EventCountVO eventCountVO) {
+        try {
+            if (!getSeries(eventCountVO).putRaw(toRow(eventCountVO))) {
+                discarded("event count", eventCountVO.getEventId(), eventCountVO.getDatetime());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to insert an event count", e);
+        }
+    }
+
+    @Override
+    public void insertEventCountHourly(@NonNull EventCountVO eventCountVO) {
+        insertAggregated(EventSeries.Aggregation.HOURLY, eventCountVO);
+    }
+
+    @Override
+    public void insertEventCountDaily(@NonNull EventCountVO eventCountVO) {
+        insertAggregated(EventSeries.Aggregation.DAILY, eventCountVO);
+    }
+
+    @Override
+    public void insertEventCountMonthly(@NonNull EventCountVO eventCountVO) {
+        insertAggregated(EventSeries.Aggregation.MONTHLY, eventCountVO);
+    }
+
+    private void insertAggregated(EventSeries.Aggregation aggregation, @NonNull EventCountVO eventCountVO) {
+        try {
+            if (!getSeries(eventCountVO).putAggregated(aggregation, toRow(eventCountVO))) {
+                discarded(aggregation.name().toLowerCase() + " event count",
+                        eventCountVO.getEventId(), eventCountVO.getDatetime());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to insert an event count", e);
+        }
+    }
+
+    @Override
+    public void insertEventError(@NonNull EventErrorVO eventErrorVO) {
+        try {
+            EventSeries series = getSeries(eventErrorVO.getNodeId(), eventErrorVO.getAppId(), eventErrorVO.getEventId());
+            long datetime = toMillis(eventErrorVO.getDatetime());
+            if (!series.putError(datetime, eventErrorVO.getErrorType(), eventErrorVO.getError())) {
+                discarded("error count", eventErrorVO.getEventId(), eventErrorVO.getDatetime());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to insert an error count", e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>The segment files of every updated counter are forced to the storage
+     * device once all rows have been written.</p>
+     */
+    @Override
+    public void saveRollup(
+            List<EventCountVO> eventCounts, List<EventCountVO> hourlyEventCounts, List<EventErrorVO> eventErrors) {
+        EventCountMapper.super.saveRollup(eventCounts, hourlyEventCounts, eventErrors);
+        for (EventCountVO eventCountVO : eventCounts) {
+            getSeries(eventCountVO).force();
+        }
+    }
+
+    @Override
+    public List<EventErrorVO> getEventErrors(String nodeId, String appId, String eventId, LocalDateTime dateOffset) {
+        try {
+            EventSeries series = getSeries(nodeId, appId, eventId);
+            long from = (dateOffset != null ? toMillis(dateOffset) : Long.MIN_VALUE);
+            long[][] values = series.readErrors(from, MAX_EVENT_ERRORS);
+            int count = values[DATETIME].length;
+            List<EventErrorVO> list = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                EventErrorVO vo = new EventErrorVO();
+                vo.setNodeId(nodeId);
+                vo.setAppId(appId);
+                vo.setEventId(eventId);
+                vo.setDatetime(toDatetime(values[DATETIME][i]));
+                vo.setErrorType(series.getErrorType(values[ERROR_TYPE][i]));
+                vo.setError(values[ERROR_COUNT][i]);
+                list.add(vo);
+            }
+            list.sort(Comparator.comparing(EventErrorVO::getDatetime)
+                    .thenComparing(Comparator.comparingLong(EventErrorVO::getError).reversed()));
+            return list;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read error counts", e);
+        }
+    }
+
+    @Override
+    public List<EventCountVO> getChartData(String nodeId, String appId, String eventId, LocalDateTime dateOffset) {
+        try {
+            long[][] values = getSeries(nodeId, appId, eventId).readRaw(toBefore(dateOffset), MAX_CHART_POINTS);
+            return toChartData(values, 0, values[DATETIME].length);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read chart data", e);
+        }
+    }
+
+    @Override
+    public List<EventCountVO> getChartDataByHour(
+            String nodeId, String appId, String eventId, int zoneOffset, LocalDateTime dateOffset) {
+        return readAggregated(nodeId, appId, eventId, EventSeries.Aggregation.HOURLY, dateOffset);
+    }
+
+    @Override
+    public List<EventCountVO> getChartDataByDay(
+            String nodeId, String appId, String eventId, int zoneOffset, LocalDateTime dateOffset) {
+        return readAggregated(nodeId, appId, eventId, EventSeries.Aggregation.DAILY, dateOffset);
+    }
+
+    @Override
+    public List<EventCountVO> getChartDataByMonth(
+            String nodeId, String appId, String eventId, int zoneOffset, LocalDateTime dateOffset) {
+        return readAggregated(nodeId, appId, eventId, EventSeries.Aggregation.MONTHLY, dateOffset);
+    }
+
+    @Override
+    public List<EventCountVO> getChartDataByYear(
+            String nodeId, String appId, String eventId, int zoneOffset, LocalDateTime dateOffset) {
+        try {
+            long[][] values = getSeries(nodeId, appId, eventId)
+                    .readAggregated(EventSeries.Aggregation.MONTHLY, toBefore(dateOffset), MAX_MONTHS_BY_YEAR);
+            return aggregate(values, datetime ->
+                    LocalDate.ofEpochDay(Math.floorDiv(datetime, MILLIS_PER_DAY)).getYear());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read chart data", e);
+        }
+    }
+
+    private List<EventCountVO> readAggregated(
+            String nodeId, String appId, String eventId,
+            EventSeries.Aggregation aggregation, LocalDateTime dateOffset) {
+        try {
+            long[][] values = getSeries(nodeId, appId, eventId)
+                    .readAggregated(aggregation, toBefore(dateOffset), MAX_CHART_POINTS);
+            return toChartData(values, 0, values[DATETIME].length);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read chart data", e);
+        }
+    }
+
+    @NonNull
+    private EventSeries getSeries(@NonNull EventCountVO eventCountVO) {
+        return getSeries(eventCountVO.getNodeId(), eventCountVO.getInstanceId(), eventCountVO.getEventId());
+    }
+
+    @NonNull
+    private EventSeries getSeries(String nodeId, String appId, String eventId) {
+        if (storeDir == null) {
+            throw new IllegalStateException("FileEventCountMapper is not initialized");
+        }
+        String key = nodeId + '\u0000' + appId + '\u0000' + eventId;
+        return seriesMap.computeIfAbsent(key, k -> {
+            Path dir = storeDir.resolve(toFileName(nodeId)).resolve(toFileName(appId)).resolve(toFileName(eventId));
+            try {
+                return new EventSeries(dir);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open the stored counts in " + dir, e);
+            }
+        });
+    }
+
+    private void discarded(String what, String eventId, LocalDateTime datetime) {
+        logger.warn("Discarded an out-of-order {} of event '{}' at {}", what, eventId, datetime);
+    }
+
+    /**
+     * Aggregates consecutive rows that fall into the same period, keeping
+     * the sum of the counts and the highest latencies of each period, and
+     * returns the newest periods as chart data.
+     */
+    @NonNull
+    private static List<EventCountVO> aggregate(@NonNull long[][] values, LongUnaryOperator period) {
+        int count = values[DATETIME].length;
+        long[][] groups = new long[EventSeries.COUNT_COLUMNS][count];
+        int size = 0;
+        long current = 0L;
+        for (int i = 0; i < count; i++) {
+            long key = period.applyAsLong(values[DATETIME][i]);
+            if (size == 0 || key != current) {
+                current = key;
+                groups[DATETIME][size] = values[DATETIME][i];
+                size++;
+            }
+            int g = size - 1;
+            groups[DELTA][g] += values[DELTA][i];
+            groups[ERROR][g] += values[ERROR][i];
+            groups[P50][g] = Math.max(groups[P50][g], values[P50][i]);
+            groups[P95][g] = Math.max(groups[P95][g], values[P95][i]);
+            groups[P99][g] = Math.max(groups[P99][g], values[P99][i]);
+            groups[PEAK][g] = Math.max(groups[PEAK][g], values[PEAK][i]);
+            groups[AVG_CONCURRENCY][g] = Math.max(groups[AVG_CONCURRENCY][g], values[AVG_CONCURRENCY][i]);
+        }
+        return toChartData(groups, Math.max(0, size - MAX_CHART_POINTS), size);
+    }
+
+    @NonNull
+    private static List<EventCountVO> toChartData(@NonNull long[][] values, int from, int to) {
+        List<EventCountVO> list = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            EventCountVO vo = new EventCountVO();
+            vo.setDatetime(toDatetime(values[DATETIME][i]));
+            vo.setDelta(values[DELTA][i]);
+            vo.setError(values[ERROR][i]);
+            vo.setP50(values[P50][i]);
+            vo.setP95(values[P95][i]);
+            vo.setP99(values[P99][i]);
+            list.add(vo);
+        }
+        return list;
+    }
+
+    @NonNull
+    private static EventCountVO toLastEventCount(String nodeId, String appId, String eventId, @NonNull long[] row) {
+        EventCountVO vo = new EventCountVO();
+        vo.setNodeId(nodeId);
+        vo.setInstanceId(appId);
+        vo.setEventId(eventId);
+        vo.setDatetime(toDatetime(row[DATETIME]));
+        vo.setTotal(row[TOTAL]);
+        vo.setDelta(row[DELTA]);
+        vo.setError(row[ERROR]);
+        return vo;
+    }
+
+    @NonNull
+    private static long[] toRow(@NonNull EventCountVO eventCountVO) {
+        long[] row = new long[EventSeries.COUNT_COLUMNS];
+        row[DATETIME] = toMillis(eventCountVO.getDatetime());
+        row[TOTAL] = eventCountVO.getTotal();
+        row[DELTA] = eventCountVO.getDelta();
+        row[ERROR] = eventCountVO.getError();
+        row[P50] = eventCountVO.getP50();
+        row[P95] = eventCountVO.getP95();
+        row[P99] = eventCountVO.getP99();
+        row[PEAK] = eventCountVO.getPeak();
+        row[AVG_CONCURRENCY] = Math.round(eventCountVO.getAvgConcurrency() * 100);
+        return row;
+    }
+
+    private static long toBefore(LocalDateTime dateOffset) {
+        return (dateOffset != null ? toMillis(dateOffset) : Long.MAX_VALUE);
+    }
+
+    private static long toMillis(@NonNull LocalDateTime datetime) {
+        return datetime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    @NonNull
+    private static LocalDateTime toDatetime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+
+    /**
+     * Encodes an identifier so that it can be used safely as a directory name.
+     */
+    @NonNull
+    private static String toFileName(@NonNull String id) {
+        String name = URLEncoder.encode(id, StandardCharsets.UTF_8).replace("*", "%2A");
+        return (name.startsWith(".") ? "%2E" + name.substring(1) : name);
+    }
+
+    @NonNull
+    private static String fromFileName(@NonNull String name) {
+        return URLDecoder.decode(name, StandardCharsets.UTF_8);
+    }
+
+}
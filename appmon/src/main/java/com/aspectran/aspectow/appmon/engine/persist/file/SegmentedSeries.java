@@ -0,0 +1,364 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.file;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A time series stored as a sequence of {@link ColumnSegment segment files}
+ * in a single directory, one or more per time partition.
+ * <p>Rows are appended in time order to the newest segment; a new segment is
+ * started when the row belongs to a later partition or the newest segment is
+ * full. A row whose key matches an existing row is merged into it instead, so
+ * that counts aggregated by hour, day or month can be updated in place.
+ * Segment files are named after their partition followed by a sequence number,
+ * so that the segments that cannot hold rows of a given time can be skipped
+ * without opening them.</p>
+ * <p>A series is not thread-safe; access is guarded by its owner.</p>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+final class SegmentedSeries implements Closeable {
+
+    private static final String SEGMENT_FILE_SUFFIX = ".seg";
+
+    private final Path dir;
+
+    private final int columns;
+
+    private final Partitioning partitioning;
+
+    private final int capacity;
+
+    private final List<SegmentName> segments = new ArrayList<>();
+
+    private ColumnSegment tail;
+
+    /**
+     * Instantiates a new SegmentedSeries, listing the segment files already in the directory.
+     * The directory is created when the first row is written.
+     * @param dir the directory that holds the segment files
+     * @param columns the number of columns of each row, the first being the time in epoch milliseconds
+     * @param partitioning the time period covered by each partition
+     * @param capacity the maximum number of rows of each segment
+     * @throws IOException if the directory cannot be listed
+     */
+    SegmentedSeries(@NonNull Path dir, int columns, @NonNull Partitioning partitioning, int capacity)
+            throws IOException {
+        this.dir = dir;
+        this.columns = columns;
+        this.partitioning = partitioning;
+        this.capacity = capacity;
+        if (Files.isDirectory(dir)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*" + SEGMENT_FILE_SUFFIX)) {
+                for (Path file : stream) {
+                    SegmentName name = SegmentName.parse(file.getFileName().toString());
+                    if (name != null) {
+                        segments.add(name);
+                    }
+                }
+            }
+            Collections.sort(segments);
+        }
+    }
+
+    /**
+     * Returns whether no row has been written to the series.
+     * @return true if the series has no segments; false otherwise
+     */
+    boolean isEmpty() {
+        return segments.isEmpty();
+    }
+
+    /**
+     * Writes a row, merging it into the existing row with the same key, if any.
+     * The key of a row is made up of its leading columns, starting with the time.
+     * @param row the values of the row, one per column
+     * @param keyColumns the number of leading columns that make up the key
+     * @param merger merges the row into an existing row with the same key
+     * @return true if the row was written; false if it is older than the newest
+     *      row of the series and there is no row with the same key to merge it into
+     * @throws IOException if a segment file cannot be opened or created
+     */
+    boolean upsert(@NonNull long[] row, int keyColumns, @NonNull RowMerger merger) throws IOException {
+        String partition = partitioning.keyOf(row[0]);
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            SegmentName name = segments.get(i);
+            int compared = name.partition.compareTo(partition);
+            if (compared < 0) {
+                break;
+            }
+            if (compared > 0) {
+                continue;
+            }
+            if (i == segments.size() - 1) {
+                ColumnSegment segment = getTail();
+                int index = find(segment, row, keyColumns);
+                if (index >= 0) {
+                    merger.merge(segment, index, row);
+                    return true;
+                }
+            } else {
+                try (ColumnSegment segment = ColumnSegment.open(dir.resolve(name.fileName), columns, capacity)) {
+                    int index = find(segment, row, keyColumns);
+                    if (index >= 0) {
+                        merger.merge(segment, index, row);
+                        segment.force();
+                        return true;
+                    }
+                }
+            }
+        }
+        ColumnSegment segment = getTail();
+        if (segment != null && segment.getCount() > 0 && row[0] < segment.get(0, segment.getCount() - 1)) {
+            return false;
+        }
+        if (segment == null || segment.isFull() || !segments.get(segments.size() - 1).partition.equals(partition)) {
+            segment = createSegment(partition);
+        }
+        segment.append(row);
+        return true;
+    }
+
+    /**
+     * Reads the newest rows within a time range into one array per column,
+     * in ascending order of time.
+     * @param from the time from which to read rows, in epoch milliseconds,
+     *      or {@link Long#MIN_VALUE} to read from the oldest row
+     * @param before the time before which to read rows, in epoch milliseconds,
+     *      or {@link Long#MAX_VALUE} to read up to the newest row
+     * @param limit the maximum number of rows to read
+     * @return the values of the rows read, indexed by column and then by row
+     * @throws IOException if a segment file cannot be read
+     */
+    long[][] read(long from, long before, int limit) throws IOException {
+        String firstPartition = (from != Long.MIN_VALUE ? partitioning.keyOf(from) : null);
+        String lastPartition = (before != Long.MAX_VALUE ? partitioning.keyOf(before) : null);
+        List<long[][]> chunks = new ArrayList<>();
+        int remaining = limit;
+        for (int i = segments.size() - 1; i >= 0 && remaining > 0; i--) {
+            SegmentName name = segments.get(i);
+            if (lastPartition != null && name.partition.compareTo(lastPartition) > 0) {
+                continue;
+            }
+            if (firstPartition != null && name.partition.compareTo(firstPartition) < 0) {
+                break;
+            }
+            boolean newest = (i == segments.size() - 1);
+            ColumnSegment segment = (newest ? getTail() : ColumnSegment.openReadOnly(dir.resolve(name.fileName), columns));
+            int start;
+            try {
+                start = (from != Long.MIN_VALUE ? segment.lowerBound(from) : 0);
+                int end = (before != Long.MAX_VALUE ? segment.lowerBound(before) : segment.getCount());
+                int length = Math.min(end - start, remaining);
+                if (length > 0) {
+                    long[][] chunk = new long[columns][length];
+                    for (int column = 0; column < columns; column++) {
+                        segment.read(column, end - length, chunk[column], 0, length);
+                    }
+                    chunks.add(chunk);
+                    remaining -= length;
+                }
+            } finally {
+                if (!newest) {
+                    segment.close();
+                }
+            }
+            if (start > 0) {
+                // The older segments hold no rows within the range
+                break;
+            }
+        }
+        long[][] values = new long[columns][limit - remaining];
+        int pos = 0;
+        for (int i = chunks.size() - 1; i >= 0; i--) {
+            long[][] chunk = chunks.get(i);
+            for (int column = 0; column < columns; column++) {
+                System.arraycopy(chunk[column], 0, values[column], pos, chunk[column].length);
+            }
+            pos += chunk[0].length;
+        }
+        return values;
+    }
+
+    /**
+     * Forces the rows written to the newest segment to be written to the storage device.
+     */
+    void force() {
+        if (tail != null) {
+            tail.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (tail != null) {
+            try {
+                tail.close();
+            } finally {
+                tail = null;
+            }
+        }
+    }
+
+    @Nullable
+    private ColumnSegment getTail() throws IOException {
+        if (tail == null && !segments.isEmpty()) {
+            SegmentName name = segments.get(segments.size() - 1);
+            tail = ColumnSegment.open(dir.resolve(name.fileName), columns, capacity);
+        }
+        return tail;
+    }
+
+    @NonNull
+    private ColumnSegment createSegment(String partition) throws IOException {
+        Files.createDirectories(dir);
+        int sequence = 0;
+        if (!segments.isEmpty()) {
+            SegmentName last = segments.get(segments.size() - 1);
+            if (last.partition.equals(partition)) {
+                sequence = last.sequence + 1;
+            }
+        }
+        SegmentName name = new SegmentName(partition, sequence);
+        ColumnSegment segment = ColumnSegment.open(dir.resolve(name.fileName), columns, capacity);
+        if (tail != null) {
+            try {
+                tail.force();
+                tail.close();
+            } catch (IOException e) {
+                segment.close();
+                throw e;
+            }
+        }
+        tail = segment;
+        segments.add(name);
+        return segment;
+    }
+
+    private static int find(@NonNull ColumnSegment segment, long[] row, int keyColumns) {
+        int count = segment.getCount();
+        for (int index = segment.lowerBound(row[0]); index < count && segment.get(0, index) == row[0]; index++) {
+            boolean matched = true;
+            for (int column = 1; column < keyColumns; column++) {
+                if (segment.get(column, index) != row[column]) {
+                    matched = false;
+                    break;
+                }
+            }
+            if (matched) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Merges a row into an existing row with the same key.
+     */
+    @FunctionalInterface
+    interface RowMerger {
+
+        /**
+         * Merges the values of a row into the existing row of a segment.
+         * @param segment the segment that holds the existing row
+         * @param index the index of the existing row
+         * @param row the values of the row to merge
+         */
+        void merge(ColumnSegment segment, int index, long[] row);
+
+    }
+
+    /**
+     * The time period covered by the segments of a partition.
+     */
+    enum Partitioning {
+
+        DAY,
+        MONTH,
+        YEAR,
+        DECADE;
+
+        /**
+         * Returns the key of the partition that holds the given time.
+         * Keys are fixed-width, so that they sort in time order.
+         * @param datetime the time in epoch milliseconds
+         * @return the partition key
+         */
+        @NonNull
+        String keyOf(long datetime) {
+            LocalDate date = LocalDate.ofEpochDay(Math.floorDiv(datetime, 86_400_000L));
+            return switch (this) {
+                case DAY -> String.format("%04d%02d%02d", date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+                case MONTH -> String.format("%04d%02d", date.getYear(), date.getMonthValue());
+                case YEAR -> String.format("%04d", date.getYear());
+                case DECADE -> String.format("%04d", date.getYear() / 10 * 10);
+            };
+        }
+
+    }
+
+    private static final class SegmentName implements Comparable<SegmentName> {
+
+        private final String partition;
+
+        private final int sequence;
+
+        private final String fileName;
+
+        SegmentName(String partition, int sequence) {
+            this.partition = partition;
+            this.sequence = sequence;
+            this.fileName = partition + "_" + sequence + SEGMENT_FILE_SUFFIX;
+        }
+
+        @Override
+        public int compareTo(@NonNull SegmentName other) {
+            int compared = partition.compareTo(other.partition);
+            return (compared != 0 ? compared : Integer.compare(sequence, other.sequence));
+        }
+
+        @Nullable
+        static SegmentName parse(@NonNull String fileName) {
+            int separator = fileName.lastIndexOf('_');
+            if (separator <= 0 || !fileName.endsWith(SEGMENT_FILE_SUFFIX)) {
+                return null;
+            }
+            try {
+                String partition = fileName.substring(0, separator);
+                int sequence = Integer.parseInt(fileName.substring(separator + 1,
+                        fileName.length() - SEGMENT_FILE_SUFFIX.length()));
+                SegmentName name = new SegmentName(partition, sequence);
+                return (name.fileName.equals(fileName) ? name : null);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+    }
+
+}
@@ -16,10 +16,12 @@
 package com.aspectran.aspectow.appmon.engine.schedule;
 
 import com.aspectran.aspectow.appmon.engine.manager.AppMonManager;
+import com.aspectran.aspectow.appmon.engine.persist.counter.CounterCheckpoint;
 import com.aspectran.aspectow.appmon.engine.persist.counter.CounterPersist;
 import com.aspectran.aspectow.appmon.engine.persist.counter.EventCount;
 import com.aspectran.aspectow.appmon.engine.persist.counter.EventCountVO;
 import com.aspectran.aspectow.appmon.engine.persist.counter.EventCounter;
+import com.aspectran.aspectow.appmon.engine.persist.counter.EventErrorVO;
 import com.aspectran.aspectow.appmon.engine.persist.db.mapper.EventCountMapper;
 import com.aspectran.core.component.bean.annotation.Autowired;
 import com.aspectran.core.component.bean.annotation.Bean;
@@ -35,14 +37,26 @@ import org.jspecify.annotations.NonNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Path;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * A scheduled job that periodically persists event counter data to the database.
  * It also initializes the counters from the database on startup and saves them on shutdown.
+ * <p>The rows of each rollup are written together in a single batched transaction,
+ * and the time it takes is recorded in the {@link CounterPersist#getPersistJobStats()
+ * persist job statistics}. The write happens in the background, so that the rollup
+ * is not held up by the database; rollups that cannot be written while the database
+ * is unavailable are spilled to a local file and replayed when it comes back.
+ * The counts not yet written or spilled are checkpointed to another local file
+ * every second, so that they can be recovered after a crash.</p>
  *
  * <p>Created: 2025-02-12</p>
  */
@@ -65,6 +79,16 @@ public class CounterPersistSchedule {
 
     public static final int DEFAULT_SAMPLE_INTERVAL_IN_MINUTES = 5; // every 5 minutes
 
+    private static final int MAX_ERROR_TYPE_LENGTH = 150;
+
+    private static final String SPILL_FILE = "/work/appmon/counter-rollup.spill";
+
+    private static final long FLUSH_TIMEOUT = 10000L;
+
+    private static final String CHECKPOINT_FILE = "/work/appmon/counter-checkpoint.dat";
+
+    private static final long CHECKPOINT_INTERVAL = 1000L;
+
     private final AppMonManager appMonManager;
 
     private final String currentNodeId;
@@ -73,6 +97,10 @@ public class CounterPersistSchedule {
 
     private final EventCountMapper dao;
 
+    private CounterRollupWriter writer;
+
+    private CounterCheckpoint checkpoint;
+
     @Autowired
     public CounterPersistSchedule(@NonNull AppMonManager appMonManager, EventCountMapper dao) {
         this.appMonManager = appMonManager;
@@ -83,24 +111,82 @@ public class CounterPersistSchedule {
 
     /**
      * Initializes the event counters by loading their last state from the database.
+     * The last states of all counters of this node are read with a single query.
      * @throws Exception if initialization fails
      */
     @Initialize
     public void initialize() throws Exception {
-        appMonManager.instantActivity(() -> {
+        CounterRollupSpill spill = null;
+        try {
+            Path spillFile = appMonManager.getApplicationAdapter().getRealPath(SPILL_FILE);
+            spill = new CounterRollupSpill(spillFile);
+        } catch (Exception e) {
+            logger.error("Failed to open the counter rollup spill file; " +
+                    "unwritten rollups will be kept in memory only", e);
+        }
+        writer = new CounterRollupWriter(spill, this::save, counterPersist.getPersistJobStats());
+        writer.start();
+
+        // Replay the rollups spilled before the last shutdown so that the counters
+        // are restored from their latest state
+        if (!writer.flush(FLUSH_TIMEOUT)) {
+            logger.warn("Counter rollups spilled before the last shutdown have not been replayed yet");
+        }
+
+        // Load the counts checkpointed before the last shutdown before the counters
+        // are reset, so that the counts that were never rolled up can be added back
+        try {
+            Path checkpointFile = appMonManager.getApplicationAdapter().getRealPath(CHECKPOINT_FILE);
+            checkpoint = new CounterCheckpoint(checkpointFile);
+            checkpoint.load();
+        } catch (Exception e) {
+            logger.error("Failed to load the counter checkpoint file", e);
+            checkpoint = null;
+        }
+
+        long startTime = System.currentTimeMillis();
+        int restored = appMonManager.instantActivity(() -> {
+            Map<String, EventCountVO> lastEventCounts = new HashMap<>();
+            for (EventCountVO vo : dao.getLastEventCounts(currentNodeId)) {
+                lastEventCounts.put(createCounterKey(vo.getInstanceId(), vo.getEventId()), vo);
+            }
+            int count = 0;
             for (EventCounter eventCounter : counterPersist.getEventCounterList()) {
-                EventCountVO vo = dao.getLastEventCount(
-                        currentNodeId, eventCounter.getAppId(), eventCounter.getEventId());
+                EventCountVO vo = lastEventCounts.get(
+                        createCounterKey(eventCounter.getAppId(), eventCounter.getEventId()));
                 if (vo != null) {
                     eventCounter.reset(vo.getDatetime(), vo.getTotal(), vo.getDelta(), vo.getError());
+                    count++;
                 } else {
                     LocalDateTime datetime = getDatetime(false);
                     eventCounter.reset(datetime, 0L, 0L, 0L);
                 }
                 eventCounter.initialize();
             }
-            return null;
+            return count;
         });
+        logger.info("Restored {} of {} event counters from their last state in {} ms",
+                restored, counterPersist.getEventCounterList().size(), System.currentTimeMillis() - startTime);
+
+        if (checkpoint != null) {
+            int recovered = 0;
+            for (EventCounter eventCounter : counterPersist.getEventCounterList()) {
+                if (checkpoint.recover(eventCounter)) {
+                    recovered++;
+                }
+            }
+            if (recovered > 0) {
+                logger.info("Recovered the counts of {} event counters that were not saved before the last shutdown",
+                        recovered);
+            }
+            try {
+                checkpoint.start(counterPersist.getEventCounterList(), CHECKPOINT_INTERVAL);
+            } catch (Exception e) {
+                logger.error("Failed to write the counter checkpoint file; " +
+                        "counts not yet rolled up will be lost on a crash", e);
+                checkpoint = null;
+            }
+        }
 
         int interval = appMonManager.getCounterPersistInterval();
         if (interval > 0) {
@@ -116,16 +202,28 @@ public class CounterPersistSchedule {
 
     /**
      * Persists the final event counts to the database on shutdown.
+     * Rollups that cannot be written in time are left in the spill file
+     * to be replayed after the next start.
      */
     @Destroy
     public void destroy() {
+        if (writer == null) {
+            return;
+        }
         try {
-            appMonManager.instantActivity(() -> {
-                rollupAndSave(false);
-                return null;
-            });
+            rollupAndSave(false);
+            if (!writer.flush(FLUSH_TIMEOUT)) {
+                logger.warn("Timed out writing the last event counts to the database");
+            }
         } catch (Exception e) {
             logger.error("Failed to save last event count", e);
+        } finally {
+            writer.stop();
+            writer = null;
+            if (checkpoint != null) {
+                checkpoint.stop();
+                checkpoint = null;
+            }
         }
     }
 
@@ -140,30 +238,81 @@ public class CounterPersistSchedule {
     private void rollupAndSave(boolean scheduled) {
         LocalDateTime datetime = getDatetime(scheduled);
         LocalDateTime hourlyDt = datetime.truncatedTo(ChronoUnit.HOURS);
-        EventCountVO eventCountVO = null;
+        List<EventCountVO> eventCounts = new ArrayList<>();
+        List<EventCountVO> hourlyEventCounts = new ArrayList<>();
+        List<EventErrorVO> eventErrors = new ArrayList<>();
+        List<EventCount.Mark> marks = new ArrayList<>();
         for (EventCounter eventCounter : counterPersist.getEventCounterList()) {
             eventCounter.rollup(datetime);
             EventCount eventCount = eventCounter.getEventCount();
             if (eventCount.isUpdated()) {
-                if (eventCountVO == null) {
-                    eventCountVO = createEventCountVO(datetime);
+                eventCounts.add(createEventCountVO(eventCounter, datetime));
+                hourlyEventCounts.add(createEventCountVO(eventCounter, hourlyDt));
+                addErrorTypes(eventErrors, eventCounter, datetime, eventCount.getTallied().getErrorTypes());
+                marks.add(eventCount.mark());
+            }
+        }
+        if (eventCounts.isEmpty()) {
+            return;
+        }
+
+        writer.submit(new CounterRollup(eventCounts, hourlyEventCounts, eventErrors, marks));
+    }
+
+    private void save(@NonNull CounterRollup rollup) {
+        long startTime = System.currentTimeMillis();
+        boolean failed = true;
+        try {
+            appMonManager.instantActivity(() -> {
+                // The rollup may have been written already if it is delivered again
+                CounterRollup unwritten = rollup.withoutWritten(dao.getLastEventCounts(currentNodeId));
+                if (unwritten != rollup) {
+                    logger.info("Skipping the counts of {} event counters already written for this rollup",
+                            rollup.getEventCounts().size() - unwritten.getEventCounts().size());
+                }
+                if (!unwritten.isEmpty()) {
+                    dao.saveRollup(unwritten.getEventCounts(), unwritten.getHourlyEventCounts(),
+                            unwritten.getEventErrors());
                 }
-                eventCountVO.setInstanceId(eventCounter.getAppId());
-                eventCountVO.setEventId(eventCounter.getEventId());
-                eventCountVO.setTotal(eventCount.getTallied().getTotal());
-                eventCountVO.setDelta(eventCount.getTallied().getDelta());
-                eventCountVO.setError(eventCount.getTallied().getError());
-
-                eventCountVO.setDatetime(datetime);
-                dao.updateLastEventCount(eventCountVO);
-                dao.insertEventCount(eventCountVO);
-
-                eventCountVO.setDatetime(hourlyDt);
-                dao.insertEventCountHourly(eventCountVO);
+                return null;
+            });
+            failed = false;
+            appMonManager.getChartDataCache().invalidate();
+        } finally {
+            long elapsedTime = System.currentTimeMillis() - startTime;
+            counterPersist.getPersistJobStats().record(
+                    elapsedTime, rollup.getEventCounts().size(), rollup.getRows(), failed);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Saved {} rows of {} event counters in {} ms{}",
+                        rollup.getRows(), rollup.getEventCounts().size(), elapsedTime, (failed ? " (failed)" : ""));
+            }
+        }
+    }
+
+    private void addErrorTypes(
+            List<EventErrorVO> eventErrors, EventCounter eventCounter,
+            LocalDateTime datetime, @NonNull Map<String, Long> errorTypes) {
+        for (Map.Entry<String, Long> entry : errorTypes.entrySet()) {
+            String errorType = entry.getKey();
+            if (errorType.length() > MAX_ERROR_TYPE_LENGTH) {
+                errorType = errorType.substring(errorType.length() - MAX_ERROR_TYPE_LENGTH);
             }
+            EventErrorVO eventErrorVO = new EventErrorVO();
+            eventErrorVO.setNodeId(currentNodeId);
+            eventErrorVO.setAppId(eventCounter.getAppId());
+            eventErrorVO.setEventId(eventCounter.getEventId());
+            eventErrorVO.setDatetime(datetime);
+            eventErrorVO.setErrorType(errorType);
+            eventErrorVO.setError(entry.getValue());
+            eventErrors.add(eventErrorVO);
         }
     }
 
+    @NonNull
+    private static String createCounterKey(String appId, String eventId) {
+        return appId + ":" + eventId;
+    }
+
     @NonNull
     private LocalDateTime getDatetime(boolean scheduled) {
         Instant instant = Instant.now();
@@ -173,14 +322,26 @@ public class CounterPersistSchedule {
             int offset = interval - next % interval;
             instant = instant.plus(offset, ChronoUnit.MINUTES);
         }
-        return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+        // Whole seconds, so that the time reads back exactly as written
+        return LocalDateTime.ofInstant(instant, ZoneOffset.UTC).truncatedTo(ChronoUnit.SECONDS);
     }
 
     @NonNull
-    private EventCountVO createEventCountVO(@NonNull LocalDateTime datetime) {
+    private EventCountVO createEventCountVO(@NonNull EventCounter eventCounter, @NonNull LocalDateTime datetime) {
+        EventCount.Tallied tallied = eventCounter.getEventCount().getTallied();
         EventCountVO eventCountVO = new EventCountVO();
         eventCountVO.setNodeId(currentNodeId);
+        eventCountVO.setInstanceId(eventCounter.getAppId());
+        eventCountVO.setEventId(eventCounter.getEventId());
         eventCountVO.setDatetime(datetime);
+        eventCountVO.setTotal(tallied.getTotal());
+        eventCountVO.setDelta(tallied.getDelta());
+        eventCountVO.setError(tallied.getError());
+        eventCountVO.setP50(tallied.getP50());
+        eventCountVO.setP95(tallied.getP95());
+        eventCountVO.setP99(tallied.getP99());
+        eventCountVO.setPeak(tallied.getPeak());
+        eventCountVO.setAvgConcurrency(tallied.getConcurrency());
         return eventCountVO;
     }
 
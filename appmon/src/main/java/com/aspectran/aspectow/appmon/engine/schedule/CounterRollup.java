@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.schedule;
+
+import com.aspectran.aspectow.appmon.engine.persist.counter.EventCount;
+import com.aspectran.aspectow.appmon.engine.persist.counter.EventCountVO;
+import com.aspectran.aspectow.appmon.engine.persist.counter.EventErrorVO;
+import org.jspecify.annotations.NonNull;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The rows produced by a single rollup of the event counters,
+ * which are written to the database together.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+final class CounterRollup {
+
+    private final List<EventCountVO> eventCounts;
+
+    private final List<EventCountVO> hourlyEventCounts;
+
+    private final List<EventErrorVO> eventErrors;
+
+    private final List<EventCount.Mark> marks;
+
+    /**
+     * Instantiates a new CounterRollup that does not report its counts as stored,
+     * such as one replayed from the spill file.
+     * @param eventCounts the last state and raw count of each updated counter
+     * @param hourlyEventCounts the hourly count of each updated counter
+     * @param eventErrors the error counts by type
+     */
+    CounterRollup(
+            @NonNull List<EventCountVO> eventCounts,
+            @NonNull List<EventCountVO> hourlyEventCounts,
+            @NonNull List<EventErrorVO> eventErrors) {
+        this(eventCounts, hourlyEventCounts, eventErrors, List.of());
+    }
+
+    /**
+     * Instantiates a new CounterRollup.
+     * @param eventCounts the last state and raw count of each updated counter
+     * @param hourlyEventCounts the hourly count of each updated counter
+     * @param eventErrors the error counts by type
+     * @param marks the counts rolled up by each updated counter, to be reported
+     *      as stored once this rollup has been written or spilled
+     */
+    CounterRollup(
+            @NonNull List<EventCountVO> eventCounts,
+            @NonNull List<EventCountVO> hourlyEventCounts,
+            @NonNull List<EventErrorVO> eventErrors,
+            @NonNull List<EventCount.Mark> marks) {
+        this.eventCounts = eventCounts;
+        this.hourlyEventCounts = hourlyEventCounts;
+        this.eventErrors = eventErrors;
+        this.marks = marks;
+    }
+
+    List<EventCountVO> getEventCounts() {
+        return eventCounts;
+    }
+
+    List<EventCountVO> getHourlyEventCounts() {
+        return hourlyEventCounts;
+    }
+
+    List<EventErrorVO> getEventErrors() {
+        return eventErrors;
+    }
+
+    /**
+     * Reports that this rollup has been written to the database or to the
+     * spill file, so that its counts are not recovered from a checkpoint.
+     */
+    void stored() {
+        for (EventCount.Mark mark : marks) {
+            mark.stored();
+        }
+    }
+
+    /**
+     * Returns whether this rollup has no rows to write.
+     * @return {@code true} if no counter was updated
+     */
+    boolean isEmpty() {
+        return eventCounts.isEmpty();
+    }
+
+    /**
+     * Returns this rollup without the rows of the counters it has already been
+     * written for. The hourly, daily, monthly and error counts are added to the
+     * counts already stored, so writing a rollup twice would count it twice.
+     * That happens when a write succeeds but is reported as failed, or when the
+     * writer stops before it can remove the written rollup from the spill file,
+     * and then it is always the last rollup written. Since the last state of a
+     * counter is written after its other rows, in the same transaction where
+     * the database supports it, a counter whose stored last state carries the
+     * time of this rollup has already received it.
+     * @param lastEventCounts the stored last states of the counters
+     * @return this rollup if none of its rows have been written yet,
+     *      otherwise a rollup with only the rows still to be written
+     */
+    CounterRollup withoutWritten(@NonNull List<EventCountVO> lastEventCounts) {
+        Set<String> written = new HashSet<>();
+        for (EventCountVO last : lastEventCounts) {
+            for (EventCountVO vo : eventCounts) {
+                if (isSameCounter(vo, last.getInstanceId(), last.getEventId()) &&
+                        vo.getDatetime() != null && vo.getDatetime().equals(last.getDatetime())) {
+                    written.add(last.getInstanceId() + ":" + last.getEventId());
+                }
+            }
+        }
+        if (written.isEmpty()) {
+            return this;
+        }
+        List<EventCountVO> eventCounts = new ArrayList<>();
+        for (EventCountVO vo : this.eventCounts) {
+            if (!written.contains(vo.getInstanceId() + ":" + vo.getEventId())) {
+                eventCounts.add(vo);
+            }
+        }
+        List<EventCountVO> hourlyEventCounts = new ArrayList<>();
+        for (EventCountVO vo : this.hourlyEventCounts) {
+            if (!written.contains(vo.getInstanceId() + ":" + vo.getEventId())) {
+                hourlyEventCounts.add(vo);
+            }
+        }
+        List<EventErrorVO> eventErrors = new ArrayList<>();
+        for (EventErrorVO vo : this.eventErrors) {
+            if (!written.contains(vo.getAppId() + ":" + vo.getEventId())) {
+                eventErrors.add(vo);
+            }
+        }
+        return new CounterRollup(eventCounts, hourlyEventCounts, eventErrors);
+    }
+
+    /**
+     * Returns a rollup that stands in for this rollup followed by the given,
+     * newer one, for when the two cannot both be kept. The hourly counts of
+     * the same counter and hour are added together, so the hourly, daily and
+     * monthly counts of this rollup are kept, and so are its error counts.
+     * Only the last state of each counter is kept, which for a counter in
+     * both rollups means that the raw count of this rollup's interval is lost.
+     * @param newer the rollup produced after this one
+     * @return the merged rollup, which reports the counts of both as stored
+     */
+    CounterRollup mergeWith(@NonNull CounterRollup newer) {
+        Map<String, EventCountVO> eventCounts = new LinkedHashMap<>();
+        for (EventCountVO vo : this.eventCounts) {
+            eventCounts.put(vo.getInstanceId() + ":" + vo.getEventId(), vo);
+        }
+        for (EventCountVO vo : newer.eventCounts) {
+            eventCounts.put(vo.getInstanceId() + ":" + vo.getEventId(), vo);
+        }
+        Map<String, EventCountVO> hourlyEventCounts = new LinkedHashMap<>();
+        for (EventCountVO vo : this.hourlyEventCounts) {
+            hourlyEventCounts.put(vo.getInstanceId() + ":" + vo.getEventId() + ":" + vo.getDatetime(), vo);
+        }
+        for (EventCountVO vo : newer.hourlyEventCounts) {
+            hourlyEventCounts.merge(vo.getInstanceId() + ":" + vo.getEventId() + ":" + vo.getDatetime(),
+                    vo, CounterRollup::addHourly);
+        }
+        Map<String, EventErrorVO> eventErrors = new LinkedHashMap<>();
+        for (EventErrorVO vo : this.eventErrors) {
+            eventErrors.put(vo.getAppId() + ":" + vo.getEventId() + ":" + vo.getDatetime() + ":" + vo.getErrorType(), vo);
+        }
+        for (EventErrorVO vo : newer.eventErrors) {
+            eventErrors.merge(vo.getAppId() + ":" + vo.getEventId() + ":" + vo.getDatetime() + ":" + vo.getErrorType(),
+                    vo, CounterRollup::addError);
+        }
+        List<EventCount.Mark> marks = new ArrayList<>(this.marks.size() + newer.marks.size());
+        marks.addAll(this.marks);
+        marks.addAll(newer.marks);
+        return new CounterRollup(new ArrayList<>(eventCounts.values()), new ArrayList<>(hourlyEventCounts.values()),
+                new ArrayList<>(eventErrors.values()), marks);
+    }
+
+    /**
+     * Returns the number of counters whose raw count would be lost by
+     * merging this rollup with the given, newer one.
+     * @param newer the rollup produced after this one
+     * @return the number of counters updated in both rollups
+     */
+    int countOverlapping(@NonNull CounterRollup newer) {
+        int count = 0;
+        for (EventCountVO vo : eventCounts) {
+            for (EventCountVO other : newer.eventCounts) {
+                if (isSameCounter(other, vo.getInstanceId(), vo.getEventId())) {
+                    count++;
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+
+    @NonNull
+    private static EventCountVO addHourly(@NonNull EventCountVO older, @NonNull EventCountVO newer) {
+        EventCountVO vo = newer.copyOf(newer.getDatetime());
+        vo.setDelta(older.getDelta() + newer.getDelta());
+        vo.setError(older.getError() + newer.getError());
+        vo.setP50(Math.max(older.getP50(), newer.getP50()));
+        vo.setP95(Math.max(older.getP95(), newer.getP95()));
+        vo.setP99(Math.max(older.getP99(), newer.getP99()));
+        vo.setPeak(Math.max(older.getPeak(), newer.getPeak()));
+        vo.setAvgConcurrency(Math.max(older.getAvgConcurrency(), newer.getAvgConcurrency()));
+        return vo;
+    }
+
+    @NonNull
+    private static EventErrorVO addError(@NonNull EventErrorVO older, @NonNull EventErrorVO newer) {
+        EventErrorVO vo = new EventErrorVO();
+        vo.setNodeId(newer.getNodeId());
+        vo.setAppId(newer.getAppId());
+        vo.setEventId(newer.getEventId());
+        vo.setDatetime(newer.getDatetime());
+        vo.setErrorType(newer.getErrorType());
+        vo.setError(older.getError() + newer.getError());
+        return vo;
+    }
+
+    private static boolean isSameCounter(@NonNull EventCountVO vo, String appId, String eventId) {
+        return (vo.getInstanceId() != null && vo.getInstanceId().equals(appId) &&
+                vo.getEventId() != null && vo.getEventId().equals(eventId));
+    }
+
+
+    /**
+     * Returns the number of rows written for this rollup: the last state, the raw
+     * count and the hourly, daily and monthly counts of each counter, plus the error counts.
+     * @return the number of rows
+     */
+    int getRows() {
+        return eventCounts.size() * 5 + eventErrors.size();
+    }
+
+}
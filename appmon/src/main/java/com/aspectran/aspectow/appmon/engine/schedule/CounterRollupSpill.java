@@ -0,0 +1,378 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.schedule;
+
+import com.aspectran.aspectow.appmon.engine.persist.counter.EventCountVO;
+import com.aspectran.aspectow.appmon.engine.persist.counter.EventErrorVO;
+import org.jspecify.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An append-only local file that holds the counter rollups that could not be
+ * written to the database, so that they survive an outage or a restart and
+ * can be replayed in the order they were produced.
+ * <p>Each rollup is stored as a header line followed by one tab-separated line
+ * per row. The position of the next rollup to replay is kept in a separate
+ * offset file, and both files are removed once every rollup has been replayed.
+ * A rollup left incomplete by a crash while it was being appended is discarded
+ * when the file is opened.</p>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+final class CounterRollupSpill {
+
+    private static final Logger logger = LoggerFactory.getLogger(CounterRollupSpill.class);
+
+    private static final String ROLLUP = "R";
+
+    private static final String EVENT_COUNT = "C";
+
+    private static final String HOURLY_EVENT_COUNT = "H";
+
+    private static final String EVENT_ERROR = "E";
+
+    private final Path file;
+
+    private final Path offsetFile;
+
+    private long offset;
+
+    private long nextOffset = -1L;
+
+    private int pending;
+
+    /**
+     * Opens the spill file, counting the rollups that are still waiting to be replayed.
+     * @param file the path of the spill file
+     * @throws IOException if the spill file cannot be read
+     */
+    CounterRollupSpill(@NonNull Path file) throws IOException {
+        this.file = file;
+        this.offsetFile = file.resolveSibling(file.getFileName() + ".offset");
+        load();
+    }
+
+    /**
+     * Returns whether there are no rollups waiting to be replayed.
+     * @return {@code true} if the spill file is empty
+     */
+    boolean isEmpty() {
+        return (pending == 0);
+    }
+
+    /**
+     * Returns the number of rollups waiting to be replayed.
+     * @return the number of pending rollups
+     */
+    int getPending() {
+        return pending;
+    }
+
+    /**
+     * Appends a rollup to the end of the spill file.
+     * If the rollup cannot be written in full, the file is restored to its previous length.
+     * @param rollup the rollup to append
+     * @throws IOException if the rollup cannot be written
+     */
+    void append(@NonNull CounterRollup rollup) throws IOException {
+        byte[] bytes = format(rollup).getBytes(StandardCharsets.UTF_8);
+        Files.createDirectories(file.getParent());
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer, size + buffer.position());
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                channel.truncate(size);
+                throw e;
+            }
+        }
+        pending++;
+    }
+
+    /**
+     * Reads the oldest rollup waiting to be replayed, without removing it.
+     * @return the oldest pending rollup, or {@code null} if the spill file is empty
+     * @throws IOException if the rollup cannot be read
+     */
+    CounterRollup peek() throws IOException {
+        if (pending == 0) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.position(offset);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    Channels.newInputStream(channel), StandardCharsets.UTF_8));
+            long[] length = new long[1];
+            CounterRollup rollup = read(reader, length);
+            if (rollup == null) {
+                throw new IOException("Incomplete rollup at offset " + offset + " of " + file);
+            }
+            nextOffset = offset + length[0];
+            return rollup;
+        }
+    }
+
+    /**
+     * Removes the oldest rollup, which must have been returned by {@link #peek()}.
+     * @throws IOException if the replay position cannot be saved
+     */
+    void remove() throws IOException {
+        if (nextOffset < 0L) {
+            throw new IllegalStateException("No rollup has been read from the spill file");
+        }
+        offset = nextOffset;
+        nextOffset = -1L;
+        pending--;
+        if (pending == 0) {
+            clear();
+        } else {
+            Files.writeString(offsetFile, Long.toString(offset), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Discards all pending rollups and removes the spill file.
+     * @throws IOException if the files cannot be removed
+     */
+    void clear() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(offsetFile);
+        offset = 0L;
+        nextOffset = -1L;
+        pending = 0;
+    }
+
+    private void load() throws IOException {
+        if (!Files.exists(file)) {
+            Files.deleteIfExists(offsetFile);
+            return;
+        }
+        if (Files.exists(offsetFile)) {
+            String str = Files.readString(offsetFile, StandardCharsets.UTF_8).trim();
+            offset = (str.isEmpty() ? 0L : Long.parseLong(str));
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (offset > size) {
+                offset = size;
+            }
+            channel.position(offset);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    Channels.newInputStream(channel), StandardCharsets.UTF_8));
+            long end = offset;
+            long[] length = new long[1];
+            try {
+                while (read(reader, length) != null) {
+                    end += length[0];
+                    pending++;
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Discarding unreadable rollup at offset {} of {}", end, file, e);
+            }
+            if (end < size) {
+                logger.warn("Discarding {} bytes of incomplete rollup at the end of {}", size - end, file);
+                channel.truncate(end);
+            }
+        }
+        if (pending == 0) {
+            clear();
+        } else {
+            logger.info("{} counter rollups are waiting to be replayed from {}", pending, file);
+        }
+    }
+
+    @NonNull
+    private static String format(@NonNull CounterRollup rollup) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(ROLLUP).append('\t')
+                .append(rollup.getEventCounts().size()).append('\t')
+                .append(rollup.getHourlyEventCounts().size()).append('\t')
+                .append(rollup.getEventErrors().size()).append('\n');
+        for (EventCountVO vo : rollup.getEventCounts()) {
+            formatEventCount(sb, EVENT_COUNT, vo);
+        }
+        for (EventCountVO vo : rollup.getHourlyEventCounts()) {
+            formatEventCount(sb, HOURLY_EVENT_COUNT, vo);
+        }
+        for (EventErrorVO vo : rollup.getEventErrors()) {
+            sb.append(EVENT_ERROR).append('\t')
+                    .append(escape(vo.getNodeId())).append('\t')
+                    .append(escape(vo.getAppId())).append('\t')
+                    .append(escape(vo.getEventId())).append('\t')
+                    .append(vo.getDatetime()).append('\t')
+                    .append(escape(vo.getErrorType())).append('\t')
+                    .append(vo.getError()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void formatEventCount(@NonNull StringBuilder sb, String type, @NonNull EventCountVO vo) {
+        sb.append(type).append('\t')
+                .append(escape(vo.getNodeId())).append('\t')
+                .append(escape(vo.getInstanceId())).append('\t')
+                .append(escape(vo.getEventId())).append('\t')
+                .append(vo.getDatetime()).append('\t')
+                .append(vo.getTotal()).append('\t')
+                .append(vo.getDelta()).append('\t')
+                .append(vo.getError()).append('\t')
+                .append(vo.getP50()).append('\t')
+                .append(vo.getP95()).append('\t')
+                .append(vo.getP99()).append('\t')
+                .append(vo.getPeak()).append('\t')
+                .append(vo.getAvgConcurrency()).append('\n');
+    }
+
+    /**
+     * Reads the next rollup from the reader.
+     * @param reader the reader positioned at the start of a rollup
+     * @param length receives the number of bytes the rollup occupies
+     * @return the rollup, or {@code null} if the end of the file was reached
+     *      before a complete rollup could be read
+     */
+    private static CounterRollup read(@NonNull BufferedReader reader, long[] length) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        length[0] = lineLength(line);
+        String[] header = split(line, ROLLUP, 4);
+        int eventCountSize = Integer.parseInt(header[1]);
+        int hourlyEventCountSize = Integer.parseInt(header[2]);
+        int eventErrorSize = Integer.parseInt(header[3]);
+        List<EventCountVO> eventCounts = new ArrayList<>(eventCountSize);
+        List<EventCountVO> hourlyEventCounts = new ArrayList<>(hourlyEventCountSize);
+        List<EventErrorVO> eventErrors = new ArrayList<>(eventErrorSize);
+        for (int i = 0; i < eventCountSize + hourlyEventCountSize + eventErrorSize; i++) {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            length[0] += lineLength(line);
+            if (i < eventCountSize) {
+                eventCounts.add(parseEventCount(split(line, EVENT_COUNT, 13)));
+            } else if (i < eventCountSize + hourlyEventCountSize) {
+                hourlyEventCounts.add(parseEventCount(split(line, HOURLY_EVENT_COUNT, 13)));
+            } else {
+                String[] fields = split(line, EVENT_ERROR, 7);
+                EventErrorVO vo = new EventErrorVO();
+                vo.setNodeId(unescape(fields[1]));
+                vo.setAppId(unescape(fields[2]));
+                vo.setEventId(unescape(fields[3]));
+                vo.setDatetime(LocalDateTime.parse(fields[4]));
+                vo.setErrorType(unescape(fields[5]));
+                vo.setError(Long.parseLong(fields[6]));
+                eventErrors.add(vo);
+            }
+        }
+        return new CounterRollup(eventCounts, hourlyEventCounts, eventErrors);
+    }
+
+    @NonNull
+    private static EventCountVO parseEventCount(@NonNull String[] fields) {
+        EventCountVO vo = new EventCountVO();
+        vo.setNodeId(unescape(fields[1]));
+        vo.setInstanceId(unescape(fields[2]));
+        vo.setEventId(unescape(fields[3]));
+        vo.setDatetime(LocalDateTime.parse(fields[4]));
+        vo.setTotal(Long.parseLong(fields[5]));
+        vo.setDelta(Long.parseLong(fields[6]));
+        vo.setError(Long.parseLong(fields[7]));
+        vo.setP50(Long.parseLong(fields[8]));
+        vo.setP95(Long.parseLong(fields[9]));
+        vo.setP99(Long.parseLong(fields[10]));
+        vo.setPeak(Long.parseLong(fields[11]));
+        vo.setAvgConcurrency(Double.parseDouble(fields[12]));
+        return vo;
+    }
+
+    @NonNull
+    private static String[] split(@NonNull String line, String type, int count) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != count || !fields[0].equals(type)) {
+            throw new IllegalArgumentException("Malformed spilled rollup line: " + line);
+        }
+        return fields;
+    }
+
+    private static long lineLength(@NonNull String line) {
+        return line.getBytes(StandardCharsets.UTF_8).length + 1;
+    }
+
+    @NonNull
+    private static String escape(String str) {
+        if (str == null) {
+            return "\\0";
+        }
+        StringBuilder sb = new StringBuilder(str.length());
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            switch (c) {
+                case '\\' -> sb.append("\\\\");
+                case '\t' -> sb.append("\\t");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                default -> sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String unescape(@NonNull String str) {
+        if (str.equals("\\0")) {
+            return null;
+        }
+        if (str.indexOf('\\') == -1) {
+            return str;
+        }
+        StringBuilder sb = new StringBuilder(str.length());
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (c == '\\' && i + 1 < str.length()) {
+                char n = str.charAt(++i);
+                switch (n) {
+                    case 't' -> sb.append('\t');
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    default -> sb.append(n);
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,343 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.schedule;
+
+import com.aspectran.aspectow.appmon.engine.persist.counter.PersistJobStats;
+import org.jspecify.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Writes counter rollups to the database behind the back of the persist job,
+ * so that a slow or unavailable database never holds up the rollup itself.
+ * <p>Rollups are queued in memory and written in order by a single background
+ * thread, which retries a failed write with an exponentially growing delay.
+ * When the queue is full, the queued rollups and every rollup after them go to
+ * a {@link CounterRollupSpill spill file} instead, which the writer replays in
+ * order once the database accepts writes again. Because of that, the queue and
+ * the spill file never both hold rollups, and rollups reach the database in the
+ * order they were produced. Without a spill file, or while it cannot be written,
+ * the queue is kept to its limit by merging the oldest rollup into the next
+ * one: the hourly, daily, monthly and error counts it carries are added to
+ * those of the next rollup, but the raw counts of its interval are lost for
+ * the counters that the next rollup also updated.</p>
+ * <p>A rollup is removed once it has been written, so it may be written again
+ * if the write is reported as failed after all, or if the writer stops in
+ * between. Only the last rollup written can be delivered twice, and the sink
+ * is expected to skip the counters it has already been written for.</p>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+final class CounterRollupWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CounterRollupWriter.class);
+
+    /** One hour's worth of rollups at the default persist interval */
+    static final int MAX_QUEUED_ROLLUPS = 12;
+
+    private static final long MIN_RETRY_DELAY = 1000L;
+
+    private static final long MAX_RETRY_DELAY = 60000L;
+
+    private static final long STOP_TIMEOUT = 1000L;
+
+    private final Object lock = new Object();
+
+    private final Deque<CounterRollup> queue = new ArrayDeque<>();
+
+    private final CounterRollupSpill spill;
+
+    private final RollupSink sink;
+
+    private final PersistJobStats persistJobStats;
+
+    private Thread thread;
+
+    private boolean writing;
+
+    private boolean stopped;
+
+    /**
+     * Instantiates a new CounterRollupWriter.
+     * @param spill the spill file, or {@code null} to keep all pending rollups in memory
+     * @param sink the sink that writes a rollup to the database
+     * @param persistJobStats the statistics in which to report the backlog
+     */
+    CounterRollupWriter(CounterRollupSpill spill, @NonNull RollupSink sink, @NonNull PersistJobStats persistJobStats) {
+        this.spill = spill;
+        this.sink = sink;
+        this.persistJobStats = persistJobStats;
+        updateBacklog();
+    }
+
+    /**
+     * Starts the background thread that writes the pending rollups.
+     */
+    void start() {
+        synchronized (lock) {
+            if (thread != null) {
+                return;
+            }
+            stopped = false;
+            thread = new Thread(this::run, "appmon-counter-writer");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Queues a rollup to be written to the database.
+     * @param rollup the rollup to write
+     */
+    void submit(@NonNull CounterRollup rollup) {
+        synchronized (lock) {
+            if (spill != null && (!spill.isEmpty() || queue.size() >= MAX_QUEUED_ROLLUPS)) {
+                if (spill.isEmpty()) {
+                    logger.warn("Counter rollups are not being written to the database; " +
+                            "spilling {} pending rollups to a local file", queue.size() + 1);
+                }
+                if (!spillQueue()) {
+                    queue.addLast(rollup);
+                } else {
+                    try {
+                        spill.append(rollup);
+                        rollup.stored();
+                    } catch (IOException e) {
+                        logger.error("Failed to spill counter rollup; keeping it in memory", e);
+                        queue.addLast(rollup);
+                    }
+                }
+            } else {
+                queue.addLast(rollup);
+            }
+            trimQueue();
+            updateBacklog();
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Waits until every pending rollup has been written, or the timeout elapses.
+     * @param timeout the maximum time to wait in milliseconds
+     * @return {@code true} if no rollups are pending
+     */
+    boolean flush(long timeout) {
+        long deadline = System.currentTimeMillis() + timeout;
+        synchronized (lock) {
+            while (writing || !isIdle()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0L || thread == null) {
+                    return false;
+                }
+                try {
+                    lock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Stops the background thread. Rollups still in the queue are moved to
+     * the spill file, so that they are replayed after the next start.
+     */
+    void stop() {
+        Thread thread;
+        synchronized (lock) {
+            stopped = true;
+            thread = this.thread;
+            this.thread = null;
+            lock.notifyAll();
+        }
+        if (thread != null) {
+            try {
+                thread.join(STOP_TIMEOUT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (lock) {
+            if (!queue.isEmpty()) {
+                if (spill != null && spillQueue()) {
+                    logger.info("Spilled {} unwritten counter rollups to be replayed after restart",
+                            spill.getPending());
+                } else {
+                    logger.warn("Discarding {} unwritten counter rollups", queue.size());
+                    queue.clear();
+                }
+            }
+            updateBacklog();
+        }
+    }
+
+    private void run() {
+        long retryDelay = MIN_RETRY_DELAY;
+        while (true) {
+            CounterRollup rollup;
+            synchronized (lock) {
+                while (!stopped && isIdle()) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (stopped) {
+                    return;
+                }
+                rollup = next();
+                if (rollup == null) {
+                    continue;
+                }
+                writing = true;
+            }
+
+            boolean written = false;
+            try {
+                sink.save(rollup);
+                written = true;
+            } catch (Exception e) {
+                logger.warn("Failed to write counter rollup to the database; retrying in {} ms",
+                        retryDelay, e);
+            }
+
+            synchronized (lock) {
+                writing = false;
+                if (written) {
+                    rollup.stored();
+                    retryDelay = MIN_RETRY_DELAY;
+                    remove(rollup);
+                    updateBacklog();
+                    lock.notifyAll();
+                } else {
+                    lock.notifyAll();
+                    if (!stopped) {
+                        try {
+                            lock.wait(retryDelay);
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                    }
+                    retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY);
+                }
+            }
+        }
+    }
+
+    private boolean isIdle() {
+        return (queue.isEmpty() && (spill == null || spill.isEmpty()));
+    }
+
+    private CounterRollup next() {
+        CounterRollup rollup = queue.peekFirst();
+        if (rollup == null && spill != null) {
+            try {
+                rollup = spill.peek();
+            } catch (IOException e) {
+                logger.error("Discarding {} spilled counter rollups that can no longer be read",
+                        spill.getPending(), e);
+                clearSpill();
+                updateBacklog();
+            }
+        }
+        return rollup;
+    }
+
+    private void remove(CounterRollup rollup) {
+        if (queue.peekFirst() == rollup) {
+            queue.pollFirst();
+        } else if (spill != null) {
+            // the rollup was moved to the head of the spill file while it was being written
+            try {
+                if (spill.peek() != null) {
+                    spill.remove();
+                }
+            } catch (IOException e) {
+                logger.error("Failed to advance the spill file; discarding the spilled rollups", e);
+                clearSpill();
+            }
+        }
+    }
+
+    private void trimQueue() {
+        int merged = 0;
+        int lostCounts = 0;
+        while (queue.size() > MAX_QUEUED_ROLLUPS) {
+            // keep the rollup being written at the head, so that it can be removed when done
+            CounterRollup head = (writing ? queue.pollFirst() : null);
+            CounterRollup oldest = queue.pollFirst();
+            CounterRollup next = queue.pollFirst();
+            lostCounts += oldest.countOverlapping(next);
+            queue.addFirst(oldest.mergeWith(next));
+            if (head != null) {
+                queue.addFirst(head);
+            }
+            merged++;
+        }
+        if (merged > 0) {
+            logger.warn("Merged {} unwritten counter rollups into the next; no more than {} rollups " +
+                    "are kept in memory, and the raw counts of {} counter intervals are lost",
+                    merged, MAX_QUEUED_ROLLUPS, lostCounts);
+        }
+    }
+
+    private boolean spillQueue() {
+        try {
+            while (!queue.isEmpty()) {
+                spill.append(queue.peekFirst());
+                queue.pollFirst().stored();
+            }
+            return true;
+        } catch (IOException e) {
+            logger.error("Failed to spill counter rollups; keeping them in memory", e);
+            return false;
+        }
+    }
+
+    private void clearSpill() {
+        try {
+            spill.clear();
+        } catch (IOException e) {
+            logger.error("Failed to remove the spill file", e);
+        }
+    }
+
+    private void updateBacklog() {
+        persistJobStats.setBacklog(queue.size(), (spill != null ? spill.getPending() : 0));
+    }
+
+    /**
+     * Writes a rollup to the database.
+     */
+    interface RollupSink {
+
+        /**
+         * Writes the given rollup to the database.
+         * @param rollup the rollup to write
+         * @throws Exception if the rollup could not be written
+         */
+        void save(CounterRollup rollup) throws Exception;
+
+    }
+
+}
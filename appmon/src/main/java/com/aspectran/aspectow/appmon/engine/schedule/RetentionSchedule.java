@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.schedule;
+
+import com.aspectran.aspectow.appmon.engine.config.RetentionConfig;
+import com.aspectran.aspectow.appmon.engine.manager.AppMonManager;
+import com.aspectran.aspectow.appmon.engine.persist.db.mapper.PartitionVO;
+import com.aspectran.aspectow.appmon.engine.persist.db.mapper.RetentionMapper;
+import com.aspectran.core.component.bean.annotation.Autowired;
+import com.aspectran.core.component.bean.annotation.Bean;
+import com.aspectran.core.component.bean.annotation.Component;
+import com.aspectran.core.component.bean.annotation.CronTrigger;
+import com.aspectran.core.component.bean.annotation.Job;
+import com.aspectran.core.component.bean.annotation.Profile;
+import com.aspectran.core.component.bean.annotation.Request;
+import com.aspectran.core.component.bean.annotation.Schedule;
+import org.jspecify.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A scheduled job that removes persisted event counts once they are older
+ * than the retention period configured for their tier.
+ * <p>Where a table is partitioned by range of date/time on MySQL or PostgreSQL,
+ * partitions that lie entirely before the retention period are dropped first,
+ * but only by the node designated with {@code dropPartitions}, since a
+ * partition holds the rows of every node. The remaining expired rows of the
+ * current node are then deleted in bounded batches, each committed on its own,
+ * so that no single statement holds locks on the table for long.</p>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+@Component
+@Bean
+@Profile("!appmon.ext-persistence")
+@Schedule(
+    id = "retentionSchedule",
+    scheduler = "appmonScheduler",
+    cronTrigger = @CronTrigger(
+        expression = "0 30 3 * * ?"
+    ),
+    jobs = {
+        @Job(translet = "appmon/persist/counter/retention.job")
+    },
+    isolated = true
+)
+public class RetentionSchedule {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetentionSchedule.class);
+
+    private static final Pattern QUOTED_VALUE_PATTERN = Pattern.compile("'([^']*)'");
+
+    private static final Pattern IDENTIFIER_PATTERN = Pattern.compile("[A-Za-z0-9_$]+");
+
+    private final String currentNodeId;
+
+    private final RetentionConfig retentionConfig;
+
+    private final RetentionMapper dao;
+
+    @Autowired
+    public RetentionSchedule(@NonNull AppMonManager appMonManager, RetentionMapper dao) {
+        this.currentNodeId = appMonManager.getNodeId();
+        this.retentionConfig = appMonManager.getRetentionConfig();
+        this.dao = dao;
+    }
+
+    /**
+     * The main job method, called by the scheduler to remove expired event counts.
+     */
+    @Request("appmon/persist/counter/retention.job")
+    public void purge() {
+        LocalDateTime today = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.DAYS);
+        purge("appmon_event_count", retentionConfig.getRawDays(), today);
+        purge("appmon_event_error", retentionConfig.getErrorDays(), today);
+        purge("appmon_event_count_hourly", retentionConfig.getHourlyDays(), today);
+        purge("appmon_event_count_daily", retentionConfig.getDailyDays(), today);
+        purge("appmon_event_count_monthly", retentionConfig.getMonthlyDays(), today);
+    }
+
+    private void purge(String table, int days, @NonNull LocalDateTime today) {
+        if (days <= 0) {
+            return;
+        }
+        LocalDateTime before = today.minusDays(days);
+        try {
+            int dropped = dropPartitions(table, before);
+            long deleted = deleteExpired(table, before);
+            if (dropped > 0 || deleted > 0) {
+                logger.info("Removed event counts before {} from {}: {} partitions dropped, {} rows deleted",
+                        before, table, dropped, deleted);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to remove expired event counts from {}", table, e);
+        }
+    }
+
+    private int dropPartitions(String table, LocalDateTime before) {
+        if (!retentionConfig.isDropPartitions()) {
+            return 0;
+        }
+        List<PartitionVO> partitions = dao.getPartitions(table);
+        if (partitions == null || partitions.isEmpty()) {
+            return 0;
+        }
+        int dropped = 0;
+        for (PartitionVO partition : partitions) {
+            LocalDateTime upperBound = parseUpperBound(partition.getBound());
+            if (upperBound != null && !upperBound.isAfter(before) &&
+                    IDENTIFIER_PATTERN.matcher(partition.getName()).matches()) {
+                dao.dropPartition(table, partition.getName());
+                logger.info("Dropped partition {} of {} holding event counts of all nodes up to {}",
+                        partition.getName(), table, upperBound);
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    private long deleteExpired(String table, LocalDateTime before) {
+        int batchSize = Math.max(retentionConfig.getBatchSize(), 1);
+        long deleted = 0L;
+        int count;
+        do {
+            count = dao.deleteExpired(table, currentNodeId, before, batchSize);
+            deleted += count;
+        } while (count >= batchSize);
+        return deleted;
+    }
+
+    /**
+     * Parses the exclusive upper bound of a range partition from its description,
+     * which is the last quoted date/time value in it.
+     * @param bound the partition bound as described by the database
+     * @return the upper bound, or {@code null} if the partition has none,
+     *      such as a partition that holds values up to {@code MAXVALUE}
+     */
+    private static LocalDateTime parseUpperBound(String bound) {
+        if (bound == null || bound.contains("MAXVALUE") || bound.contains("DEFAULT")) {
+            return null;
+        }
+        String value = null;
+        Matcher matcher = QUOTED_VALUE_PATTERN.matcher(bound);
+        while (matcher.find()) {
+            value = matcher.group(1);
+        }
+        if (value == null) {
+            return null;
+        }
+        try {
+            if (value.length() <= 10) {
+                return LocalDate.parse(value).atStartOfDay();
+            } else {
+                return LocalDateTime.parse(value.substring(0, 19).replace(' ', 'T'));
+            }
+        } catch (RuntimeException e) {
+            logger.debug("Unrecognized partition bound: {}", bound);
+            return null;
+        }
+    }
+
+}
@@ -7,9 +7,21 @@ create table if not exists appmon_event_count (
     total int not null,
     delta int not null,
     error int not null,
+    p50 int default 0 not null,
+    p95 int default 0 not null,
+    p99 int default 0 not null,
+    peak int default 0 not null,
+    avg_concurrency decimal(10,2) default 0 not null,
     constraint appmon_event_count_pk primary key (node_id, app_id, event_id, datetime)
 );
 
+-- Columns added in 4.0 for existing databases
+alter table appmon_event_count add column if not exists p50 int default 0 not null;
+alter table appmon_event_count add column if not exists p95 int default 0 not null;
+alter table appmon_event_count add column if not exists p99 int default 0 not null;
+alter table appmon_event_count add column if not exists peak int default 0 not null;
+alter table appmon_event_count add column if not exists avg_concurrency decimal(10,2) default 0 not null;
+
 comment on table appmon_event_count is 'Raw event count data';
 comment on column appmon_event_count.node_id is 'Monitoring node identifier';
 comment on column appmon_event_count.app_id is 'Application identifier';
@@ -18,6 +30,11 @@ comment on column appmon_event_count.datetime is 'Data point timestamp';
 comment on column appmon_event_count.total is 'Cumulative total count (Gauge)';
 comment on column appmon_event_count.delta is 'Incremental count for the interval (Counter)';
 comment on column appmon_event_count.error is 'Incremental error count for the interval';
+comment on column appmon_event_count.p50 is '50th percentile latency in milliseconds for the interval';
+comment on column appmon_event_count.p95 is '95th percentile latency in milliseconds for the interval';
+comment on column appmon_event_count.p99 is '99th percentile latency in milliseconds for the interval';
+comment on column appmon_event_count.peak is 'Highest number of events in flight at once during the interval';
+comment on column appmon_event_count.avg_concurrency is 'Time-weighted average number of events in flight during the interval';
 
 -- Hourly aggregated event count data
 create table if not exists appmon_event_count_hourly (
@@ -28,9 +45,21 @@ create table if not exists appmon_event_count_hourly (
     total int not null,
     delta int not null,
     error int not null,
+    p50 int default 0 not null,
+    p95 int default 0 not null,
+    p99 int default 0 not null,
+    peak int default 0 not null,
+    avg_concurrency decimal(10,2) default 0 not null,
     constraint appmon_event_count_hourly_pk primary key (node_id, app_id, event_id, datetime)
 );
 
+-- Columns added in 4.0 for existing databases
+alter table appmon_event_count_hourly add column if not exists p50 int default 0 not null;
+alter table appmon_event_count_hourly add column if not exists p95 int default 0 not null;
+alter table appmon_event_count_hourly add column if not exists p99 int default 0 not null;
+alter table appmon_event_count_hourly add column if not exists peak int default 0 not null;
+alter table appmon_event_count_hourly add column if not exists avg_concurrency decimal(10,2) default 0 not null;
+
 comment on table appmon_event_count_hourly is 'Hourly aggregated event count data';
 comment on column appmon_event_count_hourly.node_id is 'Monitoring node identifier';
 comment on column appmon_event_count_hourly.app_id is 'Application identifier';
@@ -39,6 +68,98 @@ comment on column appmon_event_count_hourly.datetime is 'Hourly truncated timest
 comment on column appmon_event_count_hourly.total is 'Cumulative total count at the end of the hour';
 comment on column appmon_event_count_hourly.delta is 'Total incremental count for the hour';
 comment on column appmon_event_count_hourly.error is 'Total incremental error count for the hour';
+comment on column appmon_event_count_hourly.p50 is 'Highest 50th percentile latency in milliseconds within the hour';
+comment on column appmon_event_count_hourly.p95 is 'Highest 95th percentile latency in milliseconds within the hour';
+comment on column appmon_event_count_hourly.p99 is 'Highest 99th percentile latency in milliseconds within the hour';
+comment on column appmon_event_count_hourly.peak is 'Highest number of events in flight at once within the hour';
+comment on column appmon_event_count_hourly.avg_concurrency is 'Highest time-weighted average number of events in flight of an interval within the hour';
+
+-- Daily aggregated event count data
+create table if not exists appmon_event_count_daily (
+    node_id varchar(30) not null,
+    app_id varchar(30) not null,
+    event_id varchar(30) not null,
+    datetime timestamp not null,
+    total int not null,
+    delta int not null,
+    error int not null,
+    p50 int default 0 not null,
+    p95 int default 0 not null,
+    p99 int default 0 not null,
+    peak int default 0 not null,
+    avg_concurrency decimal(10,2) default 0 not null,
+    constraint appmon_event_count_daily_pk primary key (node_id, app_id, event_id, datetime)
+);
+
+comment on table appmon_event_count_daily is 'Daily aggregated event count data';
+comment on column appmon_event_count_daily.node_id is 'Monitoring node identifier';
+comment on column appmon_event_count_daily.app_id is 'Application identifier';
+comment on column appmon_event_count_daily.event_id is 'Event identifier';
+comment on column appmon_event_count_daily.datetime is 'Daily truncated timestamp (UTC)';
+comment on column appmon_event_count_daily.total is 'Cumulative total count at the end of the day';
+comment on column appmon_event_count_daily.delta is 'Total incremental count for the day';
+comment on column appmon_event_count_daily.error is 'Total incremental error count for the day';
+comment on column appmon_event_count_daily.p50 is 'Highest 50th percentile latency in milliseconds within the day';
+comment on column appmon_event_count_daily.p95 is 'Highest 95th percentile latency in milliseconds within the day';
+comment on column appmon_event_count_daily.p99 is 'Highest 99th percentile latency in milliseconds within the day';
+comment on column appmon_event_count_daily.peak is 'Highest number of events in flight at once within the day';
+comment on column appmon_event_count_daily.avg_concurrency is 'Highest time-weighted average number of events in flight of an interval within the day';
+
+-- Monthly aggregated event count data
+create table if not exists appmon_event_count_monthly (
+    node_id varchar(30) not null,
+    app_id varchar(30) not null,
+    event_id varchar(30) not null,
+    datetime timestamp not null,
+    total int not null,
+    delta int not null,
+    error int not null,
+    p50 int default 0 not null,
+    p95 int default 0 not null,
+    p99 int default 0 not null,
+    peak int default 0 not null,
+    avg_concurrency decimal(10,2) default 0 not null,
+    constraint appmon_event_count_monthly_pk primary key (node_id, app_id, event_id, datetime)
+);
+
+comment on table appmon_event_count_monthly is 'Monthly aggregated event count data';
+comment on column appmon_event_count_monthly.node_id is 'Monitoring node identifier';
+comment on column appmon_event_count_monthly.app_id is 'Application identifier';
+comment on column appmon_event_count_monthly.event_id is 'Event identifier';
+comment on column appmon_event_count_monthly.datetime is 'Monthly truncated timestamp (UTC)';
+comment on column appmon_event_count_monthly.total is 'Cumulative total count at the end of the month';
+comment on column appmon_event_count_monthly.delta is 'Total incremental count for the month';
+comment on column appmon_event_count_monthly.error is 'Total incremental error count for the month';
+comment on column appmon_event_count_monthly.p50 is 'Highest 50th percentile latency in milliseconds within the month';
+comment on column appmon_event_count_monthly.p95 is 'Highest 95th percentile latency in milliseconds within the month';
+comment on column appmon_event_count_monthly.p99 is 'Highest 99th percentile latency in milliseconds within the month';
+comment on column appmon_event_count_monthly.peak is 'Highest number of events in flight at once within the month';
+comment on column appmon_event_count_monthly.avg_concurrency is 'Highest time-weighted average number of events in flight of an interval within the month';
+
+-- Fill the tables added in 4.0 from the hourly data of existing databases
+merge into appmon_event_count_daily as a
+using (
+    select node_id, app_id, event_id, cast(cast(datetime as date) as timestamp) as datetime, max(total) as total, sum(delta) as delta, sum(error) as error,
+        max(p50) as p50, max(p95) as p95, max(p99) as p99, max(peak) as peak, max(avg_concurrency) as avg_concurrency
+    from appmon_event_count_hourly
+    group by node_id, app_id, event_id, cast(cast(datetime as date) as timestamp)
+) as b
+on (a.node_id = b.node_id and a.app_id = b.app_id and a.event_id = b.event_id and a.datetime = b.datetime)
+when not matched then
+    insert (node_id, app_id, event_id, datetime, total, delta, error, p50, p95, p99, peak, avg_concurrency)
+    values (b.node_id, b.app_id, b.event_id, b.datetime, b.total, b.delta, b.error, b.p50, b.p95, b.p99, b.peak, b.avg_concurrency);
+
+merge into appmon_event_count_monthly as a
+using (
+    select node_id, app_id, event_id, date_trunc('month', datetime) as datetime, max(total) as total, sum(delta) as delta, sum(error) as error,
+        max(p50) as p50, max(p95) as p95, max(p99) as p99, max(peak) as peak, max(avg_concurrency) as avg_concurrency
+    from appmon_event_count_hourly
+    group by node_id, app_id, event_id, date_trunc('month', datetime)
+) as b
+on (a.node_id = b.node_id and a.app_id = b.app_id and a.event_id = b.event_id and a.datetime = b.datetime)
+when not matched then
+    insert (node_id, app_id, event_id, datetime, total, delta, error, p50, p95, p99, peak, avg_concurrency)
+    values (b.node_id, b.app_id, b.event_id, b.datetime, b.total, b.delta, b.error, b.p50, b.p95, b.p99, b.peak, b.avg_concurrency);
 
 -- Most recent event count state for incremental updates
 create table if not exists appmon_event_count_last (
@@ -62,3 +183,22 @@ comment on column appmon_event_count_last.total is 'Last cumulative total count'
 comment on column appmon_event_count_last.delta is 'Last incremental count';
 comment on column appmon_event_count_last.error is 'Last incremental error count';
 comment on column appmon_event_count_last.reg_dt is 'Database registration timestamp';
+
+-- Error count data by error type (typically 5-minute intervals)
+create table if not exists appmon_event_error (
+    node_id varchar(30) not null,
+    app_id varchar(30) not null,
+    event_id varchar(30) not null,
+    datetime timestamp not null,
+    error_type varchar(150) not null,
+    error int not null,
+    constraint appmon_event_error_pk primary key (node_id, app_id, event_id, datetime, error_type)
+);
+
+comment on table appmon_event_error is 'Error count data by error type';
+comment on column appmon_event_error.node_id is 'Monitoring node identifier';
+comment on column appmon_event_error.app_id is 'Application identifier';
+comment on column appmon_event_error.event_id is 'Event identifier';
+comment on column appmon_event_error.datetime is 'Data point timestamp';
+comment on column appmon_event_error.error_type is 'Error type, such as the class name of the root cause exception';
+comment on column appmon_event_error.error is 'Incremental error count of the type for the interval';
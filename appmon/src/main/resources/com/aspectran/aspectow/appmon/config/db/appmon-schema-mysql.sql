@@ -7,6 +7,11 @@ create table if not exists appmon_event_count (
     total int not null comment 'Cumulative total count (Gauge)',
     delta int not null comment 'Incremental count for the interval (Counter)',
     error int not null comment 'Incremental error count for the interval',
+    p50 int default 0 not null comment '50th percentile latency in milliseconds for the interval',
+    p95 int default 0 not null comment '95th percentile latency in milliseconds for the interval',
+    p99 int default 0 not null comment '99th percentile latency in milliseconds for the interval',
+    peak int default 0 not null comment 'Highest number of events in flight at once during the interval',
+    avg_concurrency decimal(10,2) default 0 not null comment 'Time-weighted average number of events in flight during the interval',
     constraint appmon_event_count_pk primary key (node_id, app_id, event_id, datetime)
 )
     engine = MyISAM
@@ -23,6 +28,11 @@ create table if not exists appmon_event_count_hourly (
     total int not null comment 'Cumulative total count at the end of the hour',
     delta int not null comment 'Total incremental count for the hour',
     error int not null comment 'Total incremental error count for the hour',
+    p50 int default 0 not null comment 'Highest 50th percentile latency in milliseconds within the hour',
+    p95 int default 0 not null comment 'Highest 95th percentile latency in milliseconds within the hour',
+    p99 int default 0 not null comment 'Highest 99th percentile latency in milliseconds within the hour',
+    peak int default 0 not null comment 'Highest number of events in flight at once within the hour',
+    avg_concurrency decimal(10,2) default 0 not null comment 'Highest time-weighted average number of events in flight of an interval within the hour',
     constraint appmon_event_count_hourly_pk primary key (node_id, app_id, event_id, datetime)
 )
     engine = MyISAM
@@ -30,6 +40,48 @@ create table if not exists appmon_event_count_hourly (
     COLLATE = utf8mb4_unicode_ci
     comment = 'Hourly aggregated event count data';
 
+-- Daily aggregated event count data
+create table if not exists appmon_event_count_daily (
+    node_id varchar(30) not null comment 'Monitoring node identifier',
+    app_id varchar(30) not null comment 'Application identifier',
+    event_id varchar(30) not null comment 'Event identifier',
+    datetime datetime not null comment 'Daily truncated timestamp (UTC)',
+    total int not null comment 'Cumulative total count at the end of the day',
+    delta int not null comment 'Total incremental count for the day',
+    error int not null comment 'Total incremental error count for the day',
+    p50 int default 0 not null comment 'Highest 50th percentile latency in milliseconds within the day',
+    p95 int default 0 not null comment 'Highest 95th percentile latency in milliseconds within the day',
+    p99 int default 0 not null comment 'Highest 99th percentile latency in milliseconds within the day',
+    peak int default 0 not null comment 'Highest number of events in flight at once within the day',
+    avg_concurrency decimal(10,2) default 0 not null comment 'Highest time-weighted average number of events in flight of an interval within the day',
+    constraint appmon_event_count_daily_pk primary key (node_id, app_id, event_id, datetime)
+)
+    engine = MyISAM
+    charset = utf8mb4
+    COLLATE = utf8mb4_unicode_ci
+    comment = 'Daily aggregated event count data';
+
+-- Monthly aggregated event count data
+create table if not exists appmon_event_count_monthly (
+    node_id varchar(30) not null comment 'Monitoring node identifier',
+    app_id varchar(30) not null comment 'Application identifier',
+    event_id varchar(30) not null comment 'Event identifier',
+    datetime datetime not null comment 'Monthly truncated timestamp (UTC)',
+    total int not null comment 'Cumulative total count at the end of the month',
+    delta int not null comment 'Total incremental count for the month',
+    error int not null comment 'Total incremental error count for the month',
+    p50 int default 0 not null comment 'Highest 50th percentile latency in milliseconds within the month',
+    p95 int default 0 not null comment 'Highest 95th percentile latency in milliseconds within the month',
+    p99 int default 0 not null comment 'Highest 99th percentile latency in milliseconds within the month',
+    peak int default 0 not null comment 'Highest number of events in flight at once within the month',
+    avg_concurrency decimal(10,2) default 0 not null comment 'Highest time-weighted average number of events in flight of an interval within the month',
+    constraint appmon_event_count_monthly_pk primary key (node_id, app_id, event_id, datetime)
+)
+    engine = MyISAM
+    charset = utf8mb4
+    COLLATE = utf8mb4_unicode_ci
+    comment = 'Monthly aggregated event count data';
+
 -- Most recent event count state for incremental updates
 create table if not exists appmon_event_count_last (
     node_id varchar(30) not null comment 'Monitoring node identifier',
@@ -46,3 +98,18 @@ create table if not exists appmon_event_count_last (
     charset = utf8mb4
     COLLATE = utf8mb4_unicode_ci
     comment = 'Most recent event count state';
+
+-- Error count data by error type (typically 5-minute intervals)
+create table if not exists appmon_event_error (
+    node_id varchar(30) not null comment 'Monitoring node identifier',
+    app_id varchar(30) not null comment 'Application identifier',
+    event_id varchar(30) not null comment 'Event identifier',
+    datetime datetime not null comment 'Data point timestamp',
+    error_type varchar(150) not null comment 'Error type, such as the class name of the root cause exception',
+    error int not null comment 'Incremental error count of the type for the interval',
+    constraint appmon_event_error_pk primary key (node_id, app_id, event_id, datetime, error_type)
+)
+    engine = MyISAM
+    charset = utf8mb4
+    COLLATE = utf8mb4_unicode_ci
+    comment = 'Error count data by error type';
@@ -7,6 +7,11 @@ CREATE TABLE IF NOT EXISTS appmon_event_count (
     total bigint NOT NULL,
     delta bigint NOT NULL,
     error bigint NOT NULL,
+    p50 bigint DEFAULT 0 NOT NULL,
+    p95 bigint DEFAULT 0 NOT NULL,
+    p99 bigint DEFAULT 0 NOT NULL,
+    peak bigint DEFAULT 0 NOT NULL,
+    avg_concurrency numeric(10,2) DEFAULT 0 NOT NULL,
     CONSTRAINT appmon_event_count_pk PRIMARY KEY (node_id, app_id, event_id, datetime)
 );
 
@@ -18,6 +23,11 @@ COMMENT ON COLUMN appmon_event_count.datetime IS 'Data point timestamp';
 COMMENT ON COLUMN appmon_event_count.total IS 'Cumulative total count (Gauge)';
 COMMENT ON COLUMN appmon_event_count.delta IS 'Incremental count for the interval (Counter)';
 COMMENT ON COLUMN appmon_event_count.error IS 'Incremental error count for the interval';
+COMMENT ON COLUMN appmon_event_count.p50 IS '50th percentile latency in milliseconds for the interval';
+COMMENT ON COLUMN appmon_event_count.p95 IS '95th percentile latency in milliseconds for the interval';
+COMMENT ON COLUMN appmon_event_count.p99 IS '99th percentile latency in milliseconds for the interval';
+COMMENT ON COLUMN appmon_event_count.peak IS 'Highest number of events in flight at once during the interval';
+COMMENT ON COLUMN appmon_event_count.avg_concurrency IS 'Time-weighted average number of events in flight during the interval';
 
 -- Hourly aggregated event count data
 CREATE TABLE IF NOT EXISTS appmon_event_count_hourly (
@@ -28,6 +38,11 @@ CREATE TABLE IF NOT EXISTS appmon_event_count_hourly (
     total bigint NOT NULL,
     delta bigint NOT NULL,
     error bigint NOT NULL,
+    p50 bigint DEFAULT 0 NOT NULL,
+    p95 bigint DEFAULT 0 NOT NULL,
+    p99 bigint DEFAULT 0 NOT NULL,
+    peak bigint DEFAULT 0 NOT NULL,
+    avg_concurrency numeric(10,2) DEFAULT 0 NOT NULL,
     CONSTRAINT appmon_event_count_hourly_pk PRIMARY KEY (node_id, app_id, event_id, datetime)
 );
 
@@ -39,6 +54,73 @@ COMMENT ON COLUMN appmon_event_count_hourly.datetime IS 'Hourly truncated timest
 COMMENT ON COLUMN appmon_event_count_hourly.total IS 'Cumulative total count at the end of the hour';
 COMMENT ON COLUMN appmon_event_count_hourly.delta IS 'Total incremental count for the hour';
 COMMENT ON COLUMN appmon_event_count_hourly.error IS 'Total incremental error count for the hour';
+COMMENT ON COLUMN appmon_event_count_hourly.p50 IS 'Highest 50th percentile latency in milliseconds within the hour';
+COMMENT ON COLUMN appmon_event_count_hourly.p95 IS 'Highest 95th percentile latency in milliseconds within the hour';
+COMMENT ON COLUMN appmon_event_count_hourly.p99 IS 'Highest 99th percentile latency in milliseconds within the hour';
+COMMENT ON COLUMN appmon_event_count_hourly.peak IS 'Highest number of events in flight at once within the hour';
+COMMENT ON COLUMN appmon_event_count_hourly.avg_concurrency IS 'Highest time-weighted average number of events in flight of an interval within the hour';
+
+-- Daily aggregated event count data
+CREATE TABLE IF NOT EXISTS appmon_event_count_daily (
+    node_id varchar(30) NOT NULL,
+    app_id varchar(30) NOT NULL,
+    event_id varchar(30) NOT NULL,
+    datetime timestamp NOT NULL,
+    total bigint NOT NULL,
+    delta bigint NOT NULL,
+    error bigint NOT NULL,
+    p50 bigint DEFAULT 0 NOT NULL,
+    p95 bigint DEFAULT 0 NOT NULL,
+    p99 bigint DEFAULT 0 NOT NULL,
+    peak bigint DEFAULT 0 NOT NULL,
+    avg_concurrency numeric(10,2) DEFAULT 0 NOT NULL,
+    CONSTRAINT appmon_event_count_daily_pk PRIMARY KEY (node_id, app_id, event_id, datetime)
+);
+
+COMMENT ON TABLE appmon_event_count_daily IS 'Daily aggregated event count data';
+COMMENT ON COLUMN appmon_event_count_daily.node_id IS 'Monitoring node identifier';
+COMMENT ON COLUMN appmon_event_count_daily.app_id IS 'Application identifier';
+COMMENT ON COLUMN appmon_event_count_daily.event_id IS 'Event identifier';
+COMMENT ON COLUMN appmon_event_count_daily.datetime IS 'Daily truncated timestamp (UTC)';
+COMMENT ON COLUMN appmon_event_count_daily.total IS 'Cumulative total count at the end of the day';
+COMMENT ON COLUMN appmon_event_count_daily.delta IS 'Total incremental count for the day';
+COMMENT ON COLUMN appmon_event_count_daily.error IS 'Total incremental error count for the day';
+COMMENT ON COLUMN appmon_event_count_daily.p50 IS 'Highest 50th percentile latency in milliseconds within the day';
+COMMENT ON COLUMN appmon_event_count_daily.p95 IS 'Highest 95th percentile latency in milliseconds within the day';
+COMMENT ON COLUMN appmon_event_count_daily.p99 IS 'Highest 99th percentile latency in milliseconds within the day';
+COMMENT ON COLUMN appmon_event_count_daily.peak IS 'Highest number of events in flight at once within the day';
+COMMENT ON COLUMN appmon_event_count_daily.avg_concurrency IS 'Highest time-weighted average number of events in flight of an interval within the day';
+
+-- Monthly aggregated event count data
+CREATE TABLE IF NOT EXISTS appmon_event_count_monthly (
+    node_id varchar(30) NOT NULL,
+    app_id varchar(30) NOT NULL,
+    event_id varchar(30) NOT NULL,
+    datetime timestamp NOT NULL,
+    total bigint NOT NULL,
+    delta bigint NOT NULL,
+    error bigint NOT NULL,
+    p50 bigint DEFAULT 0 NOT NULL,
+    p95 bigint DEFAULT 0 NOT NULL,
+    p99 bigint DEFAULT 0 NOT NULL,
+    peak bigint DEFAULT 0 NOT NULL,
+    avg_concurrency numeric(10,2) DEFAULT 0 NOT NULL,
+    CONSTRAINT appmon_event_count_monthly_pk PRIMARY KEY (node_id, app_id, event_id, datetime)
+);
+
+COMMENT ON TABLE appmon_event_count_monthly IS 'Monthly aggregated event count data';
+COMMENT ON COLUMN appmon_event_count_monthly.node_id IS 'Monitoring node identifier';
+COMMENT ON COLUMN appmon_event_count_monthly.app_id IS 'Application identifier';
+COMMENT ON COLUMN appmon_event_count_monthly.event_id IS 'Event identifier';
+COMMENT ON COLUMN appmon_event_count_monthly.datetime IS 'Monthly truncated timestamp (UTC)';
+COMMENT ON COLUMN appmon_event_count_monthly.total IS 'Cumulative total count at the end of the month';
+COMMENT ON COLUMN appmon_event_count_monthly.delta IS 'Total incremental count for the month';
+COMMENT ON COLUMN appmon_event_count_monthly.error IS 'Total incremental error count for the month';
+COMMENT ON COLUMN appmon_event_count_monthly.p50 IS 'Highest 50th percentile latency in milliseconds within the month';
+COMMENT ON COLUMN appmon_event_count_monthly.p95 IS 'Highest 95th percentile latency in milliseconds within the month';
+COMMENT ON COLUMN appmon_event_count_monthly.p99 IS 'Highest 99th percentile latency in milliseconds within the month';
+COMMENT ON COLUMN appmon_event_count_monthly.peak IS 'Highest number of events in flight at once within the month';
+COMMENT ON COLUMN appmon_event_count_monthly.avg_concurrency IS 'Highest time-weighted average number of events in flight of an interval within the month';
 
 -- Most recent event count state for incremental updates
 CREATE TABLE IF NOT EXISTS appmon_event_count_last (
@@ -62,3 +144,22 @@ COMMENT ON COLUMN appmon_event_count_last.total IS 'Last cumulative total count'
 COMMENT ON COLUMN appmon_event_count_last.delta IS 'Last incremental count';
 COMMENT ON COLUMN appmon_event_count_last.error IS 'Last incremental error count';
 COMMENT ON COLUMN appmon_event_count_last.reg_dt IS 'Database registration timestamp';
+
+-- Error count data by error type (typically 5-minute intervals)
+CREATE TABLE IF NOT EXISTS appmon_event_error (
+    node_id varchar(30) NOT NULL,
+    app_id varchar(30) NOT NULL,
+    event_id varchar(30) NOT NULL,
+    datetime timestamp NOT NULL,
+    error_type varchar(150) NOT NULL,
+    error bigint NOT NULL,
+    CONSTRAINT appmon_event_error_pk PRIMARY KEY (node_id, app_id, event_id, datetime, error_type)
+);
+
+COMMENT ON TABLE appmon_event_error IS 'Error count data by error type';
+COMMENT ON COLUMN appmon_event_error.node_id IS 'Monitoring node identifier';
+COMMENT ON COLUMN appmon_event_error.app_id IS 'Application identifier';
+COMMENT ON COLUMN appmon_event_error.event_id IS 'Event identifier';
+COMMENT ON COLUMN appmon_event_error.datetime IS 'Data point timestamp';
+COMMENT ON COLUMN appmon_event_error.error_type IS 'Error type, such as the class name of the root cause exception';
+COMMENT ON COLUMN appmon_event_error.error IS 'Incremental error count of the type for the interval';
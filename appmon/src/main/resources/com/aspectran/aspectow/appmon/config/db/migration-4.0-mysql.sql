@@ -0,0 +1,82 @@
+-- Add latency percentile, peak and average concurrency columns
+ALTER TABLE appmon_event_count
+    ADD COLUMN p50 int default 0 not null comment '50th percentile latency in milliseconds for the interval',
+    ADD COLUMN p95 int default 0 not null comment '95th percentile latency in milliseconds for the interval',
+    ADD COLUMN p99 int default 0 not null comment '99th percentile latency in milliseconds for the interval',
+    ADD COLUMN peak int default 0 not null comment 'Highest number of events in flight at once during the interval',
+    ADD COLUMN avg_concurrency decimal(10,2) default 0 not null comment 'Time-weighted average number of events in flight during the interval';
+
+ALTER TABLE appmon_event_count_hourly
+    ADD COLUMN p50 int default 0 not null comment 'Highest 50th percentile latency in milliseconds within the hour',
+    ADD COLUMN p95 int default 0 not null comment 'Highest 95th percentile latency in milliseconds within the hour',
+    ADD COLUMN p99 int default 0 not null comment 'Highest 99th percentile latency in milliseconds within the hour',
+    ADD COLUMN peak int default 0 not null comment 'Highest number of events in flight at once within the hour',
+    ADD COLUMN avg_concurrency decimal(10,2) default 0 not null comment 'Highest time-weighted average number of events in flight of an interval within the hour';
+
+-- Add error count data by error type
+create table if not exists appmon_event_error (
+    node_id varchar(30) not null comment 'Monitoring node identifier',
+    app_id varchar(30) not null comment 'Application identifier',
+    event_id varchar(30) not null comment 'Event identifier',
+    datetime datetime not null comment 'Data point timestamp',
+    error_type varchar(150) not null comment 'Error type, such as the class name of the root cause exception',
+    error int not null comment 'Incremental error count of the type for the interval',
+    constraint appmon_event_error_pk primary key (node_id, app_id, event_id, datetime, error_type)
+)
+    engine = MyISAM
+    charset = utf8mb4
+    COLLATE = utf8mb4_unicode_ci
+    comment = 'Error count data by error type';
+
+-- Add daily aggregated event count data
+create table if not exists appmon_event_count_daily (
+    node_id varchar(30) not null comment 'Monitoring node identifier',
+    app_id varchar(30) not null comment 'Application identifier',
+    event_id varchar(30) not null comment 'Event identifier',
+    datetime datetime not null comment 'Daily truncated timestamp (UTC)',
+    total int not null comment 'Cumulative total count at the end of the day',
+    delta int not null comment 'Total incremental count for the day',
+    error int not null comment 'Total incremental error count for the day',
+    p50 int default 0 not null comment 'Highest 50th percentile latency in milliseconds within the day',
+    p95 int default 0 not null comment 'Highest 95th percentile latency in milliseconds within the day',
+    p99 int default 0 not null comment 'Highest 99th percentile latency in milliseconds within the day',
+    peak int default 0 not null comment 'Highest number of events in flight at once within the day',
+    avg_concurrency decimal(10,2) default 0 not null comment 'Highest time-weighted average number of events in flight of an interval within the day',
+    constraint appmon_event_count_daily_pk primary key (node_id, app_id, event_id, datetime)
+)
+    engine = MyISAM
+    charset = utf8mb4
+    COLLATE = utf8mb4_unicode_ci
+    comment = 'Daily aggregated event count data';
+
+-- Add monthly aggregated event count data
+create table if not exists appmon_event_count_monthly (
+    node_id varchar(30) not null comment 'Monitoring node identifier',
+    app_id varchar(30) not null comment 'Application identifier',
+    event_id varchar(30) not null comment 'Event identifier',
+    datetime datetime not null comment 'Monthly truncated timestamp (UTC)',
+    total int not null comment 'Cumulative total count at the end of the month',
+    delta int not null comment 'Total incremental count for the month',
+    error int not null comment 'Total incremental error count for the month',
+    p50 int default 0 not null comment 'Highest 50th percentile latency in milliseconds within the month',
+    p95 int default 0 not null comment 'Highest 95th percentile latency in milliseconds within the month',
+    p99 int default 0 not null comment 'Highest 99th percentile latency in milliseconds within the month',
+    peak int default 0 not null comment 'Highest number of events in flight at once within the month',
+    avg_concurrency decimal(10,2) default 0 not null comment 'Highest time-weighted average number of events in flight of an interval within the month',
+    constraint appmon_event_count_monthly_pk primary key (node_id, app_id, event_id, datetime)
+)
+    engine = MyISAM
+    charset = utf8mb4
+    COLLATE = utf8mb4_unicode_ci
+    comment = 'Monthly aggregated event count data';
+
+-- Fill the daily and monthly data from the existing hourly data
+insert into appmon_event_count_daily (node_id, app_id, event_id, datetime, total, delta, error, p50, p95, p99, peak, avg_concurrency)
+select node_id, app_id, event_id, cast(date(datetime) as datetime), max(total), sum(delta), sum(error), max(p50), max(p95), max(p99), max(peak), max(avg_concurrency)
+from appmon_event_count_hourly
+group by node_id, app_id, event_id, cast(date(datetime) as datetime);
+
+insert into appmon_event_count_monthly (node_id, app_id, event_id, datetime, total, delta, error, p50, p95, p99, peak, avg_concurrency)
+select node_id, app_id, event_id, cast(date_format(datetime, '%Y-%m-01') as datetime), max(total), sum(delta), sum(error), max(p50), max(p95), max(p99), max(peak), max(avg_concurrency)
+from appmon_event_count_hourly
+group by node_id, app_id, event_id, cast(date_format(datetime, '%Y-%m-01') as datetime);
@@ -0,0 +1,108 @@
+-- Add latency percentile, peak and average concurrency columns
+alter table appmon_event_count add (
+    p50 integer default 0 not null,
+    p95 integer default 0 not null,
+    p99 integer default 0 not null,
+    peak integer default 0 not null,
+    avg_concurrency number(10,2) default 0 not null
+);
+
+alter table appmon_event_count_hourly add (
+    p50 integer default 0 not null,
+    p95 integer default 0 not null,
+    p99 integer default 0 not null,
+    peak integer default 0 not null,
+    avg_concurrency number(10,2) default 0 not null
+);
+
+-- Add error count data by error type
+create table appmon_event_error (
+    node_id varchar(30) not null,
+    app_id varchar(30) not null,
+    event_id varchar(30) not null,
+    datetime date not null,
+    error_type varchar(150) not null,
+    error integer not null,
+    constraint appmon_event_error_pk primary key (node_id, app_id, event_id, datetime, error_type)
+);
+
+comment on table appmon_event_error is 'Error count data by error type';
+comment on column appmon_event_error.node_id is 'Monitoring node identifier';
+comment on column appmon_event_error.app_id is 'Application identifier';
+comment on column appmon_event_error.event_id is 'Event identifier';
+comment on column appmon_event_error.datetime is 'Data point timestamp';
+comment on column appmon_event_error.error_type is 'Error type, such as the class name of the root cause exception';
+comment on column appmon_event_error.error is 'Incremental error count of the type for the interval';
+
+-- Add daily aggregated event count data
+create table appmon_event_count_daily (
+    node_id varchar(30) not null,
+    app_id varchar(30) not null,
+    event_id varchar(30) not null,
+    datetime date not null,
+    total integer not null,
+    delta integer not null,
+    error integer not null,
+    p50 integer default 0 not null,
+    p95 integer default 0 not null,
+    p99 integer default 0 not null,
+    peak integer default 0 not null,
+    avg_concurrency number(10,2) default 0 not null,
+    constraint appmon_event_count_daily_pk primary key (node_id, app_id, event_id, datetime)
+);
+
+comment on table appmon_event_count_daily is 'Daily aggregated event count data';
+comment on column appmon_event_count_daily.node_id is 'Monitoring node identifier';
+comment on column appmon_event_count_daily.app_id is 'Application identifier';
+comment on column appmon_event_count_daily.event_id is 'Event identifier';
+comment on column appmon_event_count_daily.datetime is 'Daily truncated timestamp (UTC)';
+comment on column appmon_event_count_daily.total is 'Cumulative total count at the end of the day';
+comment on column appmon_event_count_daily.delta is 'Total incremental count for the day';
+comment on column appmon_event_count_daily.error is 'Total incremental error count for the day';
+comment on column appmon_event_count_daily.p50 is 'Highest 50th percentile latency in milliseconds within the day';
+comment on column appmon_event_count_daily.p95 is 'Highest 95th percentile latency in milliseconds within the day';
+comment on column appmon_event_count_daily.p99 is 'Highest 99th percentile latency in milliseconds within the day';
+comment on column appmon_event_count_daily.peak is 'Highest number of events in flight at once within the day';
+comment on column appmon_event_count_daily.avg_concurrency is 'Highest time-weighted average number of events in flight of an interval within the day';
+
+-- Add monthly aggregated event count data
+create table appmon_event_count_monthly (
+    node_id varchar(30) not null,
+    app_id varchar(30) not null,
+    event_id varchar(30) not null,
+    datetime date not null,
+    total integer not null,
+    delta integer not null,
+    error integer not null,
+    p50 integer default 0 not null,
+    p95 integer default 0 not null,
+    p99 integer default 0 not null,
+    peak integer default 0 not null,
+    avg_concurrency number(10,2) default 0 not null,
+    constraint appmon_event_count_monthly_pk primary key (node_id, app_id, event_id, datetime)
+);
+
+comment on table appmon_event_count_monthly is 'Monthly aggregated event count data';
+comment on column appmon_event_count_monthly.node_id is 'Monitoring node identifier';
+comment on column appmon_event_count_monthly.app_id is 'Application identifier';
+comment on column appmon_event_count_monthly.event_id is 'Event identifier';
+comment on column appmon_event_count_monthly.datetime is 'Monthly truncated timestamp (UTC)';
+comment on column appmon_event_count_monthly.total is 'Cumulative total count at the end of the month';
+comment on column appmon_event_count_monthly.delta is 'Total incremental count for the month';
+comment on column appmon_event_count_monthly.error is 'Total incremental error count for the month';
+comment on column appmon_event_count_monthly.p50 is 'Highest 50th percentile latency in milliseconds within the month';
+comment on column appmon_event_count_monthly.p95 is 'Highest 95th percentile latency in milliseconds within the month';
+comment on column appmon_event_count_monthly.p99 is 'Highest 99th percentile latency in milliseconds within the month';
+comment on column appmon_event_count_monthly.peak is 'Highest number of events in flight at once within the month';
+comment on column appmon_event_count_monthly.avg_concurrency is 'Highest time-weighted average number of events in flight of an interval within the month';
+
+-- Fill the daily and monthly data from the existing hourly data
+insert into appmon_event_count_daily (node_id, app_id, event_id, datetime, total, delta, error, p50, p95, p99, peak, avg_concurrency)
+select node_id, app_id, event_id, trunc(datetime), max(total), sum(delta), sum(error), max(p50), max(p95), max(p99), max(peak), max(avg_concurrency)
+from appmon_event_count_hourly
+group by node_id, app_id, event_id, trunc(datetime);
+
+insert into appmon_event_count_monthly (node_id, app_id, event_id, datetime, total, delta, error, p50, p95, p99, peak, avg_concurrency)
+select node_id, app_id, event_id, trunc(datetime, 'MM'), max(total), sum(delta), sum(error), max(p50), max(p95), max(p99), max(peak), max(avg_concurrency)
+from appmon_event_count_hourly
+group by node_id, app_id, event_id, trunc(datetime, 'MM');
@@ -0,0 +1,106 @@
+-- Add latency percentile, peak and average concurrency columns
+ALTER TABLE appmon_event_count
+    ADD COLUMN IF NOT EXISTS p50 bigint DEFAULT 0 NOT NULL,
+    ADD COLUMN IF NOT EXISTS p95 bigint DEFAULT 0 NOT NULL,
+    ADD COLUMN IF NOT EXISTS p99 bigint DEFAULT 0 NOT NULL,
+    ADD COLUMN IF NOT EXISTS peak bigint DEFAULT 0 NOT NULL,
+    ADD COLUMN IF NOT EXISTS avg_concurrency numeric(10,2) DEFAULT 0 NOT NULL;
+
+ALTER TABLE appmon_event_count_hourly
+    ADD COLUMN IF NOT EXISTS p50 bigint DEFAULT 0 NOT NULL,
+    ADD COLUMN IF NOT EXISTS p95 bigint DEFAULT 0 NOT NULL,
+    ADD COLUMN IF NOT EXISTS p99 bigint DEFAULT 0 NOT NULL,
+    ADD COLUMN IF NOT EXISTS peak bigint DEFAULT 0 NOT NULL,
+    ADD COLUMN IF NOT EXISTS avg_concurrency numeric(10,2) DEFAULT 0 NOT NULL;
+
+-- Add error count data by error type
+CREATE TABLE IF NOT EXISTS appmon_event_error (
+    node_id varchar(30) NOT NULL,
+    app_id varchar(30) NOT NULL,
+    event_id varchar(30) NOT NULL,
+    datetime timestamp NOT NULL,
+    error_type varchar(150) NOT NULL,
+    error bigint NOT NULL,
+    CONSTRAINT appmon_event_error_pk PRIMARY KEY (node_id, app_id, event_id, datetime, error_type)
+);
+
+COMMENT ON TABLE appmon_event_error IS 'Error count data by error type';
+COMMENT ON COLUMN appmon_event_error.node_id IS 'Monitoring node identifier';
+COMMENT ON COLUMN appmon_event_error.app_id IS 'Application identifier';
+COMMENT ON COLUMN appmon_event_error.event_id IS 'Event identifier';
+COMMENT ON COLUMN appmon_event_error.datetime IS 'Data point timestamp';
+COMMENT ON COLUMN appmon_event_error.error_type IS 'Error type, such as the class name of the root cause exception';
+COMMENT ON COLUMN appmon_event_error.error IS 'Incremental error count of the type for the interval';
+
+-- Add daily aggregated event count data
+CREATE TABLE IF NOT EXISTS appmon_event_count_daily (
+    node_id varchar(30) NOT NULL,
+    app_id varchar(30) NOT NULL,
+    event_id varchar(30) NOT NULL,
+    datetime timestamp NOT NULL,
+    total bigint NOT NULL,
+    delta bigint NOT NULL,
+    error bigint NOT NULL,
+    p50 bigint DEFAULT 0 NOT NULL,
+    p95 bigint DEFAULT 0 NOT NULL,
+    p99 bigint DEFAULT 0 NOT NULL,
+    peak bigint DEFAULT 0 NOT NULL,
+    avg_concurrency numeric(10,2) DEFAULT 0 NOT NULL,
+    CONSTRAINT appmon_event_count_daily_pk PRIMARY KEY (node_id, app_id, event_id, datetime)
+);
+
+COMMENT ON TABLE appmon_event_count_daily IS 'Daily aggregated event count data';
+COMMENT ON COLUMN appmon_event_count_daily.node_id IS 'Monitoring node identifier';
+COMMENT ON COLUMN appmon_event_count_daily.app_id IS 'Application identifier';
+COMMENT ON COLUMN appmon_event_count_daily.event_id IS 'Event identifier';
+COMMENT ON COLUMN appmon_event_count_daily.datetime IS 'Daily truncated timestamp (UTC)';
+COMMENT ON COLUMN appmon_event_count_daily.total IS 'Cumulative total count at the end of the day';
+COMMENT ON COLUMN appmon_event_count_daily.delta IS 'Total incremental count for the day';
+COMMENT ON COLUMN appmon_event_count_daily.error IS 'Total incremental error count for the day';
+COMMENT ON COLUMN appmon_event_count_daily.p50 IS 'Highest 50th percentile latency in milliseconds within the day';
+COMMENT ON COLUMN appmon_event_count_daily.p95 IS 'Highest 95th percentile latency in milliseconds within the day';
+COMMENT ON COLUMN appmon_event_count_daily.p99 IS 'Highest 99th percentile latency in milliseconds within the day';
+COMMENT ON COLUMN appmon_event_count_daily.peak IS 'Highest number of events in flight at once within the day';
+COMMENT ON COLUMN appmon_event_count_daily.avg_concurrency IS 'Highest time-weighted average number of events in flight of an interval within the day';
+
+-- Add monthly aggregated event count data
+CREATE TABLE IF NOT EXISTS appmon_event_count_monthly (
+    node_id varchar(30) NOT NULL,
+    app_id varchar(30) NOT NULL,
+    event_id varchar(30) NOT NULL,
+    datetime timestamp NOT NULL,
+    total bigint NOT NULL,
+    delta bigint NOT NULL,
+    error bigint NOT NULL,
+    p50 bigint DEFAULT 0 NOT NULL,
+    p95 bigint DEFAULT 0 NOT NULL,
+    p99 bigint DEFAULT 0 NOT NULL,
+    peak bigint DEFAULT 0 NOT NULL,
+    avg_concurrency numeric(10,2) DEFAULT 0 NOT NULL,
+    CONSTRAINT appmon_event_count_monthly_pk PRIMARY KEY (node_id, app_id, event_id, datetime)
+);
+
+COMMENT ON TABLE appmon_event_count_monthly IS 'Monthly aggregated event count data';
+COMMENT ON COLUMN appmon_event_count_monthly.node_id IS 'Monitoring node identifier';
+COMMENT ON COLUMN appmon_event_count_monthly.app_id IS 'Application identifier';
+COMMENT ON COLUMN appmon_event_count_monthly.event_id IS 'Event identifier';
+COMMENT ON COLUMN appmon_event_count_monthly.datetime IS 'Monthly truncated timestamp (UTC)';
+COMMENT ON COLUMN appmon_event_count_monthly.total IS 'Cumulative total count at the end of the month';
+COMMENT ON COLUMN appmon_event_count_monthly.delta IS 'Total incremental count for the month';
+COMMENT ON COLUMN appmon_event_count_monthly.error IS 'Total incremental error count for the month';
+COMMENT ON COLUMN appmon_event_count_monthly.p50 IS 'Highest 50th percentile latency in milliseconds within the month';
+COMMENT ON COLUMN appmon_event_count_monthly.p95 IS 'Highest 95th percentile latency in milliseconds within the month';
+COMMENT ON COLUMN appmon_event_count_monthly.p99 IS 'Highest 99th percentile latency in milliseconds within the month';
+COMMENT ON COLUMN appmon_event_count_monthly.peak IS 'Highest number of events in flight at once within the month';
+COMMENT ON COLUMN appmon_event_count_monthly.avg_concurrency IS 'Highest time-weighted average number of events in flight of an interval within the month';
+
+-- Fill the daily and monthly data from the existing hourly data
+insert into appmon_event_count_daily (node_id, app_id, event_id, datetime, total, delta, error, p50, p95, p99, peak, avg_concurrency)
+select node_id, app_id, event_id, date_trunc('day', datetime), max(total), sum(delta), sum(error), max(p50), max(p95), max(p99), max(peak), max(avg_concurrency)
+from appmon_event_count_hourly
+group by node_id, app_id, event_id, date_trunc('day', datetime);
+
+insert into appmon_event_count_monthly (node_id, app_id, event_id, datetime, total, delta, error, p50, p95, p99, peak, avg_concurrency)
+select node_id, app_id, event_id, date_trunc('month', datetime), max(total), sum(delta), sum(error), max(p50), max(p95), max(p99), max(peak), max(avg_concurrency)
+from appmon_event_count_hourly
+group by node_id, app_id, event_id, date_trunc('month', datetime);
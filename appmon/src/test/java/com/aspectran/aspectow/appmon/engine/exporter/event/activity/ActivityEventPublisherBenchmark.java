@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.exporter.event.activity;
+
+import com.aspectran.aspectow.appmon.engine.config.EventInfo;
+import com.aspectran.aspectow.appmon.engine.exporter.ExporterManager;
+import com.aspectran.aspectow.appmon.engine.exporter.ExporterType;
+import com.aspectran.aspectow.appmon.engine.persist.counter.EventCount;
+import com.aspectran.utils.scheduling.ScheduledExecutorScheduler;
+import com.aspectran.utils.scheduling.Scheduler;
+import org.jspecify.annotations.NonNull;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the time and heap allocation that relaying activity events adds
+ * to each activity on the request thread.
+ * <p>A real {@link ActivityEventPublisher} is fed from several worker threads
+ * while it drains its queue and builds the batched messages on a scheduler
+ * thread, exactly as it does while a dashboard is subscribed. Only the
+ * broadcast itself is replaced, so that the messages are counted instead
+ * of being sent. Each worker thread reports its own allocation through
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}.
+ * This is a runnable main rather than a test, as its results depend on the
+ * machine it runs on.</p>
+ * <p>Usage: {@code ActivityEventPublisherBenchmark [threads] [iterations]}</p>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+public class ActivityEventPublisherBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 200_000;
+
+    private static final int DEFAULT_ITERATIONS = 2_000_000;
+
+    private static final String SESSION_ID = "node0abcdefghijklmnopqrstuvwx0";
+
+    private static final com.sun.management.ThreadMXBean threadMXBean =
+            (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws Exception {
+        int threads = (args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors());
+        int iterations = (args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ITERATIONS);
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        Scheduler scheduler = new ScheduledExecutorScheduler("BenchmarkScheduler", true);
+        scheduler.start();
+        try {
+            run("sampled", ActivityEventPublisher.DEFAULT_TARGET_EVENT_RATE, scheduler, threads, iterations);
+            run("unsampled", 0, scheduler, threads, iterations);
+        } finally {
+            scheduler.stop();
+        }
+    }
+
+    private static void run(
+            String name, int targetEventRate, Scheduler scheduler,
+            int threads, int iterations) throws InterruptedException {
+        EventInfo eventInfo = new EventInfo();
+        eventInfo.setEventId("activity");
+        eventInfo.setTargetEventRate(targetEventRate);
+        CountingReader reader = new CountingReader(eventInfo);
+        ActivityEventPublisher publisher = new ActivityEventPublisher(reader, scheduler);
+        publisher.start();
+
+        LongAdder allocatedBytes = new LongAdder();
+        LongAdder elapsedNanos = new LongAdder();
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                    publisher.onActivityFinished(System.currentTimeMillis(), i & 127, SESSION_ID, i, null);
+                }
+                long threadId = Thread.currentThread().threadId();
+                long allocated = threadMXBean.getThreadAllocatedBytes(threadId);
+                long started = System.nanoTime();
+                for (int i = 0; i < iterations; i++) {
+                    publisher.onActivityFinished(System.currentTimeMillis(), i & 127, SESSION_ID, i, null);
+                }
+                elapsedNanos.add(System.nanoTime() - started);
+                allocatedBytes.add(threadMXBean.getThreadAllocatedBytes(threadId) - allocated);
+                done.countDown();
+            }, name + "-" + t);
+            worker.start();
+        }
+        done.await();
+        publisher.stop();
+
+        long activityCount = (long)threads * iterations;
+        System.out.printf("%-10s %d threads %,14d activities  %,8.1f ns/activity  %,8.2f bytes/activity  (%,d messages)%n",
+                name, threads, activityCount, (double)elapsedNanos.sum() / activityCount,
+                (double)allocatedBytes.sum() / activityCount, reader.messages.sum());
+    }
+
+    private static class CountingReader extends ActivityEventReader {
+
+        private final LongAdder messages = new LongAdder();
+
+        CountingReader(@NonNull EventInfo eventInfo) {
+            super(new ExporterManager(ExporterType.EVENT, null, "benchmark"), eventInfo, new EventCount());
+        }
+
+        @Override
+        void broadcast(String message) {
+            messages.increment();
+        }
+
+    }
+
+}
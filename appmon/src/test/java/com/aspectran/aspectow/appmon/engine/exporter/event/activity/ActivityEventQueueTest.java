@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.exporter.event.activity;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link ActivityEventQueue}.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+class ActivityEventQueueTest {
+
+    @Test
+    void testCapacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(1, new ActivityEventQueue(1).getCapacity());
+        assertEquals(8, new ActivityEventQueue(5).getCapacity());
+        assertEquals(8, new ActivityEventQueue(8).getCapacity());
+        assertEquals(1024, new ActivityEventQueue(1000).getCapacity());
+    }
+
+    @Test
+    void testUnpublishedSlotIsNotVisible() {
+        ActivityEventQueue queue = new ActivityEventQueue(4);
+        assertNull(queue.peek());
+        long sequence = queue.claim();
+        assertEquals(0L, sequence);
+        queue.get(sequence).setStartTime(100L);
+        assertNull(queue.peek());
+        queue.publish(sequence);
+        ActivityEventRecord record = queue.peek();
+        assertNotNull(record);
+        assertEquals(100L, record.getStartTime());
+        assertSame(record, queue.peek());
+        queue.release();
+        assertNull(queue.peek());
+    }
+
+    @Test
+    void testFullQueueDropsAndCounts() {
+        ActivityEventQueue queue = new ActivityEventQueue(4);
+        for (int i = 0; i < 4; i++) {
+            queue.publish(queue.claim());
+        }
+        assertEquals(-1L, queue.claim());
+        assertEquals(-1L, queue.claim());
+        assertEquals(2L, queue.takeDropped());
+        assertEquals(0L, queue.takeDropped());
+
+        // Releasing one slot makes room for exactly one more event
+        assertNotNull(queue.peek());
+        queue.release();
+        assertEquals(4L, queue.claim());
+        assertEquals(-1L, queue.claim());
+        assertEquals(1L, queue.takeDropped());
+    }
+
+    @Test
+    void testWrapsAroundManyTimes() {
+        ActivityEventQueue queue = new ActivityEventQueue(4);
+        for (long i = 0L; i < 1000L; i++) {
+            long sequence = queue.claim();
+            assertEquals(i, sequence);
+            ActivityEventRecord record = queue.get(sequence);
+            assertNull(record.getSessionId(), "released slots must be cleared");
+            record.setStartTime(i + 1);
+            record.setSessionId("session" + i);
+            queue.publish(sequence);
+            if (i % 3 == 2) {
+                for (long j = i - 2; j <= i; j++) {
+                    assertEquals(j + 1, queue.peek().getStartTime());
+                    queue.release();
+                }
+            }
+        }
+        assertEquals(1000L, queue.peek().getStartTime());
+        queue.release();
+        assertNull(queue.peek());
+        assertEquals(0L, queue.takeDropped());
+    }
+
+    @Test
+    @Timeout(60)
+    void testConcurrentProducersLoseNothing() throws Exception {
+        int producers = 4;
+        int perProducer = 50_000;
+        ActivityEventQueue queue = new ActivityEventQueue(64);
+        CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    long sequence = queue.claim();
+                    if (sequence >= 0L) {
+                        ActivityEventRecord record = queue.get(sequence);
+                        record.setActivityCount(producer);
+                        record.setElapsedTime(i);
+                        queue.publish(sequence);
+                    }
+                }
+                done.countDown();
+            }).start();
+        }
+        long[] lastSeen = new long[producers];
+        Arrays.fill(lastSeen, -1L);
+        long consumed = 0L;
+        while (done.getCount() > 0L || queue.peek() != null) {
+            ActivityEventRecord record = queue.peek();
+            if (record == null) {
+                Thread.yield();
+                continue;
+            }
+            int producer = record.getActivityCount();
+            assertTrue(record.getElapsedTime() > lastSeen[producer], "events of a producer must stay in order");
+            lastSeen[producer] = record.getElapsedTime();
+            queue.release();
+            consumed++;
+        }
+        assertEquals((long)producers * perProducer, consumed + queue.takeDropped());
+    }
+
+}
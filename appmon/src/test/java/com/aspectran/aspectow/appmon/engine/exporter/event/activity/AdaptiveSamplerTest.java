@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.exporter.event.activity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link AdaptiveSampler}.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+class AdaptiveSamplerTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final long[] now = new long[1];
+
+    private final double[] random = new double[1];
+
+    @Test
+    void testEveryEventIsKeptBelowTarget() {
+        AdaptiveSampler sampler = sampler(100);
+        for (int period = 0; period < 5; period++) {
+            assertEquals(50, offer(sampler, 50, false));
+            nextPeriod(sampler);
+            assertEquals(1.0d, sampler.getSampleRate());
+        }
+    }
+
+    @Test
+    void testKeptRateConvergesToTargetAboveIt() {
+        AdaptiveSampler sampler = sampler(100);
+        // Everything is kept until the first adjustment
+        assertEquals(1000, offer(sampler, 1000, false));
+        nextPeriod(sampler);
+        for (int period = 0; period < 5; period++) {
+            assertKeptNear(100, offer(sampler, 1000, false));
+            nextPeriod(sampler);
+        }
+
+        // A sudden rise is smoothed over a few periods, then tracked again
+        int kept = 0;
+        for (int period = 0; period < 10; period++) {
+            kept = offer(sampler, 4000, false);
+            assertTrue(kept < 4000);
+            nextPeriod(sampler);
+        }
+        assertKeptNear(100, kept);
+    }
+
+    @Test
+    void testErrorsAndSlowActivitiesAreAlwaysKept() {
+        AdaptiveSampler sampler = sampler(10);
+        offer(sampler, 1000, false);
+        nextPeriod(sampler);
+        assertEquals(0.01d, sampler.getSampleRate(), 1e-9);
+
+        assertEquals(200, offer(sampler, 200, true));
+        assertKeptNear(8, offer(sampler, 800, false));
+    }
+
+    @Test
+    void testEveryEventIsKeptWithoutTarget() {
+        AdaptiveSampler sampler = sampler(0);
+        offer(sampler, 100000, false);
+        nextPeriod(sampler);
+        assertEquals(1.0d, sampler.getSampleRate());
+        assertEquals(1000, offer(sampler, 1000, false));
+    }
+
+    private AdaptiveSampler sampler(double targetRate) {
+        // Draws spread evenly over [0, 1), so that the fraction kept matches the sample rate
+        return new AdaptiveSampler(targetRate, () -> now[0], () -> {
+            random[0] = (random[0] + 0.6180339887498949d) % 1.0d;
+            return random[0];
+        });
+    }
+
+    private void nextPeriod(AdaptiveSampler sampler) {
+        now[0] += SECOND;
+        sampler.adjust();
+    }
+
+    private static int offer(AdaptiveSampler sampler, int events, boolean keep) {
+        int kept = 0;
+        for (int i = 0; i < events; i++) {
+            if (sampler.sample(keep)) {
+                kept++;
+            }
+        }
+        return kept;
+    }
+
+    private static void assertKeptNear(int expected, int kept) {
+        assertTrue(Math.abs(kept - expected) <= Math.max(2, expected / 20),
+                "expected about " + expected + " events kept but was " + kept);
+    }
+
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter;
+
+import org.jspecify.annotations.NonNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link CounterCheckpoint}.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+class CounterCheckpointTest {
+
+    /** The on-disk layout of a checkpoint file */
+    private static final int HEADER_SIZE = 16;
+
+    private static final int KEY_AREA_SIZE = 192;
+
+    private static final int SLOT_SIZE = (CounterCheckpoint.STATE_VALUES + 2) * Long.BYTES;
+
+    private static final long INTERVAL = 3_600_000L;
+
+    private static final LocalDateTime DATETIME = LocalDateTime.of(2026, 10, 17, 9, 0);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testLatestSlotIsRecovered() throws IOException {
+        Path file = tempDir.resolve("checkpoint");
+        writeCheckpoint(file, 3, 2);
+
+        CounterCheckpoint checkpoint = new CounterCheckpoint(file);
+        checkpoint.load();
+        TestEventCounter restored = new TestEventCounter();
+        assertTrue(checkpoint.recover(restored));
+        assertEquals(5L, restored.getEventCount().getTallying().getTotal());
+        // A counter is recovered only once
+        assertFalse(checkpoint.recover(new TestEventCounter()));
+    }
+
+    @Test
+    void testSlotsAreWrittenAlternately() throws IOException {
+        Path file = tempDir.resolve("checkpoint");
+        writeCheckpoint(file, 3, 2);
+        // The empty state written at start has sequence 1, and each change adds one
+        assertEquals(3L, readLong(file, slotOffset(1)));
+        assertEquals(2L, readLong(file, slotOffset(0)));
+    }
+
+    @Test
+    void testTornSlotFallsBackToTheOther() throws IOException {
+        Path file = tempDir.resolve("checkpoint");
+        writeCheckpoint(file, 3, 2);
+        // Corrupt the total tallying in the newest slot as a torn write would
+        int newest = slotOffset(1);
+        writeLong(file, newest + (1 + CounterCheckpoint.TALLYING_TOTAL) * Long.BYTES, 1000L);
+
+        CounterCheckpoint checkpoint = new CounterCheckpoint(file);
+        checkpoint.load();
+        TestEventCounter restored = new TestEventCounter();
+        assertTrue(checkpoint.recover(restored));
+        assertEquals(3L, restored.getEventCount().getTallying().getTotal());
+    }
+
+    @Test
+    void testBothSlotsCorrupted() throws IOException {
+        Path file = tempDir.resolve("checkpoint");
+        writeCheckpoint(file, 3, 2);
+        writeLong(file, slotOffset(0) + SLOT_SIZE - Long.BYTES, 0L);
+        writeLong(file, slotOffset(1) + SLOT_SIZE - Long.BYTES, 0L);
+
+        CounterCheckpoint checkpoint = new CounterCheckpoint(file);
+        checkpoint.load();
+        assertFalse(checkpoint.recover(new TestEventCounter()));
+    }
+
+    @Test
+    void testUnrecognizedFileIsIgnored() throws IOException {
+        Path file = tempDir.resolve("checkpoint");
+        writeCheckpoint(file, 3, 2);
+        writeLong(file, 0, 0L);
+
+        CounterCheckpoint checkpoint = new CounterCheckpoint(file);
+        checkpoint.load();
+        assertFalse(checkpoint.recover(new TestEventCounter()));
+
+        Files.write(file, new byte[] {1, 2, 3});
+        checkpoint.load();
+        assertFalse(checkpoint.recover(new TestEventCounter()));
+    }
+
+    @Test
+    void testNothingIsRecoveredPastALaterSavedRollup() throws IOException {
+        Path file = tempDir.resolve("checkpoint");
+        writeCheckpoint(file, 3, 2);
+
+        CounterCheckpoint checkpoint = new CounterCheckpoint(file);
+        checkpoint.load();
+        TestEventCounter restored = new TestEventCounter();
+        restored.getEventCount().reset(LocalDateTime.of(2026, 10, 17, 9, 0), 100L, 5L, 0L);
+        assertFalse(checkpoint.recover(restored));
+        assertEquals(0L, restored.getEventCount().getTallying().getTotal());
+    }
+
+    @Test
+    void testErrorsOfEveryUnstoredRollupAreRecovered() throws IOException {
+        Path file = tempDir.resolve("checkpoint");
+        TestEventCounter eventCounter = new TestEventCounter();
+        CounterCheckpoint checkpoint = startCheckpoint(file, eventCounter);
+        count(eventCounter, 3, 1);
+        eventCounter.rollup(DATETIME);
+        eventCounter.getEventCount().mark().stored();
+        // Two rollups lost with the in-memory queue, then events not yet rolled up
+        count(eventCounter, 4, 2);
+        eventCounter.rollup(DATETIME.plusMinutes(5));
+        count(eventCounter, 2, 1);
+        eventCounter.rollup(DATETIME.plusMinutes(10));
+        count(eventCounter, 1, 1);
+        checkpoint.stop();
+
+        TestEventCounter restored = new TestEventCounter();
+        restored.reset(DATETIME, 3L, 3L, 1L);
+        checkpoint = new CounterCheckpoint(file);
+        checkpoint.load();
+        assertTrue(checkpoint.recover(restored));
+        assertEquals(7L, restored.getEventCount().getTallying().getTotal());
+        assertEquals(4L, restored.getEventCount().getTallying().getError());
+    }
+
+    @Test
+    void testRollupsPendingInTheSpillAreNotRecovered() throws IOException {
+        Path file = tempDir.resolve("checkpoint");
+        TestEventCounter eventCounter = new TestEventCounter();
+        CounterCheckpoint checkpoint = startCheckpoint(file, eventCounter);
+        count(eventCounter, 3, 1);
+        eventCounter.rollup(DATETIME);
+        eventCounter.getEventCount().mark().stored();
+        // Spilled but not yet replayed when the counter is reset
+        count(eventCounter, 4, 2);
+        eventCounter.rollup(DATETIME.plusMinutes(5));
+        eventCounter.getEventCount().mark().stored();
+        count(eventCounter, 2, 1);
+        checkpoint.stop();
+
+        TestEventCounter restored = new TestEventCounter();
+        restored.reset(DATETIME, 3L, 3L, 1L);
+        checkpoint = new CounterCheckpoint(file);
+        checkpoint.load();
+        assertTrue(checkpoint.recover(restored));
+        assertEquals(2L, restored.getEventCount().getTallying().getTotal());
+        assertEquals(1L, restored.getEventCount().getTallying().getError());
+    }
+
+    @Test
+    void testErrorsOfRollupsPartlyInTheDatabaseAreNotRecovered() throws IOException {
+        Path file = tempDir.resolve("checkpoint");
+        TestEventCounter eventCounter = new TestEventCounter();
+        CounterCheckpoint checkpoint = startCheckpoint(file, eventCounter);
+        count(eventCounter, 3, 1);
+        eventCounter.rollup(DATETIME);
+        count(eventCounter, 4, 2);
+        eventCounter.rollup(DATETIME.plusMinutes(5));
+        count(eventCounter, 2, 1);
+        checkpoint.stop();
+
+        // The first rollup reached the database, but was not yet known to be
+        // stored when the checkpoint was taken; its errors cannot be told apart
+        TestEventCounter restored = new TestEventCounter();
+        restored.reset(DATETIME, 3L, 3L, 1L);
+        checkpoint = new CounterCheckpoint(file);
+        checkpoint.load();
+        assertTrue(checkpoint.recover(restored));
+        assertEquals(6L, restored.getEventCount().getTallying().getTotal());
+        assertEquals(1L, restored.getEventCount().getTallying().getError());
+    }
+
+    @Test
+    void testNothingIsRecoveredAfterACleanShutdown() throws IOException {
+        Path file = tempDir.resolve("checkpoint");
+        TestEventCounter eventCounter = new TestEventCounter();
+        CounterCheckpoint checkpoint = startCheckpoint(file, eventCounter);
+        count(eventCounter, 3, 1);
+        eventCounter.rollup(DATETIME);
+        eventCounter.getEventCount().mark().stored();
+        checkpoint.stop();
+
+        TestEventCounter restored = new TestEventCounter();
+        restored.reset(DATETIME, 3L, 3L, 1L);
+        checkpoint = new CounterCheckpoint(file);
+        checkpoint.load();
+        assertFalse(checkpoint.recover(restored));
+    }
+
+    @NonNull
+    private static CounterCheckpoint startCheckpoint(Path file, TestEventCounter eventCounter) throws IOException {
+        CounterCheckpoint checkpoint = new CounterCheckpoint(file);
+        checkpoint.load();
+        checkpoint.start(List.of(eventCounter), INTERVAL);
+        return checkpoint;
+    }
+
+    private static void count(@NonNull TestEventCounter eventCounter, int events, int errors) {
+        for (int i = 0; i < events; i++) {
+            eventCounter.getEventCount().count();
+        }
+        for (int i = 0; i < errors; i++) {
+            eventCounter.getEventCount().error();
+        }
+    }
+
+    /**
+     * Checkpoints a counter after the given numbers of events, then stops.
+     */
+    private static void writeCheckpoint(Path file, int... counts) throws IOException {
+        TestEventCounter eventCounter = new TestEventCounter();
+        CounterCheckpoint checkpoint = new CounterCheckpoint(file);
+        checkpoint.load();
+        checkpoint.start(List.of(eventCounter), INTERVAL);
+        for (int count : counts) {
+            for (int i = 0; i < count; i++) {
+                eventCounter.getEventCount().count();
+            }
+            checkpoint.checkpoint();
+        }
+        checkpoint.stop();
+    }
+
+    private static int slotOffset(int slot) {
+        return HEADER_SIZE + KEY_AREA_SIZE + slot * SLOT_SIZE;
+    }
+
+    private static long readLong(Path file, int position) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+            channel.read(buffer, position);
+            return buffer.flip().getLong();
+        }
+    }
+
+    private static void writeLong(Path file, int position, long value) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, value), position);
+        }
+    }
+
+    private static class TestEventCounter implements EventCounter {
+
+        private final EventCount eventCount = new EventCount();
+
+        @Override
+        public void initialize() {
+        }
+
+        @Override
+        public String getAppId() {
+            return "app";
+        }
+
+        @Override
+        public String getEventId() {
+            return "activity";
+        }
+
+        @Override
+        public EventCount getEventCount() {
+            return eventCount;
+        }
+
+        @Override
+        public void addEventRollupListener(@NonNull EventCountRollupListener eventRollupListener) {
+        }
+
+        @Override
+        public void rollup(LocalDateTime datetime) {
+            eventCount.rollup(datetime);
+        }
+
+        @Override
+        public void reset(LocalDateTime datetime, long total, long delta, long error) {
+            eventCount.reset(datetime, total, delta, error);
+        }
+
+    }
+
+}
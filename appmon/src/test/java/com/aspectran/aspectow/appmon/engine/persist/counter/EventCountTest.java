@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link EventCount}.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+class EventCountTest {
+
+    private static final int THREADS = 8;
+
+    private static final int ITERATIONS = 100_000;
+
+    @Test
+    @Timeout(60)
+    void testNoCountIsLostOrDoubledByConcurrentRollups() throws Exception {
+        EventCount eventCount = new EventCount();
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            workers[t] = new Thread(() -> {
+                ready.countDown();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < ITERATIONS; i++) {
+                    eventCount.count();
+                    if (i % 10 == 0) {
+                        eventCount.error();
+                    } else if (i % 10 == 5) {
+                        eventCount.error("java.lang.IllegalStateException");
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        ready.await();
+
+        // Each rollup is a new period, so the tallied delta and error
+        // are exactly what was drained by that rollup
+        LocalDateTime datetime = LocalDateTime.of(2026, 10, 17, 0, 0);
+        long deltas = 0L;
+        long errors = 0L;
+        long typedErrors = 0L;
+        int rollups = 0;
+        AtomicBoolean running = new AtomicBoolean(true);
+        start.countDown();
+        Thread joiner = new Thread(() -> {
+            for (Thread worker : workers) {
+                try {
+                    worker.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            running.set(false);
+        });
+        joiner.start();
+        while (true) {
+            boolean last = !running.get();
+            datetime = datetime.plusMinutes(1);
+            eventCount.rollup(datetime);
+            EventCount.Tallied tallied = eventCount.getTallied();
+            deltas += tallied.getDelta();
+            errors += tallied.getError();
+            Long typed = tallied.getErrorTypes().get("java.lang.IllegalStateException");
+            typedErrors += (typed != null ? typed : 0L);
+            rollups++;
+            if (last) {
+                break;
+            }
+            Thread.yield();
+        }
+        joiner.join();
+
+        long expectedTotal = (long)THREADS * ITERATIONS;
+        long expectedErrors = (long)THREADS * (ITERATIONS / 5);
+        assertTrue(rollups > 1);
+        assertEquals(expectedTotal, deltas);
+        assertEquals(expectedTotal, eventCount.getTallied().getTotal());
+        assertEquals(expectedErrors, errors);
+        assertEquals(expectedErrors / 2, typedErrors);
+        assertEquals(0L, eventCount.getTallying().getTotal());
+        assertEquals(0L, eventCount.getTallying().getError());
+    }
+
+    @Test
+    void testRollupsWithinTheSamePeriodAccumulate() {
+        EventCount eventCount = new EventCount();
+        LocalDateTime datetime = LocalDateTime.of(2026, 10, 17, 0, 0);
+        eventCount.count();
+        eventCount.count();
+        eventCount.error();
+        eventCount.rollup(datetime);
+        eventCount.count();
+        eventCount.error("java.io.IOException");
+        eventCount.rollup(datetime);
+
+        EventCount.Tallied tallied = eventCount.getTallied();
+        assertEquals(3L, tallied.getTotal());
+        assertEquals(3L, tallied.getDelta());
+        assertEquals(2L, tallied.getError());
+        assertEquals(Map.of("java.io.IOException", 1L), tallied.getErrorTypes());
+
+        eventCount.count();
+        eventCount.rollup(datetime.plusMinutes(5));
+        assertEquals(4L, tallied.getTotal());
+        assertEquals(1L, tallied.getDelta());
+        assertEquals(0L, tallied.getError());
+        assertTrue(eventCount.isUpdated());
+
+        eventCount.rollup(datetime.plusMinutes(10));
+        assertEquals(0L, tallied.getDelta());
+        assertFalse(eventCount.isUpdated());
+    }
+
+}
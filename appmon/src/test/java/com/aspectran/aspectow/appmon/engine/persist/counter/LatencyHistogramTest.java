@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link LatencyHistogram}.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 0L; value < 16L; value++) {
+            assertEquals((int)value, histogram.indexOf(value));
+            assertEquals(value, histogram.highestEquivalentValue(histogram.indexOf(value)));
+        }
+    }
+
+    @Test
+    void testBucketBoundaries() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        // 16..31 are still exact, one sub-bucket per value
+        assertEquals(16, histogram.indexOf(16L));
+        assertEquals(31, histogram.indexOf(31L));
+        assertEquals(31L, histogram.highestEquivalentValue(histogram.indexOf(31L)));
+        // 32..63 are split into 16 sub-buckets of two values each
+        assertEquals(histogram.indexOf(32L), histogram.indexOf(33L));
+        assertEquals(33L, histogram.highestEquivalentValue(histogram.indexOf(32L)));
+        assertEquals(histogram.indexOf(33L) + 1, histogram.indexOf(34L));
+        assertEquals(63L, histogram.highestEquivalentValue(histogram.indexOf(62L)));
+        assertEquals(histogram.indexOf(63L) + 1, histogram.indexOf(64L));
+    }
+
+    @Test
+    void testRelativeErrorIsBounded() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        int lastIndex = -1;
+        for (long value = 1L; value < 10_000_000L; value = value * 21 / 20 + 1) {
+            int index = histogram.indexOf(value);
+            assertTrue(index >= lastIndex, "indexes must not decrease");
+            lastIndex = index;
+            long highest = histogram.highestEquivalentValue(index);
+            assertTrue(highest >= value, "bucket must cover " + value);
+            assertTrue((highest - value) <= value / 16, "error too large for " + value);
+        }
+    }
+
+    @Test
+    void testHugeValuesAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        int last = histogram.indexOf(Long.MAX_VALUE);
+        assertEquals(last, histogram.indexOf(1L << 50));
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(-5L);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(2L, snapshot.getTotal());
+        assertEquals(0L, snapshot.getValueAtPercentile(50.0));
+        assertEquals(histogram.highestEquivalentValue(last), snapshot.getValueAtPercentile(100.0));
+    }
+
+    @Test
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1L; value <= 100L; value++) {
+            histogram.record(value);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(100L, snapshot.getTotal());
+        assertEquals(1L, snapshot.getValueAtPercentile(0.0));
+        assertEquals(51L, snapshot.getValueAtPercentile(50.0));
+        assertEquals(95L, snapshot.getValueAtPercentile(95.0));
+        assertEquals(103L, snapshot.getValueAtPercentile(100.0));
+        assertEquals(0L, new LatencyHistogram().snapshot().getValueAtPercentile(99.0));
+    }
+
+    @Test
+    void testDrainOnlyReportsNewValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(10L);
+        histogram.record(10L);
+        assertEquals(2L, histogram.drain().getTotal());
+        assertEquals(0L, histogram.snapshot().getTotal());
+        histogram.record(500L);
+        LatencyHistogram.Snapshot snapshot = histogram.drain();
+        assertEquals(1L, snapshot.getTotal());
+        assertEquals(histogram.highestEquivalentValue(histogram.indexOf(500L)), snapshot.getValueAtPercentile(50.0));
+        assertEquals(0L, histogram.drain().getTotal());
+    }
+
+    @Test
+    void testAddMergesSnapshots() {
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            a.record(5L);
+        }
+        for (int i = 0; i < 10; i++) {
+            b.record(1000L);
+        }
+        LatencyHistogram merged = new LatencyHistogram();
+        merged.add(a.snapshot());
+        merged.add(b.snapshot());
+        LatencyHistogram.Snapshot snapshot = merged.snapshot();
+        assertEquals(100L, snapshot.getTotal());
+        assertEquals(5L, snapshot.getValueAtPercentile(90.0));
+        assertEquals(merged.highestEquivalentValue(merged.indexOf(1000L)), snapshot.getValueAtPercentile(91.0));
+    }
+
+    @Test
+    void testAddRejectsDifferentPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram(4);
+        LatencyHistogram.Snapshot coarse = new LatencyHistogram(3).snapshot();
+        assertThrows(IllegalArgumentException.class, () -> histogram.add(coarse));
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test cases for {@link RollingWindow}.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+class RollingWindowTest {
+
+    private static final long START = 1_000_000L;
+
+    @Test
+    void testCurrentBucketIsExcluded() {
+        RollingWindow window = new RollingWindow(1000L, 5);
+        window.count(START);
+        window.count(START + 999L);
+        assertArrayEquals(new long[] {0L, 0L, 0L, 0L, 0L}, window.getEventSeries(START));
+        assertArrayEquals(new long[] {0L, 0L, 0L, 0L, 2L}, window.getEventSeries(START + 1000L));
+    }
+
+    @Test
+    void testSeriesShiftAsTimePasses() {
+        RollingWindow window = new RollingWindow(1000L, 3);
+        window.count(START);
+        window.count(START + 1000L);
+        window.count(START + 1000L);
+        window.error(START + 1000L);
+        window.count(START + 2000L);
+        assertArrayEquals(new long[] {1L, 2L, 1L}, window.getEventSeries(START + 3000L));
+        assertArrayEquals(new long[] {0L, 1L, 0L}, window.getErrorSeries(START + 3000L));
+        assertArrayEquals(new long[] {2L, 1L, 0L}, window.getEventSeries(START + 4000L));
+        assertArrayEquals(new long[] {0L, 0L, 0L}, window.getEventSeries(START + 7000L));
+    }
+
+    @Test
+    void testExpiredSlotIsReplacedOnRotation() {
+        RollingWindow window = new RollingWindow(1000L, 3);
+        window.count(START);
+        window.count(START);
+        // Four slots, so this falls into the slot of START and replaces it
+        window.count(START + 4000L);
+        assertArrayEquals(new long[] {0L, 0L, 0L}, window.getEventSeries(START + 4000L));
+        assertArrayEquals(new long[] {0L, 0L, 1L}, window.getEventSeries(START + 5000L));
+    }
+
+    @Test
+    void testLateEventIsNotCountedInNewerBucket() {
+        RollingWindow window = new RollingWindow(1000L, 3);
+        window.count(START + 4000L);
+        window.count(START);
+        assertArrayEquals(new long[] {0L, 0L, 1L}, window.getEventSeries(START + 5000L));
+    }
+
+    @Test
+    void testRates() {
+        RollingWindow window = new RollingWindow(1000L, 10);
+        for (int i = 0; i < 10; i++) {
+            for (int j = 0; j <= i; j++) {
+                window.count(START + i * 1000L);
+            }
+            window.error(START + i * 1000L);
+        }
+        long now = START + 10_000L;
+        assertEquals(10.0d, window.getEventRate(1000L, now));
+        assertEquals((9 + 10) / 2.0d, window.getEventRate(2000L, now));
+        assertEquals(55 / 10.0d, window.getEventRate(60_000L, now));
+        assertEquals(1.0d, window.getErrorRate(10_000L, now));
+        assertEquals(10.0d, window.getEventRate(0L, now));
+    }
+
+}
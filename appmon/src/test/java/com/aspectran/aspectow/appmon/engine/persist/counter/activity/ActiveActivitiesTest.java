@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter.activity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link ActiveActivities}.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+class ActiveActivitiesTest {
+
+    @Test
+    void testOnlyOutermostActivityIsRegistered() {
+        ActiveActivities activeActivities = new ActiveActivities();
+        long startTime = System.currentTimeMillis() - 1000L;
+        ActiveActivities.Slot slot = activeActivities.enter("/outer", startTime);
+        assertNotNull(slot);
+        assertNull(activeActivities.enter("/inner", startTime + 10L));
+        assertEquals(1, activeActivities.size());
+
+        List<ActiveActivity> list = activeActivities.getRunningLongerThan(500L, 10);
+        assertEquals(1, list.size());
+        assertEquals("/outer", list.get(0).getName());
+        assertEquals(startTime, list.get(0).getStartTime());
+        assertSame(Thread.currentThread(), list.get(0).getThread());
+        assertTrue(activeActivities.getRunningLongerThan(5000L, 10).isEmpty());
+
+        activeActivities.exit(slot);
+        assertEquals(0, activeActivities.size());
+        assertTrue(activeActivities.getRunningLongerThan(0L, 10).isEmpty());
+    }
+
+    @Test
+    void testSlotIsReusedByTheSameThread() {
+        ActiveActivities activeActivities = new ActiveActivities();
+        ActiveActivities.Slot slot = activeActivities.enter("/a", 1000L);
+        assertNotNull(slot);
+        activeActivities.exit(slot);
+        assertSame(slot, activeActivities.enter("/b", 2000L));
+        List<ActiveActivity> list = activeActivities.getRunningLongerThan(0L, 10);
+        assertEquals(1, list.size());
+        assertEquals("/b", list.get(0).getName());
+        assertEquals(2000L, list.get(0).getStartTime());
+    }
+
+    @Test
+    void testLongestRunningFirstAndLimited() throws InterruptedException {
+        ActiveActivities activeActivities = new ActiveActivities();
+        int threads = 4;
+        CountDownLatch entered = new CountDownLatch(threads);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            long startTime = 1000L + i;
+            workers[i] = new Thread(() -> {
+                ActiveActivities.Slot slot = activeActivities.enter("/" + startTime, startTime);
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                activeActivities.exit(slot);
+            });
+            workers[i].start();
+        }
+        entered.await();
+        List<ActiveActivity> list = activeActivities.getRunningLongerThan(0L, 2);
+        assertEquals(2, list.size());
+        assertEquals(1000L, list.get(0).getStartTime());
+        assertEquals(1001L, list.get(1).getStartTime());
+        assertEquals(threads, activeActivities.size());
+
+        release.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertEquals(0, activeActivities.size());
+    }
+
+    @Test
+    void testSlotsOfTerminatedThreadsAreRemovedOnRollup() throws InterruptedException {
+        ActiveActivities activeActivities = new ActiveActivities();
+        Thread worker = new Thread(() -> activeActivities.enter("/stuck", 1000L));
+        worker.start();
+        worker.join();
+        // The thread died without unregistering its activity
+        assertEquals(1, activeActivities.size());
+        activeActivities.rollup();
+        assertEquals(0, activeActivities.size());
+    }
+
+}
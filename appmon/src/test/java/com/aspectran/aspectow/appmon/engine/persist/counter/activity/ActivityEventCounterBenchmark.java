@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter.activity;
+
+import com.aspectran.aspectow.appmon.engine.config.EventInfo;
+import com.aspectran.core.activity.Activity;
+import com.aspectran.core.activity.Translet;
+import com.aspectran.core.adapter.SessionAdapter;
+import org.jspecify.annotations.NonNull;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the time and heap allocation that the advice of an
+ * {@link ActivityEventCounter} adds to each activity on the request thread.
+ * <p>The real before and finally advice actions are driven directly, with the
+ * advices taken from and returned to the counter's pool, against an activity
+ * that belongs to a session and a translet. Each worker thread reports its own
+ * allocation through {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}.
+ * <p>The {@code two-aspect} scenario reproduces the registration that
+ * preceded the single advice, where the live reader had an aspect of its
+ * own: after the counter's advice, a second advice taken from a separate
+ * pool captures the start time and session ID again and notifies the
+ * listener when the activity finishes. Pointcut matching and the dispatch
+ * of the advice by the AOP engine are not included in any scenario, so
+ * the difference is a lower bound of what the second aspect cost.</p>
+ * This is a runnable main rather than a test, as its results depend on the
+ * machine it runs on.</p>
+ * <p>Usage: {@code ActivityEventCounterBenchmark [threads] [iterations]}</p>
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+public class ActivityEventCounterBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 200_000;
+
+    private static final int DEFAULT_ITERATIONS = 2_000_000;
+
+    private static final int SESSIONS = 64;
+
+    private static final int TRANSLETS = 16;
+
+    private static final ActivityEventListener LISTENER =
+            (startTime, elapsedTime, sessionId, activityCount, error) -> {};
+
+    private static final com.sun.management.ThreadMXBean threadMXBean =
+            (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = (args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors());
+        int iterations = (args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ITERATIONS);
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        Activity[] activities = createActivities();
+        run("counter", newCounter(), activities, threads, iterations);
+        ActivityEventCounter listened = newCounter();
+        listened.addActivityEventListener(LISTENER);
+        run("counter+listener", listened, activities, threads, iterations);
+        run("two-aspect", newCounter(), activities, threads, iterations, true);
+    }
+
+    @NonNull
+    private static ActivityEventCounter newCounter() {
+        EventInfo eventInfo = new EventInfo();
+        eventInfo.setEventId("activity");
+        eventInfo.setTarget("root");
+        return new ActivityEventCounter(eventInfo);
+    }
+
+    private static void run(
+            String name, ActivityEventCounter counter, Activity[] activities,
+            int threads, int iterations) throws InterruptedException {
+        run(name, counter, activities, threads, iterations, false);
+    }
+
+    private static void run(
+            String name, ActivityEventCounter counter, Activity[] activities,
+            int threads, int iterations, boolean secondAspect) throws InterruptedException {
+        ActivityEventAdvicePool readerAdvicePool = (secondAspect ? new ActivityEventAdvicePool() : null);
+        LongAdder allocatedBytes = new LongAdder();
+        LongAdder elapsedNanos = new LongAdder();
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                    advise(counter, readerAdvicePool, activities[(i + offset) % activities.length]);
+                }
+                long threadId = Thread.currentThread().threadId();
+                long allocated = threadMXBean.getThreadAllocatedBytes(threadId);
+                long started = System.nanoTime();
+                for (int i = 0; i < iterations; i++) {
+                    advise(counter, readerAdvicePool, activities[(i + offset) % activities.length]);
+                }
+                elapsedNanos.add(System.nanoTime() - started);
+                allocatedBytes.add(threadMXBean.getThreadAllocatedBytes(threadId) - allocated);
+                done.countDown();
+            }, name + "-" + t);
+            worker.start();
+        }
+        done.await();
+
+        long activityCount = (long)threads * iterations;
+        System.out.printf("%-18s %d threads %,14d activities  %,8.1f ns/activity  %,8.2f bytes/activity%n",
+                name, threads, activityCount, (double)elapsedNanos.sum() / activityCount,
+                (double)allocatedBytes.sum() / activityCount);
+    }
+
+    private static void advise(
+            @NonNull ActivityEventCounter counter, ActivityEventAdvicePool readerAdvicePool, Activity activity) {
+        ActivityEventAdvice advice = counter.beforeActivity(activity);
+        if (readerAdvicePool != null) {
+            // What the reader's own aspect did around the same activity
+            ActivityEventAdvice readerAdvice = readerAdvicePool.acquire();
+            readerAdvice.before(activity, advice.getActivityCount(), true, false);
+            counter.afterActivity(activity, advice);
+            try {
+                readerAdvice.after(activity);
+                LISTENER.onActivityFinished(readerAdvice.getStartTime(), readerAdvice.getElapsedTime(),
+                        readerAdvice.getSessionId(), readerAdvice.getActivityCount(), readerAdvice.getError());
+            } finally {
+                readerAdvicePool.release(readerAdvice);
+            }
+        } else {
+            counter.afterActivity(activity, advice);
+        }
+    }
+
+    @NonNull
+    private static Activity[] createActivities() {
+        Activity[] activities = new Activity[SESSIONS];
+        for (int i = 0; i < SESSIONS; i++) {
+            Translet translet = proxy(Translet.class, Map.of("getRequestName", "/translet/" + (i % TRANSLETS)));
+            SessionAdapter sessionAdapter = proxy(SessionAdapter.class, new ConcurrentHashMap<>(Map.of(
+                    "getId", "session" + i)));
+            activities[i] = proxy(Activity.class, Map.of(
+                    "getTranslet", translet,
+                    "hasSessionAdapter", Boolean.TRUE,
+                    "getSessionAdapter", sessionAdapter));
+        }
+        return activities;
+    }
+
+    /**
+     * Creates a stand-in whose methods return the given values by name,
+     * and {@code null} or {@code false} otherwise.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Map<String, Object> values) {
+        return (T)Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            Object value = values.get(method.getName());
+            if (value == null && method.getReturnType() == boolean.class) {
+                return Boolean.FALSE;
+            }
+            return value;
+        });
+    }
+
+}
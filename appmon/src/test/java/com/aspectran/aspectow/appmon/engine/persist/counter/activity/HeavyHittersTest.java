@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter.activity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link HeavyHitters}.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+class HeavyHittersTest {
+
+    @Test
+    void testKeepsMostFrequentKeys() {
+        HeavyHitters heavyHitters = new HeavyHitters(3);
+        record(heavyHitters, "10.0.0.1", 50);
+        record(heavyHitters, "10.0.0.2", 30);
+        record(heavyHitters, "10.0.0.3", 20);
+        for (int i = 0; i < 200; i++) {
+            heavyHitters.record("192.168.0." + i);
+        }
+        record(heavyHitters, "10.0.0.4", 40);
+        heavyHitters.rollup();
+
+        List<HeavyHitter> top = heavyHitters.getLastWindow();
+        assertEquals(3, top.size());
+        assertEquals("10.0.0.1", top.get(0).getKey());
+        assertEquals(50L, top.get(0).getCount());
+        assertEquals("10.0.0.4", top.get(1).getKey());
+        assertEquals(40L, top.get(1).getCount());
+        assertEquals("10.0.0.2", top.get(2).getKey());
+        assertEquals(30L, top.get(2).getCount());
+    }
+
+    @Test
+    void testLeastFrequentIsEvictedOnlyWhenOutranked() {
+        HeavyHitters heavyHitters = new HeavyHitters(2);
+        record(heavyHitters, "a", 5);
+        record(heavyHitters, "b", 3);
+        // Ties with the least frequent key do not evict it
+        record(heavyHitters, "c", 3);
+        heavyHitters.rollup();
+        assertEquals(List.of("a", "b"), keys(heavyHitters.getLastWindow()));
+
+        record(heavyHitters, "a", 5);
+        record(heavyHitters, "b", 3);
+        record(heavyHitters, "c", 4);
+        heavyHitters.rollup();
+        assertEquals(List.of("a", "c"), keys(heavyHitters.getLastWindow()));
+    }
+
+    @Test
+    void testCountsRaisedInPlaceAreSettledBeforeEviction() {
+        HeavyHitters heavyHitters = new HeavyHitters(2);
+        record(heavyHitters, "a", 1);
+        record(heavyHitters, "b", 1);
+        // "a" overtakes "b" without reordering the heap
+        record(heavyHitters, "a", 5);
+        record(heavyHitters, "c", 2);
+        heavyHitters.rollup();
+
+        List<HeavyHitter> top = heavyHitters.getLastWindow();
+        assertEquals(List.of("a", "c"), keys(top));
+        assertEquals(6L, top.get(0).getCount());
+        assertEquals(2L, top.get(1).getCount());
+    }
+
+    @Test
+    void testEstimatesNeverUndercount() {
+        // A tiny sketch collides a lot; counts may be overestimated but never under
+        HeavyHitters heavyHitters = new HeavyHitters(5, 16, 2, null);
+        for (int i = 0; i < 100; i++) {
+            heavyHitters.record("key" + (i % 25));
+        }
+        record(heavyHitters, "hot", 30);
+        heavyHitters.rollup();
+
+        List<HeavyHitter> top = heavyHitters.getLastWindow();
+        assertEquals("hot", top.get(0).getKey());
+        for (HeavyHitter heavyHitter : top) {
+            long actual = (heavyHitter.getKey().equals("hot") ? 30L : 4L);
+            assertTrue(heavyHitter.getCount() >= actual, heavyHitter.getKey());
+        }
+    }
+
+    @Test
+    void testEachWindowStartsOver() {
+        HeavyHitters heavyHitters = new HeavyHitters(2);
+        long version = heavyHitters.getVersion();
+        record(heavyHitters, "a", 10);
+        heavyHitters.rollup();
+        assertNotEquals(version, heavyHitters.getVersion());
+
+        record(heavyHitters, "b", 1);
+        heavyHitters.rollup();
+        List<HeavyHitter> top = heavyHitters.getLastWindow();
+        assertEquals(1, top.size());
+        assertEquals("b", top.get(0).getKey());
+        assertEquals(1L, top.get(0).getCount());
+
+        heavyHitters.rollup();
+        assertTrue(heavyHitters.getLastWindow().isEmpty());
+    }
+
+    @Test
+    void testInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new HeavyHitters(0));
+        assertThrows(IllegalArgumentException.class, () -> new HeavyHitters(1, 0, 4, null));
+    }
+
+    private static void record(HeavyHitters heavyHitters, String key, int times) {
+        for (int i = 0; i < times; i++) {
+            heavyHitters.record(key);
+        }
+    }
+
+    private static List<String> keys(List<HeavyHitter> heavyHitters) {
+        return heavyHitters.stream().map(HeavyHitter::getKey).toList();
+    }
+
+}
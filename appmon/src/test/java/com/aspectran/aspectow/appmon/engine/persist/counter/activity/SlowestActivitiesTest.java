@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter.activity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link SlowestActivities}.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+class SlowestActivitiesTest {
+
+    @Test
+    void testKeepsSlowestSortedFromSlowest() {
+        SlowestActivities slowestActivities = new SlowestActivities(3);
+        for (long elapsedTime : new long[] {40L, 10L, 90L, 20L, 70L, 30L, 50L}) {
+            record(slowestActivities, elapsedTime);
+        }
+        slowestActivities.rollup();
+        assertEquals(List.of(90L, 70L, 50L), elapsedTimes(slowestActivities.getLastWindow()));
+    }
+
+    @Test
+    void testThresholdIsPublishedOnceFull() {
+        SlowestActivities slowestActivities = new SlowestActivities(2);
+        assertTrue(slowestActivities.qualifies(0L));
+        record(slowestActivities, 100L);
+        assertTrue(slowestActivities.qualifies(1L));
+        record(slowestActivities, 200L);
+        // The fastest one kept sets the bar, and ties do not qualify
+        assertFalse(slowestActivities.qualifies(100L));
+        assertTrue(slowestActivities.qualifies(101L));
+        record(slowestActivities, 150L);
+        assertFalse(slowestActivities.qualifies(150L));
+        assertTrue(slowestActivities.qualifies(151L));
+    }
+
+    @Test
+    void testActivityNoSlowerThanThresholdIsIgnored() {
+        SlowestActivities slowestActivities = new SlowestActivities(2);
+        record(slowestActivities, 100L);
+        record(slowestActivities, 200L);
+        record(slowestActivities, 100L);
+        record(slowestActivities, 50L);
+        slowestActivities.rollup();
+        assertEquals(List.of(200L, 100L), elapsedTimes(slowestActivities.getLastWindow()));
+    }
+
+    @Test
+    void testRollupStartsAnEmptyWindow() {
+        SlowestActivities slowestActivities = new SlowestActivities(2);
+        record(slowestActivities, 100L);
+        record(slowestActivities, 200L);
+        long version = slowestActivities.getVersion();
+        slowestActivities.rollup();
+        assertEquals(version + 1, slowestActivities.getVersion());
+        assertTrue(slowestActivities.qualifies(1L));
+
+        record(slowestActivities, 5L);
+        slowestActivities.rollup();
+        assertEquals(List.of(5L), elapsedTimes(slowestActivities.getLastWindow()));
+        slowestActivities.rollup();
+        assertTrue(slowestActivities.getLastWindow().isEmpty());
+    }
+
+    @Test
+    void testInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new SlowestActivities(0));
+    }
+
+    private static void record(SlowestActivities slowestActivities, long elapsedTime) {
+        if (slowestActivities.qualifies(elapsedTime)) {
+            slowestActivities.record(new SlowActivity(
+                    "/translet", 0L, elapsedTime, "worker", null, null, null));
+        }
+    }
+
+    private static List<Long> elapsedTimes(List<SlowActivity> activities) {
+        return activities.stream().map(SlowActivity::getElapsedTime).toList();
+    }
+
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter.activity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link TransletBreakdown}.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+class TransletBreakdownTest {
+
+    @Test
+    void testTracksUpToCapacity() {
+        TransletBreakdown breakdown = new TransletBreakdown(3, 10);
+        record(breakdown, "/a", 5);
+        record(breakdown, "/b", 3);
+        record(breakdown, "/c", 1);
+        breakdown.rollup();
+
+        List<TransletStats> byVolume = breakdown.getTopByVolume();
+        assertEquals(3, byVolume.size());
+        assertEquals("/a", byVolume.get(0).getName());
+        assertEquals(5, byVolume.get(0).getCount());
+        assertEquals(0, byVolume.get(0).getOverestimate());
+        assertNull(breakdown.getOther());
+    }
+
+    @Test
+    void testRejectedTransletsAreFoldedIntoOther() {
+        TransletBreakdown breakdown = new TransletBreakdown(2, 10);
+        record(breakdown, "/a", 10);
+        record(breakdown, "/b", 10);
+        for (int i = 0; i < 50; i++) {
+            breakdown.record("/once/" + i, 7L, true);
+        }
+        breakdown.rollup();
+
+        List<TransletStats> byVolume = breakdown.getTopByVolume();
+        assertEquals(2, byVolume.size());
+        assertEquals(10, byVolume.get(0).getCount());
+        assertEquals(10, byVolume.get(1).getCount());
+        TransletStats other = breakdown.getOther();
+        assertNotNull(other);
+        assertNull(other.getName());
+        assertEquals(50, other.getCount());
+        assertEquals(50, other.getErrors());
+        assertEquals(7, other.getP99());
+    }
+
+    @Test
+    void testHeavyTransletTakesOverLeastActiveSlot() {
+        TransletBreakdown breakdown = new TransletBreakdown(2, 10);
+        record(breakdown, "/a", 10);
+        record(breakdown, "/b", 2);
+        record(breakdown, "/hot", 20);
+        breakdown.rollup();
+
+        List<TransletStats> byVolume = breakdown.getTopByVolume();
+        assertEquals(2, byVolume.size());
+        assertEquals("/hot", byVolume.get(0).getName());
+        assertEquals("/a", byVolume.get(1).getName());
+        TransletStats hot = byVolume.get(0);
+        assertTrue(hot.getCount() >= 20);
+        assertTrue(hot.getCount() - hot.getOverestimate() <= 20);
+
+        // Activities of the evicted translet and of the hot one before it was
+        // admitted are not lost; the breakdown adds up to the total
+        long observed = 0L;
+        for (TransletStats stats : byVolume) {
+            observed += stats.getCount() - stats.getOverestimate();
+        }
+        assertNotNull(breakdown.getOther());
+        assertEquals(32, observed + breakdown.getOther().getCount());
+    }
+
+    @Test
+    void testTrackedTransletsSurviveRollup() {
+        TransletBreakdown breakdown = new TransletBreakdown(2, 10);
+        record(breakdown, "/a", 100);
+        record(breakdown, "/b", 100);
+        breakdown.rollup();
+
+        // Newcomers must outweigh the head start of the busy translets
+        for (int i = 0; i < 20; i++) {
+            record(breakdown, "/new/" + i, 2);
+        }
+        record(breakdown, "/a", 1);
+        record(breakdown, "/b", 1);
+        breakdown.rollup();
+
+        List<TransletStats> byVolume = breakdown.getTopByVolume();
+        assertEquals(2, byVolume.size());
+        assertEquals(0, byVolume.get(0).getOverestimate());
+        assertEquals(1, byVolume.get(0).getCount());
+        assertNotNull(breakdown.getOther());
+        assertEquals(40, breakdown.getOther().getCount());
+    }
+
+    @Test
+    void testIdleTransletsAgeOut() {
+        TransletBreakdown breakdown = new TransletBreakdown(1, 10);
+        record(breakdown, "/a", 8);
+        for (int i = 0; i < 4; i++) {
+            breakdown.rollup();
+        }
+        record(breakdown, "/b", 2);
+        breakdown.rollup();
+
+        List<TransletStats> byVolume = breakdown.getTopByVolume();
+        assertEquals(1, byVolume.size());
+        assertEquals("/b", byVolume.get(0).getName());
+    }
+
+    @Test
+    void testOneOffTransletsDoNotEvictIdleOnes() {
+        TransletBreakdown breakdown = new TransletBreakdown(1, 10);
+        record(breakdown, "/a", 2);
+        breakdown.rollup();
+        breakdown.rollup();
+
+        // "/a" has no weight left, but a name seen once does not outweigh it
+        for (int i = 0; i < 20; i++) {
+            breakdown.record("/once/" + i, 1L, false);
+        }
+        record(breakdown, "/a", 1);
+        breakdown.rollup();
+
+        List<TransletStats> byVolume = breakdown.getTopByVolume();
+        assertEquals(1, byVolume.size());
+        assertEquals("/a", byVolume.get(0).getName());
+        assertNotNull(breakdown.getOther());
+        assertEquals(20, breakdown.getOther().getCount());
+    }
+
+    private static void record(TransletBreakdown breakdown, String name, int times) {
+        for (int i = 0; i < times; i++) {
+            breakdown.record(name, 1L, false);
+        }
+    }
+
+}
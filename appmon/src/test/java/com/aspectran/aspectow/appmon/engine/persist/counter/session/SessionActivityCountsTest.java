@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.counter.session;
+
+import com.aspectran.core.adapter.SessionAdapter;
+import com.aspectran.core.component.session.ManagedSession;
+import com.aspectran.core.component.session.SessionManager;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.aspectran.aspectow.appmon.engine.exporter.event.session.SessionEventReader.USER_ACTIVITY_COUNT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Test cases for {@link SessionActivityCounts}.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+class SessionActivityCountsTest {
+
+    private static final long FLUSH_INTERVAL = 60_000L;
+
+    @Test
+    void testCountIsWrittenBehind() {
+        SessionActivityCounts counts = new SessionActivityCounts(FLUSH_INTERVAL);
+        Map<String, Object> attributes = new HashMap<>();
+        SessionAdapter sessionAdapter = proxy(SessionAdapter.class, "session1", attributes);
+
+        assertEquals(1, counts.increment(sessionAdapter));
+        assertEquals(1, storedCount(attributes));
+        assertEquals(2, counts.increment(sessionAdapter));
+        assertEquals(3, counts.increment(sessionAdapter));
+        // Not written again within the flush interval
+        assertEquals(1, storedCount(attributes));
+        assertEquals(3, counts.getCount(proxy(ManagedSession.class, "session1", attributes)));
+    }
+
+    @Test
+    void testEvictedSessionIsFlushed() {
+        SessionActivityCounts counts = new SessionActivityCounts(FLUSH_INTERVAL);
+        Map<String, Object> attributes = new HashMap<>();
+        SessionAdapter sessionAdapter = proxy(SessionAdapter.class, "session1", attributes);
+        counts.increment(sessionAdapter);
+        counts.increment(sessionAdapter);
+        attributes.clear();
+
+        ManagedSession session = proxy(ManagedSession.class, "session1", attributes);
+        counts.sessionEvicted(session);
+        assertEquals(2, storedCount(attributes));
+    }
+
+    @Test
+    void testDestroyedSessionIsDiscarded() {
+        SessionActivityCounts counts = new SessionActivityCounts(FLUSH_INTERVAL);
+        Map<String, Object> attributes = new HashMap<>();
+        SessionAdapter sessionAdapter = proxy(SessionAdapter.class, "session1", attributes);
+        counts.increment(sessionAdapter);
+        counts.increment(sessionAdapter);
+
+        Map<String, Object> destroyed = new HashMap<>();
+        ManagedSession session = proxy(ManagedSession.class, "session1", destroyed);
+        counts.sessionDestroyed(session);
+        assertNull(destroyed.get(USER_ACTIVITY_COUNT));
+        assertEquals(0, counts.getCount(session));
+    }
+
+    @Test
+    void testPendingCountIsFlushedBeforePurge() {
+        SessionActivityCounts counts = new SessionActivityCounts(FLUSH_INTERVAL);
+        Map<String, Object> attributes = new HashMap<>();
+        SessionAdapter sessionAdapter = proxy(SessionAdapter.class, "session1", attributes);
+        counts.increment(sessionAdapter);
+        counts.increment(sessionAdapter);
+        counts.increment(sessionAdapter);
+        attributes.clear();
+
+        ManagedSession session = proxy(ManagedSession.class, "session1", attributes);
+        counts.setSessionManager(sessionManager(session));
+        counts.purge(-1L);
+        assertEquals(3, storedCount(attributes));
+
+        // The entry is gone, so the count is read back from the session
+        attributes.put(USER_ACTIVITY_COUNT, new AtomicInteger(7));
+        assertEquals(7, counts.getCount(session));
+    }
+
+    @Test
+    void testRecentEntriesAreNotPurged() {
+        SessionActivityCounts counts = new SessionActivityCounts(FLUSH_INTERVAL);
+        Map<String, Object> attributes = new HashMap<>();
+        SessionAdapter sessionAdapter = proxy(SessionAdapter.class, "session1", attributes);
+        counts.increment(sessionAdapter);
+        counts.increment(sessionAdapter);
+        counts.purge();
+
+        attributes.clear();
+        assertEquals(2, counts.getCount(proxy(ManagedSession.class, "session1", attributes)));
+    }
+
+    private static int storedCount(Map<String, Object> attributes) {
+        AtomicInteger count = (AtomicInteger)attributes.get(USER_ACTIVITY_COUNT);
+        return (count != null ? count.get() : 0);
+    }
+
+    private static SessionManager sessionManager(ManagedSession session) {
+        return (SessionManager)Proxy.newProxyInstance(SessionManager.class.getClassLoader(),
+                new Class<?>[] {SessionManager.class}, (proxy, method, args) -> {
+                    if ("getSession".equals(method.getName()) && session.getId().equals(args[0])) {
+                        return session;
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Creates a stand-in for a session or session adapter with the given ID
+     * whose attributes are kept in the given map. Counts are copied when
+     * written, as a session store would save them.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, String id, Map<String, Object> attributes) {
+        return (T)Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) ->
+                switch (method.getName()) {
+                    case "getId" -> id;
+                    case "getAttribute" -> attributes.get((String)args[0]);
+                    case "setAttribute" -> attributes.put((String)args[0],
+                            new AtomicInteger(((AtomicInteger)args[1]).get()));
+                    default -> null;
+                });
+    }
+
+}
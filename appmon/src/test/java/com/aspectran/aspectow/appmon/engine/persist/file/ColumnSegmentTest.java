@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.file;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link ColumnSegment}.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+class ColumnSegmentTest {
+
+    /** The on-disk layout of a segment file */
+    private static final int MAGIC = 0x41534547;
+
+    private static final int HEADER_SIZE = 24;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testLayoutIsColumnMajor() throws IOException {
+        Path file = tempDir.resolve("test.seg");
+        try (ColumnSegment segment = ColumnSegment.open(file, 3, 4)) {
+            segment.append(new long[] {100L, 1L, 2L});
+            segment.append(new long[] {200L, 3L, 4L});
+        }
+        assertEquals(HEADER_SIZE + 3 * 4 * Long.BYTES, Files.size(file));
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+        assertEquals(MAGIC, bytes.getInt(0));
+        assertEquals(ColumnSegment.FORMAT_VERSION, bytes.getInt(4));
+        assertEquals(3, bytes.getInt(8));
+        assertEquals(4, bytes.getInt(12));
+        assertEquals(2, bytes.getInt(16));
+        assertEquals(100L, bytes.getLong(HEADER_SIZE));
+        assertEquals(200L, bytes.getLong(HEADER_SIZE + Long.BYTES));
+        // The second column starts after the whole capacity of the first
+        assertEquals(1L, bytes.getLong(HEADER_SIZE + 4 * Long.BYTES));
+        assertEquals(3L, bytes.getLong(HEADER_SIZE + 5 * Long.BYTES));
+        assertEquals(4L, bytes.getLong(HEADER_SIZE + 9 * Long.BYTES));
+    }
+
+    @Test
+    void testRowsSurviveReopen() throws IOException {
+        Path file = tempDir.resolve("test.seg");
+        try (ColumnSegment segment = ColumnSegment.open(file, 2, 8)) {
+            segment.append(new long[] {10L, 1L});
+            segment.append(new long[] {20L, 2L});
+            segment.put(1, 0, 5L);
+        }
+        try (ColumnSegment segment = ColumnSegment.open(file, 2, 1000)) {
+            // The capacity of an existing segment is taken from its header
+            assertEquals(8, segment.getCapacity());
+            assertEquals(2, segment.getCount());
+            assertEquals(2, segment.append(new long[] {30L, 3L}));
+        }
+        try (ColumnSegment segment = ColumnSegment.openReadOnly(file, 2)) {
+            long[] values = new long[3];
+            segment.read(1, 0, values, 0, 3);
+            assertArrayEquals(new long[] {5L, 2L, 3L}, values);
+        }
+    }
+
+    @Test
+    void testRowWrittenWithoutCountIsInvisible() throws IOException {
+        Path file = tempDir.resolve("test.seg");
+        try (ColumnSegment segment = ColumnSegment.open(file, 2, 4)) {
+            segment.append(new long[] {10L, 1L});
+        }
+        // Values of a second row reached the file, but the count did not
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, 20L), HEADER_SIZE + Long.BYTES);
+        }
+        try (ColumnSegment segment = ColumnSegment.open(file, 2, 4)) {
+            assertEquals(1, segment.getCount());
+            assertEquals(1, segment.append(new long[] {30L, 3L}));
+            assertEquals(30L, segment.get(0, 1));
+        }
+    }
+
+    @Test
+    void testEmptyHeaderIsReinitialized() throws IOException {
+        Path file = tempDir.resolve("test.seg");
+        // A file created by a crash before its header was written
+        Files.write(file, new byte[HEADER_SIZE]);
+        try (ColumnSegment segment = ColumnSegment.open(file, 2, 4)) {
+            assertEquals(0, segment.getCount());
+            segment.append(new long[] {10L, 1L});
+        }
+        try (ColumnSegment segment = ColumnSegment.openReadOnly(file, 2)) {
+            assertEquals(1, segment.getCount());
+        }
+    }
+
+    @Test
+    void testInvalidFilesAreRejected() throws IOException {
+        Path file = tempDir.resolve("test.seg");
+        try (ColumnSegment segment = ColumnSegment.open(file, 2, 4)) {
+            segment.append(new long[] {10L, 1L});
+        }
+        assertThrows(IOException.class, () -> ColumnSegment.open(file, 3, 4));
+        assertThrows(IOException.class, () -> ColumnSegment.openReadOnly(file, 3));
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(HEADER_SIZE + Long.BYTES);
+        }
+        assertThrows(IOException.class, () -> ColumnSegment.openReadOnly(file, 2));
+
+        Path garbage = tempDir.resolve("garbage.seg");
+        Files.write(garbage, new byte[] {1, 2, 3});
+        assertThrows(IOException.class, () -> ColumnSegment.openReadOnly(garbage, 2));
+    }
+
+    @Test
+    void testOtherFormatVersionIsRejected() throws IOException {
+        Path file = tempDir.resolve("test.seg");
+        try (ColumnSegment segment = ColumnSegment.open(file, 2, 4)) {
+            segment.append(new long[] {10L, 1L});
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, ColumnSegment.FORMAT_VERSION + 1), 4);
+        }
+        IOException e = assertThrows(IOException.class, () -> ColumnSegment.openReadOnly(file, 2));
+        assertTrue(e.getMessage().contains("version"));
+        // An existing file is never reinitialized over
+        assertThrows(IOException.class, () -> ColumnSegment.open(file, 2, 4));
+    }
+
+    @Test
+    void testAppendAndPutBounds() throws IOException {
+        try (ColumnSegment segment = ColumnSegment.open(tempDir.resolve("test.seg"), 2, 2)) {
+            assertThrows(IllegalArgumentException.class, () -> segment.append(new long[] {1L}));
+            assertThrows(IndexOutOfBoundsException.class, () -> segment.put(1, 0, 1L));
+            segment.append(new long[] {10L, 1L});
+            assertFalse(segment.isFull());
+            segment.append(new long[] {20L, 2L});
+            assertTrue(segment.isFull());
+            assertThrows(IllegalStateException.class, () -> segment.append(new long[] {30L, 3L}));
+        }
+    }
+
+    @Test
+    void testLowerBound() throws IOException {
+        try (ColumnSegment segment = ColumnSegment.open(tempDir.resolve("test.seg"), 1, 8)) {
+            assertEquals(0, segment.lowerBound(10L));
+            for (long time : new long[] {10L, 20L, 20L, 30L}) {
+                segment.append(new long[] {time});
+            }
+            assertEquals(0, segment.lowerBound(5L));
+            assertEquals(0, segment.lowerBound(10L));
+            assertEquals(1, segment.lowerBound(15L));
+            assertEquals(1, segment.lowerBound(20L));
+            assertEquals(3, segment.lowerBound(30L));
+            assertEquals(4, segment.lowerBound(31L));
+        }
+    }
+
+}
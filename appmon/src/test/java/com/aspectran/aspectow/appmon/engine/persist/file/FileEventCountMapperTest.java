@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.file;
+
+import com.aspectran.aspectow.appmon.engine.persist.counter.EventCountVO;
+import com.aspectran.aspectow.appmon.engine.persist.counter.EventErrorVO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test cases for {@link FileEventCountMapper}.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+class FileEventCountMapperTest {
+
+    private static final String NODE_ID = "node1";
+
+    private static final String APP_ID = "app";
+
+    private static final String EVENT_ID = "activity";
+
+    /** The offset of a viewer in UTC+09:00 */
+    private static final int ZONE_OFFSET = 9 * 3600;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testCountsSurviveReopen() {
+        FileEventCountMapper mapper = new FileEventCountMapper(tempDir);
+        try {
+            save(mapper, LocalDateTime.of(2026, 10, 17, 9, 0), 3L);
+            save(mapper, LocalDateTime.of(2026, 10, 17, 10, 0), 4L, error("java.io.IOException", 2L));
+        } finally {
+            mapper.destroy();
+        }
+
+        mapper = new FileEventCountMapper(tempDir);
+        try {
+            List<EventCountVO> last = mapper.getLastEventCounts(NODE_ID);
+            assertEquals(1, last.size());
+            assertEquals(APP_ID, last.get(0).getInstanceId());
+            assertEquals(EVENT_ID, last.get(0).getEventId());
+            assertEquals(LocalDateTime.of(2026, 10, 17, 10, 5), last.get(0).getDatetime());
+            assertEquals(4L, last.get(0).getTotal());
+
+            List<EventCountVO> raw = mapper.getChartData(NODE_ID, APP_ID, EVENT_ID, null);
+            assertEquals(2, raw.size());
+            assertEquals(LocalDateTime.of(2026, 10, 17, 9, 5), raw.get(0).getDatetime());
+            assertEquals(3L, raw.get(0).getDelta());
+            assertEquals(4L, raw.get(1).getDelta());
+
+            List<EventCountVO> hourly = mapper.getChartDataByHour(NODE_ID, APP_ID, EVENT_ID, 0, null);
+            assertEquals(2, hourly.size());
+            assertEquals(LocalDateTime.of(2026, 10, 17, 10, 0), hourly.get(1).getDatetime());
+
+            List<EventErrorVO> errors = mapper.getEventErrors(NODE_ID, APP_ID, EVENT_ID, null);
+            assertEquals(1, errors.size());
+            assertEquals("java.io.IOException", errors.get(0).getErrorType());
+            assertEquals(2L, errors.get(0).getError());
+
+            // Writing goes on where it left off
+            save(mapper, LocalDateTime.of(2026, 10, 17, 11, 0), 5L);
+            assertEquals(3, mapper.getChartData(NODE_ID, APP_ID, EVENT_ID, null).size());
+        } finally {
+            mapper.destroy();
+        }
+    }
+
+    @Test
+    void testPartiallyWrittenTrailingRecordsAreDiscarded() throws IOException {
+        FileEventCountMapper mapper = new FileEventCountMapper(tempDir);
+        try {
+            save(mapper, LocalDateTime.of(2026, 10, 17, 9, 0), 3L, error("java.io.IOException", 1L));
+            save(mapper, LocalDateTime.of(2026, 10, 17, 10, 0), 4L);
+        } finally {
+            mapper.destroy();
+        }
+
+        // A crash while a third raw count was being appended: its values reached
+        // the file, but the row count in the header was not updated
+        Path eventDir = tempDir.resolve(NODE_ID).resolve(APP_ID).resolve(EVENT_ID);
+        long torn = LocalDateTime.of(2026, 10, 17, 11, 5).toInstant(ZoneOffset.UTC).toEpochMilli();
+        try (FileChannel channel = FileChannel.open(eventDir.resolve("raw/20261017_0.seg"), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, torn), 24 + 2 * Long.BYTES);
+        }
+        // and a crash while a new error type was being appended
+        try (FileChannel channel = FileChannel.open(eventDir.resolve("error-types.dat"), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0, 40, 'j', 'a', 'v', 'a'}), channel.size());
+        }
+
+        mapper = new FileEventCountMapper(tempDir);
+        try {
+            List<EventCountVO> raw = mapper.getChartData(NODE_ID, APP_ID, EVENT_ID, null);
+            assertEquals(2, raw.size());
+            assertEquals(LocalDateTime.of(2026, 10, 17, 10, 5), raw.get(1).getDatetime());
+
+            // The torn row is overwritten by the next one
+            save(mapper, LocalDateTime.of(2026, 10, 17, 12, 0), 6L, error("java.lang.IllegalStateException", 1L));
+            raw = mapper.getChartData(NODE_ID, APP_ID, EVENT_ID, null);
+            assertEquals(3, raw.size());
+            assertEquals(LocalDateTime.of(2026, 10, 17, 12, 5), raw.get(2).getDatetime());
+            assertEquals(6L, raw.get(2).getDelta());
+
+            List<EventErrorVO> errors = mapper.getEventErrors(NODE_ID, APP_ID, EVENT_ID, null);
+            assertEquals(2, errors.size());
+            assertEquals("java.io.IOException", errors.get(0).getErrorType());
+            assertEquals("java.lang.IllegalStateException", errors.get(1).getErrorType());
+        } finally {
+            mapper.destroy();
+        }
+    }
+
+    @Test
+    void testDaysAreKeptInUtc() {
+        FileEventCountMapper mapper = new FileEventCountMapper(tempDir);
+        try {
+            // The last and first hours of UTC days, which both fall on October 17 in UTC+09:00
+            save(mapper, LocalDateTime.of(2026, 10, 16, 23, 0), 1L);
+            save(mapper, LocalDateTime.of(2026, 10, 17, 0, 0), 10L);
+
+            // The stored daily counts are read whatever the viewer's zone
+            for (int zoneOffset : new int[] {0, ZONE_OFFSET}) {
+                List<EventCountVO> days = mapper.getChartDataByDay(NODE_ID, APP_ID, EVENT_ID, zoneOffset, null);
+                assertEquals(2, days.size());
+                assertEquals(LocalDateTime.of(2026, 10, 16, 0, 0), days.get(0).getDatetime());
+                assertEquals(1L, days.get(0).getDelta());
+                assertEquals(10L, days.get(1).getDelta());
+            }
+        } finally {
+            mapper.destroy();
+        }
+    }
+
+    @Test
+    void testMonthsAreKeptInUtc() {
+        FileEventCountMapper mapper = new FileEventCountMapper(tempDir);
+        try {
+            save(mapper, LocalDateTime.of(2026, 9, 30, 14, 0), 1L);
+            save(mapper, LocalDateTime.of(2026, 9, 30, 15, 0), 10L);
+            save(mapper, LocalDateTime.of(2026, 10, 31, 14, 0), 100L);
+            save(mapper, LocalDateTime.of(2026, 10, 31, 15, 0), 1000L);
+
+            for (int zoneOffset : new int[] {0, ZONE_OFFSET}) {
+                List<EventCountVO> months = mapper.getChartDataByMonth(NODE_ID, APP_ID, EVENT_ID, zoneOffset, null);
+                assertEquals(2, months.size());
+                assertEquals(LocalDateTime.of(2026, 9, 1, 0, 0), months.get(0).getDatetime());
+                assertEquals(11L, months.get(0).getDelta());
+                assertEquals(1100L, months.get(1).getDelta());
+            }
+
+            // Months before the start of the UTC month of October
+            List<EventCountVO> before = mapper.getChartDataByMonth(NODE_ID, APP_ID, EVENT_ID, ZONE_OFFSET,
+                    LocalDateTime.of(2026, 10, 1, 0, 0));
+            assertEquals(1, before.size());
+            assertEquals(11L, before.get(0).getDelta());
+        } finally {
+            mapper.destroy();
+        }
+    }
+
+    @Test
+    void testYearsAreKeptInUtc() {
+        FileEventCountMapper mapper = new FileEventCountMapper(tempDir);
+        try {
+            save(mapper, LocalDateTime.of(2026, 12, 31, 14, 0), 1L);
+            save(mapper, LocalDateTime.of(2026, 12, 31, 15, 0), 10L);
+            save(mapper, LocalDateTime.of(2027, 1, 1, 0, 0), 100L);
+
+            for (int zoneOffset : new int[] {0, ZONE_OFFSET}) {
+                List<EventCountVO> years = mapper.getChartDataByYear(NODE_ID, APP_ID, EVENT_ID, zoneOffset, null);
+                assertEquals(2, years.size());
+                assertEquals(LocalDateTime.of(2026, 12, 1, 0, 0), years.get(0).getDatetime());
+                assertEquals(11L, years.get(0).getDelta());
+                assertEquals(100L, years.get(1).getDelta());
+            }
+        } finally {
+            mapper.destroy();
+        }
+    }
+
+    private static void save(FileEventCountMapper mapper, LocalDateTime hour, long delta, EventErrorVO... errors) {
+        EventCountVO vo = new EventCountVO();
+        vo.setNodeId(NODE_ID);
+        vo.setInstanceId(APP_ID);
+        vo.setEventId(EVENT_ID);
+        vo.setDatetime(hour.plusMinutes(5));
+        vo.setTotal(delta);
+        vo.setDelta(delta);
+        for (EventErrorVO error : errors) {
+            error.setDatetime(vo.getDatetime());
+        }
+        mapper.saveRollup(List.of(vo), List.of(vo.copyOf(hour)), List.of(errors));
+    }
+
+    private static EventErrorVO error(String errorType, long count) {
+        EventErrorVO vo = new EventErrorVO();
+        vo.setNodeId(NODE_ID);
+        vo.setAppId(APP_ID);
+        vo.setEventId(EVENT_ID);
+        vo.setErrorType(errorType);
+        vo.setError(count);
+        return vo;
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.persist.file;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link SegmentedSeries}.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+class SegmentedSeriesTest {
+
+    private static final SegmentedSeries.RowMerger ADD = (segment, index, row) ->
+            segment.put(2, index, segment.get(2, index) + row[2]);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testPartitionKeys() {
+        long time = time(2026, 10, 17, 23);
+        assertEquals("20261017", SegmentedSeries.Partitioning.DAY.keyOf(time));
+        assertEquals("202610", SegmentedSeries.Partitioning.MONTH.keyOf(time));
+        assertEquals("2026", SegmentedSeries.Partitioning.YEAR.keyOf(time));
+        assertEquals("2020", SegmentedSeries.Partitioning.DECADE.keyOf(time));
+        assertEquals("19691231", SegmentedSeries.Partitioning.DAY.keyOf(-1L));
+    }
+
+    @Test
+    void testSegmentsAreNamedByPartitionAndSequence() throws IOException {
+        Path dir = tempDir.resolve("series");
+        try (SegmentedSeries series = new SegmentedSeries(dir, 3, SegmentedSeries.Partitioning.DAY, 2)) {
+            assertTrue(series.isEmpty());
+            series.upsert(row(time(2026, 10, 16, 1), 1L, 1L), 2, ADD);
+            series.upsert(row(time(2026, 10, 17, 1), 1L, 1L), 2, ADD);
+            series.upsert(row(time(2026, 10, 17, 2), 1L, 1L), 2, ADD);
+            // The segment of the day is full, so another one is started
+            series.upsert(row(time(2026, 10, 17, 3), 1L, 1L), 2, ADD);
+            assertFalse(series.isEmpty());
+        }
+        assertEquals(List.of("20261016_0.seg", "20261017_0.seg", "20261017_1.seg"), list(dir));
+    }
+
+    @Test
+    void testRowsWithTheSameKeyAreMerged() throws IOException {
+        Path dir = tempDir.resolve("series");
+        long hour1 = time(2026, 10, 17, 1);
+        long hour2 = time(2026, 10, 17, 2);
+        try (SegmentedSeries series = new SegmentedSeries(dir, 3, SegmentedSeries.Partitioning.DAY, 2)) {
+            series.upsert(row(hour1, 1L, 5L), 2, ADD);
+            series.upsert(row(hour1, 2L, 7L), 2, ADD);
+            series.upsert(row(hour2, 1L, 1L), 2, ADD);
+            // Merged into a row of the tail segment and of an older one
+            assertTrue(series.upsert(row(hour2, 1L, 10L), 2, ADD));
+            assertTrue(series.upsert(row(hour1, 2L, 3L), 2, ADD));
+            // An older row with no row to merge into is rejected
+            assertFalse(series.upsert(row(hour1, 3L, 1L), 2, ADD));
+
+            long[][] values = series.read(Long.MIN_VALUE, Long.MAX_VALUE, 10);
+            assertArrayEquals(new long[] {hour1, hour1, hour2}, values[0]);
+            assertArrayEquals(new long[] {1L, 2L, 1L}, values[1]);
+            assertArrayEquals(new long[] {5L, 10L, 11L}, values[2]);
+        }
+    }
+
+    @Test
+    void testReadRangeAcrossSegments() throws IOException {
+        Path dir = tempDir.resolve("series");
+        try (SegmentedSeries series = new SegmentedSeries(dir, 3, SegmentedSeries.Partitioning.DAY, 3)) {
+            for (int day = 14; day <= 17; day++) {
+                for (int hour = 0; hour < 5; hour++) {
+                    series.upsert(row(time(2026, 10, day, hour), 0L, day * 100L + hour), 2, ADD);
+                }
+            }
+            long[][] values = series.read(time(2026, 10, 15, 3), time(2026, 10, 17, 1), 100);
+            assertArrayEquals(new long[] {1503L, 1504L, 1600L, 1601L, 1602L, 1603L, 1604L, 1700L}, values[2]);
+
+            // The limit keeps the newest rows
+            values = series.read(Long.MIN_VALUE, Long.MAX_VALUE, 4);
+            assertArrayEquals(new long[] {1701L, 1702L, 1703L, 1704L}, values[2]);
+
+            values = series.read(time(2026, 11, 1, 0), Long.MAX_VALUE, 10);
+            assertEquals(0, values[0].length);
+        }
+    }
+
+    @Test
+    void testSeriesSurvivesReopen() throws IOException {
+        Path dir = tempDir.resolve("series");
+        try (SegmentedSeries series = new SegmentedSeries(dir, 3, SegmentedSeries.Partitioning.MONTH, 2)) {
+            series.upsert(row(time(2026, 9, 1, 0), 0L, 1L), 2, ADD);
+            series.upsert(row(time(2026, 10, 1, 0), 0L, 2L), 2, ADD);
+            series.upsert(row(time(2026, 10, 2, 0), 0L, 3L), 2, ADD);
+        }
+        try (SegmentedSeries series = new SegmentedSeries(dir, 3, SegmentedSeries.Partitioning.MONTH, 2)) {
+            assertFalse(series.isEmpty());
+            assertTrue(series.upsert(row(time(2026, 10, 2, 0), 0L, 4L), 2, ADD));
+            series.upsert(row(time(2026, 10, 3, 0), 0L, 5L), 2, ADD);
+            long[][] values = series.read(Long.MIN_VALUE, Long.MAX_VALUE, 10);
+            assertArrayEquals(new long[] {1L, 2L, 7L, 5L}, values[2]);
+        }
+        assertEquals(List.of("202609_0.seg", "202610_0.seg", "202610_1.seg"), list(dir));
+    }
+
+    @Test
+    void testUnrelatedFilesAreIgnored() throws IOException {
+        Path dir = tempDir.resolve("series");
+        Files.createDirectories(dir);
+        Files.writeString(dir.resolve("notes.txt"), "x");
+        Files.writeString(dir.resolve("20261017_x.seg"), "x");
+        try (SegmentedSeries series = new SegmentedSeries(dir, 3, SegmentedSeries.Partitioning.DAY, 2)) {
+            assertTrue(series.isEmpty());
+        }
+    }
+
+    private static long[] row(long time, long key, long value) {
+        return new long[] {time, key, value};
+    }
+
+    private static long time(int year, int month, int day, int hour) {
+        return LocalDateTime.of(year, month, day, hour, 0).toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static List<String> list(Path dir) throws IOException {
+        try (Stream<Path> stream = Files.list(dir)) {
+            return stream.map(path -> path.getFileName().toString()).sorted().toList();
+        }
+    }
+
+}
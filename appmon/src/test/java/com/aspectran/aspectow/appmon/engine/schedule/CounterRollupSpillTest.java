@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.schedule;
+
+import com.aspectran.aspectow.appmon.engine.persist.counter.EventCountVO;
+import com.aspectran.aspectow.appmon.engine.persist.counter.EventErrorVO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link CounterRollupSpill}.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+class CounterRollupSpillTest {
+
+    private static final LocalDateTime DATETIME = LocalDateTime.of(2026, 10, 17, 9, 5);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRollupsAreReplayedInOrder() throws IOException {
+        Path file = tempDir.resolve("spill/rollups");
+        CounterRollupSpill spill = new CounterRollupSpill(file);
+        assertTrue(spill.isEmpty());
+        assertNull(spill.peek());
+
+        spill.append(rollup(1L));
+        spill.append(rollup(2L));
+        assertEquals(2, spill.getPending());
+
+        assertEquals(1L, spill.peek().getEventCounts().get(0).getTotal());
+        // Peeking again without removing returns the same rollup
+        assertEquals(1L, spill.peek().getEventCounts().get(0).getTotal());
+        spill.remove();
+        assertEquals(1, spill.getPending());
+        assertEquals(2L, spill.peek().getEventCounts().get(0).getTotal());
+        spill.remove();
+        assertTrue(spill.isEmpty());
+        assertFalse(Files.exists(file));
+        assertFalse(Files.exists(file.resolveSibling("rollups.offset")));
+    }
+
+    @Test
+    void testRemoveWithoutPeek() throws IOException {
+        CounterRollupSpill spill = new CounterRollupSpill(tempDir.resolve("rollups"));
+        spill.append(rollup(1L));
+        assertThrows(IllegalStateException.class, spill::remove);
+        spill.peek();
+        spill.remove();
+        assertThrows(IllegalStateException.class, spill::remove);
+    }
+
+    @Test
+    void testReplayPositionSurvivesReopen() throws IOException {
+        Path file = tempDir.resolve("rollups");
+        CounterRollupSpill spill = new CounterRollupSpill(file);
+        spill.append(rollup(1L));
+        spill.append(rollup(2L));
+        spill.append(rollup(3L));
+        spill.peek();
+        spill.remove();
+
+        CounterRollupSpill reopened = new CounterRollupSpill(file);
+        assertEquals(2, reopened.getPending());
+        assertEquals(2L, reopened.peek().getEventCounts().get(0).getTotal());
+        reopened.remove();
+        assertEquals(3L, reopened.peek().getEventCounts().get(0).getTotal());
+    }
+
+    @Test
+    void testAllRowsRoundTrip() throws IOException {
+        Path file = tempDir.resolve("rollups");
+        CounterRollupSpill spill = new CounterRollupSpill(file);
+        EventCountVO eventCount = eventCount(5L);
+        eventCount.setInstanceId("app\twith\ttabs\\");
+        EventCountVO hourlyEventCount = eventCount(6L);
+        hourlyEventCount.setNodeId(null);
+        EventErrorVO eventError = new EventErrorVO();
+        eventError.setNodeId("node1");
+        eventError.setAppId("app");
+        eventError.setEventId("activity");
+        eventError.setDatetime(DATETIME);
+        eventError.setErrorType("java.lang.IllegalStateException\nline2\r");
+        eventError.setError(4L);
+        spill.append(new CounterRollup(List.of(eventCount), List.of(hourlyEventCount), List.of(eventError)));
+
+        CounterRollup rollup = new CounterRollupSpill(file).peek();
+        EventCountVO vo = rollup.getEventCounts().get(0);
+        assertEquals("node1", vo.getNodeId());
+        assertEquals("app\twith\ttabs\\", vo.getInstanceId());
+        assertEquals("activity", vo.getEventId());
+        assertEquals(DATETIME, vo.getDatetime());
+        assertEquals(5L, vo.getTotal());
+        assertEquals(2L, vo.getDelta());
+        assertEquals(1L, vo.getError());
+        assertEquals(10L, vo.getP50());
+        assertEquals(20L, vo.getP95());
+        assertEquals(30L, vo.getP99());
+        assertEquals(3L, vo.getPeak());
+        assertEquals(1.25, vo.getAvgConcurrency());
+        assertNull(rollup.getHourlyEventCounts().get(0).getNodeId());
+        assertEquals(6L, rollup.getHourlyEventCounts().get(0).getTotal());
+        EventErrorVO error = rollup.getEventErrors().get(0);
+        assertEquals("java.lang.IllegalStateException\nline2\r", error.getErrorType());
+        assertEquals(4L, error.getError());
+        assertEquals(DATETIME, error.getDatetime());
+    }
+
+    @Test
+    void testIncompleteTrailingRollupIsDiscarded() throws IOException {
+        Path file = tempDir.resolve("rollups");
+        CounterRollupSpill spill = new CounterRollupSpill(file);
+        spill.append(rollup(1L));
+        long size = Files.size(file);
+        spill.append(rollup(2L));
+        // Cut the second rollup short, as a crash while appending would
+        truncate(file, Files.size(file) - 10);
+
+        CounterRollupSpill reopened = new CounterRollupSpill(file);
+        assertEquals(1, reopened.getPending());
+        assertEquals(size, Files.size(file));
+        assertEquals(1L, reopened.peek().getEventCounts().get(0).getTotal());
+
+        // Appending after the recovery yields a well-formed file again
+        reopened.append(rollup(3L));
+        reopened.remove();
+        assertEquals(3L, reopened.peek().getEventCounts().get(0).getTotal());
+    }
+
+    @Test
+    void testMalformedRollupIsDiscardedWithTheRest() throws IOException {
+        Path file = tempDir.resolve("rollups");
+        CounterRollupSpill spill = new CounterRollupSpill(file);
+        spill.append(rollup(1L));
+        long size = Files.size(file);
+        Files.writeString(file, "R\t1\t0\t0\nC\tgarbage\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        spill.append(rollup(2L));
+
+        CounterRollupSpill reopened = new CounterRollupSpill(file);
+        assertEquals(1, reopened.getPending());
+        assertEquals(size, Files.size(file));
+    }
+
+    @Test
+    void testFileWithoutCompleteRollupIsRemoved() throws IOException {
+        Path file = tempDir.resolve("rollups");
+        Files.writeString(file, "R\t2\t0\t0\n", StandardCharsets.UTF_8);
+        CounterRollupSpill spill = new CounterRollupSpill(file);
+        assertTrue(spill.isEmpty());
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void testClear() throws IOException {
+        Path file = tempDir.resolve("rollups");
+        CounterRollupSpill spill = new CounterRollupSpill(file);
+        spill.append(rollup(1L));
+        spill.append(rollup(2L));
+        spill.clear();
+        assertTrue(spill.isEmpty());
+        assertFalse(Files.exists(file));
+        assertTrue(new CounterRollupSpill(file).isEmpty());
+    }
+
+    private static CounterRollup rollup(long total) {
+        return new CounterRollup(List.of(eventCount(total)), List.of(), List.of());
+    }
+
+    private static EventCountVO eventCount(long total) {
+        EventCountVO vo = new EventCountVO();
+        vo.setNodeId("node1");
+        vo.setInstanceId("app");
+        vo.setEventId("activity");
+        vo.setDatetime(DATETIME);
+        vo.setTotal(total);
+        vo.setDelta(2L);
+        vo.setError(1L);
+        vo.setP50(10L);
+        vo.setP95(20L);
+        vo.setP99(30L);
+        vo.setPeak(3L);
+        vo.setAvgConcurrency(1.25);
+        return vo;
+    }
+
+    private static void truncate(Path file, long size) throws IOException {
+        try (var channel = Files.newByteChannel(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.schedule;
+
+import com.aspectran.aspectow.appmon.engine.persist.counter.EventCountVO;
+import com.aspectran.aspectow.appmon.engine.persist.counter.EventErrorVO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link CounterRollup}.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+class CounterRollupTest {
+
+    private static final LocalDateTime DATETIME = LocalDateTime.of(2026, 10, 17, 9, 5, 12);
+
+    @Test
+    void testUnwrittenRollupIsKept() {
+        CounterRollup rollup = rollup("a", "b");
+        // The stored last states are those of the previous rollup
+        List<EventCountVO> last = List.of(
+                eventCount("a", DATETIME.minusMinutes(5)), eventCount("b", DATETIME.minusMinutes(5)));
+        assertSame(rollup, rollup.withoutWritten(last));
+        assertSame(rollup, rollup.withoutWritten(List.of()));
+    }
+
+    @Test
+    void testCountersAlreadyWrittenAreSkipped() {
+        CounterRollup rollup = rollup("a", "b");
+        List<EventCountVO> last = List.of(
+                eventCount("a", DATETIME), eventCount("b", DATETIME.minusMinutes(5)));
+        CounterRollup unwritten = rollup.withoutWritten(last);
+        assertEquals(1, unwritten.getEventCounts().size());
+        assertEquals("b", unwritten.getEventCounts().get(0).getEventId());
+        assertEquals(1, unwritten.getHourlyEventCounts().size());
+        assertEquals("b", unwritten.getHourlyEventCounts().get(0).getEventId());
+        assertEquals(1, unwritten.getEventErrors().size());
+        assertEquals("b", unwritten.getEventErrors().get(0).getEventId());
+    }
+
+    @Test
+    void testRollupWrittenInFullIsEmpty() {
+        CounterRollup rollup = rollup("a", "b");
+        CounterRollup unwritten = rollup.withoutWritten(
+                List.of(eventCount("a", DATETIME), eventCount("b", DATETIME)));
+        assertTrue(unwritten.isEmpty());
+        assertEquals(0, unwritten.getRows());
+    }
+
+    @Test
+    void testMergedRollupKeepsHourlyAndErrorCounts() {
+        CounterRollup older = rollup("a", "b");
+        CounterRollup newer = rollup("a");
+        assertEquals(1, older.countOverlapping(newer));
+
+        CounterRollup merged = older.mergeWith(newer);
+        // One last state per counter, with the newer one winning
+        assertEquals(2, merged.getEventCounts().size());
+        assertSame(newer.getEventCounts().get(0), merged.getEventCounts().get(0));
+        assertSame(older.getEventCounts().get(1), merged.getEventCounts().get(1));
+        // The hourly and error counts of the same counter are added together
+        assertEquals(2, merged.getHourlyEventCounts().size());
+        assertEquals(4L, merged.getHourlyEventCounts().get(0).getDelta());
+        assertEquals(2L, merged.getHourlyEventCounts().get(0).getError());
+        assertEquals(2L, merged.getHourlyEventCounts().get(1).getDelta());
+        assertEquals(2, merged.getEventErrors().size());
+        assertEquals(2L, merged.getEventErrors().get(0).getError());
+        assertEquals(1L, merged.getEventErrors().get(1).getError());
+    }
+
+    private static CounterRollup rollup(String... eventIds) {
+        List<EventCountVO> eventCounts = new ArrayList<>();
+        List<EventCountVO> hourlyEventCounts = new ArrayList<>();
+        List<EventErrorVO> eventErrors = new ArrayList<>();
+        for (String eventId : eventIds) {
+            eventCounts.add(eventCount(eventId, DATETIME));
+            hourlyEventCounts.add(eventCount(eventId, DATETIME.withMinute(0).withSecond(0)));
+            EventErrorVO vo = new EventErrorVO();
+            vo.setNodeId("node1");
+            vo.setAppId("app");
+            vo.setEventId(eventId);
+            vo.setDatetime(DATETIME);
+            vo.setErrorType("java.lang.IllegalStateException");
+            vo.setError(1L);
+            eventErrors.add(vo);
+        }
+        return new CounterRollup(eventCounts, hourlyEventCounts, eventErrors);
+    }
+
+    private static EventCountVO eventCount(String eventId, LocalDateTime datetime) {
+        EventCountVO vo = new EventCountVO();
+        vo.setNodeId("node1");
+        vo.setInstanceId("app");
+        vo.setEventId(eventId);
+        vo.setDatetime(datetime);
+        vo.setTotal(10L);
+        vo.setDelta(2L);
+        vo.setError(1L);
+        return vo;
+    }
+
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2026-present The Aspectran Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.aspectran.aspectow.appmon.engine.schedule;
+
+import com.aspectran.aspectow.appmon.engine.persist.counter.EventCountVO;
+import com.aspectran.aspectow.appmon.engine.persist.counter.PersistJobStats;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test cases for {@link CounterRollupWriter}.
+ *
+ * <p>Created: 2026-10-17</p>
+ */
+class CounterRollupWriterTest {
+
+    private static final long TIMEOUT = 10000L;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRollupsAreWrittenInOrder() throws Exception {
+        List<Long> written = Collections.synchronizedList(new ArrayList<>());
+        CounterRollupWriter writer = new CounterRollupWriter(null,
+                rollup -> written.add(totalOf(rollup)), new PersistJobStats());
+        writer.start();
+        try {
+            for (long i = 1L; i <= 5L; i++) {
+                writer.submit(rollup(i));
+            }
+            assertTrue(writer.flush(TIMEOUT));
+            assertEquals(List.of(1L, 2L, 3L, 4L, 5L), written);
+        } finally {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void testQueueIsBoundedWithoutSpill() throws Exception {
+        List<Long> written = Collections.synchronizedList(new ArrayList<>());
+        List<Long> hourlyDeltas = Collections.synchronizedList(new ArrayList<>());
+        PersistJobStats stats = new PersistJobStats();
+        CounterRollupWriter writer = new CounterRollupWriter(null, rollup -> {
+            written.add(totalOf(rollup));
+            hourlyDeltas.add(rollup.getHourlyEventCounts().get(0).getDelta());
+        }, stats);
+        // Not started yet, so nothing is written while the rollups are queued
+        int submitted = CounterRollupWriter.MAX_QUEUED_ROLLUPS + 8;
+        for (long i = 1L; i <= submitted; i++) {
+            writer.submit(rollup(i));
+        }
+        assertEquals(CounterRollupWriter.MAX_QUEUED_ROLLUPS, stats.getQueuedRollups());
+        writer.start();
+        try {
+            assertTrue(writer.flush(TIMEOUT));
+            List<Long> expected = new ArrayList<>();
+            for (long i = submitted - CounterRollupWriter.MAX_QUEUED_ROLLUPS + 1; i <= submitted; i++) {
+                expected.add(i);
+            }
+            assertEquals(expected, written);
+            // The hourly counts of the rollups merged away are carried by the oldest one kept
+            long merged = submitted - CounterRollupWriter.MAX_QUEUED_ROLLUPS + 1;
+            assertEquals(merged, hourlyDeltas.get(0).longValue());
+            assertEquals(submitted, hourlyDeltas.stream().mapToLong(Long::longValue).sum());
+        } finally {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void testRollupBeingWrittenIsNotDiscarded() throws Exception {
+        List<Long> written = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CounterRollupWriter writer = new CounterRollupWriter(null, rollup -> {
+            long total = totalOf(rollup);
+            if (total == 0L) {
+                writing.countDown();
+                assertTrue(release.await(TIMEOUT, TimeUnit.MILLISECONDS));
+            }
+            written.add(total);
+        }, new PersistJobStats());
+        writer.start();
+        try {
+            writer.submit(rollup(0L));
+            assertTrue(writing.await(TIMEOUT, TimeUnit.MILLISECONDS));
+            int submitted = CounterRollupWriter.MAX_QUEUED_ROLLUPS * 2;
+            for (long i = 1L; i <= submitted; i++) {
+                writer.submit(rollup(i));
+            }
+            release.countDown();
+            assertTrue(writer.flush(TIMEOUT));
+            List<Long> expected = new ArrayList<>();
+            expected.add(0L);
+            for (long i = submitted - CounterRollupWriter.MAX_QUEUED_ROLLUPS + 2; i <= submitted; i++) {
+                expected.add(i);
+            }
+            assertEquals(expected, written);
+        } finally {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void testFailedRollupsAreSpilledAndReplayed() throws Exception {
+        List<Long> written = Collections.synchronizedList(new ArrayList<>());
+        boolean[] available = new boolean[1];
+        PersistJobStats stats = new PersistJobStats();
+        CounterRollupSpill spill = new CounterRollupSpill(tempDir.resolve("rollups"));
+        CounterRollupWriter writer = new CounterRollupWriter(spill, rollup -> {
+            synchronized (available) {
+                if (!available[0]) {
+                    throw new IllegalStateException("Database is not available");
+                }
+            }
+            written.add(totalOf(rollup));
+        }, stats);
+        int submitted = CounterRollupWriter.MAX_QUEUED_ROLLUPS + 3;
+        for (long i = 1L; i <= submitted; i++) {
+            writer.submit(rollup(i));
+        }
+        assertEquals(0, stats.getQueuedRollups());
+        assertEquals(submitted, stats.getSpilledRollups());
+        synchronized (available) {
+            available[0] = true;
+        }
+        writer.start();
+        try {
+            assertTrue(writer.flush(TIMEOUT));
+            List<Long> expected = new ArrayList<>();
+            for (long i = 1L; i <= submitted; i++) {
+                expected.add(i);
+            }
+            assertEquals(expected, written);
+        } finally {
+            writer.stop();
+        }
+    }
+
+    private static CounterRollup rollup(long total) {
+        EventCountVO vo = new EventCountVO();
+        vo.setNodeId("node1");
+        vo.setInstanceId("app");
+        vo.setEventId("activity");
+        vo.setDatetime(LocalDateTime.of(2026, 10, 17, 9, 5).plusMinutes(total));
+        vo.setTotal(total);
+        vo.setDelta(1L);
+        EventCountVO hourly = vo.copyOf(vo.getDatetime().truncatedTo(ChronoUnit.HOURS));
+        return new CounterRollup(List.of(vo), List.of(hourly), List.of());
+    }
+
+    private static long totalOf(CounterRollup rollup) {
+        return rollup.getEventCounts().get(0).getTotal();
+    }
+
+}
@@ -36,7 +36,7 @@ class DashboardChart {
         return $canvas;
     }
 
-    draw(dateUnit, labels, data1, data2) {
+    draw(dateUnit, labels, data1, data2, data3) {
         this.destroy();
         const $canvas = this.ensureCanvas();
 
@@ -150,6 +150,13 @@ class DashboardChart {
                         suggestedMax: 5,
                         stacked: true,
                         grid: { color: "#e4e4e4" }
+                    },
+                    y1: {
+                        display: !!data3,
+                        position: "right",
+                        title: { display: true, text: "p99 (ms)" },
+                        suggestedMin: 0,
+                        grid: { drawOnChartArea: false }
                     }
                 }
             },
@@ -187,6 +194,20 @@ class DashboardChart {
                         showLine: false,
                         pointStyle: false,
                         order: 1
+                    },
+                    {
+                        label: "p99 (ms)",
+                        data: data3 || [],
+                        type: "line",
+                        yAxisID: "y1",
+                        fill: false,
+                        borderWidth: 1.2,
+                        borderColor: "#f5a623",
+                        backgroundColor: "#f5a623",
+                        tension: 0.1,
+                        pointStyle: false,
+                        hidden: !data3,
+                        order: 0
                     }
                 ]
             }
@@ -201,31 +222,37 @@ class DashboardChart {
         }
     }
 
-    setData(labels, data1, data2) {
+    setData(labels, data1, data2, data3) {
         if (this.chart) {
             this.chart.data.labels = labels;
             this.chart.data.datasets[0].data = data1;
             this.chart.data.datasets[1].data = data2;
+            this.chart.data.datasets[2].data = data3 || [];
             this.update();
         }
     }
 
-    rollup(labels, data1, data2) {
+    rollup(labels, data1, data2, data3) {
         if (this.chart) {
             const chartLabels = this.chart.data.labels;
             const chartData1 = this.chart.data.datasets[0].data;
             const chartData2 = this.chart.data.datasets[1].data;
+            const chartData3 = this.chart.data.datasets[2].data;
             if (chartLabels.length > 0) {
                 const lastIndex = chartLabels.length - 1;
                 if (chartLabels[lastIndex] >= labels[0]) {
                     chartLabels.splice(lastIndex, 1);
                     chartData1.splice(lastIndex, 1);
                     chartData2.splice(lastIndex, 1);
+                    chartData3.splice(lastIndex, 1);
                 }
             }
             chartLabels.push(...labels);
             chartData1.push(...data1);
             chartData2.push(...data2);
+            if (data3) {
+                chartData3.push(...data3);
+            }
         }
     }
 